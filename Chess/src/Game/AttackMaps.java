@@ -0,0 +1,145 @@
+package Game;
+/**
+ * Keeps track of which squares each side attacks. For every square it
+ * counts how many pieces of each color attack it, and for each color it
+ * keeps a bitboard of the squares attacked at least once. A square
+ * counts as attacked whether it is empty or holds a piece of either
+ * color, and a sliding piece attacks up to and including the first piece
+ * in each direction. The board adds and removes the attacks of the pieces
+ * that a change affects (see Board.placePiece and Board.makeMove), so the
+ * maps are always up to date and asking whether a square is attacked is
+ * a single mask test.
+ * 
+ * @author Priten Vora
+ *
+ */
+public class AttackMaps {
+
+	private final int squares;		// The number of squares on the board.
+	private final byte[] counts;	// Attackers of each square: white's squares, then black's.
+	private final long[] attacks;	// The squares each color attacks at least once.
+
+	/**
+	 * Constructor for the attack maps of a board with nothing on it.
+	 * 
+	 * @param boardSquares The number of squares on the board (at most Bitboards.MAX_SQUARES).
+	 */
+	public AttackMaps(int boardSquares) {
+		squares = boardSquares;
+		counts = new byte[2 * squares];
+		attacks = new long[2];
+	}
+
+	/**
+	 * Forgets every attack.
+	 */
+	public void clear() {
+		for(int i = 0; i < counts.length; i++) {
+			counts[i] = 0;
+		}
+		attacks[0] = 0L;
+		attacks[1] = 0L;
+	}
+
+	/**
+	 * Adds the attacks of one piece.
+	 * 
+	 * @param color The color of the piece.
+	 * @param targets The squares the piece attacks.
+	 */
+	public void add(Color color, long targets) {
+		int base = color.ordinal() * squares;
+		while(targets != 0) {
+			int square = Long.numberOfTrailingZeros(targets);
+			if(counts[base + square]++ == 0) {
+				attacks[color.ordinal()] |= 1L << square;
+			}
+			targets &= targets - 1;
+		}
+	}
+
+	/**
+	 * Takes away the attacks of one piece, which must have been added
+	 * with exactly the same targets.
+	 * 
+	 * @param color The color of the piece.
+	 * @param targets The squares the piece attacked.
+	 */
+	public void remove(Color color, long targets) {
+		int base = color.ordinal() * squares;
+		while(targets != 0) {
+			int square = Long.numberOfTrailingZeros(targets);
+			if(--counts[base + square] == 0) {
+				attacks[color.ordinal()] &= ~(1L << square);
+			}
+			targets &= targets - 1;
+		}
+	}
+
+	/**
+	 * Returns the squares a color attacks.
+	 * 
+	 * @param color The color of the attacking pieces.
+	 * @return A bitboard of every square attacked at least once.
+	 */
+	public long attacks(Color color) {
+		return attacks[color.ordinal()];
+	}
+
+	/**
+	 * Returns how many pieces of a color attack a square.
+	 * 
+	 * @param color The color of the attacking pieces.
+	 * @param square The index of the square.
+	 * @return The number of attackers.
+	 */
+	public int count(Color color, int square) {
+		return counts[color.ordinal() * squares + square];
+	}
+
+	/**
+	 * Returns whether or not any piece of a color attacks a square.
+	 * 
+	 * @param square The index of the square.
+	 * @param by The color of the attacking pieces.
+	 * @return True if the square is attacked; false otherwise.
+	 */
+	public boolean isAttacked(int square, Color by) {
+		return (attacks[by.ordinal()] & (1L << square)) != 0;
+	}
+
+	/**
+	 * Returns how many bytes of counts save writes per snapshot.
+	 * 
+	 * @return The size of a snapshot's counts.
+	 */
+	public int snapshotSize() {
+		return counts.length;
+	}
+
+	/**
+	 * Copies the maps into the given slot of a pair of snapshot arrays.
+	 * 
+	 * @param savedCounts Where to save the counts (snapshotSize bytes per slot).
+	 * @param savedAttacks Where to save the attacked squares (two longs per slot).
+	 * @param slot Which slot to save into.
+	 */
+	public void save(byte[] savedCounts, long[] savedAttacks, int slot) {
+		System.arraycopy(counts, 0, savedCounts, slot * counts.length, counts.length);
+		savedAttacks[slot * 2] = attacks[0];
+		savedAttacks[slot * 2 + 1] = attacks[1];
+	}
+
+	/**
+	 * Puts the maps back the way they were when saved into the given slot.
+	 * 
+	 * @param savedCounts The saved counts.
+	 * @param savedAttacks The saved attacked squares.
+	 * @param slot Which slot to restore from.
+	 */
+	public void restore(byte[] savedCounts, long[] savedAttacks, int slot) {
+		System.arraycopy(savedCounts, slot * counts.length, counts, 0, counts.length);
+		attacks[0] = savedAttacks[slot * 2];
+		attacks[1] = savedAttacks[slot * 2 + 1];
+	}
+}
\ No newline at end of file
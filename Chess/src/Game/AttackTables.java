@@ -0,0 +1,146 @@
+package Game;
+/**
+ * Precomputed attack sets for the pieces that leap rather than slide:
+ * the knight, the king and the pawn. For every square of a board of a
+ * given size the tables hold a bitmask (see Bitboards) of the squares
+ * that a piece standing there attacks, so move generation becomes a
+ * single array lookup. Tables are built once per board size and then
+ * shared by every board of that size.
+ * 
+ * @author Priten Vora
+ *
+ */
+public class AttackTables {
+
+	private static final int[][] KNIGHT_STEPS =				// Offsets a knight can leap by.
+			{{2, 1}, {1, 2}, {2, -1}, {1, -2}, {-2, 1}, {-1, 2}, {-2, -1}, {-1, -2}};
+	private static final int[][] KING_STEPS =				// Offsets a king can step by.
+			{{0, 1}, {-1, 1}, {1, 1}, {0, -1}, {-1, -1}, {1, -1}, {-1, 0}, {1, 0}};
+	private static final int[][] WHITE_PAWN_ATTACKS = {{1, 1}, {-1, 1}};	// Offsets a white pawn captures by.
+	private static final int[][] BLACK_PAWN_ATTACKS = {{1, -1}, {-1, -1}};	// Offsets a black pawn captures by.
+	private static final int[][] WHITE_PAWN_PUSH = {{0, 1}};				// Offset a white pawn advances by.
+	private static final int[][] BLACK_PAWN_PUSH = {{0, -1}};				// Offset a black pawn advances by.
+
+	private static final AttackTables[][] cache =			// Tables already built, by width and height.
+			new AttackTables[Bitboards.MAX_SQUARES + 1][Bitboards.MAX_SQUARES + 1];
+
+	private final int width;			// The width of the boards these tables are for.
+	private final int height;			// The height of the boards these tables are for.
+	private final long[] knight;		// Squares attacked by a knight on each square.
+	private final long[] king;			// Squares attacked by a king on each square.
+	private final long[][] pawnAttacks;	// Squares attacked by a pawn of each color on each square.
+	private final long[][] pawnPushes;	// The square a pawn of each color on each square advances to.
+
+	/**
+	 * Returns the attack tables for boards of the given size, building
+	 * them the first time they are asked for.
+	 * 
+	 * @param width The width of the board in number of tiles.
+	 * @param height The height of the board in number of tiles.
+	 * @return The attack tables for that board size.
+	 */
+	public static synchronized AttackTables forSize(int width, int height) {
+		if(width * height > Bitboards.MAX_SQUARES) {
+			throw new IllegalArgumentException("Attack tables need a board of at most " + Bitboards.MAX_SQUARES + " squares");
+		}
+		AttackTables tables = cache[width][height];
+		if(tables == null) {
+			tables = new AttackTables(width, height);
+			cache[width][height] = tables;
+		}
+		return tables;
+	}
+
+	/**
+	 * Private constructor - use forSize. Fills in every table for a
+	 * board of the given size.
+	 * 
+	 * @param boardWidth The width of the board in number of tiles.
+	 * @param boardHeight The height of the board in number of tiles.
+	 */
+	private AttackTables(int boardWidth, int boardHeight) {
+		width = boardWidth;
+		height = boardHeight;
+		int squares = width * height;
+		knight = new long[squares];
+		king = new long[squares];
+		pawnAttacks = new long[2][squares];
+		pawnPushes = new long[2][squares];
+		for(int y = 0; y < height; y++) {
+			for(int x = 0; x < width; x++) {
+				int square = y * width + x;
+				knight[square] = bits(x, y, KNIGHT_STEPS);
+				king[square] = bits(x, y, KING_STEPS);
+				pawnAttacks[Color.WHITE.ordinal()][square] = bits(x, y, WHITE_PAWN_ATTACKS);
+				pawnAttacks[Color.BLACK.ordinal()][square] = bits(x, y, BLACK_PAWN_ATTACKS);
+				pawnPushes[Color.WHITE.ordinal()][square] = bits(x, y, WHITE_PAWN_PUSH);
+				pawnPushes[Color.BLACK.ordinal()][square] = bits(x, y, BLACK_PAWN_PUSH);
+			}
+		}
+	}
+
+	/**
+	 * Private helper for the constructor. Collects every square that is
+	 * one of the given steps away from (x, y) and still on the board.
+	 * 
+	 * @param x The horizontal coordinate of the starting square.
+	 * @param y The vertical coordinate of the starting square.
+	 * @param steps The horizontal and vertical offsets to try.
+	 * @return A bitmask of the squares reached.
+	 */
+	private long bits(int x, int y, int[][] steps) {
+		long mask = 0L;
+		for(int[] step : steps) {
+			int toX = x + step[0];
+			int toY = y + step[1];
+			if(toX >= 0 && toX < width && toY >= 0 && toY < height) {
+				mask |= 1L << (toY * width + toX);
+			}
+		}
+		return mask;
+	}
+
+	/**
+	 * Returns the squares attacked by a knight on the given square.
+	 * 
+	 * @param square The square the knight is on.
+	 * @return A bitmask of the attacked squares.
+	 */
+	public long knight(int square) {
+		return knight[square];
+	}
+
+	/**
+	 * Returns the squares attacked by a king on the given square.
+	 * 
+	 * @param square The square the king is on.
+	 * @return A bitmask of the attacked squares.
+	 */
+	public long king(int square) {
+		return king[square];
+	}
+
+	/**
+	 * Returns the squares attacked (diagonally forward) by a pawn of the
+	 * given color on the given square.
+	 * 
+	 * @param color The color of the pawn.
+	 * @param square The square the pawn is on.
+	 * @return A bitmask of the attacked squares.
+	 */
+	public long pawnAttacks(Color color, int square) {
+		return pawnAttacks[color.ordinal()][square];
+	}
+
+	/**
+	 * Returns the square directly in front of a pawn of the given color
+	 * on the given square.
+	 * 
+	 * @param color The color of the pawn.
+	 * @param square The square the pawn is on.
+	 * @return A bitmask with the square ahead of the pawn (empty on the last rank).
+	 */
+	public long pawnPush(Color color, int square) {
+		return pawnPushes[color.ordinal()][square];
+	}
+}
\ No newline at end of file
@@ -0,0 +1,191 @@
+package Game;
+/**
+ * A packed representation of which pieces are on which squares of a
+ * board. Every square is given an index (see Board.squareOf), and each
+ * combination of piece color and piece type gets one long in which bit
+ * i is set if such a piece is standing on square i. Occupancy masks for
+ * each color and for the board as a whole are kept alongside, as is a
+ * small mailbox array for answering "what is on this square" directly.
+ * Only boards with at most 64 squares can be represented this way.
+ * 
+ * @author Priten Vora
+ *
+ */
+public class Bitboards {
+
+	public static final int MAX_SQUARES = 64;	// The most squares a single long can describe.
+	public static final int NONE = -1;			// Mailbox value for an empty square.
+
+	private static final PieceType[] TYPES = PieceType.values();	// Piece types by ordinal.
+
+	private final long[] pieces;	// One bitboard per color and piece type (see index()).
+	private final long[] colors;	// One occupancy bitboard per color.
+	private long occupied;			// Every occupied square on the board.
+	private final int[] mailbox;	// The piece index standing on each square, or NONE.
+
+	/**
+	 * Constructor for the bitboards. Readies an empty position for a
+	 * board with the given number of squares.
+	 * 
+	 * @param squares The number of squares on the board (at most 64).
+	 */
+	public Bitboards(int squares) {
+		if(squares > MAX_SQUARES) {
+			throw new IllegalArgumentException("Bitboards can only hold " + MAX_SQUARES + " squares, not " + squares);
+		}
+		pieces = new long[2 * PieceType.COUNT];
+		colors = new long[2];
+		mailbox = new int[squares];
+		clear();
+	}
+
+	/**
+	 * Returns the index used for pieces of the given color and type.
+	 * 
+	 * @param color The color of the piece.
+	 * @param type The type of the piece.
+	 * @return The index of the piece's bitboard.
+	 */
+	public static int index(Color color, PieceType type) {
+		return color.ordinal() * PieceType.COUNT + type.ordinal();
+	}
+
+	/**
+	 * Returns the color of the piece with the given index.
+	 * 
+	 * @param piece The index of the piece.
+	 * @return The color of the piece.
+	 */
+	public static Color colorOf(int piece) {
+		return (piece < PieceType.COUNT)? Color.WHITE : Color.BLACK;
+	}
+
+	/**
+	 * Returns the type of the piece with the given index.
+	 * 
+	 * @param piece The index of the piece.
+	 * @return The type of the piece.
+	 */
+	public static PieceType typeOf(int piece) {
+		return TYPES[piece % PieceType.COUNT];
+	}
+
+	/**
+	 * Removes every piece from the position.
+	 */
+	public void clear() {
+		for(int i = 0; i < pieces.length; i++) {
+			pieces[i] = 0L;
+		}
+		colors[0] = 0L;
+		colors[1] = 0L;
+		occupied = 0L;
+		for(int i = 0; i < mailbox.length; i++) {
+			mailbox[i] = NONE;
+		}
+	}
+
+	/**
+	 * Puts a piece on an empty square.
+	 * 
+	 * @param piece The index of the piece being placed.
+	 * @param square The square the piece is placed on.
+	 */
+	public void add(int piece, int square) {
+		long bit = 1L << square;
+		pieces[piece] |= bit;
+		colors[piece / PieceType.COUNT] |= bit;
+		occupied |= bit;
+		mailbox[square] = piece;
+	}
+
+	/**
+	 * Takes a piece off of the square it is standing on.
+	 * 
+	 * @param piece The index of the piece being removed.
+	 * @param square The square the piece is standing on.
+	 */
+	public void remove(int piece, int square) {
+		long bit = 1L << square;
+		pieces[piece] &= ~bit;
+		colors[piece / PieceType.COUNT] &= ~bit;
+		occupied &= ~bit;
+		mailbox[square] = NONE;
+	}
+
+	/**
+	 * Moves a piece from one square to another, empty square.
+	 * 
+	 * @param piece The index of the piece being moved.
+	 * @param from The square the piece is standing on.
+	 * @param to The empty square the piece moves to.
+	 */
+	public void move(int piece, int from, int to) {
+		long bits = (1L << from) | (1L << to);
+		pieces[piece] ^= bits;
+		colors[piece / PieceType.COUNT] ^= bits;
+		occupied ^= bits;
+		mailbox[from] = NONE;
+		mailbox[to] = piece;
+	}
+
+	/**
+	 * Returns the bitboard of every piece with the given index.
+	 * 
+	 * @param piece The index of the piece.
+	 * @return The squares holding that kind of piece.
+	 */
+	public long pieces(int piece) {
+		return pieces[piece];
+	}
+
+	/**
+	 * Returns the bitboard of every piece with the given color and type.
+	 * 
+	 * @param color The color of the pieces.
+	 * @param type The type of the pieces.
+	 * @return The squares holding that kind of piece.
+	 */
+	public long pieces(Color color, PieceType type) {
+		return pieces[index(color, type)];
+	}
+
+	/**
+	 * Returns the bitboard of every piece of the given color.
+	 * 
+	 * @param color The color of the pieces.
+	 * @return The squares holding pieces of that color.
+	 */
+	public long occupancy(Color color) {
+		return colors[color.ordinal()];
+	}
+
+	/**
+	 * Returns the bitboard of every occupied square.
+	 * 
+	 * @return The squares holding any piece.
+	 */
+	public long occupied() {
+		return occupied;
+	}
+
+	/**
+	 * Returns the index of the piece on the given square.
+	 * 
+	 * @param square The square to look at.
+	 * @return The index of the piece on the square, or NONE if it is empty.
+	 */
+	public int pieceAt(int square) {
+		return mailbox[square];
+	}
+
+	/**
+	 * Returns whether or not the given square has a piece on it.
+	 * 
+	 * @param square The square to look at.
+	 * @return True if the square is occupied; false otherwise.
+	 */
+	public boolean isOccupied(int square) {
+		return (occupied & (1L << square)) != 0;
+	}
+}
\ No newline at end of file
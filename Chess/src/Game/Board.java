@@ -1,9 +1,22 @@
 package Game;
 import java.util.ArrayList;
+import java.util.Arrays;
+import Game.Eval.NnueAccumulator;
+import Game.Eval.NnueNetwork;
+import Game.Eval.PieceSquareTables;
 import Game.Pieces.*;
 /**
  * A representation of a chess board. Made up of ranks and files of tiles,
- * each of which may or may not be occupied by a piece.
+ * each of which may or may not be occupied by a piece. Boards with up to
+ * 64 squares also keep a packed bitboard copy of the position, and bigger
+ * boards a wide one (see WideBitboards), which is kept in sync with the
+ * tiles whenever a piece is placed or removed. The tiles and pieces act
+ * as a view on top of the bitboards. Once given piece-square tables
+ * (see setPieceSquareTables), a board also keeps running totals of what
+ * its pieces are worth where they stand, so evaluating it costs a few
+ * additions instead of a pass over the pieces. In the same way, a board
+ * given a neural network (see setNetwork) keeps the network's first
+ * layer up to date.
  * 
  * @author Priten Vora
  *
@@ -12,10 +25,55 @@ public class Board {
 
 	protected Tile[][] tiles; 			// A list of all the tiles that make up the board.
 	protected ArrayList<Piece> pieces;	// A list of all the pieces currently on the board.
-	protected boolean isInCheck;		// Whether or not there is a king currently in check.
+	protected Bitboards bitboards;		// Packed copy of the position (null if the board is too big).
+	protected AttackTables attackTables;	// Shared knight, king and pawn attacks for this board size.
+	protected SlidingAttacks slidingAttacks;	// Shared rook, bishop and queen attacks for this board size.
+	protected AttackMaps attackMaps;	// The squares each side attacks (null if the board is too big).
+	protected WideBitboards wideBitboards;	// Packed copy of the position for boards too big for bitboards (null otherwise).
+	protected WideAttackTables wideAttackTables;	// Shared attacks for boards too big for bitboards (null otherwise).
+	protected Color sideToMove;			// The color of the player whose turn it is.
+	protected int castlingRights;		// Which castling moves are still allowed (see CASTLE_*).
+	protected int enPassantSquare;		// The square a pawn can capture en passant onto, or NO_SQUARE.
+	protected int halfmoveClock;		// Moves since the last capture or pawn move (for the 50 move rule).
+	protected int fullmoveNumber;		// The number of the current move, starting at 1.
+	protected long zobristKey;			// Hash key of the current position (see Zobrist).
+	protected PieceSquareTables squareTables;	// The tables the running scores are kept with (null for none).
+	protected int middlegameScore;		// What white's pieces are worth in the middlegame, less black's.
+	protected int endgameScore;			// What white's pieces are worth in the endgame, less black's.
+	protected int phase;				// The phase weights of the pieces on the board, added up.
+	protected NnueAccumulator accumulator;	// The network's first layer for the position (null for none).
 	protected final int width;			// The width of the board (in number of tiles).
 	protected final int height;			// The height of the board (in number of tiles).
 
+	public static final int CASTLE_WHITE_KINGSIDE = 1;	// White may still castle toward the right-hand rook.
+	public static final int CASTLE_WHITE_QUEENSIDE = 2;	// White may still castle toward the left-hand rook.
+	public static final int CASTLE_BLACK_KINGSIDE = 4;	// Black may still castle toward the right-hand rook.
+	public static final int CASTLE_BLACK_QUEENSIDE = 8;	// Black may still castle toward the left-hand rook.
+	public static final int NO_SQUARE = -1;				// Stands for "no square" (e.g. no en passant).
+
+	private static final int INITIAL_HISTORY = 1024;	// Plies the undo stack has room for up front.
+	private static final long[] NO_KEYS = new long[0];	// No earlier hash keys.
+
+	private int ply;					// How many moves have been made (and can be unmade).
+	private int[] undoMoves;			// The move made at each ply.
+	private long[] undoStates;			// Castling rights, en passant square and halfmove clock before each ply.
+	private long[] undoKeys;			// The hash key before each ply.
+	private long[] earlierKeys;			// Hash keys from before the board was copied, oldest first (see isRepetition).
+	private Piece[] undoCaptured;		// The piece captured at each ply, if any.
+	private Piece[] undoPromoted;		// The pawn that was promoted at each ply, if any.
+	private Piece[] spareAtPly;			// A promoted piece taken back at each ply, kept for reuse.
+	private byte[] undoAttackCounts;	// The attack maps' counts before each ply.
+	private long[] undoAttacks;			// The attack maps' attacked squares before each ply.
+	private long[] attacksBefore;		// Scratch space: sliders' attacks before a change, by square.
+	private MoveList scratchMoves;		// Scratch space: moves for findMove and the pieces' canMove.
+	private short[] undoAccumulators;	// The network's accumulators before each ply.
+	private int firstSavedAccumulator;	// The first ply the accumulators were saved at.
+	private Piece[][] spares;			// Pieces clear took off the board, by bitboard index, to reuse.
+	private int[] spareCounts;			// How many spare pieces there are of each kind.
+	private int[] middlegameValues;		// The square tables' middlegame numbers, by piece index and square.
+	private int[] endgameValues;		// The square tables' endgame numbers, by piece index and square.
+	private int[] phaseValues;			// The square tables' phase weights, by piece index.
+
 	/**
 	 * Gets the width and height of the board to be made and readies a
 	 * board with those dimensions.
@@ -24,30 +82,112 @@ public class Board {
 	 * @param height The height of the board in terms of number of tiles.
 	 */
 	public Board(int boardWidth, int boardHeight) {
-		tiles = new Tile[boardWidth][boardHeight];
-		this.initializeTiles(boardWidth, boardHeight);
-		this.initializePieces();
+		this(boardWidth, boardHeight, true);
+	}
+
+	/**
+	 * Makes a copy of another board, with its own tiles and pieces in
+	 * the same position. The copy starts with nothing to unmake, and can
+	 * be used by another thread independently of the original. It does
+	 * remember the positions the original went through since the last
+	 * capture or pawn move, so that it still spots repetitions of them.
+	 * 
+	 * @param original The board to copy.
+	 */
+	public Board(Board original) {
+		this(original.width, original.height, false);
+		setPieceSquareTables(original.squareTables);
+		setNetwork(original.getNetwork());
+		for(Piece piece : original.pieces) {
+			setUpPiece(piece.getType(), piece.getColor(), original.squareOf(piece.getLocation()));
+		}
+		finishSetUp();
+		setSideToMove(original.sideToMove);
+		setCastlingRights(original.castlingRights);
+		setEnPassantSquare(original.enPassantSquare);
+		halfmoveClock = original.halfmoveClock;
+		fullmoveNumber = original.fullmoveNumber;
+		int count = Math.min(original.halfmoveClock, original.ply + original.earlierKeys.length);
+		earlierKeys = new long[count];
+		for(int i = 0; i < count; i++) {
+			earlierKeys[i] = original.keyBefore(original.ply - count + i);
+		}
+	}
+
+	/**
+	 * Private constructor shared by the others. Readies an empty board of
+	 * the given size, and sets up the starting position if asked to. A
+	 * board needs at least two ranks, so that each side has a back rank
+	 * of its own.
+	 * 
+	 * @param boardWidth The width of the board in terms of number of tiles.
+	 * @param boardHeight The height of the board in terms of number of tiles.
+	 * @param setUp True to put the pieces in their starting positions.
+	 */
+	private Board(int boardWidth, int boardHeight, boolean setUp) {
+		if(boardWidth < 1 || boardWidth * boardHeight > Move.MAX_SQUARES) {
+			throw new IllegalArgumentException("Boards must have between 1 and " + Move.MAX_SQUARES + " tiles");
+		}
+		if(boardHeight < 2) {
+			throw new IllegalArgumentException("Boards must have at least 2 ranks");
+		}
 		width = boardWidth;
 		height = boardHeight;
-		isInCheck = false;
+		tiles = new Tile[boardWidth][boardHeight];
+		pieces = new ArrayList<Piece>();
+		spares = new Piece[2 * PieceType.COUNT][];
+		spareCounts = new int[2 * PieceType.COUNT];
+		if(boardWidth * boardHeight <= Bitboards.MAX_SQUARES) {
+			bitboards = new Bitboards(boardWidth * boardHeight);
+			attackTables = AttackTables.forSize(boardWidth, boardHeight);
+			slidingAttacks = SlidingAttacks.forSize(boardWidth, boardHeight);
+			attackMaps = new AttackMaps(boardWidth * boardHeight);
+		}
+		else {
+			wideBitboards = new WideBitboards(boardWidth * boardHeight);
+			wideAttackTables = WideAttackTables.forSize(boardWidth, boardHeight);
+		}
+		sideToMove = Color.WHITE;
+		castlingRights = 0;
+		enPassantSquare = NO_SQUARE;
+		halfmoveClock = 0;
+		fullmoveNumber = 1;
+		zobristKey = Zobrist.dimensions(boardWidth, boardHeight);
+		ply = 0;
+		undoMoves = new int[INITIAL_HISTORY];
+		undoStates = new long[INITIAL_HISTORY];
+		undoKeys = new long[INITIAL_HISTORY];
+		earlierKeys = NO_KEYS;
+		undoCaptured = new Piece[INITIAL_HISTORY];
+		undoPromoted = new Piece[INITIAL_HISTORY];
+		spareAtPly = new Piece[INITIAL_HISTORY];
+		scratchMoves = new MoveList();
+		if(attackMaps != null) {
+			undoAttackCounts = new byte[INITIAL_HISTORY * attackMaps.snapshotSize()];
+			undoAttacks = new long[INITIAL_HISTORY * 2];
+			attacksBefore = new long[boardWidth * boardHeight];
+		}
+		this.initializeTiles(boardWidth, boardHeight);
+		if(setUp) {
+			this.initializePieces();
+			setCastlingRights(CASTLE_WHITE_KINGSIDE | CASTLE_WHITE_QUEENSIDE | CASTLE_BLACK_KINGSIDE | CASTLE_BLACK_QUEENSIDE);
+		}
 	}
 
 	/**
 	 * Private helper for the constructor. Initializes the board to have
 	 * the correct number of tiles in the correct number of ranks and
-	 * files (AKA rows and columns). Tells each tile its x and y values,
-	 * its color, and its proper name by standard chess notation.
+	 * files (AKA rows and columns). Gives each tile the shared location
+	 * of its square, which knows its x and y values, its color, and its
+	 * proper name by standard chess notation.
 	 * 
 	 * @param width The number of files (columns) of tiles on the board.
 	 * @param height The number of ranks (rows) of tiles on the board.
 	 */
 	private void initializeTiles(int width, int height) {
-		Color tileColor = Color.BLACK;
 		for(int x = 0; x < width; x++) {
 			for(int y = 0; y < height; y++) {
-				Location newTile = new Location(x, y);
-				tiles[x][y] = new Tile(newTile, tileColor, newTile.toString());
-				tileColor = tileColor.other();
+				tiles[x][y] = new Tile(Location.of(x, y));
 			}
 		}
 	}
@@ -58,19 +198,1169 @@ public class Board {
 	 * and places the pawns for both sides, then each of the individual
 	 * minor and major pieces. For each piece created, the tile that the
 	 * piece is placed on is told that it now has a piece on it, and also
-	 * what piece it is, complete with the color of the piece.
+	 * what piece it is, complete with the color of the piece. Boards
+	 * that are wider or narrower than eight files keep the rooks in the
+	 * corners and the king and queen in the middle, and fill the files
+	 * in between with knights and bishops.
 	 * 
 	 */
-	// TODO: NOT YET COMPLETE
 	private void initializePieces() {
-		Color pieceColor = Color.WHITE;
+		if(height >= 4) {
+			for(int x = 0; x < width; x++) {
+				setUpPiece(PieceType.PAWN, Color.WHITE, squareOf(x, 1));
+				setUpPiece(PieceType.PAWN, Color.BLACK, squareOf(x, height - 2));
+			}
+		}
 		for(int x = 0; x < width; x++) {
-			Pawn whitePawn = new Pawn(pieceColor);
-			tiles[x][1].setPiece(whitePawn);
-			pieceColor = pieceColor.other();
-			Pawn blackPawn = new Pawn(pieceColor);
-			tiles[x][6].setPiece(blackPawn);
+			PieceType type = backRankType(x);
+			setUpPiece(type, Color.WHITE, squareOf(x, 0));
+			setUpPiece(type, Color.BLACK, squareOf(x, height - 1));
+		}
+		finishSetUp();
+	}
+
+	/**
+	 * Puts a piece of the given type and color on an empty square while
+	 * setting up a position, reusing one of the pieces clear took off
+	 * the board if there is one. Setting up this way skips the attack
+	 * maps, which are rebuilt all at once by finishSetUp; call it once
+	 * every piece is on the board and before using the board.
+	 * 
+	 * @param type The type of the piece.
+	 * @param color The color of the piece.
+	 * @param square The index of the empty square (see squareOf).
+	 */
+	void setUpPiece(PieceType type, Color color, int square) {
+		int index = Bitboards.index(color, type);
+		Piece piece = (spareCounts[index] > 0)? spares[index][--spareCounts[index]] : createPiece(type, color);
+		putPiece(piece, getTile(square));
+	}
+
+	/**
+	 * Finishes setting up a position with setUpPiece, by working the
+	 * attack maps out from scratch.
+	 */
+	void finishSetUp() {
+		if(attackMaps == null) {
+			return;
+		}
+		attackMaps.clear();
+		long occupied = bitboards.occupied();
+		for(long squares = occupied; squares != 0; squares &= squares - 1) {
+			int square = Long.numberOfTrailingZeros(squares);
+			int piece = bitboards.pieceAt(square);
+			attackMaps.add(Bitboards.colorOf(piece), attacksFrom(piece, square, occupied));
+		}
+	}
+
+	/**
+	 * Private helper for clear. Keeps a piece that was taken off the
+	 * board so that setUpPiece can use it again.
+	 * 
+	 * @param piece The piece, which must not be on any board.
+	 */
+	private void keepSpare(Piece piece) {
+		int index = Bitboards.index(piece.getColor(), piece.getType());
+		if(spares[index] == null) {
+			spares[index] = new Piece[Math.max(8, width)];
+		}
+		else if(spareCounts[index] == spares[index].length) {
+			spares[index] = Arrays.copyOf(spares[index], spareCounts[index] * 2);
+		}
+		spares[index][spareCounts[index]++] = piece;
+	}
+
+	/**
+	 * Private helper for initializePieces. Returns which type of piece
+	 * starts on the given file of the back rank.
+	 * 
+	 * @param x The file of the back rank in question.
+	 * @return The type of piece that starts on that file.
+	 */
+	private PieceType backRankType(int x) {
+		int kingFile = width / 2;
+		if(x == kingFile) {
+			return PieceType.KING;
+		}
+		if(x == kingFile - 1) {
+			return PieceType.QUEEN;
+		}
+		if(x == 0 || x == width - 1) {
+			return PieceType.ROOK;
+		}
+		// Mirror the right-hand side onto the left so both sides match.
+		int fromEdge = (x < kingFile)? x : (width - 1 - x);
+		return (fromEdge % 2 == 1)? PieceType.KNIGHT : PieceType.BISHOP;
+	}
+
+	/**
+	 * Creates a new piece of the given type and color.
+	 * 
+	 * @param type The type of the piece to create.
+	 * @param color The color of the piece to create.
+	 * @return The newly created piece.
+	 */
+	public static Piece createPiece(PieceType type, Color color) {
+		switch(type) {
+			case PAWN:
+				return new Pawn(color);
+			case KNIGHT:
+				return new Knight(color);
+			case BISHOP:
+				return new Bishop(color);
+			case ROOK:
+				return new Rook(color);
+			case QUEEN:
+				return new Queen(color);
+			default:
+				return new King(color);
+		}
+	}
+
+	/**
+	 * Places a piece on an empty tile of the board. The tile, the piece,
+	 * the list of pieces, the bitboards and the attack maps are all
+	 * updated together.
+	 * 
+	 * @param piece The piece to place on the board.
+	 * @param tile The empty tile to place the piece on.
+	 */
+	public void placePiece(Piece piece, Tile tile) {
+		long changed = (attackMaps != null)? 1L << squareOf(tile) : 0L;
+		long unaffected = beginAttackUpdate(changed);
+		putPiece(piece, tile);
+		endAttackUpdate(unaffected, changed);
+	}
+
+	/**
+	 * Removes whatever piece is on the given tile from the board. The
+	 * tile, the piece, the list of pieces, the bitboards and the attack
+	 * maps are all updated together.
+	 * 
+	 * @param tile The tile to clear.
+	 * @return The piece that was removed; null if the tile was empty.
+	 */
+	public Piece removePiece(Tile tile) {
+		if(tile.getPiece() == null) {
+			return null;
+		}
+		long changed = (attackMaps != null)? 1L << squareOf(tile) : 0L;
+		long unaffected = beginAttackUpdate(changed);
+		Piece piece = takePiece(tile);
+		endAttackUpdate(unaffected, changed);
+		return piece;
+	}
+
+	/**
+	 * Private helper. Places a piece on an empty tile, updating the tile,
+	 * the piece, the list of pieces and the bitboards but not the attack
+	 * maps.
+	 * 
+	 * @param piece The piece to place on the board.
+	 * @param tile The empty tile to place the piece on.
+	 */
+	private void putPiece(Piece piece, Tile tile) {
+		tile.setPiece(piece);
+		piece.currentTile = tile;
+		piece.board = this;
+		pieces.add(piece);
+		int index = Bitboards.index(piece.getColor(), piece.getType());
+		int square = squareOf(tile);
+		zobristKey ^= Zobrist.piece(index, square);
+		if(bitboards != null) {
+			bitboards.add(index, square);
+		}
+		else {
+			wideBitboards.add(index, square);
+		}
+		if(squareTables != null) {
+			middlegameScore += middlegameValues[index * width * height + square];
+			endgameScore += endgameValues[index * width * height + square];
+			phase += phaseValues[index];
+		}
+		if(accumulator != null) {
+			accumulator.add(index, square);
+		}
+	}
+
+	/**
+	 * Private helper. Removes whatever piece is on the given tile,
+	 * updating the tile, the piece, the list of pieces and the bitboards
+	 * but not the attack maps.
+	 * 
+	 * @param tile The tile to clear.
+	 * @return The piece that was removed; null if the tile was empty.
+	 */
+	private Piece takePiece(Tile tile) {
+		Piece piece = tile.getPiece();
+		if(piece == null) {
+			return null;
+		}
+		tile.setPiece(null);
+		piece.currentTile = null;
+		piece.board = null;
+		pieces.remove(piece);
+		int index = Bitboards.index(piece.getColor(), piece.getType());
+		int square = squareOf(tile);
+		zobristKey ^= Zobrist.piece(index, square);
+		if(bitboards != null) {
+			bitboards.remove(index, square);
+		}
+		else {
+			wideBitboards.remove(index, square);
+		}
+		if(squareTables != null) {
+			middlegameScore -= middlegameValues[index * width * height + square];
+			endgameScore -= endgameValues[index * width * height + square];
+			phase -= phaseValues[index];
+		}
+		if(accumulator != null) {
+			accumulator.remove(index, square);
+		}
+		return piece;
+	}
+
+	/**
+	 * Makes a move on the board, updating the tiles, the pieces, the
+	 * bitboards and the rest of the position (castling rights, the en
+	 * passant square, the clocks and whose turn it is). The move must be
+	 * one generated for this position; it is not checked. Enough is saved
+	 * on the undo stack for unmakeMove to put everything back.
+	 * 
+	 * @param move The packed move to make (see Move).
+	 */
+	public void makeMove(int move) {
+		int from = Move.from(move);
+		int to = Move.to(move);
+		Tile fromTile = getTile(from);
+		Piece mover = fromTile.getPiece();
+		Color us = mover.getColor();
+
+		// Save the parts of the position that can't be worked out from the move itself.
+		if(ply == undoMoves.length) {
+			growHistory();
+		}
+		undoMoves[ply] = move;
+		undoStates[ply] = packState();
+		undoKeys[ply] = zobristKey;
+		undoPromoted[ply] = null;
+		if(accumulator != null) {
+			accumulator.save(undoAccumulators, ply);
+		}
+		int capturedSquare = Move.is(move, Move.EN_PASSANT)? ((us == Color.WHITE)? to - width : to + width) : to;
+		int rookFrom = NO_SQUARE;
+		int rookTo = NO_SQUARE;
+		if(Move.is(move, Move.CASTLE)) {
+			int rank = from - from % width;
+			rookFrom = (to > from)? rank + width - 1 : rank;
+			rookTo = (to > from)? to - 1 : to + 1;
+		}
+
+		// Only the pieces on the squares that change and the sliders looking at them attack anything new.
+		long changed = 0L;
+		if(attackMaps != null) {
+			attackMaps.save(undoAttackCounts, undoAttacks, ply);
+			changed = (1L << from) | (1L << to) | (1L << capturedSquare);
+			if(rookFrom != NO_SQUARE) {
+				changed |= (1L << rookFrom) | (1L << rookTo);
+			}
+		}
+		long unaffected = beginAttackUpdate(changed);
+
+		// Take off whatever is being captured.
+		Piece captured = null;
+		if(Move.is(move, Move.CAPTURE) || Move.is(move, Move.EN_PASSANT)) {
+			captured = takePiece(getTile(capturedSquare));
+		}
+		undoCaptured[ply] = captured;
+
+		// Move the piece itself, turning a promoting pawn into its new piece.
+		shiftPiece(from, to);
+		PieceType promotion = Move.promotion(move);
+		if(promotion != null) {
+			undoPromoted[ply] = takePiece(getTile(to));
+			Piece promoted = spareAtPly[ply];
+			if(promoted == null || promoted.getType() != promotion || promoted.getColor() != us) {
+				promoted = createPiece(promotion, us);
+			}
+			spareAtPly[ply] = null;
+			putPiece(promoted, getTile(to));
+		}
+
+		// Bring the rook across when castling.
+		if(rookFrom != NO_SQUARE) {
+			shiftPiece(rookFrom, rookTo);
+		}
+		endAttackUpdate(unaffected, changed);
+
+		// Update the rest of the position, and its hash key along with it.
+		zobristKey ^= Zobrist.castling(castlingRights);
+		castlingRights &= ~(castlingLostBy(from) | castlingLostBy(to));
+		zobristKey ^= Zobrist.castling(castlingRights);
+		if(enPassantSquare != NO_SQUARE) {
+			zobristKey ^= Zobrist.enPassant(enPassantSquare % width);
+		}
+		enPassantSquare = Move.is(move, Move.DOUBLE_PUSH)? (from + to) / 2 : NO_SQUARE;
+		if(enPassantSquare != NO_SQUARE) {
+			zobristKey ^= Zobrist.enPassant(enPassantSquare % width);
+		}
+		if(mover.getType() == PieceType.PAWN || captured != null) {
+			halfmoveClock = 0;
+		}
+		else {
+			halfmoveClock++;
+		}
+		if(us == Color.BLACK) {
+			fullmoveNumber++;
+		}
+		sideToMove = us.other();
+		zobristKey ^= Zobrist.blackToMove();
+		ply++;
+	}
+
+	/**
+	 * Takes back the last move made with makeMove, restoring the board
+	 * to exactly how it was before the move.
+	 */
+	public void unmakeMove() {
+		ply--;
+		int move = undoMoves[ply];
+		int from = Move.from(move);
+		int to = Move.to(move);
+		// The network's accumulators are copied back at the end instead of being updated piece by
+		// piece, unless the move was made before the board had them.
+		NnueAccumulator saved = accumulator;
+		boolean restoreAccumulator = saved != null && ply >= firstSavedAccumulator;
+		if(restoreAccumulator) {
+			accumulator = null;
+		}
+		sideToMove = sideToMove.other();
+		Color us = sideToMove;
+		if(us == Color.BLACK) {
+			fullmoveNumber--;
+		}
+		unpackState(undoStates[ply]);
+
+		// Put the rook back when castling.
+		if(Move.is(move, Move.CASTLE)) {
+			int rank = from - from % width;
+			if(to > from) {
+				shiftPiece(to - 1, rank + width - 1);
+			}
+			else {
+				shiftPiece(to + 1, rank);
+			}
+		}
+
+		// Turn a promoted piece back into its pawn, keeping the piece for next time.
+		if(undoPromoted[ply] != null) {
+			spareAtPly[ply] = takePiece(getTile(to));
+			putPiece(undoPromoted[ply], getTile(to));
+			undoPromoted[ply] = null;
+		}
+		shiftPiece(to, from);
+
+		// Put back whatever was captured.
+		Piece captured = undoCaptured[ply];
+		if(captured != null) {
+			int capturedSquare = to;
+			if(Move.is(move, Move.EN_PASSANT)) {
+				capturedSquare = (us == Color.WHITE)? to - width : to + width;
+			}
+			putPiece(captured, getTile(capturedSquare));
+			undoCaptured[ply] = null;
+		}
+		zobristKey = undoKeys[ply];
+		if(attackMaps != null) {
+			attackMaps.restore(undoAttackCounts, undoAttacks, ply);
+		}
+		if(restoreAccumulator) {
+			accumulator = saved;
+			accumulator.restore(undoAccumulators, ply);
+		}
+		else {
+			firstSavedAccumulator = Math.min(firstSavedAccumulator, ply);
+		}
+	}
+
+	/**
+	 * Private helper for makeMove and unmakeMove. Moves a piece to an
+	 * empty square, without changing the list of pieces on the board.
+	 * 
+	 * @param from The square the piece is on.
+	 * @param to The empty square to move it to.
+	 */
+	private void shiftPiece(int from, int to) {
+		Tile fromTile = getTile(from);
+		Tile toTile = getTile(to);
+		Piece piece = fromTile.getPiece();
+		fromTile.setPiece(null);
+		toTile.setPiece(piece);
+		piece.currentTile = toTile;
+		int index = Bitboards.index(piece.getColor(), piece.getType());
+		zobristKey ^= Zobrist.piece(index, from) ^ Zobrist.piece(index, to);
+		if(bitboards != null) {
+			bitboards.move(index, from, to);
+		}
+		else {
+			wideBitboards.move(index, from, to);
+		}
+		if(squareTables != null) {
+			int offset = index * width * height;
+			middlegameScore += middlegameValues[offset + to] - middlegameValues[offset + from];
+			endgameScore += endgameValues[offset + to] - endgameValues[offset + from];
+		}
+		if(accumulator != null) {
+			accumulator.move(index, from, to);
+		}
+	}
+
+	/**
+	 * Private helper. Starts updating the attack maps for a change to the
+	 * pieces on some squares. Only the pieces on the changed squares and
+	 * the sliding pieces that can see one of them can attack anything
+	 * different afterwards. The attacks of the first are taken away; the
+	 * attacks of the second are noted, so that endAttackUpdate only has
+	 * to apply the difference. Call endAttackUpdate once the pieces have
+	 * been changed.
+	 * 
+	 * @param changed The squares whose contents are about to change (0 if the board has no attack maps).
+	 * @return The affected pieces that are not on a changed square, for endAttackUpdate.
+	 */
+	private long beginAttackUpdate(long changed) {
+		if(changed == 0) {
+			return 0L;
+		}
+		long occupied = bitboards.occupied();
+		long queens = bitboards.pieces(Color.WHITE, PieceType.QUEEN) | bitboards.pieces(Color.BLACK, PieceType.QUEEN);
+		long straight = bitboards.pieces(Color.WHITE, PieceType.ROOK) | bitboards.pieces(Color.BLACK, PieceType.ROOK) | queens;
+		long diagonal = bitboards.pieces(Color.WHITE, PieceType.BISHOP) | bitboards.pieces(Color.BLACK, PieceType.BISHOP) | queens;
+		long affected = changed & occupied;
+		for(long squares = changed; squares != 0; squares &= squares - 1) {
+			int square = Long.numberOfTrailingZeros(squares);
+			affected |= (slidingAttacks.rook(square, occupied) & straight) | (slidingAttacks.bishop(square, occupied) & diagonal);
+		}
+		for(long squares = affected; squares != 0; squares &= squares - 1) {
+			int square = Long.numberOfTrailingZeros(squares);
+			int piece = bitboards.pieceAt(square);
+			long attacks = attacksFrom(piece, square, occupied);
+			if((changed & (1L << square)) != 0) {
+				attackMaps.remove(Bitboards.colorOf(piece), attacks);
+			}
+			else {
+				attacksBefore[square] = attacks;
+			}
+		}
+		return affected & ~changed;
+	}
+
+	/**
+	 * Private helper. Finishes updating the attack maps after a change
+	 * started with beginAttackUpdate, by applying the difference in the
+	 * attacks of the sliding pieces it noted and adding the attacks of
+	 * whatever is now on the changed squares.
+	 * 
+	 * @param unaffected What beginAttackUpdate returned.
+	 * @param changed The squares whose contents changed (0 if the board has no attack maps).
+	 */
+	private void endAttackUpdate(long unaffected, long changed) {
+		if(changed == 0) {
+			return;
+		}
+		long occupied = bitboards.occupied();
+		for(long squares = unaffected; squares != 0; squares &= squares - 1) {
+			int square = Long.numberOfTrailingZeros(squares);
+			int piece = bitboards.pieceAt(square);
+			long before = attacksBefore[square];
+			long after = attacksFrom(piece, square, occupied);
+			attackMaps.remove(Bitboards.colorOf(piece), before & ~after);
+			attackMaps.add(Bitboards.colorOf(piece), after & ~before);
+		}
+		for(long squares = changed & occupied; squares != 0; squares &= squares - 1) {
+			int square = Long.numberOfTrailingZeros(squares);
+			int piece = bitboards.pieceAt(square);
+			attackMaps.add(Bitboards.colorOf(piece), attacksFrom(piece, square, occupied));
+		}
+	}
+
+	/**
+	 * Private helper. Returns the squares a piece attacks.
+	 * 
+	 * @param piece The piece's bitboard index (see Bitboards.index).
+	 * @param square The square it is on.
+	 * @param occupied The squares holding any piece.
+	 * @return The attacked squares.
+	 */
+	private long attacksFrom(int piece, int square, long occupied) {
+		switch(Bitboards.typeOf(piece)) {
+			case PAWN:
+				return attackTables.pawnAttacks(Bitboards.colorOf(piece), square);
+			case KNIGHT:
+				return attackTables.knight(square);
+			case BISHOP:
+				return slidingAttacks.bishop(square, occupied);
+			case ROOK:
+				return slidingAttacks.rook(square, occupied);
+			case QUEEN:
+				return slidingAttacks.queen(square, occupied);
+			default:
+				return attackTables.king(square);
+		}
+	}
+
+	/**
+	 * Private helper for makeMove. Returns the castling rights that are
+	 * lost when a piece moves from or to the given square - moving a king
+	 * or rook off its starting square, or capturing a rook on it.
+	 * 
+	 * @param square The square a piece moved from or to.
+	 * @return The castling rights lost (see CASTLE_*).
+	 */
+	private int castlingLostBy(int square) {
+		int kingFile = width / 2;
+		int lastRank = (height - 1) * width;
+		if(square == kingFile) {
+			return CASTLE_WHITE_KINGSIDE | CASTLE_WHITE_QUEENSIDE;
+		}
+		if(square == lastRank + kingFile) {
+			return CASTLE_BLACK_KINGSIDE | CASTLE_BLACK_QUEENSIDE;
+		}
+		if(square == 0) {
+			return CASTLE_WHITE_QUEENSIDE;
+		}
+		if(square == width - 1) {
+			return CASTLE_WHITE_KINGSIDE;
+		}
+		if(square == lastRank) {
+			return CASTLE_BLACK_QUEENSIDE;
+		}
+		if(square == lastRank + width - 1) {
+			return CASTLE_BLACK_KINGSIDE;
+		}
+		return 0;
+	}
+
+	/**
+	 * Private helper. Packs the castling rights, en passant square and
+	 * halfmove clock into a single long for the undo stack.
+	 * 
+	 * @return The packed state.
+	 */
+	private long packState() {
+		return castlingRights | ((long)(enPassantSquare + 1) << 4) | ((long)halfmoveClock << 16);
+	}
+
+	/**
+	 * Private helper. Restores the castling rights, en passant square and
+	 * halfmove clock from a long made by packState.
+	 * 
+	 * @param state The packed state.
+	 */
+	private void unpackState(long state) {
+		castlingRights = (int)(state & 0xF);
+		enPassantSquare = (int)((state >>> 4) & 0x1FF) - 1;
+		halfmoveClock = (int)(state >>> 16);
+	}
+
+	/**
+	 * Private helper for makeMove. Doubles the room on the undo stack.
+	 */
+	private void growHistory() {
+		int size = undoMoves.length * 2;
+		undoMoves = Arrays.copyOf(undoMoves, size);
+		undoStates = Arrays.copyOf(undoStates, size);
+		undoKeys = Arrays.copyOf(undoKeys, size);
+		undoCaptured = Arrays.copyOf(undoCaptured, size);
+		undoPromoted = Arrays.copyOf(undoPromoted, size);
+		spareAtPly = Arrays.copyOf(spareAtPly, size);
+		if(attackMaps != null) {
+			undoAttackCounts = Arrays.copyOf(undoAttackCounts, size * attackMaps.snapshotSize());
+			undoAttacks = Arrays.copyOf(undoAttacks, size * 2);
+		}
+		if(accumulator != null) {
+			undoAccumulators = Arrays.copyOf(undoAccumulators, size * accumulator.snapshotSize());
+		}
+	}
+
+	/**
+	 * Finds the legal move that takes the piece on one tile to another,
+	 * promoting to a queen if it is a pawn reaching the last rank.
+	 * 
+	 * @param from The tile the piece is on.
+	 * @param to The tile the piece would move to.
+	 * @return The packed move; Move.NONE if there is no such legal move.
+	 */
+	public int findMove(Tile from, Tile to) {
+		MoveList moves = scratchMoves();
+		MoveGenerator.generateLegal(this, moves);
+		int fromSquare = squareOf(from);
+		int toSquare = squareOf(to);
+		for(int i = 0; i < moves.size(); i++) {
+			int move = moves.get(i);
+			if(Move.from(move) == fromSquare && Move.to(move) == toSquare) {
+				PieceType promotion = Move.promotion(move);
+				if(promotion == null || promotion == PieceType.QUEEN) {
+					return move;
+				}
+			}
+		}
+		return Move.NONE;
+	}
+
+	/**
+	 * Returns a move list for the board's own short-lived use, emptied
+	 * first. There is only one, so it must be done with before the next
+	 * call.
+	 * 
+	 * @return The empty list.
+	 */
+	MoveList scratchMoves() {
+		scratchMoves.clear();
+		return scratchMoves;
+	}
+
+	/**
+	 * Sets up a new game on the board: puts the pieces back in their
+	 * starting positions and resets the rest of the position. The board
+	 * keeps its tiles and reuses its pieces, so starting a new game this
+	 * way costs far less than making a new board.
+	 */
+	public void reset() {
+		clear();
+		initializePieces();
+		setCastlingRights(CASTLE_WHITE_KINGSIDE | CASTLE_WHITE_QUEENSIDE | CASTLE_BLACK_KINGSIDE | CASTLE_BLACK_QUEENSIDE);
+	}
+
+	/**
+	 * Takes every piece off the board and resets the rest of the
+	 * position: white to move, no castling rights, no en passant square,
+	 * the clocks back at the start and nothing left to unmake. Used to
+	 * set up a position from scratch. The pieces taken off are kept to
+	 * be reused by the next position set up on the board.
+	 */
+	public void clear() {
+		for(int i = 0; i < pieces.size(); i++) {
+			Piece piece = pieces.get(i);
+			piece.currentTile.setPiece(null);
+			piece.currentTile = null;
+			piece.board = null;
+			keepSpare(piece);
+		}
+		pieces.clear();
+		if(bitboards != null) {
+			bitboards.clear();
+			attackMaps.clear();
+		}
+		else {
+			wideBitboards.clear();
+		}
+		sideToMove = Color.WHITE;
+		castlingRights = 0;
+		enPassantSquare = NO_SQUARE;
+		halfmoveClock = 0;
+		fullmoveNumber = 1;
+		zobristKey = Zobrist.dimensions(width, height);
+		middlegameScore = 0;
+		endgameScore = 0;
+		phase = 0;
+		if(accumulator != null) {
+			accumulator.clear();
 		}
+		firstSavedAccumulator = 0;
+		for(int i = 0; i < ply; i++) {
+			undoCaptured[i] = null;
+			undoPromoted[i] = null;
+		}
+		ply = 0;
+		earlierKeys = NO_KEYS;
+	}
+
+	/**
+	 * Sets which castling moves are allowed.
+	 * 
+	 * @param rights The castling rights, as CASTLE_* flags or'ed together.
+	 */
+	public void setCastlingRights(int rights) {
+		zobristKey ^= Zobrist.castling(castlingRights) ^ Zobrist.castling(rights);
+		castlingRights = rights;
+	}
+
+	/**
+	 * Sets the square a pawn can capture en passant onto this turn.
+	 * 
+	 * @param square The index of the square; NO_SQUARE if there is none.
+	 */
+	public void setEnPassantSquare(int square) {
+		if(enPassantSquare != NO_SQUARE) {
+			zobristKey ^= Zobrist.enPassant(enPassantSquare % width);
+		}
+		enPassantSquare = square;
+		if(enPassantSquare != NO_SQUARE) {
+			zobristKey ^= Zobrist.enPassant(enPassantSquare % width);
+		}
+	}
+
+	/**
+	 * Sets the number of moves made since the last capture or pawn move.
+	 * 
+	 * @param clock The halfmove clock.
+	 */
+	public void setHalfmoveClock(int clock) {
+		halfmoveClock = clock;
+	}
+
+	/**
+	 * Sets the number of the current move.
+	 * 
+	 * @param number The fullmove number.
+	 */
+	public void setFullmoveNumber(int number) {
+		fullmoveNumber = number;
+	}
+
+	/**
+	 * Returns the 64-bit hash key of the current position. The key is
+	 * kept up to date as pieces are placed, moved and captured and as
+	 * castling and en passant rights change, so this costs nothing.
+	 * 
+	 * @return The hash key of the position (see Zobrist).
+	 */
+	public long getZobristKey() {
+		return zobristKey;
+	}
+
+	/**
+	 * Sets the tables the board keeps its running scores with, and works
+	 * the scores out from scratch for the pieces on the board. From then
+	 * on they are kept up to date as pieces are placed, moved and
+	 * captured, and copies of the board keep them too.
+	 * 
+	 * @param tables The tables (null to stop keeping scores).
+	 */
+	public void setPieceSquareTables(PieceSquareTables tables) {
+		squareTables = tables;
+		middlegameScore = 0;
+		endgameScore = 0;
+		phase = 0;
+		if(tables == null) {
+			middlegameValues = null;
+			endgameValues = null;
+			phaseValues = null;
+			return;
+		}
+		int[][] numbers = tables.forSize(width, height);
+		middlegameValues = numbers[0];
+		endgameValues = numbers[1];
+		phaseValues = new int[2 * PieceType.COUNT];
+		for(PieceType type : PieceType.values()) {
+			phaseValues[Bitboards.index(Color.WHITE, type)] = tables.phase(type);
+			phaseValues[Bitboards.index(Color.BLACK, type)] = tables.phase(type);
+		}
+		for(int i = 0; i < pieces.size(); i++) {
+			Piece piece = pieces.get(i);
+			int index = Bitboards.index(piece.getColor(), piece.getType());
+			int square = squareOf(piece.getLocation());
+			middlegameScore += middlegameValues[index * width * height + square];
+			endgameScore += endgameValues[index * width * height + square];
+			phase += phaseValues[index];
+		}
+	}
+
+	/**
+	 * Returns the tables the board keeps its running scores with.
+	 * 
+	 * @return The tables, or null if the board keeps no scores.
+	 */
+	public PieceSquareTables getPieceSquareTables() {
+		return squareTables;
+	}
+
+	/**
+	 * Returns what white's pieces are worth in the middlegame, less what
+	 * black's are, by the board's piece-square tables.
+	 * 
+	 * @return The middlegame score in centipawns (0 if the board keeps no scores).
+	 */
+	public int getMiddlegameScore() {
+		return middlegameScore;
+	}
+
+	/**
+	 * Returns what white's pieces are worth in the endgame, less what
+	 * black's are, by the board's piece-square tables.
+	 * 
+	 * @return The endgame score in centipawns (0 if the board keeps no scores).
+	 */
+	public int getEndgameScore() {
+		return endgameScore;
+	}
+
+	/**
+	 * Returns the phase weights of every piece on the board added up, by
+	 * the board's piece-square tables: how far from an endgame it is.
+	 * 
+	 * @return The phase (0 if the board keeps no scores).
+	 */
+	public int getPhase() {
+		return phase;
+	}
+
+	/**
+	 * Sets the neural network the board keeps the first layer of, and
+	 * works it out from scratch for the pieces on the board. From then on
+	 * it is kept up to date as pieces are placed, moved and captured, and
+	 * copies of the board keep one too.
+	 * 
+	 * @param network The network (null to stop keeping one).
+	 * @throws IllegalArgumentException If the network is for another size of board.
+	 */
+	public void setNetwork(NnueNetwork network) {
+		if(network == null) {
+			accumulator = null;
+			undoAccumulators = null;
+			return;
+		}
+		if(network.getWidth() != width || network.getHeight() != height) {
+			throw new IllegalArgumentException("The network is for " + network.getWidth() + "x" + network.getHeight()
+					+ " boards, not " + width + "x" + height);
+		}
+		accumulator = new NnueAccumulator(network);
+		undoAccumulators = new short[undoMoves.length * accumulator.snapshotSize()];
+		firstSavedAccumulator = ply;
+		for(int i = 0; i < pieces.size(); i++) {
+			Piece piece = pieces.get(i);
+			accumulator.add(Bitboards.index(piece.getColor(), piece.getType()), squareOf(piece.getLocation()));
+		}
+	}
+
+	/**
+	 * Returns the neural network the board keeps the first layer of.
+	 * 
+	 * @return The network, or null if the board keeps none.
+	 */
+	public NnueNetwork getNetwork() {
+		return (accumulator != null)? accumulator.getNetwork() : null;
+	}
+
+	/**
+	 * Returns the first layer of the board's neural network for the
+	 * position on the board.
+	 * 
+	 * @return The accumulators, or null if the board keeps none.
+	 */
+	public NnueAccumulator getAccumulator() {
+		return accumulator;
+	}
+
+	/**
+	 * Returns how many moves have been made on the board that can still
+	 * be taken back with unmakeMove.
+	 * 
+	 * @return The number of moves on the undo stack.
+	 */
+	public int getPly() {
+		return ply;
+	}
+
+	/**
+	 * Returns whether or not the current position has already occurred
+	 * since the last capture or pawn move, going by the moves still on
+	 * the undo stack (and, for a copy, the positions the original board
+	 * went through before it was copied).
+	 * 
+	 * @return True if the position is a repetition; false otherwise.
+	 */
+	public boolean isRepetition() {
+		int oldest = Math.max(-earlierKeys.length, ply - halfmoveClock);
+		for(int i = ply - 2; i >= oldest; i -= 2) {
+			if(keyBefore(i) == zobristKey) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns how many times the current position has already occurred
+	 * since the last capture or pawn move, going by the moves still on
+	 * the undo stack (and, for a copy, the positions the original board
+	 * went through before it was copied).
+	 * 
+	 * @return The number of earlier occurrences (0 if the position is new).
+	 */
+	public int countRepetitions() {
+		int count = 0;
+		int oldest = Math.max(-earlierKeys.length, ply - halfmoveClock);
+		for(int i = ply - 2; i >= oldest; i -= 2) {
+			if(keyBefore(i) == zobristKey) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Private helper. Returns the hash key of the position before a ply.
+	 * 
+	 * @param ply The ply; negative plies count back into the keys from
+	 *        before the board was copied.
+	 * @return The hash key.
+	 */
+	private long keyBefore(int ply) {
+		return (ply >= 0)? undoKeys[ply] : earlierKeys[earlierKeys.length + ply];
+	}
+
+	/**
+	 * Returns which castling moves are still allowed.
+	 * 
+	 * @return The castling rights, as CASTLE_* flags or'ed together.
+	 */
+	public int getCastlingRights() {
+		return castlingRights;
+	}
+
+	/**
+	 * Returns the square a pawn could capture en passant onto this turn.
+	 * 
+	 * @return The index of the square; NO_SQUARE if there is none.
+	 */
+	public int getEnPassantSquare() {
+		return enPassantSquare;
+	}
+
+	/**
+	 * Returns the number of moves made since the last capture or pawn
+	 * move, for the fifty move rule.
+	 * 
+	 * @return The halfmove clock.
+	 */
+	public int getHalfmoveClock() {
+		return halfmoveClock;
+	}
+
+	/**
+	 * Returns the number of the current move. It starts at 1 and goes up
+	 * after each of black's moves.
+	 * 
+	 * @return The fullmove number.
+	 */
+	public int getFullmoveNumber() {
+		return fullmoveNumber;
+	}
+
+	/**
+	 * Returns the index of the square at the given coordinates. Squares
+	 * are numbered rank by rank, starting from the bottom left corner.
+	 * 
+	 * @param x The horizontal coordinate of the square.
+	 * @param y The vertical coordinate of the square.
+	 * @return The index of the square.
+	 */
+	public int squareOf(int x, int y) {
+		return y * width + x;
+	}
+
+	/**
+	 * Returns the index of the square that the given tile is on.
+	 * 
+	 * @param tile A tile of this board.
+	 * @return The index of the tile's square.
+	 */
+	public int squareOf(Tile tile) {
+		Location location = tile.getLocation();
+		return location.getY() * width + location.getX();
+	}
+
+	/**
+	 * Returns the tile with the given square index.
+	 * 
+	 * @param square The index of the square (see squareOf).
+	 * @return The tile at that square.
+	 */
+	public Tile getTile(int square) {
+		return tiles[square % width][square / width];
+	}
+
+	/**
+	 * Returns the tile with the given name in chess notation, like "e4".
+	 * 
+	 * @param name The name of the tile.
+	 * @return The tile with that name.
+	 */
+	public Tile getTile(String name) {
+		int x = name.isEmpty()? -1 : name.charAt(0) - 'a';
+		int y = 0;
+		for(int i = 1; i < name.length(); i++) {
+			char digit = name.charAt(i);
+			if(digit < '0' || digit > '9' || y > height) {
+				y = 0;
+				break;
+			}
+			y = y * 10 + (digit - '0');
+		}
+		y--;
+		if(x < 0 || x >= width || y < 0 || y >= height) {
+			throw new IllegalArgumentException("No tile named " + name + " on this board");
+		}
+		return tiles[x][y];
+	}
+
+	/**
+	 * Returns whether or not the tile at the given coordinates has a
+	 * piece on it, going by the board's bitboards.
+	 * 
+	 * @param x The horizontal coordinate of the tile.
+	 * @param y The vertical coordinate of the tile.
+	 * @return True if the tile is occupied; false otherwise.
+	 */
+	public boolean isOccupied(int x, int y) {
+		if(bitboards != null) {
+			return bitboards.isOccupied(y * width + x);
+		}
+		return wideBitboards.isOccupied(y * width + x);
+	}
+
+	/**
+	 * Returns the piece on the square with the given index, from whichever
+	 * bitboards the board keeps.
+	 * 
+	 * @param square The index of the square (see squareOf).
+	 * @return The index of the piece (see Bitboards.index), or
+	 *         Bitboards.NONE if the square is empty.
+	 */
+	public int pieceAt(int square) {
+		return (bitboards != null)? bitboards.pieceAt(square) : wideBitboards.pieceAt(square);
+	}
+
+	/**
+	 * Returns whether or not any piece of the given color attacks the
+	 * square with the given index.
+	 * 
+	 * @param square The index of the square (see squareOf).
+	 * @param by The color of the attacking pieces.
+	 * @return True if the square is attacked; false otherwise.
+	 */
+	public boolean isSquareAttacked(int square, Color by) {
+		if(attackMaps != null) {
+			return attackMaps.isAttacked(square, by);
+		}
+		return WideMoveGenerator.isAttacked(this, square, by);
+	}
+
+	/**
+	 * Returns whether or not the side to move's king is in check.
+	 * 
+	 * @return True if the king of the side to move is attacked; false
+	 *         otherwise (including when that side has no king).
+	 */
+	public boolean isInCheck() {
+		if(attackMaps != null) {
+			long kings = bitboards.pieces(sideToMove, PieceType.KING);
+			return kings != 0 && (attackMaps.attacks(sideToMove.other()) & kings) != 0;
+		}
+		int king = wideBitboards.first(Bitboards.index(sideToMove, PieceType.KING));
+		return king != NO_SQUARE && WideMoveGenerator.isAttacked(this, king, sideToMove.other());
+	}
+
+	/**
+	 * Returns the color of the player whose turn it is.
+	 * 
+	 * @return Either WHITE or BLACK.
+	 */
+	public Color getSideToMove() {
+		return sideToMove;
+	}
+
+	/**
+	 * Sets whose turn it is.
+	 * 
+	 * @param color The color of the player to move next.
+	 */
+	public void setSideToMove(Color color) {
+		if(color != sideToMove) {
+			zobristKey ^= Zobrist.blackToMove();
+		}
+		sideToMove = color;
+	}
+
+	/**
+	 * Returns whether or not the board keeps a bitboard copy of the
+	 * position (only boards with up to 64 squares do).
+	 * 
+	 * @return True if the board has bitboards; false otherwise.
+	 */
+	public boolean hasBitboards() {
+		return bitboards != null;
+	}
+
+	/**
+	 * Returns the bitboard copy of the position. Callers must not modify
+	 * it directly - use placePiece and removePiece instead.
+	 * 
+	 * @return The bitboards for the board; null if the board is too big.
+	 */
+	public Bitboards getBitboards() {
+		return bitboards;
+	}
+
+	/**
+	 * Returns which squares each side attacks. Callers must not modify
+	 * the maps directly; the board keeps them up to date.
+	 * 
+	 * @return The attack maps for the board; null if the board is too big.
+	 */
+	public AttackMaps getAttackMaps() {
+		return attackMaps;
+	}
+
+	/**
+	 * Returns the precomputed knight, king and pawn attacks for boards
+	 * of this size.
+	 * 
+	 * @return The attack tables for the board; null if the board is too big.
+	 */
+	public AttackTables getAttackTables() {
+		return attackTables;
+	}
+
+	/**
+	 * Returns the magic bitboard rook, bishop and queen attacks for
+	 * boards of this size.
+	 * 
+	 * @return The sliding attack tables for the board; null if the board is too big.
+	 */
+	public SlidingAttacks getSlidingAttacks() {
+		return slidingAttacks;
+	}
+
+	/**
+	 * Returns the wide bitboard copy of the position kept by boards with
+	 * more than 64 squares. Callers must not modify it directly - use
+	 * placePiece and removePiece instead.
+	 * 
+	 * @return The wide bitboards for the board; null if it has ordinary bitboards.
+	 */
+	public WideBitboards getWideBitboards() {
+		return wideBitboards;
+	}
+
+	/**
+	 * Returns the knight, king, pawn and sliding attacks for boards of
+	 * this size, when they are too big for ordinary bitboards.
+	 * 
+	 * @return The wide attack tables for the board; null if it has ordinary bitboards.
+	 */
+	public WideAttackTables getWideAttackTables() {
+		return wideAttackTables;
+	}
+
+	/**
+	 * Returns a list of all of the pieces currently on the board.
+	 * 
+	 * @return The pieces on the board.
+	 */
+	public ArrayList<Piece> getPieces() {
+		return pieces;
 	}
 
 	/**
@@ -0,0 +1,309 @@
+package Game;
+import Game.Engine.BoardSnapshot;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import javax.swing.JComponent;
+/**
+ * Draws a board (as a BoardSnapshot) with white at the bottom. The
+ * tiles are drawn into an image that is kept between paints, and when
+ * the position, the selection or the hint changes only the tiles that
+ * look different are drawn again and repainted; painting the component
+ * itself is just copying the image. Like any other Swing component, it
+ * must only be used on the event thread.
+ * 
+ * @author Priten Vora
+ *
+ */
+public class BoardView extends JComponent {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final String GLYPHS = "\u2659\u2658\u2657\u2656\u2655\u2654\u265F\u265E\u265D\u265C\u265B\u265A";	// Each piece (see Bitboards.index).
+
+	private static final java.awt.Color LIGHT = new java.awt.Color(240, 217, 181);		// Light tiles.
+	private static final java.awt.Color DARK = new java.awt.Color(181, 136, 99);		// Dark tiles.
+	private static final java.awt.Color SELECTED = new java.awt.Color(20, 85, 30, 120);	// The selected piece's tile.
+	private static final java.awt.Color TARGET = new java.awt.Color(20, 85, 30, 90);	// Where the selected piece can go.
+	private static final java.awt.Color LAST = new java.awt.Color(155, 199, 0, 100);	// The last move's tiles.
+	private static final java.awt.Color HINT = new java.awt.Color(30, 90, 200, 110);	// The hinted move's tiles.
+	private static final java.awt.Color BACKGROUND = new java.awt.Color(48, 46, 43);	// Around the board.
+
+	private static final int IS_SELECTED = 1 << 8;		// Tile state flag: the tile is selected.
+	private static final int IS_TARGET = 1 << 9;		// Tile state flag: the selected piece can go there.
+	private static final int IS_LAST = 1 << 10;			// Tile state flag: the last move went from or to it.
+	private static final int IS_HINT = 1 << 11;			// Tile state flag: the hinted move goes from or to it.
+	private static final int UNDRAWN = -1;				// The tile state of a tile not drawn yet.
+
+	private BoardSnapshot snapshot;		// The position being shown (null for none yet).
+	private int selected;				// The selected square (-1 for none).
+	private int hint;					// The hinted move (Move.NONE for none).
+	private BufferedImage buffer;		// The drawn tiles.
+	private int[] drawn;				// The state each tile was last drawn in.
+	private int boardWidth;				// The width of the board the tiles were laid out for.
+	private int boardHeight;			// The height of the board the tiles were laid out for.
+	private int tile;					// The size of a tile, in pixels.
+	private int left;					// Where the board starts, from the left.
+	private int top;					// Where the board starts, from the top.
+	private Font font;					// The pieces' font, sized to the tiles.
+
+	/**
+	 * Constructor for a view with nothing to show yet.
+	 */
+	public BoardView() {
+		selected = -1;
+		hint = Move.NONE;
+		setOpaque(true);
+	}
+
+	/**
+	 * Shows a new position, clearing the selection and the hint.
+	 * 
+	 * @param position The position.
+	 */
+	public void setSnapshot(BoardSnapshot position) {
+		snapshot = position;
+		selected = -1;
+		hint = Move.NONE;
+		update();
+	}
+
+	/**
+	 * Returns the position being shown.
+	 * 
+	 * @return The snapshot, or null if none has been shown yet.
+	 */
+	public BoardSnapshot getSnapshot() {
+		return snapshot;
+	}
+
+	/**
+	 * Selects a square, marking it and everywhere its piece can go.
+	 * 
+	 * @param square The square (-1 for none).
+	 */
+	public void setSelection(int square) {
+		selected = square;
+		update();
+	}
+
+	/**
+	 * Returns the selected square.
+	 * 
+	 * @return The square, or -1 if none is selected.
+	 */
+	public int getSelection() {
+		return selected;
+	}
+
+	/**
+	 * Marks the squares of a suggested move.
+	 * 
+	 * @param move The packed move (Move.NONE to clear it).
+	 */
+	public void setHint(int move) {
+		hint = move;
+		update();
+	}
+
+	/**
+	 * Returns the square at a point in the component.
+	 * 
+	 * @param x The point's x coordinate.
+	 * @param y The point's y coordinate.
+	 * @return The square, or -1 if the point is not on the board.
+	 */
+	public int squareAt(int x, int y) {
+		if(snapshot == null || tile == 0 || x < left || y < top) {
+			return -1;
+		}
+		int file = (x - left) / tile;
+		int row = (y - top) / tile;
+		if(file >= snapshot.getWidth() || row >= snapshot.getHeight()) {
+			return -1;
+		}
+		return (snapshot.getHeight() - 1 - row) * snapshot.getWidth() + file;
+	}
+
+	@Override
+	protected void paintComponent(Graphics g) {
+		if(buffer == null || buffer.getWidth() != getWidth() || buffer.getHeight() != getHeight()) {
+			redraw();
+		}
+		if(buffer != null) {
+			g.drawImage(buffer, 0, 0, null);
+		}
+	}
+
+	/**
+	 * Private helper. Draws the tiles that look different now and
+	 * repaints just the part of the component they cover.
+	 */
+	private void update() {
+		if(buffer == null || buffer.getWidth() != getWidth() || buffer.getHeight() != getHeight()) {
+			repaint();
+			return;
+		}
+		Rectangle dirty = drawTiles();
+		if(dirty != null) {
+			repaint(dirty);
+		}
+	}
+
+	/**
+	 * Private helper. Makes a new image the size of the component and
+	 * draws every tile into it.
+	 */
+	private void redraw() {
+		if(getWidth() <= 0 || getHeight() <= 0) {
+			buffer = null;
+			return;
+		}
+		buffer = new BufferedImage(getWidth(), getHeight(), BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = buffer.createGraphics();
+		g.setColor(BACKGROUND);
+		g.fillRect(0, 0, getWidth(), getHeight());
+		g.dispose();
+		drawn = null;
+		drawTiles();
+	}
+
+	/**
+	 * Private helper. Draws every tile whose state has changed since it
+	 * was last drawn. A board of a different shape (even one with as many
+	 * tiles, like 10x8 after 8x10) is laid out again and drawn from scratch.
+	 * 
+	 * @return The area drawn over, or null if nothing was.
+	 */
+	private Rectangle drawTiles() {
+		if(snapshot == null) {
+			return null;
+		}
+		int width = snapshot.getWidth();
+		int height = snapshot.getHeight();
+		if(drawn != null && (width != boardWidth || height != boardHeight)) {
+			redraw();
+			return new Rectangle(0, 0, getWidth(), getHeight());
+		}
+		if(drawn == null) {
+			boardWidth = width;
+			boardHeight = height;
+			drawn = new int[width * height];
+			Arrays.fill(drawn, UNDRAWN);
+			tile = Math.min(getWidth() / width, getHeight() / height);
+			left = (getWidth() - tile * width) / 2;
+			top = (getHeight() - tile * height) / 2;
+			font = new Font(Font.SERIF, Font.PLAIN, tile * 4 / 5);
+		}
+		if(tile == 0) {
+			return null;
+		}
+		Rectangle dirty = null;
+		Graphics2D g = buffer.createGraphics();
+		g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+		g.setFont(font);
+		for(int square = 0; square < drawn.length; square++) {
+			int state = stateOf(square);
+			if(state == drawn[square]) {
+				continue;
+			}
+			drawn[square] = state;
+			Rectangle bounds = new Rectangle(left + (square % width) * tile,
+					top + (height - 1 - square / width) * tile, tile, tile);
+			drawTile(g, square, state, bounds);
+			if(dirty == null) {
+				dirty = bounds;
+			}
+			else {
+				dirty.add(bounds);
+			}
+		}
+		g.dispose();
+		return dirty;
+	}
+
+	/**
+	 * Private helper for drawTiles. Works out how a tile should look: the
+	 * piece on it, plus a flag for each way it is marked.
+	 * 
+	 * @param square The tile's square.
+	 * @return The tile's state.
+	 */
+	private int stateOf(int square) {
+		int state = snapshot.getPiece(square) + 1;
+		if(square == selected) {
+			state |= IS_SELECTED;
+		}
+		else if(selected >= 0) {
+			for(int i = 0; i < snapshot.getMoveCount(); i++) {
+				int move = snapshot.getMove(i);
+				if(Move.from(move) == selected && Move.to(move) == square) {
+					state |= IS_TARGET;
+					break;
+				}
+			}
+		}
+		int last = snapshot.getLastMove();
+		if(last != Move.NONE && (Move.from(last) == square || Move.to(last) == square)) {
+			state |= IS_LAST;
+		}
+		if(hint != Move.NONE && (Move.from(hint) == square || Move.to(hint) == square)) {
+			state |= IS_HINT;
+		}
+		return state;
+	}
+
+	/**
+	 * Private helper for drawTiles. Draws one tile.
+	 * 
+	 * @param g Where to draw.
+	 * @param square The tile's square.
+	 * @param state How the tile should look (see stateOf).
+	 * @param bounds Where the tile goes.
+	 */
+	private void drawTile(Graphics2D g, int square, int state, Rectangle bounds) {
+		int x = square % snapshot.getWidth();
+		int y = square / snapshot.getWidth();
+		g.setColor(((x + y) % 2 == 0)? DARK : LIGHT);
+		g.fill(bounds);
+		if((state & IS_LAST) != 0) {
+			g.setColor(LAST);
+			g.fill(bounds);
+		}
+		if((state & IS_HINT) != 0) {
+			g.setColor(HINT);
+			g.fill(bounds);
+		}
+		if((state & IS_SELECTED) != 0) {
+			g.setColor(SELECTED);
+			g.fill(bounds);
+		}
+		int piece = (state & 0xFF) - 1;
+		if(piece != Bitboards.NONE) {
+			int type = Bitboards.typeOf(piece).ordinal();
+			String solid = GLYPHS.substring(PieceType.COUNT + type, PieceType.COUNT + type + 1);
+			int textX = bounds.x + (tile - g.getFontMetrics().stringWidth(solid)) / 2;
+			int textY = bounds.y + (tile + g.getFontMetrics().getAscent() - g.getFontMetrics().getDescent()) / 2;
+			// White pieces are the solid glyph filled in white, then outlined.
+			if(Bitboards.colorOf(piece) == Color.WHITE) {
+				g.setColor(java.awt.Color.WHITE);
+				g.drawString(solid, textX, textY);
+				g.setColor(java.awt.Color.BLACK);
+				g.drawString(GLYPHS.substring(type, type + 1), textX, textY);
+			}
+			else {
+				g.setColor(java.awt.Color.BLACK);
+				g.drawString(solid, textX, textY);
+			}
+		}
+		if((state & IS_TARGET) != 0) {
+			int dot = Math.max(4, tile / 4);
+			g.setColor(TARGET);
+			g.fillOval(bounds.x + (tile - dot) / 2, bounds.y + (tile - dot) / 2, dot, dot);
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,319 @@
+package Game.Book;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import Game.Board;
+import Game.Color;
+import Game.Move;
+import Game.MoveList;
+import Game.Pgn.PgnGame;
+import Game.Pgn.PgnListener;
+import Game.Pgn.PgnReplayer;
+import Game.Record.GameRecord;
+import Game.Record.GameRecordReader;
+/**
+ * Builds an opening book (see OpeningBook) out of games. Every move made
+ * in the first few plies of each game is counted, weighted by how the
+ * game went for the side that made it: a win counts 2, a draw or a game
+ * with no known result 1, and a loss nothing. Moves that only ever lost
+ * are left out of the book.
+ * 
+ * The counts are kept in an open-addressing hash table of plain arrays,
+ * so that even millions of positions take only a few dozen bytes each.
+ * 
+ * @author Priten Vora
+ *
+ */
+public class BookBuilder {
+
+	public static final int DEFAULT_PLIES = 24;	// How deep into each game moves are counted by default.
+
+	private final int maxPly;	// Moves from this ply on are not counted.
+	private long[] keys;		// The position of each slot of the table.
+	private int[] moves;		// The move of each slot (Move.NONE if the slot is empty).
+	private long[] weights;		// The weight of each slot.
+	private int count;			// How many slots are in use.
+
+	/**
+	 * Constructor for a builder that counts moves up to the given depth
+	 * into each game.
+	 * 
+	 * @param plies How many moves of each game to count.
+	 */
+	public BookBuilder(int plies) {
+		maxPly = plies;
+		keys = new long[1 << 16];
+		moves = new int[1 << 16];
+		weights = new long[1 << 16];
+		count = 0;
+	}
+
+	/**
+	 * Adds weight to a move in a position.
+	 * 
+	 * @param key The position's hash key.
+	 * @param move The packed move.
+	 * @param weight How much weight to add.
+	 */
+	public synchronized void add(long key, int move, int weight) {
+		if(2 * (count + 1) > keys.length) {
+			grow();
+		}
+		int slot = find(keys, moves, key, move);
+		if(moves[slot] == Move.NONE) {
+			keys[slot] = key;
+			moves[slot] = move;
+			count++;
+		}
+		weights[slot] += weight;
+	}
+
+	/**
+	 * Adds the opening moves of a game. The board must be at the game's
+	 * final position with its moves still there to unmake, as both
+	 * PgnReplayer and GameRecordReader leave it; the moves are unmade, so
+	 * the board is left at the game's starting position.
+	 * 
+	 * @param board The board.
+	 * @param played The game's moves, as packed moves.
+	 * @param result One of the GameRecord.RESULT_* constants.
+	 */
+	public void addGame(Board board, MoveList played, int result) {
+		for(int ply = played.size() - 1; ply >= 0; ply--) {
+			board.unmakeMove();
+			if(ply < maxPly) {
+				Color mover = board.getSideToMove();
+				int weight = 1;
+				if(result == GameRecord.RESULT_WHITE_WINS) {
+					weight = (mover == Color.WHITE)? 2 : 0;
+				}
+				else if(result == GameRecord.RESULT_BLACK_WINS) {
+					weight = (mover == Color.BLACK)? 2 : 0;
+				}
+				add(board.getZobristKey(), played.get(ply), weight);
+			}
+		}
+	}
+
+	/**
+	 * Adds every game of a PGN file that replays (see PgnReplayer).
+	 * 
+	 * @param file The PGN file.
+	 * @param threads How many threads to replay the games with.
+	 * @throws IOException If the file cannot be read.
+	 */
+	public void addPgn(File file, int threads) throws IOException {
+		PgnReplayer replayer = new PgnReplayer(threads, PgnReplayer.DEFAULT_QUEUE);
+		try {
+			replayer.replay(file, new PgnListener() {
+				@Override
+				public void gameReplayed(PgnGame game, Board board, MoveList played) {
+					addGame(board, played, GameRecord.resultOf(game.getTag("Result")));
+				}
+
+				@Override
+				public void gameFailed(PgnGame game, String error) {
+				}
+			});
+		}
+		finally {
+			replayer.shutdown();
+		}
+	}
+
+	/**
+	 * Adds every game of a file in the binary game format (see GameRecord).
+	 * 
+	 * @param file The file of games.
+	 * @throws IOException If the file cannot be read.
+	 */
+	public void addRecords(File file) throws IOException {
+		GameRecordReader reader = new GameRecordReader(file);
+		try {
+			MoveList played = new MoveList();
+			for(Board board = reader.next(null, played); board != null; board = reader.next(board, played)) {
+				addGame(board, played, reader.getResult());
+			}
+		}
+		finally {
+			reader.close();
+		}
+	}
+
+	/**
+	 * Returns how many different moves have been counted.
+	 * 
+	 * @return The number of position and move pairs.
+	 */
+	public synchronized int size() {
+		return count;
+	}
+
+	/**
+	 * Writes the book out: every move with some weight, sorted by position
+	 * and then by weight. If the highest weight does not fit in an entry,
+	 * every weight is scaled down to fit (keeping each at least 1).
+	 * 
+	 * @param file The file to write (replaced if it exists).
+	 * @return How many entries were written.
+	 * @throws IOException If the file cannot be written.
+	 */
+	public synchronized int write(File file) throws IOException {
+		int[] order = new int[count];
+		int entries = 0;
+		long heaviest = 0;
+		for(int slot = 0; slot < keys.length; slot++) {
+			if(moves[slot] != Move.NONE && weights[slot] > 0) {
+				order[entries++] = slot;
+				heaviest = Math.max(heaviest, weights[slot]);
+			}
+		}
+		sort(order, 0, entries - 1);
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+		try {
+			out.writeInt(OpeningBook.MAGIC);
+			out.writeByte(OpeningBook.VERSION);
+			out.writeByte(0);
+			out.writeShort(0);
+			for(int i = 0; i < entries; i++) {
+				int slot = order[i];
+				long weight = weights[slot];
+				if(heaviest > 0xFFFF) {
+					weight = Math.max(1, weight * 0xFFFF / heaviest);
+				}
+				out.writeLong(keys[slot]);
+				out.writeInt(moves[slot]);
+				out.writeShort((int)weight);
+				out.writeShort(0);
+			}
+		}
+		finally {
+			out.close();
+		}
+		return entries;
+	}
+
+	/**
+	 * Private helper. Finds the slot of a position and move in a table, or
+	 * the empty slot where it would go.
+	 * 
+	 * @param tableKeys The keys of the table.
+	 * @param tableMoves The moves of the table.
+	 * @param key The position's hash key.
+	 * @param move The packed move.
+	 * @return The slot.
+	 */
+	private static int find(long[] tableKeys, int[] tableMoves, long key, int move) {
+		int mask = tableKeys.length - 1;
+		long hash = (key ^ (move * 0x9E3779B97F4A7C15L)) * 0xBF58476D1CE4E5B9L;
+		int slot = (int)(hash >>> 40) & mask;
+		while(tableMoves[slot] != Move.NONE && (tableKeys[slot] != key || tableMoves[slot] != move)) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	/**
+	 * Private helper for add. Doubles the size of the table.
+	 */
+	private void grow() {
+		long[] newKeys = new long[keys.length * 2];
+		int[] newMoves = new int[keys.length * 2];
+		long[] newWeights = new long[keys.length * 2];
+		for(int slot = 0; slot < keys.length; slot++) {
+			if(moves[slot] != Move.NONE) {
+				int newSlot = find(newKeys, newMoves, keys[slot], moves[slot]);
+				newKeys[newSlot] = keys[slot];
+				newMoves[newSlot] = moves[slot];
+				newWeights[newSlot] = weights[slot];
+			}
+		}
+		keys = newKeys;
+		moves = newMoves;
+		weights = newWeights;
+	}
+
+	/**
+	 * Private helper for write. Sorts slots by key, then by weight from
+	 * highest to lowest, then by move (a quicksort).
+	 * 
+	 * @param order The slots to sort.
+	 * @param low The first index to sort.
+	 * @param high The last index to sort.
+	 */
+	private void sort(int[] order, int low, int high) {
+		while(low < high) {
+			int pivot = order[(low + high) >>> 1];
+			int i = low;
+			int j = high;
+			while(i <= j) {
+				while(compare(order[i], pivot) < 0) {
+					i++;
+				}
+				while(compare(order[j], pivot) > 0) {
+					j--;
+				}
+				if(i <= j) {
+					int slot = order[i];
+					order[i++] = order[j];
+					order[j--] = slot;
+				}
+			}
+			// Recurse into the smaller side so the stack stays shallow.
+			if(j - low < high - i) {
+				sort(order, low, j);
+				low = i;
+			}
+			else {
+				sort(order, i, high);
+				high = j;
+			}
+		}
+	}
+
+	/**
+	 * Private helper for sort. Compares two slots.
+	 * 
+	 * @param a The first slot.
+	 * @param b The second slot.
+	 * @return Less than zero if a goes first, more than zero if b does.
+	 */
+	private int compare(int a, int b) {
+		if(keys[a] != keys[b]) {
+			return Long.compare(keys[a], keys[b]);
+		}
+		if(weights[a] != weights[b]) {
+			return Long.compare(weights[b], weights[a]);
+		}
+		return Integer.compare(moves[a], moves[b]);
+	}
+
+	/**
+	 * Builds a book from a PGN file or a file in the binary game format.
+	 * Usage: BookBuilder book input [plies] [threads]
+	 * 
+	 * @param args The book to write, the games to build it from (read as
+	 *        PGN if the name ends in ".pgn"), how many moves of each game
+	 *        to count (default 24) and how many threads replay PGN games
+	 *        (default: one per core).
+	 * @throws IOException If a file cannot be read or written.
+	 */
+	public static void main(String[] args) throws IOException {
+		int plies = (args.length > 2)? Integer.parseInt(args[2]) : DEFAULT_PLIES;
+		int threads = (args.length > 3)? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+		BookBuilder builder = new BookBuilder(plies);
+		long start = System.nanoTime();
+		File input = new File(args[1]);
+		if(input.getName().toLowerCase().endsWith(".pgn")) {
+			builder.addPgn(input, threads);
+		}
+		else {
+			builder.addRecords(input);
+		}
+		int entries = builder.write(new File(args[0]));
+		System.out.printf("%d entries (%d moves counted) in %d ms%n", entries, builder.size(),
+				(System.nanoTime() - start) / 1000000L);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,260 @@
+package Game.Book;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import Game.Board;
+import Game.Move;
+import Game.MoveGenerator;
+import Game.MoveList;
+/**
+ * An opening book: a file of moves known to be good in positions that
+ * come up again and again, so that a game or analysis can start from
+ * them instead of searching. The file is an 8-byte header (MAGIC, then
+ * the format VERSION and three zero bytes) followed by ENTRY_SIZE-byte
+ * entries, each holding
+ * 
+ *   - the position's hash key (see Zobrist), 8 bytes;
+ *   - the move, packed the same way the move generator packs it (see
+ *     Move), 4 bytes;
+ *   - the move's weight, an unsigned 2 bytes: how often it did well;
+ *   - a learn value, a signed 2 bytes, free for whoever uses the book
+ *     to keep track of how the move has done for them.
+ * 
+ * all big-endian. The entries are sorted by key, and the entries for one
+ * position by weight from highest to lowest, so the moves for a position
+ * are found by binary search. The file is memory-mapped and searched in
+ * place: opening a book reads nothing but the header, and nothing is
+ * ever loaded onto the heap. A book is built with BookBuilder. Looking
+ * moves up uses a move list of the book's own, so each thread should
+ * open the book for itself.
+ * 
+ * @author Priten Vora
+ *
+ */
+public class OpeningBook implements Closeable {
+
+	public static final int MAGIC = 0x4348424B;		// "CHBK", at the start of every book.
+	public static final int VERSION = 1;			// The version of the format described here.
+	public static final int HEADER_SIZE = 8;		// The size of the header, in bytes.
+	public static final int ENTRY_SIZE = 16;		// The size of an entry, in bytes.
+
+	private static final int MOVE_OFFSET = 8;		// Where the move is in an entry.
+	private static final int WEIGHT_OFFSET = 12;	// Where the weight is in an entry.
+	private static final int LEARN_OFFSET = 14;		// Where the learn value is in an entry.
+
+	private final FileChannel channel;		// The book's file.
+	private final MappedByteBuffer entries;	// The whole file.
+	private final int size;					// How many entries there are.
+	private final MoveList legal;			// The legal moves of the position being looked up.
+
+	/**
+	 * Constructor for a book that can only be read.
+	 * 
+	 * @param file The book's file.
+	 * @throws IOException If the file cannot be read or is not a book.
+	 */
+	public OpeningBook(File file) throws IOException {
+		this(file, false);
+	}
+
+	/**
+	 * Constructor for a book, which setLearn can write to if asked for.
+	 * 
+	 * @param file The book's file.
+	 * @param writable Whether or not learn values can be changed.
+	 * @throws IOException If the file cannot be read or is not a book.
+	 */
+	public OpeningBook(File file, boolean writable) throws IOException {
+		channel = writable? FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)
+				: FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		long length = channel.size();
+		if(length < HEADER_SIZE || length > Integer.MAX_VALUE || (length - HEADER_SIZE) % ENTRY_SIZE != 0) {
+			channel.close();
+			throw new IOException("Not an opening book: " + file);
+		}
+		entries = channel.map(writable? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY, 0, length);
+		if(entries.getInt(0) != MAGIC || (entries.get(4) & 0xFF) != VERSION) {
+			channel.close();
+			throw new IOException("Not an opening book: " + file);
+		}
+		size = (int)((length - HEADER_SIZE) / ENTRY_SIZE);
+		legal = new MoveList();
+	}
+
+	/**
+	 * Returns how many entries the book has.
+	 * 
+	 * @return The number of entries.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Finds the first entry for a position.
+	 * 
+	 * @param key The position's hash key.
+	 * @return The index of the position's first entry; -1 if the position
+	 *         is not in the book.
+	 */
+	public int find(long key) {
+		int low = 0;
+		int high = size;
+		while(low < high) {
+			int middle = (low + high) >>> 1;
+			if(getKey(middle) < key) {
+				low = middle + 1;
+			}
+			else {
+				high = middle;
+			}
+		}
+		return (low < size && getKey(low) == key)? low : -1;
+	}
+
+	/**
+	 * Returns the hash key of the position an entry is for.
+	 * 
+	 * @param index The index of the entry.
+	 * @return The position's hash key.
+	 */
+	public long getKey(int index) {
+		return entries.getLong(HEADER_SIZE + index * ENTRY_SIZE);
+	}
+
+	/**
+	 * Returns an entry's move.
+	 * 
+	 * @param index The index of the entry.
+	 * @return The packed move.
+	 */
+	public int getMove(int index) {
+		return entries.getInt(HEADER_SIZE + index * ENTRY_SIZE + MOVE_OFFSET);
+	}
+
+	/**
+	 * Returns an entry's weight.
+	 * 
+	 * @param index The index of the entry.
+	 * @return The weight (0 to 65535).
+	 */
+	public int getWeight(int index) {
+		return entries.getShort(HEADER_SIZE + index * ENTRY_SIZE + WEIGHT_OFFSET) & 0xFFFF;
+	}
+
+	/**
+	 * Returns an entry's learn value.
+	 * 
+	 * @param index The index of the entry.
+	 * @return The learn value.
+	 */
+	public int getLearn(int index) {
+		return entries.getShort(HEADER_SIZE + index * ENTRY_SIZE + LEARN_OFFSET);
+	}
+
+	/**
+	 * Changes an entry's learn value, straight in the file. The book must
+	 * have been opened as writable.
+	 * 
+	 * @param index The index of the entry.
+	 * @param learn The new learn value (-32768 to 32767).
+	 */
+	public void setLearn(int index, int learn) {
+		entries.putShort(HEADER_SIZE + index * ENTRY_SIZE + LEARN_OFFSET, (short)learn);
+	}
+
+	/**
+	 * Finds the book moves for the position on the board, best first. Only
+	 * moves that are legal on the board are given, so a position that
+	 * merely shares its hash key with one in the book gets no moves.
+	 * 
+	 * @param board The board.
+	 * @param moves The list to put the moves in (emptied first).
+	 * @return The index of the entry of the first move found; -1 if there
+	 *         are none.
+	 */
+	public int probe(Board board, MoveList moves) {
+		moves.clear();
+		long key = board.getZobristKey();
+		int first = find(key);
+		if(first < 0) {
+			return -1;
+		}
+		legal.clear();
+		MoveGenerator.generateLegal(board, legal);
+		int found = -1;
+		for(int i = first; i < size && getKey(i) == key; i++) {
+			if(legal.contains(getMove(i))) {
+				moves.add(getMove(i));
+				found = (found < 0)? i : found;
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Returns the book move with the highest weight in the position on
+	 * the board.
+	 * 
+	 * @param board The board.
+	 * @return The packed move; Move.NONE if the position is not in the book.
+	 */
+	public int bestMove(Board board) {
+		MoveList moves = new MoveList();
+		probe(board, moves);
+		return moves.isEmpty()? Move.NONE : moves.get(0);
+	}
+
+	/**
+	 * Picks one of the book moves in the position on the board at random,
+	 * each with a chance in proportion to its weight, so that games do not
+	 * always go the same way.
+	 * 
+	 * @param board The board.
+	 * @param random Where to get the random numbers from.
+	 * @return The packed move; Move.NONE if the position is not in the book.
+	 */
+	public int pickMove(Board board, Random random) {
+		long key = board.getZobristKey();
+		int first = find(key);
+		if(first < 0) {
+			return Move.NONE;
+		}
+		legal.clear();
+		MoveGenerator.generateLegal(board, legal);
+		long total = 0;
+		for(int i = first; i < size && getKey(i) == key; i++) {
+			if(legal.contains(getMove(i))) {
+				total += getWeight(i);
+			}
+		}
+		if(total == 0) {
+			return Move.NONE;
+		}
+		long pick = (long)(random.nextDouble() * total);
+		for(int i = first; i < size && getKey(i) == key; i++) {
+			if(legal.contains(getMove(i))) {
+				pick -= getWeight(i);
+				if(pick < 0) {
+					return getMove(i);
+				}
+			}
+		}
+		return Move.NONE;
+	}
+
+	/**
+	 * Closes the book's file. Learn values already set are written out by
+	 * the operating system.
+	 * 
+	 * @throws IOException If the file cannot be closed.
+	 */
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
\ No newline at end of file
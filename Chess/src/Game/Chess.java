@@ -1,8 +1,53 @@
 package Game;
+import java.io.IOException;
+import javax.swing.SwingUtilities;
+import Game.Engine.Engine;
+import Game.Engine.EngineConsole;
+import Game.Engine.UciFrontEnd;
+/**
+ * Starts the game: in a window, with "--headless" as a text console
+ * (see EngineConsole), or with "--uci" as an engine for UCI interfaces
+ * (see UciFrontEnd). Neither of the last two loads java.awt or
+ * javax.swing.
+ * 
+ * @author Priten Vora
+ *
+ */
 public class Chess {
 
-	public static void main(String[] args) {
-		new GUI(new Board(8, 8));
+	/**
+	 * Starts the game.
+	 * Usage: Chess [--headless | --uci]
+	 * 
+	 * @param args "--headless" or "--uci" to run without a window.
+	 * @throws IOException If the console's input cannot be read.
+	 */
+	public static void main(String[] args) throws IOException {
+		for(String arg : args) {
+			if(arg.equals("--headless")) {
+				EngineConsole.main(new String[0]);
+				return;
+			}
+			if(arg.equals("--uci")) {
+				UciFrontEnd.main(new String[0]);
+				return;
+			}
+		}
+		startWindow();
 	}
 
+	/**
+	 * Private helper for main. Opens the window. Kept apart from main so
+	 * that the Swing classes are only loaded when there is a window. The
+	 * engine is made here, and the window on the event thread.
+	 */
+	private static void startWindow() {
+		final Engine engine = new Engine();
+		SwingUtilities.invokeLater(new Runnable() {
+			@Override
+			public void run() {
+				new GUI(engine);
+			}
+		});
+	}
 }
\ No newline at end of file
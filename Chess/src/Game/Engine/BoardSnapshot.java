@@ -0,0 +1,148 @@
+package Game.Engine;
+import Game.Bitboards;
+import Game.Board;
+import Game.Color;
+import Game.MoveList;
+import Game.Piece;
+import Game.PieceType;
+/**
+ * An unchanging copy of what a user interface needs to show a position:
+ * the piece on each square, the side to move, the last move, the legal
+ * moves and the game's status. A snapshot is taken on whatever thread
+ * owns the engine (see Engine.snapshot) and can then be handed to any
+ * other thread, such as Swing's event thread, which can draw it and
+ * check moves against it without touching the engine at all.
+ * 
+ * @author Priten Vora
+ *
+ */
+public final class BoardSnapshot {
+
+	private final int width;				// The board's width.
+	private final int height;				// The board's height.
+	private final byte[] pieces;			// The piece on each square (see Bitboards.index), or Bitboards.NONE.
+	private final Color sideToMove;			// Whose move it is.
+	private final int lastMove;				// The move that led here (Move.NONE if none).
+	private final int[] legalMoves;			// The legal moves.
+	private final GameStatus status;		// Whether the game can go on.
+
+	/**
+	 * Constructor for a snapshot of the position on a board.
+	 * 
+	 * @param board The board.
+	 * @param moves The position's legal moves.
+	 * @param previous The move that led to the position (Move.NONE if none).
+	 * @param gameStatus Whether the game can go on.
+	 */
+	BoardSnapshot(Board board, MoveList moves, int previous, GameStatus gameStatus) {
+		width = board.getWidth();
+		height = board.getHeight();
+		pieces = new byte[width * height];
+		for(int square = 0; square < pieces.length; square++) {
+			Piece piece = board.getTile(square).getPiece();
+			pieces[square] = (byte)((piece == null)? Bitboards.NONE : Bitboards.index(piece.getColor(), piece.getType()));
+		}
+		sideToMove = board.getSideToMove();
+		lastMove = previous;
+		legalMoves = new int[moves.size()];
+		for(int i = 0; i < legalMoves.length; i++) {
+			legalMoves[i] = moves.get(i);
+		}
+		status = gameStatus;
+	}
+
+	/**
+	 * Returns the board's width.
+	 * 
+	 * @return The number of files.
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Returns the board's height.
+	 * 
+	 * @return The number of ranks.
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Returns the piece on a square.
+	 * 
+	 * @param square The square's index (y * width + x).
+	 * @return The piece's index (see Bitboards.index), or Bitboards.NONE
+	 *         if the square is empty.
+	 */
+	public int getPiece(int square) {
+		return pieces[square];
+	}
+
+	/**
+	 * Returns the color of the piece on a square.
+	 * 
+	 * @param square The square's index.
+	 * @return The piece's color, or null if the square is empty.
+	 */
+	public Color getColor(int square) {
+		return (pieces[square] == Bitboards.NONE)? null : Bitboards.colorOf(pieces[square]);
+	}
+
+	/**
+	 * Returns the type of the piece on a square.
+	 * 
+	 * @param square The square's index.
+	 * @return The piece's type, or null if the square is empty.
+	 */
+	public PieceType getType(int square) {
+		return (pieces[square] == Bitboards.NONE)? null : Bitboards.typeOf(pieces[square]);
+	}
+
+	/**
+	 * Returns whose move it is.
+	 * 
+	 * @return The side to move.
+	 */
+	public Color getSideToMove() {
+		return sideToMove;
+	}
+
+	/**
+	 * Returns the move that led to the position.
+	 * 
+	 * @return The packed move, or Move.NONE if there was none.
+	 */
+	public int getLastMove() {
+		return lastMove;
+	}
+
+	/**
+	 * Returns how many legal moves there are.
+	 * 
+	 * @return The number of legal moves.
+	 */
+	public int getMoveCount() {
+		return legalMoves.length;
+	}
+
+	/**
+	 * Returns one of the legal moves.
+	 * 
+	 * @param index The move's index, from 0 to getMoveCount() - 1.
+	 * @return The packed move.
+	 */
+	public int getMove(int index) {
+		return legalMoves[index];
+	}
+
+	/**
+	 * Returns whether the game can go on, and if not, why not.
+	 * 
+	 * @return The game's status.
+	 */
+	public GameStatus getStatus() {
+		return status;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,455 @@
+package Game.Engine;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import Game.Board;
+import Game.Fen;
+import Game.Move;
+import Game.MoveGenerator;
+import Game.MoveList;
+import Game.Piece;
+import Game.PieceType;
+import Game.San;
+import Game.Book.OpeningBook;
+import Game.Eval.Evaluator;
+import Game.Eval.PieceSquareTables;
+import Game.Eval.TaperedEvaluator;
+import Game.Search.LazySmpSearcher;
+import Game.Search.SearchLimits;
+import Game.Search.SearchListener;
+import Game.Search.SearchResult;
+import Game.Search.TranspositionTable;
+import Game.Tablebase.TablebaseProber;
+/**
+ * A chess engine with no user interface: a game on a board, and a search
+ * to play and analyse it with. Positions can be set up from FEN, moves
+ * made (in coordinate notation or SAN) and taken back, and positions
+ * searched, evaluated and looked up in an opening book or tablebases.
+ * Nothing the engine uses touches java.awt or javax.swing, so it runs on
+ * a headless JVM without loading either; the GUI and EngineConsole are
+ * only clients of it.
+ * 
+ * A search runs on the thread that calls search (and on the helper
+ * threads of the search, see LazySmpSearcher), and can be stopped from
+ * any other thread. While it runs, nothing may change the position:
+ * those calls throw an IllegalStateException instead.
+ * 
+ * @author Priten Vora
+ *
+ */
+public class Engine {
+
+	public static final int DEFAULT_HASH = 16;		// The default size of the hash table, in megabytes.
+
+	private Evaluator evaluator;				// Scores positions.
+	private final MoveList played;				// The moves made since the position was set up.
+	private final MoveList legal;				// The legal moves of the position being checked.
+	private final AtomicBoolean searching;		// Whether a search is running.
+	private Board board;						// The game's board.
+	private TranspositionTable table;			// The search's hash table.
+	private volatile LazySmpSearcher searcher;	// Searches the board (stopped from other threads).
+	private int hashMegabytes;					// The size of the hash table.
+	private OpeningBook book;					// Where to look up opening moves (null for none).
+	private TablebaseProber tablebases;			// Where to look up endgames (null for none).
+
+	/**
+	 * Constructor for an engine that searches with one thread and the
+	 * default size of hash table.
+	 */
+	public Engine() {
+		this(1, DEFAULT_HASH);
+	}
+
+	/**
+	 * Constructor for an engine with the standard starting position set up.
+	 * 
+	 * @param threads How many threads to search with.
+	 * @param megabytes The size of the hash table, in megabytes.
+	 */
+	public Engine(int threads, int megabytes) {
+		evaluator = new TaperedEvaluator();
+		played = new MoveList();
+		legal = new MoveList();
+		searching = new AtomicBoolean(false);
+		board = new Board(8, 8);
+		hashMegabytes = megabytes;
+		table = new TranspositionTable(megabytes);
+		searcher = new LazySmpSearcher(threads, table, evaluator);
+		book = null;
+		tablebases = null;
+	}
+
+	/**
+	 * Returns the game's board. It must only be looked at, not changed,
+	 * and not while a search is running; make a copy to keep it for later.
+	 * 
+	 * @return The board.
+	 */
+	public Board getBoard() {
+		return board;
+	}
+
+	/**
+	 * Returns the moves made since the position was set up. The list must
+	 * not be changed.
+	 * 
+	 * @return The moves, as packed moves (see Move).
+	 */
+	public MoveList getPlayedMoves() {
+		return played;
+	}
+
+	/**
+	 * Starts a new game from the standard starting position, forgetting
+	 * what earlier searches found.
+	 */
+	public void newGame() {
+		checkIdle();
+		if(board.getWidth() == 8 && board.getHeight() == 8) {
+			board.reset();
+		}
+		else {
+			board = new Board(8, 8);
+		}
+		played.clear();
+		table.clear();
+	}
+
+	/**
+	 * Sets up a position. The board takes whatever size the position
+	 * needs.
+	 * 
+	 * @param fen The position in Forsyth-Edwards Notation.
+	 * @throws IllegalArgumentException If the FEN is not valid, in which
+	 *         case the position is left as it was.
+	 */
+	public void setPosition(CharSequence fen) {
+		checkIdle();
+		Board setUp = Fen.createBoard(fen);
+		board = setUp;
+		played.clear();
+	}
+
+	/**
+	 * Returns the position in Forsyth-Edwards Notation.
+	 * 
+	 * @return The FEN of the position.
+	 */
+	public String getFen() {
+		return Fen.toFen(board);
+	}
+
+	/**
+	 * Finds the legal move a piece of text stands for, in coordinate
+	 * notation (like "e2e4") or SAN (like "Nf3").
+	 * 
+	 * @param text The move.
+	 * @return The packed move.
+	 * @throws IllegalArgumentException If the text is not a legal move.
+	 */
+	public int parseMove(String text) {
+		try {
+			return Move.parse(board, text);
+		}
+		catch(IllegalArgumentException e) {
+			return San.parse(board, text);
+		}
+	}
+
+	/**
+	 * Makes a move.
+	 * 
+	 * @param move The packed move.
+	 * @throws IllegalArgumentException If the move is not legal.
+	 */
+	public void makeMove(int move) {
+		checkIdle();
+		legal.clear();
+		MoveGenerator.generateLegal(board, legal);
+		if(legal.indexOf(move) < 0) {
+			throw new IllegalArgumentException("Illegal move: " + Move.toString(move, board));
+		}
+		board.makeMove(move);
+		played.add(move);
+	}
+
+	/**
+	 * Makes a move given as text (see parseMove).
+	 * 
+	 * @param text The move.
+	 * @return The packed move.
+	 * @throws IllegalArgumentException If the text is not a legal move.
+	 */
+	public int makeMove(String text) {
+		checkIdle();
+		int move = parseMove(text);
+		board.makeMove(move);
+		played.add(move);
+		return move;
+	}
+
+	/**
+	 * Takes back the last move.
+	 * 
+	 * @return True if a move was taken back; false if none has been made
+	 *         since the position was set up.
+	 */
+	public boolean undoMove() {
+		checkIdle();
+		if(played.size() == 0) {
+			return false;
+		}
+		board.unmakeMove();
+		played.truncate(played.size() - 1);
+		return true;
+	}
+
+	/**
+	 * Generates the legal moves of the position.
+	 * 
+	 * @param moves The list to put the moves in (cleared first).
+	 */
+	public void getLegalMoves(MoveList moves) {
+		moves.clear();
+		MoveGenerator.generateLegal(board, moves);
+	}
+
+	/**
+	 * Returns whether the game can go on, and if not, why not.
+	 * 
+	 * @return The game's status.
+	 */
+	public GameStatus getStatus() {
+		legal.clear();
+		MoveGenerator.generateLegal(board, legal);
+		if(legal.size() == 0) {
+			return board.isInCheck()? GameStatus.CHECKMATE : GameStatus.STALEMATE;
+		}
+		if(board.getHalfmoveClock() >= 100) {
+			return GameStatus.FIFTY_MOVES;
+		}
+		if(board.countRepetitions() >= 2) {
+			return GameStatus.REPETITION;
+		}
+		if(isInsufficientMaterial()) {
+			return GameStatus.INSUFFICIENT_MATERIAL;
+		}
+		return GameStatus.ONGOING;
+	}
+
+	/**
+	 * Takes a snapshot of the position for a user interface to show. Like
+	 * anything else that looks at the board, it must not be taken while a
+	 * search is running.
+	 * 
+	 * @return The snapshot.
+	 */
+	public BoardSnapshot snapshot() {
+		GameStatus status = getStatus();
+		int last = (played.size() == 0)? Move.NONE : played.get(played.size() - 1);
+		return new BoardSnapshot(board, legal, last, status);
+	}
+
+	/**
+	 * Returns the static evaluation of the position.
+	 * 
+	 * @return The score, in centipawns from the side to move's point of view.
+	 */
+	public int evaluate() {
+		evaluator.attach(board);
+		return evaluator.evaluate(board);
+	}
+
+	/**
+	 * Searches the position until one of the limits is reached or stop is
+	 * called. Only one search can run at a time.
+	 * 
+	 * @param limits When to stop.
+	 * @param listener Told about each finished iteration (may be null).
+	 * @return What the search found.
+	 * @throws IllegalStateException If a search is already running.
+	 */
+	public SearchResult search(SearchLimits limits, SearchListener listener) {
+		if(!searching.compareAndSet(false, true)) {
+			throw new IllegalStateException("A search is already running");
+		}
+		try {
+			searcher.setListener(listener);
+			return searcher.search(board, limits);
+		}
+		finally {
+			searcher.setListener(null);
+			searching.set(false);
+		}
+	}
+
+	/**
+	 * Makes the running search (if any) finish as soon as possible. Can be
+	 * called from any thread.
+	 */
+	public void stop() {
+		searcher.stop();
+	}
+
+	/**
+	 * Tells the running search, if it was made while pondering, that the
+	 * opponent played the expected move, so that its time limit starts
+	 * counting (see SearchLimits.setPonder). Can be called from any thread.
+	 */
+	public void ponderHit() {
+		searcher.ponderHit();
+	}
+
+	/**
+	 * Returns whether a search is running.
+	 * 
+	 * @return True while a search is running.
+	 */
+	public boolean isSearching() {
+		return searching.get();
+	}
+
+	/**
+	 * Returns the opening book's best move for the position.
+	 * 
+	 * @return The packed move, or Move.NONE if there is no book or the
+	 *         position is not in it.
+	 */
+	public int getBookMove() {
+		return (book == null)? Move.NONE : book.bestMove(board);
+	}
+
+	/**
+	 * Sets the opening book to look moves up in.
+	 * 
+	 * @param openingBook The book (null for none).
+	 */
+	public void setBook(OpeningBook openingBook) {
+		book = openingBook;
+	}
+
+	/**
+	 * Sets the tablebases the search looks endgames up in.
+	 * 
+	 * @param prober The tablebases (null for none).
+	 */
+	public void setTablebases(TablebaseProber prober) {
+		checkIdle();
+		tablebases = prober;
+		searcher.setTablebases(prober);
+	}
+
+	/**
+	 * Returns how many threads the search uses.
+	 * 
+	 * @return The number of threads.
+	 */
+	public int getThreads() {
+		return searcher.getThreads();
+	}
+
+	/**
+	 * Sets how many threads the search uses.
+	 * 
+	 * @param threads The number of threads (at least 1).
+	 */
+	public void setThreads(int threads) {
+		checkIdle();
+		if(threads != searcher.getThreads()) {
+			searcher.shutdown();
+			searcher = new LazySmpSearcher(threads, table, evaluator);
+			searcher.setTablebases(tablebases);
+		}
+	}
+
+	/**
+	 * Changes the numbers positions are scored with.
+	 * 
+	 * @param tables The piece-square tables to score with.
+	 */
+	public void setPieceSquareTables(PieceSquareTables tables) {
+		setEvaluator(new TaperedEvaluator(tables));
+	}
+
+	/**
+	 * Changes what positions are scored with.
+	 * 
+	 * @param positionEvaluator The evaluator (see NnueEvaluator and TaperedEvaluator).
+	 */
+	public void setEvaluator(Evaluator positionEvaluator) {
+		checkIdle();
+		int threads = searcher.getThreads();
+		searcher.shutdown();
+		evaluator = positionEvaluator;
+		// Whatever the new evaluator needs the board to keep, it sets up the first time it is used.
+		board.setPieceSquareTables(null);
+		board.setNetwork(null);
+		searcher = new LazySmpSearcher(threads, table, evaluator);
+		searcher.setTablebases(tablebases);
+	}
+
+	/**
+	 * Returns the size of the hash table.
+	 * 
+	 * @return The size, in megabytes.
+	 */
+	public int getHashSize() {
+		return hashMegabytes;
+	}
+
+	/**
+	 * Replaces the hash table with an empty one of a different size.
+	 * 
+	 * @param megabytes The new size, in megabytes.
+	 */
+	public void setHashSize(int megabytes) {
+		checkIdle();
+		if(megabytes != hashMegabytes) {
+			int threads = searcher.getThreads();
+			searcher.shutdown();
+			table = new TranspositionTable(megabytes);
+			hashMegabytes = megabytes;
+			searcher = new LazySmpSearcher(threads, table, evaluator);
+			searcher.setTablebases(tablebases);
+		}
+	}
+
+	/**
+	 * Stops the search's helper threads once the engine is no longer needed.
+	 */
+	public void shutdown() {
+		searcher.shutdown();
+	}
+
+	/**
+	 * Private helper. Makes sure no search is running.
+	 * 
+	 * @throws IllegalStateException If a search is running.
+	 */
+	private void checkIdle() {
+		if(searching.get()) {
+			throw new IllegalStateException("Cannot change the engine while it is searching");
+		}
+	}
+
+	/**
+	 * Private helper for getStatus. Works out whether neither side has
+	 * enough pieces left to mate: only the kings, with at most one bishop
+	 * or knight between them.
+	 * 
+	 * @return True if nobody can mate.
+	 */
+	private boolean isInsufficientMaterial() {
+		ArrayList<Piece> pieces = board.getPieces();
+		int minors = 0;
+		for(int i = 0; i < pieces.size(); i++) {
+			PieceType type = pieces.get(i).getType();
+			if(type == PieceType.BISHOP || type == PieceType.KNIGHT) {
+				minors++;
+			}
+			else if(type != PieceType.KING) {
+				return false;
+			}
+		}
+		return minors <= 1;
+	}
+}
\ No newline at end of file
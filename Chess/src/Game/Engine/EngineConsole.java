@@ -0,0 +1,227 @@
+package Game.Engine;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import Game.Board;
+import Game.Move;
+import Game.MoveList;
+import Game.San;
+import Game.Book.OpeningBook;
+import Game.Search.SearchBenchmark;
+import Game.Search.SearchLimits;
+import Game.Search.SearchListener;
+import Game.Search.SearchResult;
+import Game.Search.Searcher;
+import Game.Tablebase.TablebaseProber;
+/**
+ * A plain text front end for an Engine, one command per line, for running
+ * the engine where there is no display (see Chess.main). Type "help" for
+ * the commands. Searches run on the thread reading the commands, so each
+ * command waits until the search before it has finished.
+ * 
+ * @author Priten Vora
+ *
+ */
+public class EngineConsole {
+
+	private static final String HELP =				// What "help" prints.
+		"new | position <fen> | fen | moves | move <move>... | undo | status | eval\n"
+		+ "go [depth <n>] [movetime <ms>] [nodes <n>] | book <file> | tablebases <dir>\n"
+		+ "threads <n> | hash <mb> | help | quit";
+
+	private final Engine engine;			// The engine being driven.
+	private final BufferedReader in;		// Where the commands come from.
+	private final PrintStream out;			// Where the answers go.
+
+	/**
+	 * Constructor for a console for an engine.
+	 * 
+	 * @param chessEngine The engine.
+	 * @param input Where to read the commands from.
+	 * @param output Where to write the answers.
+	 */
+	public EngineConsole(Engine chessEngine, InputStream input, PrintStream output) {
+		engine = chessEngine;
+		in = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+		out = output;
+	}
+
+	/**
+	 * Reads and carries out commands until "quit" or the end of the input.
+	 * 
+	 * @throws IOException If the input cannot be read.
+	 */
+	public void run() throws IOException {
+		String line;
+		while((line = in.readLine()) != null) {
+			if(!execute(line.trim())) {
+				break;
+			}
+			out.flush();
+		}
+		out.flush();
+	}
+
+	/**
+	 * Carries out one command. An error is written out rather than thrown.
+	 * 
+	 * @param line The command and its arguments.
+	 * @return False if the command was "quit"; true otherwise.
+	 */
+	public boolean execute(String line) {
+		String[] words = line.split("\\s+");
+		String command = words[0];
+		String rest = line.substring(command.length()).trim();
+		try {
+			if(command.isEmpty()) {
+				return true;
+			}
+			else if(command.equals("quit")) {
+				return false;
+			}
+			else if(command.equals("new")) {
+				engine.newGame();
+			}
+			else if(command.equals("position")) {
+				engine.setPosition(rest);
+			}
+			else if(command.equals("fen")) {
+				out.println(engine.getFen());
+			}
+			else if(command.equals("moves")) {
+				printMoves();
+			}
+			else if(command.equals("move")) {
+				for(int i = 1; i < words.length; i++) {
+					engine.makeMove(words[i]);
+				}
+			}
+			else if(command.equals("undo")) {
+				if(!engine.undoMove()) {
+					out.println("No move to take back");
+				}
+			}
+			else if(command.equals("status")) {
+				out.println(engine.getStatus());
+			}
+			else if(command.equals("eval")) {
+				out.println(engine.evaluate());
+			}
+			else if(command.equals("go")) {
+				go(words);
+			}
+			else if(command.equals("book")) {
+				engine.setBook(rest.isEmpty()? null : new OpeningBook(new File(rest)));
+			}
+			else if(command.equals("tablebases")) {
+				Board board = engine.getBoard();
+				engine.setTablebases(rest.isEmpty()? null
+						: new TablebaseProber(new File(rest), board.getWidth(), board.getHeight()));
+			}
+			else if(command.equals("threads")) {
+				engine.setThreads(Integer.parseInt(rest));
+			}
+			else if(command.equals("hash")) {
+				engine.setHashSize(Integer.parseInt(rest));
+			}
+			else if(command.equals("help")) {
+				out.println(HELP);
+			}
+			else {
+				out.println("Unknown command: " + command + " (try \"help\")");
+			}
+		}
+		catch(IllegalArgumentException e) {
+			out.println("Error: " + e.getMessage());
+		}
+		catch(IllegalStateException e) {
+			out.println("Error: " + e.getMessage());
+		}
+		catch(IOException e) {
+			out.println("Error: " + e.getMessage());
+		}
+		return true;
+	}
+
+	/**
+	 * Private helper for execute. Writes out the legal moves in SAN.
+	 */
+	private void printMoves() {
+		MoveList moves = new MoveList();
+		engine.getLegalMoves(moves);
+		StringBuilder line = new StringBuilder();
+		for(int i = 0; i < moves.size(); i++) {
+			line.append((i == 0)? "" : " ").append(San.toSan(engine.getBoard(), moves.get(i)));
+		}
+		out.println(line);
+	}
+
+	/**
+	 * Private helper for execute. Plays the book move if there is one, or
+	 * else searches, writing out each iteration and then the best move.
+	 * 
+	 * @param words The command and its arguments.
+	 */
+	private void go(String[] words) {
+		int bookMove = engine.getBookMove();
+		if(bookMove != Move.NONE) {
+			out.println("bestmove " + Move.toString(bookMove, engine.getBoard()) + " (book)");
+			return;
+		}
+		SearchLimits limits = new SearchLimits();
+		for(int i = 1; i + 1 < words.length; i += 2) {
+			long value = Long.parseLong(words[i + 1]);
+			if(words[i].equals("depth")) {
+				limits.setDepth((int)value);
+			}
+			else if(words[i].equals("movetime")) {
+				limits.setMoveTime(value);
+			}
+			else if(words[i].equals("nodes")) {
+				limits.setNodes(value);
+			}
+			else {
+				throw new IllegalArgumentException("Unknown limit: " + words[i]);
+			}
+		}
+		if(limits.getDepth() == 0 && limits.getMoveTime() == 0 && limits.getNodes() == 0) {
+			limits.setMoveTime(1000);
+		}
+		final Board board = engine.getBoard();
+		SearchResult result = engine.search(limits, new SearchListener() {
+			@Override
+			public void iterationFinished(SearchResult iteration) {
+				out.printf("depth %d score %s nodes %d nps %d time %d pv %s%n", iteration.getDepth(),
+						SearchBenchmark.scoreString(iteration.getScore()), iteration.getNodes(),
+						iteration.getNodesPerSecond(), iteration.getElapsed(), iteration.pvString(board));
+				out.flush();
+			}
+		});
+		out.println("bestmove " + Move.toString(result.getBestMove(), board)
+				+ (Searcher.isMate(result.getScore())? " (mate in " + Searcher.mateIn(result.getScore()) + ")" : ""));
+	}
+
+	/**
+	 * Runs a console on the standard input and output.
+	 * Usage: EngineConsole [threads] [hashMB]
+	 * 
+	 * @param args The number of threads to search with (default 1) and
+	 *        the hash table size in megabytes (default 16).
+	 * @throws IOException If the input cannot be read.
+	 */
+	public static void main(String[] args) throws IOException {
+		int threads = (args.length > 0)? Integer.parseInt(args[0]) : 1;
+		int megabytes = (args.length > 1)? Integer.parseInt(args[1]) : Engine.DEFAULT_HASH;
+		Engine engine = new Engine(threads, megabytes);
+		try {
+			new EngineConsole(engine, System.in, System.out).run();
+		}
+		finally {
+			engine.shutdown();
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,19 @@
+package Game.Engine;
+/**
+ * Whether the game on an Engine's board can go on, and if not, why not.
+ * 
+ * @author Priten Vora
+ *
+ */
+public enum GameStatus {
+	ONGOING, CHECKMATE, STALEMATE, FIFTY_MOVES, REPETITION, INSUFFICIENT_MATERIAL;	// How a game can stand.
+
+	/**
+	 * Returns whether or not the game is over.
+	 * 
+	 * @return True for every status but ONGOING.
+	 */
+	public boolean isOver() {
+		return this != ONGOING;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,560 @@
+package Game.Engine;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import Game.Board;
+import Game.Color;
+import Game.Fen;
+import Game.Move;
+import Game.Book.OpeningBook;
+import Game.Eval.NnueEvaluator;
+import Game.Eval.NnueNetwork;
+import Game.Eval.PieceSquareTables;
+import Game.Eval.TaperedEvaluator;
+import Game.Search.SearchLimits;
+import Game.Search.SearchListener;
+import Game.Search.SearchResult;
+import Game.Search.Searcher;
+import Game.Tablebase.TablebaseProber;
+/**
+ * Drives an Engine over the Universal Chess Interface, so that any UCI
+ * graphical interface or match runner can play with it (see Chess.main).
+ * Three threads share the work, so none of them ever waits on another:
+ *
+ *   - the thread calling run reads the commands and answers "isready",
+ *     "stop" and "ponderhit" itself, straight away even mid-search;
+ *   - every command that uses the engine ("position", "go", "setoption"
+ *     and "ucinewgame") is handed to a search thread, which carries them
+ *     out one after another, searches included;
+ *   - everything written out goes through a queue to a writer thread,
+ *     so a search never blocks on a slow reader of its "info" lines.
+ *
+ * A command for the search thread that comes while a search is running
+ * stops the search, and is carried out after its "bestmove". The reader
+ * only asks the search to stop and never waits for it, so commands that
+ * follow are still read and answered however long the search takes.
+ *
+ * @author Priten Vora
+ *
+ */
+public class UciFrontEnd {
+
+	private static final String NAME = "Chess";				// The engine's name, as given to "uci".
+	private static final String AUTHOR = "Priten Vora";		// Who wrote it.
+	private static final int MOVE_OVERHEAD = 30;			// Milliseconds kept back from each move for lag.
+	private static final int MOVES_TO_GO = 30;				// How many moves are left when the GUI does not say.
+	private static final String END_OF_OUTPUT = new String("");	// Tells the writer thread to finish.
+	private static final int QUIT_WAIT = 5;					// Seconds to wait for the search thread on "quit".
+
+	private final Engine engine;								// The engine being driven.
+	private final BufferedReader in;							// Where the commands come from.
+	private final PrintStream out;								// Where the answers go (only the writer thread uses it).
+	private final LinkedBlockingQueue<String> output;			// Lines waiting to be written.
+	private final Thread writer;								// Writes out the lines.
+	private final ExecutorService searchThread;					// Carries out the commands that use the engine.
+	private final Object searchLock;							// Guards the three counts below.
+	private int searchesQueued;									// How many "go" commands have been read.
+	private int searchesStopped;								// How many of those searches have been told to stop.
+	private int ponderHits;										// How many of them have had "ponderhit" (or were later).
+	private OpeningBook book;									// The book, if "OwnBook" is on (null otherwise).
+	private String bookFile;									// The "BookFile" option.
+	private boolean ownBook;									// The "OwnBook" option.
+	private PieceSquareTables tables;							// The tables from "EvalFile" (the defaults if none).
+	private NnueNetwork network;								// The network from "EvalNetwork" (null if none).
+
+	/**
+	 * Constructor for a front end to an engine.
+	 *
+	 * @param chessEngine The engine.
+	 * @param input Where to read the commands from.
+	 * @param printStream Where to write the answers.
+	 */
+	public UciFrontEnd(Engine chessEngine, InputStream input, PrintStream printStream) {
+		engine = chessEngine;
+		in = new BufferedReader(new InputStreamReader(input, StandardCharsets.US_ASCII));
+		out = printStream;
+		output = new LinkedBlockingQueue<String>();
+		writer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				writeOutput();
+			}
+		}, "uci-output");
+		writer.setDaemon(true);
+		searchThread = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable task) {
+				Thread thread = new Thread(task, "uci-search");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		searchLock = new Object();
+		searchesQueued = 0;
+		searchesStopped = 0;
+		ponderHits = 0;
+		book = null;
+		bookFile = "";
+		ownBook = false;
+		tables = PieceSquareTables.defaults();
+		network = null;
+	}
+
+	/**
+	 * Reads and carries out commands until "quit" or the end of the input,
+	 * then stops any search and writes out whatever is left. Commands
+	 * still waiting for the search thread are given QUIT_WAIT seconds to
+	 * finish.
+	 *
+	 * @throws IOException If the input cannot be read.
+	 */
+	public void run() throws IOException {
+		writer.start();
+		try {
+			String line;
+			while((line = in.readLine()) != null) {
+				if(!execute(line.trim())) {
+					break;
+				}
+			}
+		}
+		finally {
+			stopSearch();
+			searchThread.shutdown();
+			try {
+				searchThread.awaitTermination(QUIT_WAIT, TimeUnit.SECONDS);
+				output.add(END_OF_OUTPUT);
+				writer.join();
+			}
+			catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Carries out one command, or hands it to the search thread if it
+	 * uses the engine. Unknown commands and bad arguments are reported in
+	 * an "info string" line, as the protocol has no errors.
+	 *
+	 * @param line The command and its arguments.
+	 * @return False if the command was "quit"; true otherwise.
+	 */
+	public boolean execute(String line) {
+		String[] words = line.split("\\s+");
+		String command = words[0];
+		if(command.equals("isready")) {
+			send("readyok");
+		}
+		else if(command.equals("stop")) {
+			stopSearch();
+		}
+		else if(command.equals("ponderhit")) {
+			ponderHit();
+		}
+		else if(command.equals("quit")) {
+			return false;
+		}
+		else if(command.equals("uci")) {
+			identify();
+		}
+		else if(command.equals("ucinewgame") || command.equals("position") || command.equals("setoption")) {
+			stopSearch();
+			carryOutLater(line, words, 0);
+		}
+		else if(command.equals("go")) {
+			stopSearch();
+			int search;
+			synchronized(searchLock) {
+				search = ++searchesQueued;
+			}
+			carryOutLater(line, words, search);
+		}
+		else if(!command.isEmpty() && !command.equals("debug") && !command.equals("register")) {
+			send("info string Unknown command: " + command);
+		}
+		return true;
+	}
+
+	/**
+	 * Private helper for execute. Hands a command that uses the engine to
+	 * the search thread, which carries it out after the commands before it.
+	 *
+	 * @param line The whole command.
+	 * @param words The command and its arguments.
+	 * @param search The number of the search, for "go" (0 otherwise).
+	 */
+	private void carryOutLater(final String line, final String[] words, final int search) {
+		searchThread.execute(new Runnable() {
+			@Override
+			public void run() {
+				String command = words[0];
+				try {
+					if(command.equals("ucinewgame")) {
+						engine.newGame();
+					}
+					else if(command.equals("position")) {
+						position(words);
+					}
+					else if(command.equals("go")) {
+						go(words, search);
+					}
+					else {
+						setOption(line);
+					}
+				}
+				catch(IllegalArgumentException e) {
+					send("info string Error: " + e.getMessage());
+				}
+				catch(IOException e) {
+					send("info string Error: " + e.getMessage());
+				}
+			}
+		});
+	}
+
+	/**
+	 * Private helper. Queues a line to be written out.
+	 *
+	 * @param line The line.
+	 */
+	private void send(String line) {
+		output.add(line);
+	}
+
+	/**
+	 * Private helper for the writer thread. Writes the queued lines out,
+	 * flushing whenever the queue runs dry, until END_OF_OUTPUT.
+	 */
+	private void writeOutput() {
+		try {
+			while(true) {
+				String line = output.take();
+				if(line == END_OF_OUTPUT) {
+					break;
+				}
+				out.println(line);
+				if(output.isEmpty()) {
+					out.flush();
+				}
+			}
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		out.flush();
+	}
+
+	/**
+	 * Private helper for execute. Answers "uci" with the engine's name and
+	 * options.
+	 */
+	private void identify() {
+		send("id name " + NAME);
+		send("id author " + AUTHOR);
+		send("option name Hash type spin default " + Engine.DEFAULT_HASH + " min 1 max 65536");
+		send("option name Threads type spin default 1 min 1 max 256");
+		send("option name OwnBook type check default false");
+		send("option name BookFile type string default <empty>");
+		send("option name TablebasePath type string default <empty>");
+		send("option name EvalFile type string default <empty>");
+		send("option name EvalNetwork type string default <empty>");
+		send("uciok");
+	}
+
+	/**
+	 * Private helper for the search thread. Carries out "setoption name N [value V]".
+	 *
+	 * @param line The whole command (option names and values may have spaces).
+	 * @throws IOException If a book, tablebases or an evaluation file or network cannot be opened.
+	 */
+	private void setOption(String line) throws IOException {
+		int nameAt = line.indexOf(" name ");
+		int valueAt = line.indexOf(" value ");
+		if(nameAt < 0) {
+			throw new IllegalArgumentException("No option name: " + line);
+		}
+		String name = line.substring(nameAt + 6, (valueAt > nameAt)? valueAt : line.length()).trim();
+		String value = (valueAt > nameAt)? line.substring(valueAt + 7).trim() : "";
+		if(value.equals("<empty>")) {
+			value = "";
+		}
+		if(name.equalsIgnoreCase("Hash")) {
+			engine.setHashSize(Integer.parseInt(value));
+		}
+		else if(name.equalsIgnoreCase("Threads")) {
+			engine.setThreads(Integer.parseInt(value));
+		}
+		else if(name.equalsIgnoreCase("OwnBook")) {
+			ownBook = Boolean.parseBoolean(value);
+			openBook();
+		}
+		else if(name.equalsIgnoreCase("BookFile")) {
+			bookFile = value;
+			openBook();
+		}
+		else if(name.equalsIgnoreCase("TablebasePath")) {
+			Board board = engine.getBoard();
+			engine.setTablebases(value.isEmpty()? null
+					: new TablebaseProber(new File(value), board.getWidth(), board.getHeight()));
+		}
+		else if(name.equalsIgnoreCase("EvalFile")) {
+			tables = value.isEmpty()? PieceSquareTables.defaults() : new PieceSquareTables(new File(value));
+			setEvaluator();
+		}
+		else if(name.equalsIgnoreCase("EvalNetwork")) {
+			if(network != null) {
+				network.close();
+			}
+			network = value.isEmpty()? null : new NnueNetwork(new File(value));
+			setEvaluator();
+		}
+		else {
+			throw new IllegalArgumentException("Unknown option: " + name);
+		}
+	}
+
+	/**
+	 * Private helper for setOption. Scores with the network if there is
+	 * one, and with the tables otherwise (and on boards the network is
+	 * not for).
+	 */
+	private void setEvaluator() {
+		TaperedEvaluator tapered = new TaperedEvaluator(tables);
+		engine.setEvaluator((network != null)? new NnueEvaluator(network, tapered) : tapered);
+	}
+
+	/**
+	 * Private helper for setOption. Opens the book if one should be used.
+	 *
+	 * @throws IOException If the book cannot be opened.
+	 */
+	private void openBook() throws IOException {
+		if(book != null) {
+			book.close();
+			book = null;
+		}
+		if(ownBook && !bookFile.isEmpty()) {
+			book = new OpeningBook(new File(bookFile));
+		}
+		engine.setBook(book);
+	}
+
+	/**
+	 * Private helper for the search thread. Carries out "position [startpos | fen F]
+	 * [moves M...]".
+	 *
+	 * @param words The command and its arguments.
+	 */
+	private void position(String[] words) {
+		int moves = words.length;
+		for(int i = 1; i < words.length; i++) {
+			if(words[i].equals("moves")) {
+				moves = i;
+				break;
+			}
+		}
+		if(words.length > 1 && words[1].equals("fen")) {
+			StringBuilder fen = new StringBuilder();
+			for(int i = 2; i < moves; i++) {
+				fen.append(words[i]).append(' ');
+			}
+			engine.setPosition(fen);
+		}
+		else if(words.length > 1 && words[1].equals("startpos")) {
+			engine.setPosition(Fen.STARTING_POSITION);
+		}
+		else {
+			throw new IllegalArgumentException("Expected startpos or fen: " + words[0]);
+		}
+		for(int i = moves + 1; i < words.length; i++) {
+			engine.makeMove(Move.parse(engine.getBoard(), words[i]));
+		}
+	}
+
+	/**
+	 * Private helper for the search thread. Carries out "go": searches
+	 * with the limits it gives, or answers straight away from the book if
+	 * the position is in it. While pondering, the time the command gives
+	 * only starts counting on "ponderhit".
+	 *
+	 * @param words The command and its arguments.
+	 * @param search The number of the search.
+	 */
+	private void go(String[] words, int search) {
+		SearchLimits limits = new SearchLimits();
+		long time = 0;
+		long increment = 0;
+		int movesToGo = MOVES_TO_GO;
+		boolean white = (engine.getBoard().getSideToMove() == Color.WHITE);
+		boolean infinite = false;
+		boolean ponder = false;
+		for(int i = 1; i < words.length; i++) {
+			String word = words[i];
+			if(word.equals("infinite")) {
+				infinite = true;
+				continue;
+			}
+			if(word.equals("ponder")) {
+				ponder = true;
+				continue;
+			}
+			if(i + 1 >= words.length) {
+				break;
+			}
+			if(word.equals("depth")) {
+				limits.setDepth(Integer.parseInt(words[++i]));
+			}
+			else if(word.equals("nodes")) {
+				limits.setNodes(Long.parseLong(words[++i]));
+			}
+			else if(word.equals("movetime")) {
+				limits.setMoveTime(Math.max(1, Long.parseLong(words[++i]) - MOVE_OVERHEAD));
+			}
+			else if(word.equals(white? "wtime" : "btime")) {
+				time = Long.parseLong(words[++i]);
+			}
+			else if(word.equals(white? "winc" : "binc")) {
+				increment = Long.parseLong(words[++i]);
+			}
+			else if(word.equals("movestogo")) {
+				movesToGo = Math.max(1, Integer.parseInt(words[++i]));
+			}
+		}
+		if(time > 0 && limits.getMoveTime() == 0) {
+			long budget = time / movesToGo + increment * 3 / 4;
+			limits.setMoveTime(Math.max(1, Math.min(budget, time / 2) - MOVE_OVERHEAD));
+		}
+		if(!infinite && !ponder) {
+			int bookMove = engine.getBookMove();
+			if(bookMove != Move.NONE) {
+				send("bestmove " + Move.toString(bookMove, engine.getBoard()));
+				return;
+			}
+		}
+		limits.setPonder(ponder);
+		search(limits, search, infinite, ponder);
+	}
+
+	/**
+	 * Private helper for go. Runs a search, streaming an "info" line for
+	 * each iteration, and then gives the best move. An infinite search
+	 * only gives it once "stop" comes, and one made while pondering once
+	 * "stop" or "ponderhit" comes.
+	 *
+	 * @param limits When to stop.
+	 * @param search The number of the search.
+	 * @param infinite Whether the search is infinite.
+	 * @param ponder Whether the search is made while pondering.
+	 */
+	private void search(SearchLimits limits, final int search, boolean infinite, final boolean ponder) {
+		final Board board = engine.getBoard();
+		int best = Move.NONE;
+		try {
+			SearchResult result = engine.search(limits, new SearchListener() {
+				@Override
+				public void iterationFinished(SearchResult iteration) {
+					send(info(iteration, board));
+
+					// A "stop" or "ponderhit" that came before the search started was missed by it.
+					synchronized(searchLock) {
+						if(searchesStopped >= search) {
+							engine.stop();
+						}
+						else if(ponder && ponderHits >= search) {
+							engine.ponderHit();
+						}
+					}
+				}
+			});
+			best = result.getBestMove();
+			synchronized(searchLock) {
+				while((infinite || ponder) && searchesStopped < search && !(ponder && ponderHits >= search)) {
+					searchLock.wait();
+				}
+			}
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		catch(RuntimeException e) {
+			send("info string Error: " + e);
+		}
+		finally {
+			send("bestmove " + Move.toString(best, board));
+		}
+	}
+
+	/**
+	 * Private helper for search. Writes an iteration out as an "info" line.
+	 *
+	 * @param result What the iteration found.
+	 * @param board The board searched.
+	 * @return The line.
+	 */
+	private static String info(SearchResult result, Board board) {
+		StringBuilder line = new StringBuilder("info depth ").append(result.getDepth());
+		int score = result.getScore();
+		if(Searcher.isMate(score)) {
+			line.append(" score mate ").append(Searcher.mateIn(score));
+		}
+		else {
+			line.append(" score cp ").append(score);
+		}
+		line.append(" nodes ").append(result.getNodes());
+		line.append(" nps ").append(result.getNodesPerSecond());
+		line.append(" time ").append(result.getElapsed());
+		line.append(" pv ").append(result.pvString(board));
+		return line.toString();
+	}
+
+	/**
+	 * Private helper. Makes every search read so far finish as soon as
+	 * possible, without waiting for any of them; their "bestmove" lines
+	 * follow from the search thread.
+	 */
+	private void stopSearch() {
+		synchronized(searchLock) {
+			searchesStopped = searchesQueued;
+			searchLock.notifyAll();
+		}
+		engine.stop();
+	}
+
+	/**
+	 * Private helper for execute. Carries out "ponderhit": the search made
+	 * while pondering carries on, now with the time its "go" gave it.
+	 */
+	private void ponderHit() {
+		synchronized(searchLock) {
+			ponderHits = searchesQueued;
+			searchLock.notifyAll();
+		}
+		engine.ponderHit();
+	}
+
+	/**
+	 * Runs the engine over UCI on the standard input and output.
+	 *
+	 * @param args Not used.
+	 * @throws IOException If the input cannot be read.
+	 */
+	public static void main(String[] args) throws IOException {
+		Engine engine = new Engine();
+		try {
+			new UciFrontEnd(engine, System.in, System.out).run();
+		}
+		finally {
+			engine.shutdown();
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,33 @@
+package Game.Eval;
+import Game.Board;
+/**
+ * Scores a position statically, without looking at any moves. Searches
+ * call an evaluator at the ends of the lines they look at, so it should
+ * be quick and must not change the board. Evaluators that score from
+ * something the board keeps up to date as moves are made are given each
+ * board once beforehand, with attach.
+ * 
+ * @author Priten Vora
+ *
+ */
+public interface Evaluator {
+
+	/**
+	 * Scores the position on the board.
+	 * 
+	 * @param board The board to score.
+	 * @return The score in centipawns, from the point of view of the side to move.
+	 */
+	int evaluate(Board board);
+
+	/**
+	 * Readies a board to be scored, by giving it whatever the evaluator
+	 * needs it to keep up to date as moves are made (see
+	 * Board.setPieceSquareTables and Board.setNetwork). Searches call this
+	 * on their board before they start, and it does nothing to a board
+	 * that is ready already. The position itself is left as it was.
+	 * 
+	 * @param board The board to ready.
+	 */
+	void attach(Board board);
+}
\ No newline at end of file
@@ -0,0 +1,60 @@
+package Game.Eval;
+import Game.Bitboards;
+import Game.Board;
+import Game.Color;
+import Game.PieceType;
+import Game.WideBitboards;
+/**
+ * Scores a position by counting material: every pawn is worth 100, every
+ * knight and bishop 300, every rook 500 and every queen 900. The counts
+ * come straight from the board's bitboards.
+ * 
+ * @author Priten Vora
+ *
+ */
+public class MaterialEvaluator implements Evaluator {
+
+	private static final int[] VALUES = {100, 300, 300, 500, 900, 0};	// Values by PieceType ordinal.
+	private static final PieceType[] TYPES = PieceType.values();		// Every type, without copying each time.
+
+	/**
+	 * Scores the position on the board by material alone.
+	 * 
+	 * @param board The board to score.
+	 * @return The material balance, from the point of view of the side to move.
+	 */
+	public int evaluate(Board board) {
+		Bitboards bitboards = board.getBitboards();
+		WideBitboards wide = board.getWideBitboards();
+		int score = 0;
+		for(PieceType type : TYPES) {
+			int count;
+			if(bitboards != null) {
+				count = Long.bitCount(bitboards.pieces(Color.WHITE, type)) - Long.bitCount(bitboards.pieces(Color.BLACK, type));
+			}
+			else {
+				count = wide.count(Bitboards.index(Color.WHITE, type)) - wide.count(Bitboards.index(Color.BLACK, type));
+			}
+			score += count * VALUES[type.ordinal()];
+		}
+		return (board.getSideToMove() == Color.WHITE)? score : -score;
+	}
+
+	/**
+	 * Does nothing: material is counted straight from the bitboards.
+	 * 
+	 * @param board The board to ready.
+	 */
+	public void attach(Board board) {
+	}
+
+	/**
+	 * Returns how much a piece of the given type is worth.
+	 * 
+	 * @param type The type of piece.
+	 * @return Its value in centipawns (0 for the king).
+	 */
+	public static int value(PieceType type) {
+		return VALUES[type.ordinal()];
+	}
+}
\ No newline at end of file
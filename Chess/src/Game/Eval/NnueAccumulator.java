@@ -0,0 +1,223 @@
+package Game.Eval;
+import java.nio.ShortBuffer;
+import Game.Color;
+import Game.PieceType;
+/**
+ * The first layer of an NnueNetwork for one board: an accumulator for
+ * each side, holding the sum of the biases and the weight rows of every
+ * feature that is on. A board keeps one up to date as pieces are placed,
+ * moved and taken (see Board.setNetwork), which costs a row or two of
+ * additions each, and the network scores the board from it without
+ * looking at the pieces. Taking a move back does not need the rows at
+ * all: the board saves the accumulators before each move, as it does its
+ * attack maps, and copies them back. The rows are copied out of the mapped file into
+ * a small buffer before being added, so that the additions themselves
+ * are simple loops over arrays, which the JIT compiler can turn into
+ * vector instructions. An accumulator must only be used by one thread.
+ * 
+ * @author Priten Vora
+ *
+ */
+public class NnueAccumulator {
+
+	private final NnueNetwork network;	// The network whose first layer this is.
+	private final ShortBuffer weights;	// This accumulator's own view of the network's weights.
+	private final int width;			// The width of the board.
+	private final int height;			// The height of the board.
+	private final int hidden;			// How many numbers each accumulator holds.
+	private final short[] white;		// White's accumulator.
+	private final short[] black;		// Black's accumulator.
+	private final short[] row;			// Room for a row of weights read from the file.
+	private final short[] otherRow;		// Room for a second row, for moves.
+
+	/**
+	 * Constructor for the accumulators of an empty board.
+	 * 
+	 * @param net The network whose first layer this is.
+	 */
+	public NnueAccumulator(NnueNetwork net) {
+		network = net;
+		weights = net.weights();
+		width = net.getWidth();
+		height = net.getHeight();
+		hidden = net.getHiddenSize();
+		white = new short[hidden];
+		black = new short[hidden];
+		row = new short[hidden];
+		otherRow = new short[hidden];
+		clear();
+	}
+
+	/**
+	 * Returns the network whose first layer this is.
+	 * 
+	 * @return The network.
+	 */
+	public NnueNetwork getNetwork() {
+		return network;
+	}
+
+	/**
+	 * Empties the board: both accumulators go back to just the biases.
+	 */
+	public void clear() {
+		System.arraycopy(network.getBiases(), 0, white, 0, hidden);
+		System.arraycopy(network.getBiases(), 0, black, 0, hidden);
+	}
+
+	/**
+	 * Turns on the features of a piece placed on a square.
+	 * 
+	 * @param piece The index of the piece (see Bitboards.index).
+	 * @param square The square it is placed on.
+	 */
+	public void add(int piece, int square) {
+		addRow(white, whiteFeature(piece, square));
+		addRow(black, blackFeature(piece, square));
+	}
+
+	/**
+	 * Turns off the features of a piece taken off a square.
+	 * 
+	 * @param piece The index of the piece (see Bitboards.index).
+	 * @param square The square it is taken from.
+	 */
+	public void remove(int piece, int square) {
+		subtractRow(white, whiteFeature(piece, square));
+		subtractRow(black, blackFeature(piece, square));
+	}
+
+	/**
+	 * Moves the features of a piece from one square to another.
+	 * 
+	 * @param piece The index of the piece (see Bitboards.index).
+	 * @param from The square it is moved from.
+	 * @param to The square it is moved to.
+	 */
+	public void move(int piece, int from, int to) {
+		moveRow(white, whiteFeature(piece, from), whiteFeature(piece, to));
+		moveRow(black, blackFeature(piece, from), blackFeature(piece, to));
+	}
+
+	/**
+	 * Returns how many numbers save writes per snapshot.
+	 * 
+	 * @return The size of a snapshot.
+	 */
+	public int snapshotSize() {
+		return 2 * hidden;
+	}
+
+	/**
+	 * Copies both accumulators into the given slot of a snapshot array.
+	 * 
+	 * @param saved Where to save them (snapshotSize numbers per slot).
+	 * @param slot Which slot to save into.
+	 */
+	public void save(short[] saved, int slot) {
+		System.arraycopy(white, 0, saved, slot * 2 * hidden, hidden);
+		System.arraycopy(black, 0, saved, slot * 2 * hidden + hidden, hidden);
+	}
+
+	/**
+	 * Puts both accumulators back the way they were when saved into the given slot.
+	 * 
+	 * @param saved The saved accumulators.
+	 * @param slot Which slot to restore from.
+	 */
+	public void restore(short[] saved, int slot) {
+		System.arraycopy(saved, slot * 2 * hidden, white, 0, hidden);
+		System.arraycopy(saved, slot * 2 * hidden + hidden, black, 0, hidden);
+	}
+
+	/**
+	 * Returns a side's accumulator. It must not be changed.
+	 * 
+	 * @param color The side.
+	 * @return The accumulator.
+	 */
+	public short[] get(Color color) {
+		return (color == Color.WHITE)? white : black;
+	}
+
+	/**
+	 * Scores the board with the network.
+	 * 
+	 * @param sideToMove Whose turn it is.
+	 * @return The score in centipawns, from the point of view of the side to move.
+	 */
+	public int evaluate(Color sideToMove) {
+		return (sideToMove == Color.WHITE)? network.evaluate(white, black) : network.evaluate(black, white);
+	}
+
+	/**
+	 * Private helper. Returns the feature of a piece on a square from white's point of view.
+	 * 
+	 * @param piece The index of the piece.
+	 * @param square The square.
+	 * @return The feature.
+	 */
+	private int whiteFeature(int piece, int square) {
+		return piece * width * height + square;
+	}
+
+	/**
+	 * Private helper. Returns the feature of a piece on a square from
+	 * black's point of view: with the board flipped top to bottom and
+	 * the piece's color swapped.
+	 * 
+	 * @param piece The index of the piece.
+	 * @param square The square.
+	 * @return The feature.
+	 */
+	private int blackFeature(int piece, int square) {
+		int swapped = (piece + PieceType.COUNT) % (2 * PieceType.COUNT);
+		return swapped * width * height + (height - 1 - square / width) * width + square % width;
+	}
+
+	/**
+	 * Private helper. Adds a feature's row of weights to an accumulator.
+	 * 
+	 * @param accumulator The accumulator.
+	 * @param feature The feature.
+	 */
+	private void addRow(short[] accumulator, int feature) {
+		weights.position(feature * hidden);
+		weights.get(row);
+		for(int i = 0; i < hidden; i++) {
+			accumulator[i] += row[i];
+		}
+	}
+
+	/**
+	 * Private helper. Subtracts a feature's row of weights from an accumulator.
+	 * 
+	 * @param accumulator The accumulator.
+	 * @param feature The feature.
+	 */
+	private void subtractRow(short[] accumulator, int feature) {
+		weights.position(feature * hidden);
+		weights.get(row);
+		for(int i = 0; i < hidden; i++) {
+			accumulator[i] -= row[i];
+		}
+	}
+
+	/**
+	 * Private helper. Subtracts one feature's row of weights from an
+	 * accumulator and adds another's, in one pass.
+	 * 
+	 * @param accumulator The accumulator.
+	 * @param off The feature turned off.
+	 * @param on The feature turned on.
+	 */
+	private void moveRow(short[] accumulator, int off, int on) {
+		weights.position(off * hidden);
+		weights.get(otherRow);
+		weights.position(on * hidden);
+		weights.get(row);
+		for(int i = 0; i < hidden; i++) {
+			accumulator[i] += row[i] - otherRow[i];
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,80 @@
+package Game.Eval;
+import Game.Board;
+/**
+ * Scores a position with an NnueNetwork. The board keeps the network's
+ * accumulators up to date as moves are made and unmade (see
+ * Board.setNetwork), so scoring a position only runs the output layer.
+ * A network is trained for one size of board; boards of any other size
+ * are scored by a fallback evaluator instead.
+ * 
+ * @author Priten Vora
+ *
+ */
+public class NnueEvaluator implements Evaluator {
+
+	private final NnueNetwork network;	// The network to score with.
+	private final Evaluator fallback;	// Scores boards the network is not for.
+
+	/**
+	 * Constructor for an evaluator that falls back on the default tapered evaluation.
+	 * 
+	 * @param net The network to score with.
+	 */
+	public NnueEvaluator(NnueNetwork net) {
+		this(net, new TaperedEvaluator());
+	}
+
+	/**
+	 * Constructor for an evaluator with the given fallback.
+	 * 
+	 * @param net The network to score with.
+	 * @param otherBoards What to score boards of other sizes with.
+	 */
+	public NnueEvaluator(NnueNetwork net, Evaluator otherBoards) {
+		network = net;
+		fallback = otherBoards;
+	}
+
+	/**
+	 * Returns the network this evaluator scores with.
+	 * 
+	 * @return The network.
+	 */
+	public NnueNetwork getNetwork() {
+		return network;
+	}
+
+	/**
+	 * Scores the position on the board, which must be keeping accumulators
+	 * for this evaluator's network if it is the network's size (see attach).
+	 * 
+	 * @param board The board to score.
+	 * @return The score in centipawns, from the point of view of the side to move.
+	 * @throws IllegalStateException If the board has not been attached.
+	 */
+	public int evaluate(Board board) {
+		if(board.getWidth() != network.getWidth() || board.getHeight() != network.getHeight()) {
+			return fallback.evaluate(board);
+		}
+		if(board.getNetwork() != network) {
+			throw new IllegalStateException("The board is not keeping accumulators for this network");
+		}
+		return board.getAccumulator().evaluate(board.getSideToMove());
+	}
+
+	/**
+	 * Gives the board accumulators for this evaluator's network, which
+	 * works them out once, unless it has them already. Boards of other
+	 * sizes are readied for the fallback evaluator instead.
+	 * 
+	 * @param board The board to ready.
+	 */
+	public void attach(Board board) {
+		if(board.getWidth() != network.getWidth() || board.getHeight() != network.getHeight()) {
+			fallback.attach(board);
+		}
+		else if(board.getNetwork() != network) {
+			board.setNetwork(network);
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,251 @@
+package Game.Eval;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import Game.PieceType;
+/**
+ * A small efficiently updatable neural network (NNUE) for scoring
+ * positions, with 16-bit integer weights. The input is one feature for
+ * each kind of piece on each square, seen from each side: from white's
+ * point of view as the board stands, and from black's with the board
+ * flipped and the colors swapped. The first layer turns the features of
+ * each side into a row of numbers, as many as the hidden size given in
+ * the file (its accumulator, see NnueAccumulator);
+ * since only a few features change with each move, the accumulators are
+ * kept up to date by adding and subtracting rows of weights instead of
+ * being worked out again. The output layer clips both accumulators to
+ * between 0 and ACTIVATION_SCALE, the side to move's first, and weighs
+ * them into a single score.
+ * 
+ * The file is a HEADER_SIZE-byte header (MAGIC, the format VERSION, the
+ * board's width and height and a zero byte, then the hidden size and the
+ * output scale as 4-byte ints) followed by
+ * 
+ *   - the first layer's weights, 2 bytes each, one row of hidden size
+ *     for each feature (piece index times squares plus square);
+ *   - the first layer's biases, 2 bytes each, hidden size of them;
+ *   - the output layer's weights, 2 bytes each, twice hidden size of
+ *     them (the side to move's half first);
+ *   - the output layer's bias, 4 bytes;
+ * 
+ * all little-endian (unlike the book and record formats), which is the
+ * order x86 and ARM processors keep numbers in, so rows of weights are
+ * copied out of the file as they are, without swapping any bytes. The
+ * first layer's weights are by far the largest part.
+ * They are memory-mapped and never copied onto the heap, so every engine
+ * on a machine that opens the same file shares one copy of them; only
+ * the biases and the output layer, a few hundred bytes, are read in.
+ * Files with a hidden size above MAX_HIDDEN or an output scale outside 1
+ * to MAX_OUTPUT_SCALE are turned away, which keeps the output layer's
+ * sums well inside a long.
+ * 
+ * @author Priten Vora
+ *
+ */
+public class NnueNetwork implements Closeable {
+
+	public static final int MAGIC = 0x43484E4E;		// "CHNN", at the start of every network.
+	public static final int VERSION = 1;			// The version of the format described here.
+	public static final int HEADER_SIZE = 16;		// The size of the header, in bytes.
+	public static final int ACTIVATION_SCALE = 255;	// What 1.0 is in the clipped accumulators.
+	public static final int WEIGHT_SCALE = 64;		// What 1.0 is in the output layer's weights.
+	public static final int MAX_HIDDEN = 1 << 16;	// The largest hidden size a file can have.
+	public static final int MAX_OUTPUT_SCALE = 1 << 16;	// The largest output scale a file can have.
+	public static final int MAX_SCORE = 20000;		// Scores are clipped to this, in centipawns, either way.
+
+	private final FileChannel channel;		// The network's file.
+	private final MappedByteBuffer file;	// The whole file.
+	private final int width;				// The width of the boards the network is for.
+	private final int height;				// The height of the boards the network is for.
+	private final int hidden;				// How many numbers each accumulator holds.
+	private final int outputScale;			// What the output is multiplied by to make centipawns.
+	private final short[] biases;			// The first layer's biases.
+	private final short[] outputWeights;	// The output layer's weights.
+	private final int outputBias;			// The output layer's bias.
+
+	/**
+	 * Constructor for a network read from a file.
+	 * 
+	 * @param networkFile The network's file.
+	 * @throws IOException If the file cannot be read or is not a network.
+	 */
+	public NnueNetwork(File networkFile) throws IOException {
+		channel = FileChannel.open(networkFile.toPath(), StandardOpenOption.READ);
+		long length = channel.size();
+		if(length < HEADER_SIZE || length > Integer.MAX_VALUE) {
+			channel.close();
+			throw new IOException("Not a network: " + networkFile);
+		}
+		file = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+		file.order(ByteOrder.LITTLE_ENDIAN);
+		width = file.get(5) & 0xFF;
+		height = file.get(6) & 0xFF;
+		hidden = file.getInt(8);
+		outputScale = file.getInt(12);
+		if(file.getInt(0) != MAGIC || (file.get(4) & 0xFF) != VERSION || width == 0 || height == 0 || hidden <= 0
+				|| hidden > MAX_HIDDEN || outputScale <= 0 || outputScale > MAX_OUTPUT_SCALE
+				|| length != fileSize(width * height, hidden)) {
+			channel.close();
+			throw new IOException("Not a network: " + networkFile);
+		}
+		biases = new short[hidden];
+		outputWeights = new short[2 * hidden];
+		ShortBuffer numbers = weights();
+		numbers.position(features() * hidden);
+		numbers.get(biases);
+		numbers.get(outputWeights);
+		outputBias = file.getInt((int)length - 4);
+	}
+
+	/**
+	 * Private helper. Works out how big a network's file is.
+	 * 
+	 * @param squares The number of squares on the board.
+	 * @param hiddenSize The number of numbers in each accumulator.
+	 * @return The size of the file, in bytes.
+	 */
+	private static long fileSize(int squares, int hiddenSize) {
+		return HEADER_SIZE + 2L * (2 * PieceType.COUNT * squares + 3L) * hiddenSize + 4;
+	}
+
+	/**
+	 * Writes a network to a file in the format read by the constructor.
+	 * 
+	 * @param networkFile The file to write.
+	 * @param boardWidth The width of the boards the network is for.
+	 * @param boardHeight The height of the boards the network is for.
+	 * @param scale What the output is multiplied by to make centipawns.
+	 * @param featureWeights The first layer's weights, one row of hidden size per feature.
+	 * @param featureBiases The first layer's biases (hidden size of them).
+	 * @param weights The output layer's weights (twice hidden size of them).
+	 * @param bias The output layer's bias.
+	 * @throws IOException If the file cannot be written.
+	 * @throws IllegalArgumentException If the layers do not fit together, or
+	 *         the hidden size or scale is out of range.
+	 */
+	public static void write(File networkFile, int boardWidth, int boardHeight, int scale, short[] featureWeights,
+			short[] featureBiases, short[] weights, int bias) throws IOException {
+		int hiddenSize = featureBiases.length;
+		long size = fileSize(boardWidth * boardHeight, hiddenSize);
+		if(featureWeights.length != 2 * PieceType.COUNT * boardWidth * boardHeight * hiddenSize
+				|| weights.length != 2 * hiddenSize) {
+			throw new IllegalArgumentException("The layers do not fit together");
+		}
+		if(hiddenSize > MAX_HIDDEN || scale <= 0 || scale > MAX_OUTPUT_SCALE) {
+			throw new IllegalArgumentException("The hidden size or output scale is out of range");
+		}
+		ByteBuffer buffer = ByteBuffer.allocate((int)size).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(MAGIC).put((byte)VERSION).put((byte)boardWidth).put((byte)boardHeight).put((byte)0);
+		buffer.putInt(hiddenSize).putInt(scale);
+		buffer.asShortBuffer().put(featureWeights).put(featureBiases).put(weights);
+		buffer.putInt((int)size - 4, bias);
+		buffer.rewind();
+		FileChannel out = FileChannel.open(networkFile.toPath(), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		try {
+			while(buffer.hasRemaining()) {
+				out.write(buffer);
+			}
+		}
+		finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Returns the width of the boards the network is for.
+	 * 
+	 * @return The width, in tiles.
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Returns the height of the boards the network is for.
+	 * 
+	 * @return The height, in tiles.
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Returns how many numbers each accumulator holds.
+	 * 
+	 * @return The hidden size.
+	 */
+	public int getHiddenSize() {
+		return hidden;
+	}
+
+	/**
+	 * Returns how many features there are from each side's point of view.
+	 * 
+	 * @return The number of rows of first layer weights.
+	 */
+	public int features() {
+		return 2 * PieceType.COUNT * width * height;
+	}
+
+	/**
+	 * Returns a view of every 2-byte number in the file after the header,
+	 * starting with the first layer's weights, still in the mapped file.
+	 * Each call gives a view with a position of its own, so each thread
+	 * (or accumulator) should have its own.
+	 * 
+	 * @return The view.
+	 */
+	public ShortBuffer weights() {
+		ByteBuffer view = file.duplicate();
+		view.position(HEADER_SIZE);
+		return view.slice().order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+	}
+
+	/**
+	 * Returns the first layer's biases, which every accumulator starts
+	 * from. The array is shared, so it must not be changed.
+	 * 
+	 * @return The biases.
+	 */
+	public short[] getBiases() {
+		return biases;
+	}
+
+	/**
+	 * Scores a position from its accumulators. The sum is kept in a long,
+	 * since an int can overflow with a large hidden size.
+	 * 
+	 * @param us The side to move's accumulator.
+	 * @param them The other side's accumulator.
+	 * @return The score in centipawns, from the point of view of the side
+	 *         to move, between -MAX_SCORE and MAX_SCORE.
+	 */
+	public int evaluate(short[] us, short[] them) {
+		long sum = 0;
+		for(int i = 0; i < hidden; i++) {
+			sum += Math.min(Math.max(us[i], 0), ACTIVATION_SCALE) * outputWeights[i];
+		}
+		for(int i = 0; i < hidden; i++) {
+			sum += Math.min(Math.max(them[i], 0), ACTIVATION_SCALE) * outputWeights[hidden + i];
+		}
+		long score = (sum + outputBias) * outputScale / (ACTIVATION_SCALE * WEIGHT_SCALE);
+		return (int)Math.max(-MAX_SCORE, Math.min(score, MAX_SCORE));
+	}
+
+	/**
+	 * Closes the network's file. Accumulators already made from it can
+	 * still be used, but no new ones should be made.
+	 * 
+	 * @throws IOException If the file cannot be closed.
+	 */
+	public void close() throws IOException {
+		channel.close();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,366 @@
+package Game.Eval;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import Game.Bitboards;
+import Game.Color;
+import Game.Move;
+import Game.PieceType;
+/**
+ * The numbers a TaperedEvaluator scores with: what each type of piece is
+ * worth, and how much better or worse it is on each square, once for the
+ * middlegame and once for the endgame, along with how much each type of
+ * piece counts toward the game still being a middlegame (its phase
+ * weight). The tables are written for an 8x8 board from white's point of
+ * view; black's are the same tables mirrored, and boards of other sizes
+ * stretch them over their own ranks and files.
+ * 
+ * Tables are read from a text file so that they can be tuned without
+ * rebuilding. Everything after a '#' on a line is ignored, and the rest
+ * is a list of entries:
+ * 
+ *   value PIECE MIDDLEGAME ENDGAME    what a piece is worth, in centipawns;
+ *   phase PIECE WEIGHT                a piece's phase weight;
+ *   table PIECE middlegame|endgame    followed by 64 numbers, rank 8
+ *                                     first, each rank from file a to h.
+ * 
+ * where PIECE is pawn, knight, bishop, rook, queen or king. Anything a
+ * file leaves out keeps its default (see defaults), and write produces a
+ * complete file to start tuning from.
+ * 
+ * @author Priten Vora
+ *
+ */
+public class PieceSquareTables {
+
+	public static final int SIZE = 8;				// The width and height of the board the tables are written for.
+	public static final int TABLE_SIZE = SIZE * SIZE;	// How many numbers there are in a table.
+
+	private static final PieceType[] TYPES = PieceType.values();	// Every type, without copying each time.
+	private static final String[] STAGES = {"middlegame", "endgame"};	// The names of the two stages of the game.
+	private static final int MIDDLEGAME = 0;		// The index of the middlegame stage.
+	private static final int ENDGAME = 1;			// The index of the endgame stage.
+
+	private static final int[][] DEFAULT_VALUES = {	// What each type is worth, in each stage.
+			{100, 320, 330, 500, 900, 0},
+			{120, 290, 310, 530, 940, 0}};
+	private static final int[] DEFAULT_PHASES = {0, 1, 1, 2, 4, 0};	// Each type's phase weight.
+	private static final int[][] DEFAULT_MIDDLEGAME = {		// Each type's middlegame table, rank 8 first.
+			{  0,   0,   0,   0,   0,   0,   0,   0,
+			  50,  50,  50,  50,  50,  50,  50,  50,
+			  10,  10,  20,  30,  30,  20,  10,  10,
+			   5,   5,  10,  25,  25,  10,   5,   5,
+			   0,   0,   0,  20,  20,   0,   0,   0,
+			   5,  -5, -10,   0,   0, -10,  -5,   5,
+			   5,  10,  10, -20, -20,  10,  10,   5,
+			   0,   0,   0,   0,   0,   0,   0,   0},
+			{-50, -40, -30, -30, -30, -30, -40, -50,
+			 -40, -20,   0,   0,   0,   0, -20, -40,
+			 -30,   0,  10,  15,  15,  10,   0, -30,
+			 -30,   5,  15,  20,  20,  15,   5, -30,
+			 -30,   0,  15,  20,  20,  15,   0, -30,
+			 -30,   5,  10,  15,  15,  10,   5, -30,
+			 -40, -20,   0,   5,   5,   0, -20, -40,
+			 -50, -40, -30, -30, -30, -30, -40, -50},
+			{-20, -10, -10, -10, -10, -10, -10, -20,
+			 -10,   0,   0,   0,   0,   0,   0, -10,
+			 -10,   0,   5,  10,  10,   5,   0, -10,
+			 -10,   5,   5,  10,  10,   5,   5, -10,
+			 -10,   0,  10,  10,  10,  10,   0, -10,
+			 -10,  10,  10,  10,  10,  10,  10, -10,
+			 -10,   5,   0,   0,   0,   0,   5, -10,
+			 -20, -10, -10, -10, -10, -10, -10, -20},
+			{  0,   0,   0,   0,   0,   0,   0,   0,
+			   5,  10,  10,  10,  10,  10,  10,   5,
+			  -5,   0,   0,   0,   0,   0,   0,  -5,
+			  -5,   0,   0,   0,   0,   0,   0,  -5,
+			  -5,   0,   0,   0,   0,   0,   0,  -5,
+			  -5,   0,   0,   0,   0,   0,   0,  -5,
+			  -5,   0,   0,   0,   0,   0,   0,  -5,
+			   0,   0,   0,   5,   5,   0,   0,   0},
+			{-20, -10, -10,  -5,  -5, -10, -10, -20,
+			 -10,   0,   0,   0,   0,   0,   0, -10,
+			 -10,   0,   5,   5,   5,   5,   0, -10,
+			  -5,   0,   5,   5,   5,   5,   0,  -5,
+			   0,   0,   5,   5,   5,   5,   0,  -5,
+			 -10,   5,   5,   5,   5,   5,   0, -10,
+			 -10,   0,   5,   0,   0,   0,   0, -10,
+			 -20, -10, -10,  -5,  -5, -10, -10, -20},
+			{-30, -40, -40, -50, -50, -40, -40, -30,
+			 -30, -40, -40, -50, -50, -40, -40, -30,
+			 -30, -40, -40, -50, -50, -40, -40, -30,
+			 -30, -40, -40, -50, -50, -40, -40, -30,
+			 -20, -30, -30, -40, -40, -30, -30, -20,
+			 -10, -20, -20, -20, -20, -20, -20, -10,
+			  20,  20,   0,   0,   0,   0,  20,  20,
+			  20,  30,  10,   0,   0,  10,  30,  20}};
+	private static final int[] DEFAULT_PAWN_ENDGAME =		// Pawns are worth more the closer they are to promoting.
+			{  0,   0,   0,   0,   0,   0,   0,   0,
+			  80,  80,  80,  80,  80,  80,  80,  80,
+			  50,  50,  50,  50,  50,  50,  50,  50,
+			  30,  30,  30,  30,  30,  30,  30,  30,
+			  15,  15,  15,  15,  15,  15,  15,  15,
+			   5,   5,   5,   5,   5,   5,   5,   5,
+			   0,   0,   0,   0,   0,   0,   0,   0,
+			   0,   0,   0,   0,   0,   0,   0,   0};
+	private static final int[] DEFAULT_KING_ENDGAME =		// The king should come to the middle once it is safe to.
+			{-50, -40, -30, -20, -20, -30, -40, -50,
+			 -30, -20, -10,   0,   0, -10, -20, -30,
+			 -30, -10,  20,  30,  30,  20, -10, -30,
+			 -30, -10,  30,  40,  40,  30, -10, -30,
+			 -30, -10,  30,  40,  40,  30, -10, -30,
+			 -30, -10,  20,  30,  30,  20, -10, -30,
+			 -30, -30,   0,   0,   0,   0, -30, -30,
+			 -50, -30, -30, -30, -30, -30, -30, -50};
+
+	private static PieceSquareTables defaults;		// The default tables, once asked for.
+
+	private final int[][] values;			// What each type is worth, by stage and type.
+	private final int[] phases;				// Each type's phase weight.
+	private final int[][][] tables;			// The tables, by stage and type, rank 8 first.
+	private int fullPhase;					// The phase of the standard starting position.
+	private final HashMap<Integer, int[][]> sized;	// The tables already stretched over each board size.
+
+	/**
+	 * Returns the default tables.
+	 * 
+	 * @return The tables used when no file is given.
+	 */
+	public static synchronized PieceSquareTables defaults() {
+		if(defaults == null) {
+			defaults = new PieceSquareTables();
+		}
+		return defaults;
+	}
+
+	/**
+	 * Constructor for the default tables.
+	 */
+	private PieceSquareTables() {
+		values = new int[STAGES.length][];
+		tables = new int[STAGES.length][PieceType.COUNT][];
+		for(int stage = 0; stage < STAGES.length; stage++) {
+			values[stage] = DEFAULT_VALUES[stage].clone();
+			for(PieceType type : TYPES) {
+				tables[stage][type.ordinal()] = DEFAULT_MIDDLEGAME[type.ordinal()].clone();
+			}
+		}
+		tables[ENDGAME][PieceType.PAWN.ordinal()] = DEFAULT_PAWN_ENDGAME.clone();
+		tables[ENDGAME][PieceType.KING.ordinal()] = DEFAULT_KING_ENDGAME.clone();
+		phases = DEFAULT_PHASES.clone();
+		fullPhase = startingPhase();
+		sized = new HashMap<Integer, int[][]>();
+	}
+
+	/**
+	 * Constructor for tables read from a file, starting from the defaults.
+	 * 
+	 * @param file The file (see the class comment for its format).
+	 * @throws IOException If the file cannot be read or is not written
+	 *         the way the class comment describes.
+	 */
+	public PieceSquareTables(File file) throws IOException {
+		this();
+		ArrayList<String> tokens = new ArrayList<String>();
+		BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8);
+		try {
+			for(String line = reader.readLine(); line != null; line = reader.readLine()) {
+				int comment = line.indexOf('#');
+				for(String token : ((comment >= 0)? line.substring(0, comment) : line).trim().split("\\s+")) {
+					if(!token.isEmpty()) {
+						tokens.add(token);
+					}
+				}
+			}
+		}
+		finally {
+			reader.close();
+		}
+		int at = 0;
+		while(at < tokens.size()) {
+			String entry = tokens.get(at++);
+			PieceType type = typeOf(tokens, at++, file);
+			if(entry.equals("value")) {
+				values[MIDDLEGAME][type.ordinal()] = numberAt(tokens, at++, file);
+				values[ENDGAME][type.ordinal()] = numberAt(tokens, at++, file);
+			}
+			else if(entry.equals("phase")) {
+				phases[type.ordinal()] = numberAt(tokens, at++, file);
+			}
+			else if(entry.equals("table")) {
+				int stage = Arrays.asList(STAGES).indexOf((at < tokens.size())? tokens.get(at) : "");
+				if(stage < 0) {
+					throw new IOException("Expected middlegame or endgame after entry " + at + " of " + file);
+				}
+				at++;
+				for(int i = 0; i < TABLE_SIZE; i++) {
+					tables[stage][type.ordinal()][i] = numberAt(tokens, at++, file);
+				}
+			}
+			else {
+				throw new IOException("Unknown entry \"" + entry + "\" in " + file);
+			}
+		}
+		fullPhase = startingPhase();
+	}
+
+	/**
+	 * Private helper for the constructor. Reads the type of piece an entry is for.
+	 * 
+	 * @param tokens Everything in the file, split at whitespace.
+	 * @param at Where the type should be.
+	 * @param file The file, for the error message.
+	 * @return The type of piece.
+	 * @throws IOException If there is no type of piece there.
+	 */
+	private static PieceType typeOf(ArrayList<String> tokens, int at, File file) throws IOException {
+		if(at < tokens.size()) {
+			for(PieceType type : TYPES) {
+				if(type.name().equalsIgnoreCase(tokens.get(at))) {
+					return type;
+				}
+			}
+		}
+		throw new IOException("Expected a type of piece at entry " + at + " of " + file);
+	}
+
+	/**
+	 * Private helper for the constructor. Reads a number.
+	 * 
+	 * @param tokens Everything in the file, split at whitespace.
+	 * @param at Where the number should be.
+	 * @param file The file, for the error message.
+	 * @return The number.
+	 * @throws IOException If there is no number there.
+	 */
+	private static int numberAt(ArrayList<String> tokens, int at, File file) throws IOException {
+		try {
+			return Integer.parseInt(tokens.get(at));
+		}
+		catch(NumberFormatException e) {
+			throw new IOException("Expected a number at entry " + at + " of " + file + ", not \"" + tokens.get(at) + "\"");
+		}
+		catch(IndexOutOfBoundsException e) {
+			throw new IOException("Expected a number at the end of " + file);
+		}
+	}
+
+	/**
+	 * Private helper for the constructors. Adds up the phase weights of
+	 * the pieces in the standard starting position, other than the pawns
+	 * and kings.
+	 * 
+	 * @return The phase of the starting position (at least 1).
+	 */
+	private int startingPhase() {
+		int phase = 4 * (phases[PieceType.KNIGHT.ordinal()] + phases[PieceType.BISHOP.ordinal()]
+				+ phases[PieceType.ROOK.ordinal()]) + 2 * phases[PieceType.QUEEN.ordinal()];
+		return Math.max(1, phase);
+	}
+
+	/**
+	 * Writes the tables to a file in the format the file constructor reads.
+	 * 
+	 * @param file The file to write.
+	 * @throws IOException If the file cannot be written.
+	 */
+	public void write(File file) throws IOException {
+		PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8));
+		try {
+			writer.println("# Piece values and piece-square tables, in centipawns, from white's point of view.");
+			for(PieceType type : TYPES) {
+				String name = type.name().toLowerCase();
+				writer.println();
+				writer.println("value " + name + " " + values[MIDDLEGAME][type.ordinal()] + " " + values[ENDGAME][type.ordinal()]);
+				writer.println("phase " + name + " " + phases[type.ordinal()]);
+				for(int stage = 0; stage < STAGES.length; stage++) {
+					writer.println("table " + name + " " + STAGES[stage]);
+					for(int rank = 0; rank < SIZE; rank++) {
+						StringBuilder line = new StringBuilder();
+						for(int column = 0; column < SIZE; column++) {
+							String number = Integer.toString(tables[stage][type.ordinal()][rank * SIZE + column]);
+							for(int pad = number.length(); pad < 5; pad++) {
+								line.append(' ');
+							}
+							line.append(number);
+						}
+						writer.println(line);
+					}
+				}
+			}
+		}
+		finally {
+			writer.close();
+		}
+		if(writer.checkError()) {
+			throw new IOException("Could not write " + file);
+		}
+	}
+
+	/**
+	 * Returns how much a type of piece counts toward the game still being
+	 * a middlegame.
+	 * 
+	 * @param type The type of piece.
+	 * @return Its phase weight.
+	 */
+	public int phase(PieceType type) {
+		return phases[type.ordinal()];
+	}
+
+	/**
+	 * Returns the phase of the standard starting position: positions with
+	 * at least that much left are scored as pure middlegames.
+	 * 
+	 * @return The full phase.
+	 */
+	public int fullPhase() {
+		return fullPhase;
+	}
+
+	/**
+	 * Returns what a piece is worth on each square of a board of the given
+	 * size, value and table added together, in the middlegame and in the
+	 * endgame. Black's numbers are negated, so adding up the numbers for
+	 * every piece on the board gives white's score. The arrays are worked
+	 * out once per board size and shared, so they must not be changed.
+	 * 
+	 * @param width The width of the board in number of tiles.
+	 * @param height The height of the board in number of tiles.
+	 * @return The middlegame and endgame numbers, each indexed by piece
+	 *         index (see Bitboards.index) times the number of squares
+	 *         plus the square.
+	 */
+	public synchronized int[][] forSize(int width, int height) {
+		Integer size = width * (Move.MAX_SQUARES + 1) + height;
+		int[][] numbers = sized.get(size);
+		if(numbers == null) {
+			int squares = width * height;
+			numbers = new int[STAGES.length][2 * PieceType.COUNT * squares];
+			for(int stage = 0; stage < STAGES.length; stage++) {
+				for(PieceType type : TYPES) {
+					int[] table = tables[stage][type.ordinal()];
+					int value = values[stage][type.ordinal()];
+					int white = Bitboards.index(Color.WHITE, type) * squares;
+					int black = Bitboards.index(Color.BLACK, type) * squares;
+					for(int y = 0; y < height; y++) {
+						for(int x = 0; x < width; x++) {
+							int file = x * SIZE / width;
+							int rank = y * SIZE / height;
+							numbers[stage][white + y * width + x] = value + table[(SIZE - 1 - rank) * SIZE + file];
+							numbers[stage][black + (height - 1 - y) * width + x] = -(value + table[(SIZE - 1 - rank) * SIZE + file]);
+						}
+					}
+				}
+			}
+			sized.put(size, numbers);
+		}
+		return numbers;
+	}
+}
\ No newline at end of file
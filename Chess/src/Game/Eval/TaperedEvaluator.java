@@ -0,0 +1,75 @@
+package Game.Eval;
+import Game.Board;
+import Game.Color;
+/**
+ * Scores a position by material and by where the pieces stand, using
+ * piece-square tables with one set of numbers for the middlegame and one
+ * for the endgame. The two scores are blended by how much material is
+ * left (the phase): a full set of pieces is scored as a middlegame, bare
+ * kings and pawns as an endgame, and everything in between partly as
+ * each. The board keeps both scores and the phase up to date as moves
+ * are made and unmade (see Board.setPieceSquareTables), so scoring a
+ * position is a multiplication or two, whatever is on the board.
+ * 
+ * @author Priten Vora
+ *
+ */
+public class TaperedEvaluator implements Evaluator {
+
+	private final PieceSquareTables tables;	// The numbers to score with.
+
+	/**
+	 * Constructor for an evaluator with the default tables.
+	 */
+	public TaperedEvaluator() {
+		this(PieceSquareTables.defaults());
+	}
+
+	/**
+	 * Constructor for an evaluator with the given tables.
+	 * 
+	 * @param squareTables The numbers to score with.
+	 */
+	public TaperedEvaluator(PieceSquareTables squareTables) {
+		tables = squareTables;
+	}
+
+	/**
+	 * Returns the tables this evaluator scores with.
+	 * 
+	 * @return The tables.
+	 */
+	public PieceSquareTables getTables() {
+		return tables;
+	}
+
+	/**
+	 * Scores the position on the board, which must be keeping scores with
+	 * this evaluator's tables (see attach).
+	 * 
+	 * @param board The board to score.
+	 * @return The blended score, from the point of view of the side to move.
+	 * @throws IllegalStateException If the board has not been attached.
+	 */
+	public int evaluate(Board board) {
+		if(board.getPieceSquareTables() != tables) {
+			throw new IllegalStateException("The board is not keeping scores with these tables");
+		}
+		int full = tables.fullPhase();
+		int phase = Math.min(board.getPhase(), full);
+		int score = (board.getMiddlegameScore() * phase + board.getEndgameScore() * (full - phase)) / full;
+		return (board.getSideToMove() == Color.WHITE)? score : -score;
+	}
+
+	/**
+	 * Gives the board this evaluator's tables to keep its scores with,
+	 * which works the scores out once, unless it has them already.
+	 * 
+	 * @param board The board to ready.
+	 */
+	public void attach(Board board) {
+		if(board.getPieceSquareTables() != tables) {
+			board.setPieceSquareTables(tables);
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,471 @@
+package Game;
+import java.nio.ByteBuffer;
+/**
+ * Reads and writes positions in Forsyth-Edwards Notation (FEN), like the
+ * starting position "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq
+ * - 0 1". The ranks are listed from the top of the board down, and a
+ * board of any size can be described as long as the ranks and files
+ * match the board's dimensions.
+ * 
+ * Loading is meant for reading very many positions in a row: it works
+ * straight off any CharSequence (or the bytes of a ByteBuffer) with a
+ * single pass and no intermediate strings, and it sets the position up
+ * on an existing board, reusing the pieces that were on it. Nothing is
+ * allocated unless the FEN is malformed, in which case an
+ * IllegalArgumentException is thrown and the board is left empty.
+ * 
+ * @author Priten Vora
+ *
+ */
+public final class Fen {
+
+	public static final String STARTING_POSITION =		// The standard starting position.
+		"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+	private static final PieceType[] TYPES =			// The type of piece each letter stands for, by character.
+		new PieceType[128];
+
+	private static final ThreadLocal<ByteSequence> LINES =	// Each thread's view of the line being read from a buffer.
+		new ThreadLocal<ByteSequence>() {
+			@Override
+			protected ByteSequence initialValue() {
+				return new ByteSequence();
+			}
+		};
+
+	static {
+		for(PieceType type : PieceType.values()) {
+			TYPES[type.getSymbol()] = type;
+			TYPES[Character.toLowerCase(type.getSymbol())] = type;
+		}
+	}
+
+	/**
+	 * Private constructor - this class only holds static helpers.
+	 */
+	private Fen() {
+	}
+
+	/**
+	 * Creates a board just big enough for the position described by the
+	 * given FEN and sets the position up on it.
+	 * 
+	 * @param fen The position in Forsyth-Edwards Notation.
+	 * @return A new board holding the position.
+	 */
+	public static Board createBoard(CharSequence fen) {
+		long size = measure(fen);
+		Board board = new Board((int)(size >>> 32), (int)size);
+		load(board, fen);
+		return board;
+	}
+
+	/**
+	 * Returns whether the position described by the given FEN is for a
+	 * board of the same size as the given one, so that it can be loaded
+	 * onto it.
+	 * 
+	 * @param board The board.
+	 * @param fen The position in Forsyth-Edwards Notation.
+	 * @return True if the board is the size the FEN describes.
+	 */
+	public static boolean fits(Board board, CharSequence fen) {
+		long size = measure(fen);
+		return board.getWidth() == (int)(size >>> 32) && board.getHeight() == (int)size;
+	}
+
+	/**
+	 * Private helper. Works out the size of the board a FEN describes, from
+	 * its number of ranks and the width of its first rank.
+	 * 
+	 * @param fen The position in Forsyth-Edwards Notation.
+	 * @return The width in the high 32 bits and the height in the low 32 bits.
+	 */
+	private static long measure(CharSequence fen) {
+		int end = fen.length();
+		int i = skipSpaces(fen, 0, end);
+		int width = 0;
+		int height = 1;
+		boolean firstRank = true;
+		for(; i < end && !isSpace(fen.charAt(i)); i++) {
+			char c = fen.charAt(i);
+			if(c == '/') {
+				firstRank = false;
+				height++;
+			}
+			else if(firstRank) {
+				if(isDigit(c)) {
+					int empty = c - '0';
+					while(i + 1 < end && isDigit(fen.charAt(i + 1))) {
+						empty = empty * 10 + (fen.charAt(++i) - '0');
+					}
+					width += empty;
+				}
+				else {
+					width++;
+				}
+			}
+		}
+		return ((long)width << 32) | height;
+	}
+
+	/**
+	 * Sets the board up with the position described by the given FEN.
+	 * Anything that was on the board before is removed. The fields after
+	 * the piece placement may be left off, in which case white is to
+	 * move, nobody can castle, there is no en passant square and the
+	 * clocks are at the start.
+	 * 
+	 * @param board The board to set up.
+	 * @param fen The position in Forsyth-Edwards Notation.
+	 */
+	public static void load(Board board, CharSequence fen) {
+		load(board, fen, 0, fen.length());
+	}
+
+	/**
+	 * Sets the board up with the position on the next line of ASCII text
+	 * in the buffer, and moves the buffer's position past the line. Blank
+	 * lines are skipped, and lines may end with "\n" or "\r\n". The bytes
+	 * are read in place, so the buffer can map a whole file of positions.
+	 * 
+	 * @param board The board to set up.
+	 * @param buffer The text to read from, starting at its position.
+	 * @return True if a position was read; false if only blank lines
+	 *         were left in the buffer.
+	 */
+	public static boolean load(Board board, ByteBuffer buffer) {
+		int start = buffer.position();
+		int limit = buffer.limit();
+		while(start < limit && isLineEnd(buffer.get(start))) {
+			start++;
+		}
+		if(start == limit) {
+			buffer.position(limit);
+			return false;
+		}
+		int end = start;
+		while(end < limit && buffer.get(end) != '\n') {
+			end++;
+		}
+		buffer.position((end < limit)? end + 1 : limit);
+		ByteSequence line = LINES.get();
+		line.wrap(buffer, start, end);
+		try {
+			load(board, line, 0, line.length());
+		}
+		finally {
+			line.wrap(null, 0, 0);
+		}
+		return true;
+	}
+
+	/**
+	 * Writes the position on the board out in Forsyth-Edwards Notation.
+	 * 
+	 * @param board The board to describe.
+	 * @return The position as a FEN.
+	 */
+	public static String toFen(Board board) {
+		StringBuilder fen = new StringBuilder(90);
+		append(board, fen);
+		return fen.toString();
+	}
+
+	/**
+	 * Writes the position on the board in Forsyth-Edwards Notation onto
+	 * the end of the given builder, so that one builder can be reused to
+	 * write many positions.
+	 * 
+	 * @param board The board to describe.
+	 * @param fen Where to write the FEN.
+	 */
+	public static void append(Board board, StringBuilder fen) {
+		int width = board.getWidth();
+		int height = board.getHeight();
+		Tile[][] tiles = board.getTiles();
+		for(int y = height - 1; y >= 0; y--) {
+			int empty = 0;
+			for(int x = 0; x < width; x++) {
+				Piece piece = tiles[x][y].getPiece();
+				if(piece == null) {
+					empty++;
+					continue;
+				}
+				if(empty > 0) {
+					fen.append(empty);
+					empty = 0;
+				}
+				char symbol = piece.getType().getSymbol();
+				fen.append((piece.getColor() == Color.WHITE)? symbol : Character.toLowerCase(symbol));
+			}
+			if(empty > 0) {
+				fen.append(empty);
+			}
+			if(y > 0) {
+				fen.append('/');
+			}
+		}
+		fen.append((board.getSideToMove() == Color.WHITE)? " w " : " b ");
+		int rights = board.getCastlingRights();
+		if(rights == 0) {
+			fen.append('-');
+		}
+		else {
+			if((rights & Board.CASTLE_WHITE_KINGSIDE) != 0) {
+				fen.append('K');
+			}
+			if((rights & Board.CASTLE_WHITE_QUEENSIDE) != 0) {
+				fen.append('Q');
+			}
+			if((rights & Board.CASTLE_BLACK_KINGSIDE) != 0) {
+				fen.append('k');
+			}
+			if((rights & Board.CASTLE_BLACK_QUEENSIDE) != 0) {
+				fen.append('q');
+			}
+		}
+		fen.append(' ');
+		int enPassant = board.getEnPassantSquare();
+		fen.append((enPassant == Board.NO_SQUARE)? "-" : board.getTile(enPassant).getName());
+		fen.append(' ').append(board.getHalfmoveClock());
+		fen.append(' ').append(board.getFullmoveNumber());
+	}
+
+	/**
+	 * Private helper for load. Sets the board up with the position
+	 * described by part of a character sequence.
+	 * 
+	 * @param board The board to set up.
+	 * @param fen The text holding the FEN.
+	 * @param start Where the FEN starts.
+	 * @param end Where the FEN ends (exclusive).
+	 */
+	private static void load(Board board, CharSequence fen, int start, int end) {
+		int width = board.getWidth();
+		int height = board.getHeight();
+		board.clear();
+		try {
+			int i = skipSpaces(fen, start, end);
+
+			// Place the pieces, rank by rank from the top.
+			int x = 0;
+			int y = height - 1;
+			for(; i < end && !isSpace(fen.charAt(i)); i++) {
+				char c = fen.charAt(i);
+				if(c == '/') {
+					if(x != width) {
+						throw error("Rank " + (y + 1) + " does not have " + width + " files", fen);
+					}
+					if(--y < 0) {
+						throw error("Expected " + height + " ranks", fen);
+					}
+					x = 0;
+				}
+				else if(isDigit(c)) {
+					int empty = c - '0';
+					while(i + 1 < end && isDigit(fen.charAt(i + 1))) {
+						empty = empty * 10 + (fen.charAt(++i) - '0');
+					}
+					x += empty;
+				}
+				else {
+					PieceType type = (c < TYPES.length)? TYPES[c] : null;
+					if(type == null) {
+						throw error("Unknown piece '" + c + "'", fen);
+					}
+					if(x >= width) {
+						throw error("Rank " + (y + 1) + " is too long", fen);
+					}
+					board.setUpPiece(type, (c < 'a')? Color.WHITE : Color.BLACK, board.squareOf(x, y));
+					x++;
+				}
+			}
+			if(x != width) {
+				throw error("Rank " + (y + 1) + " does not have " + width + " files", fen);
+			}
+			if(y != 0) {
+				throw error("Expected " + height + " ranks", fen);
+			}
+			board.finishSetUp();
+
+			// Read whose turn it is.
+			i = skipSpaces(fen, i, end);
+			if(i == end) {
+				return;
+			}
+			char side = fen.charAt(i++);
+			if(side == 'b') {
+				board.setSideToMove(Color.BLACK);
+			}
+			else if(side != 'w') {
+				throw error("Unknown side to move '" + side + "'", fen);
+			}
+
+			// Read the castling rights.
+			i = skipSpaces(fen, i, end);
+			int rights = 0;
+			for(; i < end && !isSpace(fen.charAt(i)); i++) {
+				switch(fen.charAt(i)) {
+					case 'K': rights |= Board.CASTLE_WHITE_KINGSIDE; break;
+					case 'Q': rights |= Board.CASTLE_WHITE_QUEENSIDE; break;
+					case 'k': rights |= Board.CASTLE_BLACK_KINGSIDE; break;
+					case 'q': rights |= Board.CASTLE_BLACK_QUEENSIDE; break;
+					case '-': break;
+					default: throw error("Unknown castling right '" + fen.charAt(i) + "'", fen);
+				}
+			}
+			board.setCastlingRights(rights);
+
+			// Read the en passant square.
+			i = skipSpaces(fen, i, end);
+			if(i < end && fen.charAt(i) == '-') {
+				i++;
+			}
+			else if(i < end) {
+				int file = fen.charAt(i++) - 'a';
+				int rank = 0;
+				int digits = 0;
+				for(; i < end && isDigit(fen.charAt(i)); i++, digits++) {
+					rank = rank * 10 + (fen.charAt(i) - '0');
+				}
+				if(file < 0 || file >= width || digits == 0 || rank < 1 || rank > height) {
+					throw error("Bad en passant square", fen);
+				}
+				board.setEnPassantSquare(board.squareOf(file, rank - 1));
+			}
+
+			// Read the clocks.
+			i = skipSpaces(fen, i, end);
+			if(i < end) {
+				int clock = 0;
+				for(; i < end && isDigit(fen.charAt(i)); i++) {
+					clock = clock * 10 + (fen.charAt(i) - '0');
+				}
+				board.setHalfmoveClock(clock);
+			}
+			i = skipSpaces(fen, i, end);
+			if(i < end) {
+				int number = 0;
+				for(; i < end && isDigit(fen.charAt(i)); i++) {
+					number = number * 10 + (fen.charAt(i) - '0');
+				}
+				board.setFullmoveNumber(number);
+			}
+			if(skipSpaces(fen, i, end) != end) {
+				throw error("Unexpected text at the end", fen);
+			}
+		}
+		catch(IllegalArgumentException e) {
+			board.clear();
+			throw e;
+		}
+	}
+
+	/**
+	 * Private helper. Makes the exception for a malformed FEN; only then
+	 * is the FEN turned into a string.
+	 * 
+	 * @param problem What is wrong with the FEN.
+	 * @param fen The whole FEN.
+	 * @return The exception to throw.
+	 */
+	private static IllegalArgumentException error(String problem, CharSequence fen) {
+		return new IllegalArgumentException(problem + " in FEN: " + fen);
+	}
+
+	/**
+	 * Private helper. Returns the index of the first character at or
+	 * after the given one that is not a space.
+	 * 
+	 * @param text The text to look through.
+	 * @param i Where to start.
+	 * @param end Where the text ends (exclusive).
+	 * @return The index of the next non-space character; end if there is none.
+	 */
+	private static int skipSpaces(CharSequence text, int i, int end) {
+		while(i < end && isSpace(text.charAt(i))) {
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * Private helper. Returns whether or not a character separates the
+	 * fields of a FEN.
+	 * 
+	 * @param c The character.
+	 * @return True for spaces, tabs and line ends; false otherwise.
+	 */
+	private static boolean isSpace(char c) {
+		return c == ' ' || c == '\t' || c == '\r' || c == '\n';
+	}
+
+	/**
+	 * Private helper. Returns whether or not a character is an ASCII digit.
+	 * 
+	 * @param c The character.
+	 * @return True for '0' to '9'; false otherwise.
+	 */
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	/**
+	 * Private helper for load. Returns whether or not a byte ends a line.
+	 * 
+	 * @param b The byte.
+	 * @return True for '\n' and '\r'; false otherwise.
+	 */
+	private static boolean isLineEnd(byte b) {
+		return b == '\n' || b == '\r';
+	}
+
+	/**
+	 * A reusable view of a run of ASCII bytes in a buffer as characters,
+	 * so that FENs can be read from a buffer without copying them out.
+	 */
+	private static final class ByteSequence implements CharSequence {
+
+		private ByteBuffer buffer;	// The buffer holding the bytes.
+		private int start;			// Where the bytes start in the buffer.
+		private int length;			// How many bytes there are.
+
+		/**
+		 * Points the view at a run of bytes.
+		 * 
+		 * @param bytes The buffer holding the bytes.
+		 * @param from Where the bytes start.
+		 * @param to Where the bytes end (exclusive).
+		 */
+		void wrap(ByteBuffer bytes, int from, int to) {
+			buffer = bytes;
+			start = from;
+			length = to - from;
+		}
+
+		@Override
+		public int length() {
+			return length;
+		}
+
+		@Override
+		public char charAt(int index) {
+			return (char)(buffer.get(start + index) & 0xFF);
+		}
+
+		@Override
+		public CharSequence subSequence(int from, int to) {
+			return toString().substring(from, to);
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder text = new StringBuilder(length);
+			for(int i = 0; i < length; i++) {
+				text.append(charAt(i));
+			}
+			return text.toString();
+		}
+	}
+}
\ No newline at end of file
@@ -1,36 +1,89 @@
 package Game;
-import Game.Pieces.*;
+import Game.Engine.BoardSnapshot;
+import Game.Engine.Engine;
+import Game.Search.SearchBenchmark;
+import Game.Search.SearchLimits;
+import Game.Search.SearchListener;
+import Game.Search.SearchResult;
 import java.awt.BorderLayout;
 import java.awt.Dimension;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import javax.swing.JButton;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.swing.BorderFactory;
+import javax.swing.JCheckBoxMenuItem;
 import javax.swing.JFrame;
+import javax.swing.JLabel;
 import javax.swing.JMenu;
 import javax.swing.JMenuBar;
 import javax.swing.JMenuItem;
-import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
 /**
  * The graphical user interface for the game. Is responsible for displaying
  * the board and pieces, as well as facilitating all of the interactions
- * between the user (player) and the game, board, pieces, etc.
+ * between the user (player) and the game, board, pieces, etc. The game
+ * itself lives in an Engine, which the window is only one client of.
+ * 
+ * The event thread never touches the engine. Every query and every move
+ * is handed to a background thread that owns it, and comes back as a
+ * BoardSnapshot (or a search's answer) through SwingUtilities.invokeLater;
+ * the board is drawn and clicks are checked against the latest snapshot.
+ * Anything that changes the position first cancels whatever the engine
+ * is doing, and an answer that comes back after its task was cancelled
+ * is dropped. The window must be made on the event thread.
  * 
  * @author Priten Vora
  *
  */
 public class GUI implements ActionListener {
 
-	private Board board;
+	private static final long THINK_TIME = 1000;	// How long the engine thinks about a move or a hint, in milliseconds.
+
+	private final Engine engine;					// The game (only used on the engine thread).
+	private final ExecutorService engineThread;		// Runs everything that uses the engine, in order.
+	private final AtomicInteger generation;			// Counts cancellations; a task's answer is dropped if it changed.
+	private final AtomicReference<String> info;		// The latest analysis line not shown yet (null for none).
+	private final BoardView view;					// Draws the board.
+	private final JLabel status;					// Says whose move it is, or what the engine is doing.
+	private final JCheckBoxMenuItem analyze;		// Whether the engine analyzes the position all the time.
+	private Future<?> search;						// The running or waiting search (null for none).
+	private boolean thinking;						// Whether the engine is working out its own move.
 
-	public GUI(Board b) {
+	/**
+	 * Constructor for a window onto a game.
+	 * 
+	 * @param chessEngine The game.
+	 */
+	public GUI(Engine chessEngine) {
 		try {
 			UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
 		}
 		catch(Exception e) {
 			// Ignore for now
 		}
+		engine = chessEngine;
+		engineThread = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable task) {
+				Thread thread = new Thread(task, "gui-engine");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		generation = new AtomicInteger();
+		info = new AtomicReference<String>();
+		view = new BoardView();
+		status = new JLabel(" ");
+		analyze = new JCheckBoxMenuItem("Analyze");
 		JFrame window = new JFrame("Chess");
 		window.setSize(640, 640);
 		JPanel panel = initializePanel();
@@ -38,36 +91,348 @@ public class GUI implements ActionListener {
 		window.setContentPane(panel);
 		window.setVisible(true);
 		window.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-		board = b;
+		refresh(generation.get());
 	}
 
 	private JPanel initializePanel() {
 		JPanel myPanel = new JPanel();
 		myPanel.setPreferredSize(new Dimension(500,500));
 		myPanel.setLayout(new BorderLayout());
+		view.addMouseListener(new MouseAdapter() {
+			@Override
+			public void mousePressed(MouseEvent e) {
+				clicked(view.squareAt(e.getX(), e.getY()));
+			}
+		});
+		myPanel.add(view, BorderLayout.CENTER);
+		status.setBorder(BorderFactory.createEmptyBorder(4, 8, 4, 8));
+		myPanel.add(status, BorderLayout.SOUTH);
 		return myPanel;
 	}
 
 	private void setUpMenu(JFrame window) {
 		JMenuBar menubar = new JMenuBar();
 		JMenu file = new JMenu("File");
-		JMenuItem newGame = new JMenuItem("New Game");
-		newGame.addActionListener(this);
-		file.add(newGame);
-		JMenuItem exit = new JMenuItem("Exit");
-		exit.addActionListener(this);
-		file.add(exit);
+		addItem(file, new JMenuItem("New Game"));
+		addItem(file, new JMenuItem("Exit"));
 		menubar.add(file);
+		JMenu game = new JMenu("Game");
+		addItem(game, new JMenuItem("Undo"));
+		addItem(game, new JMenuItem("Engine Move"));
+		menubar.add(game);
+		JMenu analysis = new JMenu("Analysis");
+		addItem(analysis, new JMenuItem("Hint"));
+		addItem(analysis, analyze);
+		addItem(analysis, new JMenuItem("Stop"));
+		menubar.add(analysis);
 		window.setJMenuBar(menubar);
 	}
 
+	/**
+	 * Private helper for setUpMenu. Adds an item to a menu.
+	 * 
+	 * @param menu The menu.
+	 * @param item The item, which this window listens to.
+	 */
+	private void addItem(JMenu menu, JMenuItem item) {
+		item.addActionListener(this);
+		menu.add(item);
+	}
+
 	@Override
 	public void actionPerformed(ActionEvent e) {
-		if(e.getActionCommand() == "Exit") {
+		String command = e.getActionCommand();
+		if(command.equals("Exit")) {
+			engine.stop();
 			System.exit(0);
 		}
-		if(e.getActionCommand() == "New Game") {
-			board = new Board(8, 8);
+		else if(command.equals("New Game")) {
+			final int current = cancel();
+			submit(new Runnable() {
+				@Override
+				public void run() {
+					engine.newGame();
+					refresh(current);
+				}
+			});
+		}
+		else if(command.equals("Undo")) {
+			final int current = cancel();
+			submit(new Runnable() {
+				@Override
+				public void run() {
+					engine.undoMove();
+					refresh(current);
+				}
+			});
+		}
+		else if(command.equals("Engine Move")) {
+			engineMove();
+		}
+		else if(command.equals("Hint")) {
+			hint();
+		}
+		else if(command.equals("Analyze")) {
+			if(analyze.isSelected()) {
+				startAnalysis();
+			}
+			else {
+				cancel();
+				showStatus();
+			}
+		}
+		else if(command.equals("Stop")) {
+			// Stopping the engine's own search makes it move now, rather than dropping the move.
+			if(thinking) {
+				engine.stop();
+			}
+			else {
+				analyze.setSelected(false);
+				cancel();
+				showStatus();
+			}
+		}
+	}
+
+	/**
+	 * Private helper for the event thread. Handles a click on the board:
+	 * the first click picks a piece of the side to move and the second
+	 * where it goes (a pawn that gets to the end becomes a queen).
+	 * 
+	 * @param square The square clicked (-1 for off the board).
+	 */
+	private void clicked(int square) {
+		BoardSnapshot snapshot = view.getSnapshot();
+		if(snapshot == null || thinking || square < 0) {
+			return;
+		}
+		int from = view.getSelection();
+		if(from >= 0) {
+			int chosen = Move.NONE;
+			for(int i = 0; i < snapshot.getMoveCount(); i++) {
+				int move = snapshot.getMove(i);
+				if(Move.from(move) == from && Move.to(move) == square) {
+					if(chosen == Move.NONE || Move.promotion(move) == PieceType.QUEEN) {
+						chosen = move;
+					}
+				}
+			}
+			if(chosen != Move.NONE) {
+				play(chosen);
+				return;
+			}
+		}
+		view.setSelection((snapshot.getColor(square) == snapshot.getSideToMove() && square != from)? square : -1);
+	}
+
+	/**
+	 * Private helper for the event thread. Makes a move.
+	 * 
+	 * @param move The packed move, from the snapshot being shown.
+	 */
+	private void play(final int move) {
+		final int current = cancel();
+		view.setSelection(-1);
+		submit(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					engine.makeMove(move);
+				}
+				catch(IllegalArgumentException e) {
+					// The position moved on since the snapshot; show it as it is.
+				}
+				refresh(current);
+			}
+		});
+	}
+
+	/**
+	 * Private helper for the event thread. Has the engine think for a
+	 * while and make its move.
+	 */
+	private void engineMove() {
+		final int current = cancel();
+		thinking = true;
+		status.setText("Thinking...");
+		search = engineThread.submit(new Runnable() {
+			@Override
+			public void run() {
+				if(generation.get() != current || engine.getStatus().isOver()) {
+					refresh(current);
+					return;
+				}
+				int best = engine.getBookMove();
+				if(best == Move.NONE) {
+					best = engine.search(SearchLimits.moveTime(THINK_TIME), listener(current)).getBestMove();
+				}
+				if(generation.get() == current && best != Move.NONE) {
+					engine.makeMove(best);
+				}
+				refresh(current);
+			}
+		});
+	}
+
+	/**
+	 * Private helper for the event thread. Has the engine think for a
+	 * while and mark the move it would make.
+	 */
+	private void hint() {
+		final int current = cancel();
+		status.setText("Looking for a hint...");
+		search = engineThread.submit(new Runnable() {
+			@Override
+			public void run() {
+				if(generation.get() != current || engine.getStatus().isOver()) {
+					return;
+				}
+				final int best = engine.search(SearchLimits.moveTime(THINK_TIME), listener(current)).getBestMove();
+				SwingUtilities.invokeLater(new Runnable() {
+					@Override
+					public void run() {
+						if(generation.get() == current) {
+							search = null;
+							view.setHint(best);
+							showStatus();
+						}
+					}
+				});
+			}
+		});
+	}
+
+	/**
+	 * Private helper for the event thread. Has the engine analyze the
+	 * position until the analysis is cancelled.
+	 */
+	private void startAnalysis() {
+		final int current = cancel();
+		search = engineThread.submit(new Runnable() {
+			@Override
+			public void run() {
+				if(generation.get() != current || engine.getStatus().isOver()) {
+					return;
+				}
+				engine.search(new SearchLimits(), listener(current));
+			}
+		});
+	}
+
+	/**
+	 * Private helper for the engine thread. Makes a listener that shows
+	 * each iteration of a search in the status line, and stops the search
+	 * if it was cancelled before it got going.
+	 * 
+	 * @param current The generation the search belongs to.
+	 * @return The listener.
+	 */
+	private SearchListener listener(final int current) {
+		final Board board = engine.getBoard();
+		return new SearchListener() {
+			@Override
+			public void iterationFinished(SearchResult iteration) {
+				if(generation.get() != current) {
+					engine.stop();
+					return;
+				}
+				String line = String.format("Depth %d  Score %s  %,d nps  %s", iteration.getDepth(),
+						SearchBenchmark.scoreString(iteration.getScore()), iteration.getNodesPerSecond(),
+						iteration.pvString(board));
+				// Only one update is queued on the event thread at a time; later ones replace its text.
+				if(info.getAndSet(line) == null) {
+					SwingUtilities.invokeLater(new Runnable() {
+						@Override
+						public void run() {
+							String latest = info.getAndSet(null);
+							if(latest != null && generation.get() == current) {
+								status.setText(latest);
+							}
+						}
+					});
+				}
+			}
+		};
+	}
+
+	/**
+	 * Private helper for the event thread. Cancels whatever the engine
+	 * is doing or waiting to do. Tasks submitted afterwards run once it
+	 * has stopped, since the engine thread runs one task at a time.
+	 * 
+	 * @return The new generation, for tasks submitted afterwards.
+	 */
+	private int cancel() {
+		int current = generation.incrementAndGet();
+		if(search != null) {
+			search.cancel(false);
+			search = null;
+		}
+		engine.stop();
+		thinking = false;
+		return current;
+	}
+
+	/**
+	 * Private helper for the event thread. Runs a task on the engine
+	 * thread.
+	 * 
+	 * @param task The task.
+	 */
+	private void submit(Runnable task) {
+		engineThread.execute(task);
+	}
+
+	/**
+	 * Private helper for the engine thread. Takes a snapshot of the
+	 * position and shows it, unless something else has been asked for
+	 * since the task began. Analysis restarts on the new position.
+	 * 
+	 * @param current The generation of the task.
+	 */
+	private void refresh(final int current) {
+		if(!SwingUtilities.isEventDispatchThread()) {
+			final BoardSnapshot snapshot = engine.snapshot();
+			SwingUtilities.invokeLater(new Runnable() {
+				@Override
+				public void run() {
+					if(generation.get() != current) {
+						return;
+					}
+					search = null;
+					thinking = false;
+					view.setSnapshot(snapshot);
+					showStatus();
+					if(analyze.isSelected()) {
+						startAnalysis();
+					}
+				}
+			});
+		}
+		else {
+			submit(new Runnable() {
+				@Override
+				public void run() {
+					refresh(current);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Private helper for the event thread. Says whose move it is, or how
+	 * the game ended.
+	 */
+	private void showStatus() {
+		BoardSnapshot snapshot = view.getSnapshot();
+		if(snapshot == null) {
+			status.setText(" ");
+		}
+		else if(snapshot.getStatus().isOver()) {
+			status.setText("Game over: " + snapshot.getStatus().toString().toLowerCase().replace('_', ' '));
+		}
+		else {
+			status.setText((snapshot.getSideToMove() == Color.WHITE)? "White to move" : "Black to move");
 		}
 	}
 
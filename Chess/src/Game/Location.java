@@ -2,20 +2,41 @@ package Game;
 /**
  * The horizontal and vertical coordinate of a tile on a chess
  * board. Understands where the tile is on the board in proper
- * chess notation.
+ * chess notation. Locations never change, so each square has a
+ * single shared Location (see of) that every board of every size
+ * uses, with its name worked out once up front. The shared ones are
+ * all made when the class is loaded, for every square of every board
+ * size allowed, so looking one up needs no locking.
  * 
  * @author Priten Vora
  *
  */
 public class Location {
 
-	private final int x;	// Horizontal coordinate of the tile
-	private final int y;	// Vertical coordinate of the tile
+	private static final int MAX_COORDINATE = Move.MAX_SQUARES;	// No side of a board is longer than this.
+	private static final Location[][] SHARED =					// The shared location of each square, by x and then y.
+		new Location[MAX_COORDINATE][];
+
+	static {
+		// A board at least x + 1 tiles wide is at most MAX_COORDINATE / (x + 1) tiles high.
+		for(int x = 0; x < MAX_COORDINATE; x++) {
+			SHARED[x] = new Location[MAX_COORDINATE / (x + 1)];
+			for(int y = 0; y < SHARED[x].length; y++) {
+				SHARED[x][y] = new Location(x, y);
+			}
+		}
+	}
+
+	private final int x;			// Horizontal coordinate of the tile
+	private final int y;			// Vertical coordinate of the tile
+	private final String name;		// The tile's name in chess notation
+	private final Color color;		// Color of the tile at this location
 
 	/**
 	 * Constructor for the location of a tile. Receives integer values
 	 * corresponding to the horizontal and vertical coordinates of the
-	 * tile on the chess board and stores them.
+	 * tile on the chess board and stores them. Boards use the shared
+	 * locations from of instead.
 	 * 
 	 * @param tileX The integer value of the horizontal coordinate of the tile.
 	 * @param tileY The integer value of the vertical coordinate of the tile.
@@ -23,6 +44,21 @@ public class Location {
 	public Location(int tileX, int tileY) {
 		x = tileX;
 		y = tileY;
+		name = (char)('a' + x) + Integer.toString(y + 1);
+		color = ((x + y) % 2 == 0)? Color.BLACK : Color.WHITE;
+	}
+
+	/**
+	 * Returns the shared location for the given coordinates, which must
+	 * be those of a tile on a board of an allowed size (see Board). Can
+	 * be called from any thread.
+	 * 
+	 * @param x The horizontal coordinate of the tile.
+	 * @param y The vertical coordinate of the tile.
+	 * @return The location with those coordinates.
+	 */
+	public static Location of(int x, int y) {
+		return SHARED[x][y];
 	}
 
 	/**
@@ -44,13 +80,22 @@ public class Location {
 	}
 
 	/**
-	 * Calculates and returns the proper chess notation designation
-	 * for this location on the chess board (e.g. "a6" or "h1").
+	 * Returns the color of the tile at this location (a1 is black).
+	 * 
+	 * @return Either WHITE or BLACK.
+	 */
+	public Color getColor() {
+		return color;
+	}
+
+	/**
+	 * Returns the proper chess notation designation for this location
+	 * on the chess board (e.g. "a6" or "h1"). The name is only worked
+	 * out once, so this does not create a new string.
 	 * 
 	 * @return The proper chess notation designation for the location in question.
 	 */
 	public String toString() {
-		char rank = (char)('a' + x);
-		return "" + rank + y;
+		return name;
 	}
 }
\ No newline at end of file
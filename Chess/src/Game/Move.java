@@ -0,0 +1,187 @@
+package Game;
+/**
+ * Helpers for moves packed into a single int, so that move generation
+ * and search can pass moves around without creating any objects. The
+ * low byte holds the square the piece moves from, the next byte the
+ * square it moves to, the next three bits the type a pawn is promoted to
+ * (zero when there is no promotion, since a pawn can never be promoted
+ * to a pawn), and the bits above that hold flags describing the move.
+ * 
+ * @author Priten Vora
+ *
+ */
+public final class Move {
+
+	public static final int NONE = 0;				// Stands for "no move" (from and to would be the same square).
+	public static final int MAX_SQUARES = 256;		// The most squares a move can address.
+
+	public static final int CAPTURE = 1 << 19;		// The move captures an enemy piece.
+	public static final int DOUBLE_PUSH = 1 << 20;	// A pawn advances two squares.
+	public static final int EN_PASSANT = 1 << 21;	// A pawn captures en passant.
+	public static final int CASTLE = 1 << 22;		// The king castles (the move is the king's).
+
+	private static final int SQUARE_MASK = 0xFF;		// Mask for a square index.
+	private static final int TO_SHIFT = 8;				// Where the destination square starts.
+	private static final int PROMOTION_SHIFT = 16;		// Where the promotion type starts.
+	private static final int PROMOTION_MASK = 0x7;		// Mask for the promotion type.
+	private static final PieceType[] TYPES = PieceType.values();	// Piece types by ordinal.
+
+	/**
+	 * Private constructor - this class only holds static helpers.
+	 */
+	private Move() {
+	}
+
+	/**
+	 * Packs a move with the given flags into an int.
+	 * 
+	 * @param from The square the piece moves from.
+	 * @param to The square the piece moves to.
+	 * @param flags Any of CAPTURE, DOUBLE_PUSH, EN_PASSANT and CASTLE, or'ed together.
+	 * @return The packed move.
+	 */
+	public static int of(int from, int to, int flags) {
+		return from | (to << TO_SHIFT) | flags;
+	}
+
+	/**
+	 * Packs a pawn promotion with the given flags into an int.
+	 * 
+	 * @param from The square the pawn moves from.
+	 * @param to The square the pawn moves to.
+	 * @param promotion The type of piece the pawn becomes.
+	 * @param flags CAPTURE if the promotion also captures; zero otherwise.
+	 * @return The packed move.
+	 */
+	public static int promotion(int from, int to, PieceType promotion, int flags) {
+		return from | (to << TO_SHIFT) | (promotion.ordinal() << PROMOTION_SHIFT) | flags;
+	}
+
+	/**
+	 * Returns the square the move starts from.
+	 * 
+	 * @param move The packed move.
+	 * @return The index of the starting square.
+	 */
+	public static int from(int move) {
+		return move & SQUARE_MASK;
+	}
+
+	/**
+	 * Returns the square the move ends on.
+	 * 
+	 * @param move The packed move.
+	 * @return The index of the destination square.
+	 */
+	public static int to(int move) {
+		return (move >>> TO_SHIFT) & SQUARE_MASK;
+	}
+
+	/**
+	 * Returns whether or not the move promotes a pawn.
+	 * 
+	 * @param move The packed move.
+	 * @return True if the move is a promotion; false otherwise.
+	 */
+	public static boolean isPromotion(int move) {
+		return ((move >>> PROMOTION_SHIFT) & PROMOTION_MASK) != 0;
+	}
+
+	/**
+	 * Returns the type of piece a promoting pawn becomes.
+	 * 
+	 * @param move The packed move.
+	 * @return The type promoted to; null if the move is not a promotion.
+	 */
+	public static PieceType promotion(int move) {
+		int type = (move >>> PROMOTION_SHIFT) & PROMOTION_MASK;
+		return (type == 0)? null : TYPES[type];
+	}
+
+	/**
+	 * Returns whether or not the move captures a piece (including en passant).
+	 * 
+	 * @param move The packed move.
+	 * @return True if the move is a capture; false otherwise.
+	 */
+	public static boolean isCapture(int move) {
+		return (move & (CAPTURE | EN_PASSANT)) != 0;
+	}
+
+	/**
+	 * Returns whether or not the move has the given flag set.
+	 * 
+	 * @param move The packed move.
+	 * @param flag One of CAPTURE, DOUBLE_PUSH, EN_PASSANT or CASTLE.
+	 * @return True if the flag is set; false otherwise.
+	 */
+	public static boolean is(int move, int flag) {
+		return (move & flag) != 0;
+	}
+
+	/**
+	 * Returns the move in coordinate notation, like "e2e4" or "e7e8q".
+	 * 
+	 * @param move The packed move.
+	 * @param board The board the move is played on.
+	 * @return The move in coordinate notation.
+	 */
+	public static String toString(int move, Board board) {
+		if(move == NONE) {
+			return "0000";
+		}
+		String name = board.getTile(from(move)).getName() + board.getTile(to(move)).getName();
+		PieceType promotion = promotion(move);
+		if(promotion != null) {
+			name += Character.toLowerCase(promotion.getSymbol());
+		}
+		return name;
+	}
+
+	/**
+	 * Finds the legal move written in coordinate notation, like "e2e4" or
+	 * "e7e8q" (see toString).
+	 * 
+	 * @param board The board the move is played on.
+	 * @param text The move in coordinate notation.
+	 * @return The packed move.
+	 * @throws IllegalArgumentException If the text is not a legal move in
+	 *         coordinate notation.
+	 */
+	public static int parse(Board board, String text) {
+		int split = 1;
+		while(split < text.length() && Character.isDigit(text.charAt(split))) {
+			split++;
+		}
+		int end = split + 1;
+		while(end < text.length() && Character.isDigit(text.charAt(end))) {
+			end++;
+		}
+		if(split < 2 || end - split < 2 || end < text.length() - 1) {
+			throw new IllegalArgumentException("Not a move in coordinate notation: " + text);
+		}
+		int from = board.squareOf(board.getTile(text.substring(0, split)));
+		int to = board.squareOf(board.getTile(text.substring(split, end)));
+		PieceType promotion = null;
+		if(end < text.length()) {
+			char symbol = Character.toUpperCase(text.charAt(end));
+			for(PieceType type : PieceType.values()) {
+				if(type.getSymbol() == symbol && type != PieceType.PAWN && type != PieceType.KING) {
+					promotion = type;
+				}
+			}
+			if(promotion == null) {
+				throw new IllegalArgumentException("Not a move in coordinate notation: " + text);
+			}
+		}
+		MoveList moves = new MoveList();
+		MoveGenerator.generateLegal(board, moves);
+		for(int i = 0; i < moves.size(); i++) {
+			int move = moves.get(i);
+			if(from(move) == from && to(move) == to && promotion(move) == promotion) {
+				return move;
+			}
+		}
+		throw new IllegalArgumentException("Illegal move: " + text);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,485 @@
+package Game;
+/**
+ * Generates every move available to the side to move on a board, as
+ * packed ints (see Move) written into a MoveList the caller owns. The
+ * generator works entirely from the board's bitboards and the shared
+ * attack tables, so a full pass creates no objects. Pseudo-legal moves
+ * follow the movement rules of each piece; legal moves additionally
+ * never leave the mover's own king attacked, which the generator makes
+ * sure of up front from the checking and pinned pieces. Boards with more
+ * than 64 squares are handed to WideMoveGenerator.
+ * 
+ * @author Priten Vora
+ *
+ */
+public final class MoveGenerator {
+
+	private static final PieceType[] PROMOTIONS =		// What a pawn may become, best first.
+		{PieceType.QUEEN, PieceType.KNIGHT, PieceType.ROOK, PieceType.BISHOP};
+
+	/**
+	 * Private constructor - this class only holds static helpers.
+	 */
+	private MoveGenerator() {
+	}
+
+	/**
+	 * Adds every legal move for the side to move to the list. Rather than
+	 * trying out each pseudo-legal move, the generator works out once
+	 * which enemy pieces give check and which of our pieces are pinned to
+	 * the king, and only ever emits moves that respect them.
+	 * 
+	 * @param board The board to generate moves for.
+	 * @param moves The list to add the moves to.
+	 */
+	public static void generateLegal(Board board, MoveList moves) {
+		generateLegal(board, moves, false);
+	}
+
+	/**
+	 * Adds every legal capture for the side to move to the list, along
+	 * with every legal promotion (captures or not).
+	 * 
+	 * @param board The board to generate moves for.
+	 * @param moves The list to add the moves to.
+	 */
+	public static void generateLegalCaptures(Board board, MoveList moves) {
+		generateLegal(board, moves, true);
+	}
+
+	/**
+	 * Adds every pseudo-legal move for the side to move to the list -
+	 * that is, every move the pieces are allowed to make, whether or not
+	 * it leaves the mover's king attacked.
+	 * 
+	 * @param board The board to generate moves for.
+	 * @param moves The list to add the moves to.
+	 */
+	public static void generatePseudoLegal(Board board, MoveList moves) {
+		Bitboards bitboards = board.getBitboards();
+		if(bitboards == null) {
+			WideMoveGenerator.generatePseudoLegal(board, moves, false);
+			return;
+		}
+		AttackTables tables = board.getAttackTables();
+		Color us = board.getSideToMove();
+		long own = bitboards.occupancy(us);
+		long enemy = bitboards.occupancy(us.other());
+		long occupied = own | enemy;
+		long kings = bitboards.pieces(us, PieceType.KING);
+
+		generateMoves(board, moves, own & ~kings, -1L, false);
+		generateEnPassant(board, moves, false);
+		while(kings != 0) {
+			int from = Long.numberOfTrailingZeros(kings);
+			addMoves(moves, from, tables.king(from) & ~own, enemy);
+			kings &= kings - 1;
+		}
+		generateCastling(board, moves, us, occupied);
+	}
+
+	/**
+	 * Private helper for generateLegal and generateLegalCaptures.
+	 * 
+	 * @param board The board to generate moves for.
+	 * @param moves The list to add the moves to.
+	 * @param capturesOnly True to only add captures and promotions.
+	 */
+	private static void generateLegal(Board board, MoveList moves, boolean capturesOnly) {
+		Bitboards bitboards = board.getBitboards();
+		if(bitboards == null) {
+			WideMoveGenerator.generateLegal(board, moves, capturesOnly);
+			return;
+		}
+		AttackTables tables = board.getAttackTables();
+		SlidingAttacks sliders = board.getSlidingAttacks();
+		Color us = board.getSideToMove();
+		Color them = us.other();
+		long own = bitboards.occupancy(us);
+		long enemy = bitboards.occupancy(them);
+		long occupied = own | enemy;
+		long kings = bitboards.pieces(us, PieceType.KING);
+
+		// Without exactly one king there is no single king to keep safe, so try each move out instead.
+		if(Long.bitCount(kings) != 1) {
+			int start = moves.size();
+			generatePseudoLegal(board, moves);
+			int kept = start;
+			for(int i = start; i < moves.size(); i++) {
+				int move = moves.get(i);
+				if(isLegal(board, move) && (!capturesOnly || Move.isCapture(move) || Move.isPromotion(move)
+						|| Move.is(move, Move.EN_PASSANT))) {
+					moves.set(kept++, move);
+				}
+			}
+			moves.truncate(kept);
+			return;
+		}
+		int king = Long.numberOfTrailingZeros(kings);
+
+		// The king can go anywhere the enemy doesn't attack. In check, the squares behind it on
+		// a checking slider's line are attacked too once it steps away, so look at those again.
+		long checkers = board.getAttackMaps().isAttacked(king, them)? attackersOf(board, king, them, occupied) : 0L;
+		long kingTargets = tables.king(king) & (capturesOnly? enemy : ~own) & ~board.getAttackMaps().attacks(them);
+		while(kingTargets != 0) {
+			int to = Long.numberOfTrailingZeros(kingTargets);
+			if(checkers == 0 || !isAttacked(board, to, them, occupied & ~kings, -1L)) {
+				moves.add(Move.of(king, to, ((enemy & (1L << to)) != 0)? Move.CAPTURE : 0));
+			}
+			kingTargets &= kingTargets - 1;
+		}
+
+		// In double check only the king can move; in single check the others must take or block the checker.
+		if((checkers & (checkers - 1)) != 0) {
+			return;
+		}
+		long evasions = -1L;
+		if(checkers != 0) {
+			evasions = checkers | between(sliders, king, Long.numberOfTrailingZeros(checkers));
+		}
+
+		// A piece that is the only thing between our king and an enemy slider may only move along
+		// that line (and never out of check, since the line can't cross the checker's).
+		long queens = bitboards.pieces(them, PieceType.QUEEN);
+		long snipers = (sliders.rook(king, enemy) & (bitboards.pieces(them, PieceType.ROOK) | queens))
+				| (sliders.bishop(king, enemy) & (bitboards.pieces(them, PieceType.BISHOP) | queens));
+		long pinned = 0L;
+		while(snipers != 0) {
+			int sniper = Long.numberOfTrailingZeros(snipers);
+			long line = between(sliders, king, sniper);
+			long blockers = line & occupied;
+			if(blockers != 0 && (blockers & (blockers - 1)) == 0 && (blockers & own) != 0) {
+				pinned |= blockers;
+				if(checkers == 0) {
+					generateMoves(board, moves, blockers, line | (1L << sniper), capturesOnly);
+				}
+			}
+			snipers &= snipers - 1;
+		}
+
+		generateMoves(board, moves, own & ~kings & ~pinned, evasions, capturesOnly);
+		generateEnPassant(board, moves, true);
+		if(checkers == 0 && !capturesOnly) {
+			generateCastling(board, moves, us, occupied);
+		}
+	}
+
+	/**
+	 * Private helper. Adds the moves of the given pieces of the side to
+	 * move, other than the king's moves, castling and en passant, that
+	 * land on one of the allowed squares.
+	 * 
+	 * @param board The board to generate moves for.
+	 * @param moves The list to add the moves to.
+	 * @param movers The squares of the pieces to move (none of them kings).
+	 * @param allowed The squares the moves may land on.
+	 * @param capturesOnly True to only add captures and promotions.
+	 */
+	private static void generateMoves(Board board, MoveList moves, long movers, long allowed, boolean capturesOnly) {
+		Bitboards bitboards = board.getBitboards();
+		AttackTables tables = board.getAttackTables();
+		SlidingAttacks sliders = board.getSlidingAttacks();
+		Color us = board.getSideToMove();
+		long own = bitboards.occupancy(us);
+		long enemy = bitboards.occupancy(us.other());
+		long occupied = own | enemy;
+		long targets = allowed & (capturesOnly? enemy : ~own);
+
+		generatePawnMoves(board, moves, us, movers & bitboards.pieces(us, PieceType.PAWN), enemy, occupied, allowed, capturesOnly);
+
+		long knights = movers & bitboards.pieces(us, PieceType.KNIGHT);
+		while(knights != 0) {
+			int from = Long.numberOfTrailingZeros(knights);
+			addMoves(moves, from, tables.knight(from) & targets, enemy);
+			knights &= knights - 1;
+		}
+
+		long queens = bitboards.pieces(us, PieceType.QUEEN);
+		long diagonals = movers & (bitboards.pieces(us, PieceType.BISHOP) | queens);
+		while(diagonals != 0) {
+			int from = Long.numberOfTrailingZeros(diagonals);
+			addMoves(moves, from, sliders.bishop(from, occupied) & targets, enemy);
+			diagonals &= diagonals - 1;
+		}
+
+		long straights = movers & (bitboards.pieces(us, PieceType.ROOK) | queens);
+		while(straights != 0) {
+			int from = Long.numberOfTrailingZeros(straights);
+			addMoves(moves, from, sliders.rook(from, occupied) & targets, enemy);
+			straights &= straights - 1;
+		}
+	}
+
+	/**
+	 * Private helper. Adds the advances, double advances, captures and
+	 * promotions of the given pawns that land on one of the allowed
+	 * squares (en passant captures are added by generateEnPassant).
+	 * 
+	 * @param board The board to generate moves for.
+	 * @param moves The list to add the moves to.
+	 * @param us The color of the pawns.
+	 * @param pawns The squares of the pawns to move.
+	 * @param enemy The squares holding enemy pieces.
+	 * @param occupied The squares holding any piece.
+	 * @param allowed The squares the moves may land on.
+	 * @param capturesOnly True to only add captures and promotions.
+	 */
+	private static void generatePawnMoves(Board board, MoveList moves, Color us, long pawns, long enemy, long occupied,
+			long allowed, boolean capturesOnly) {
+		AttackTables tables = board.getAttackTables();
+		int width = board.getWidth();
+		int startRank = (us == Color.WHITE)? 1 : board.getHeight() - 2;
+		int lastRank = (us == Color.WHITE)? board.getHeight() - 1 : 0;
+		while(pawns != 0) {
+			int from = Long.numberOfTrailingZeros(pawns);
+			pawns &= pawns - 1;
+
+			// Advance one square, and two squares from the starting rank.
+			long push = tables.pawnPush(us, from) & ~occupied;
+			if(push != 0) {
+				int to = Long.numberOfTrailingZeros(push);
+				boolean promotes = (to / width == lastRank);
+				if((push & allowed) != 0 && (promotes || !capturesOnly)) {
+					addPawnMove(moves, from, to, 0, promotes);
+				}
+				if(from / width == startRank && !capturesOnly) {
+					long doublePush = tables.pawnPush(us, to) & ~occupied & allowed;
+					if(doublePush != 0) {
+						moves.add(Move.of(from, Long.numberOfTrailingZeros(doublePush), Move.DOUBLE_PUSH));
+					}
+				}
+			}
+
+			// Capture diagonally forward.
+			long captures = tables.pawnAttacks(us, from) & enemy & allowed;
+			while(captures != 0) {
+				int to = Long.numberOfTrailingZeros(captures);
+				addPawnMove(moves, from, to, Move.CAPTURE, to / width == lastRank);
+				captures &= captures - 1;
+			}
+		}
+	}
+
+	/**
+	 * Private helper. Adds the en passant captures onto the square a pawn
+	 * just skipped over. Taking en passant removes two pawns from the
+	 * same rank at once, which can uncover an attack on the king that no
+	 * pin shows, so when only legal moves are wanted each capture is
+	 * tried out on copies of the bitboards first.
+	 * 
+	 * @param board The board to generate moves for.
+	 * @param moves The list to add the moves to.
+	 * @param legalOnly True to only add captures that keep the king safe.
+	 */
+	private static void generateEnPassant(Board board, MoveList moves, boolean legalOnly) {
+		int enPassant = board.getEnPassantSquare();
+		if(enPassant == Board.NO_SQUARE) {
+			return;
+		}
+		Color us = board.getSideToMove();
+		long attackers = board.getAttackTables().pawnAttacks(us.other(), enPassant) & board.getBitboards().pieces(us, PieceType.PAWN);
+		while(attackers != 0) {
+			int move = Move.of(Long.numberOfTrailingZeros(attackers), enPassant, Move.EN_PASSANT);
+			if(!legalOnly || isLegal(board, move)) {
+				moves.add(move);
+			}
+			attackers &= attackers - 1;
+		}
+	}
+
+	/**
+	 * Private helper for generateLegal. Returns the enemy pieces that
+	 * attack a square.
+	 * 
+	 * @param board The board to look at.
+	 * @param square The square that may be attacked.
+	 * @param by The color of the attacking pieces.
+	 * @param occupied The squares holding any piece.
+	 * @return The squares of the attackers.
+	 */
+	private static long attackersOf(Board board, int square, Color by, long occupied) {
+		Bitboards bitboards = board.getBitboards();
+		AttackTables tables = board.getAttackTables();
+		SlidingAttacks sliders = board.getSlidingAttacks();
+		long queens = bitboards.pieces(by, PieceType.QUEEN);
+		return (tables.pawnAttacks(by.other(), square) & bitboards.pieces(by, PieceType.PAWN))
+				| (tables.knight(square) & bitboards.pieces(by, PieceType.KNIGHT))
+				| (tables.king(square) & bitboards.pieces(by, PieceType.KING))
+				| (sliders.bishop(square, occupied) & (bitboards.pieces(by, PieceType.BISHOP) | queens))
+				| (sliders.rook(square, occupied) & (bitboards.pieces(by, PieceType.ROOK) | queens));
+	}
+
+	/**
+	 * Private helper for generateLegal. Returns the squares strictly
+	 * between two squares on the same rank, file or diagonal.
+	 * 
+	 * @param sliders The sliding attacks for the board's size.
+	 * @param a One of the squares.
+	 * @param b The other square.
+	 * @return The squares between them; none if they are not in line or are next to each other.
+	 */
+	private static long between(SlidingAttacks sliders, int a, int b) {
+		long aBit = 1L << a;
+		long bBit = 1L << b;
+		if((sliders.rook(a, 0L) & bBit) != 0) {
+			return sliders.rook(a, bBit) & sliders.rook(b, aBit);
+		}
+		if((sliders.bishop(a, 0L) & bBit) != 0) {
+			return sliders.bishop(a, bBit) & sliders.bishop(b, aBit);
+		}
+		return 0L;
+	}
+
+	/**
+	 * Private helper. Adds the castling moves of
+	 * the given color. Castling needs the right to castle on that side,
+	 * the king and rook on their starting squares, nothing between them,
+	 * and the king not to be in check or pass over an attacked square.
+	 * Since the king never ends on an attacked square either, the moves
+	 * added here are already legal.
+	 * 
+	 * @param board The board to generate moves for.
+	 * @param moves The list to add the moves to.
+	 * @param us The color that is castling.
+	 * @param occupied The squares holding any piece.
+	 */
+	private static void generateCastling(Board board, MoveList moves, Color us, long occupied) {
+		int rights = board.getCastlingRights();
+		int kingside = (us == Color.WHITE)? Board.CASTLE_WHITE_KINGSIDE : Board.CASTLE_BLACK_KINGSIDE;
+		int queenside = (us == Color.WHITE)? Board.CASTLE_WHITE_QUEENSIDE : Board.CASTLE_BLACK_QUEENSIDE;
+		if((rights & (kingside | queenside)) == 0) {
+			return;
+		}
+		Bitboards bitboards = board.getBitboards();
+		int width = board.getWidth();
+		int rank = (us == Color.WHITE)? 0 : (board.getHeight() - 1) * width;
+		int king = rank + width / 2;
+		long rooks = bitboards.pieces(us, PieceType.ROOK);
+		Color them = us.other();
+		if((bitboards.pieces(us, PieceType.KING) & (1L << king)) == 0 || board.isSquareAttacked(king, them)) {
+			return;
+		}
+
+		// Castle toward the right-hand rook.
+		int rook = rank + width - 1;
+		long between = ((1L << rook) - 1) & ~((1L << (king + 1)) - 1);
+		if((rights & kingside) != 0 && king + 2 < rook && (rooks & (1L << rook)) != 0 && (occupied & between) == 0
+				&& !board.isSquareAttacked(king + 1, them) && !board.isSquareAttacked(king + 2, them)) {
+			moves.add(Move.of(king, king + 2, Move.CASTLE));
+		}
+
+		// Castle toward the left-hand rook.
+		rook = rank;
+		between = ((1L << king) - 1) & ~((1L << (rook + 1)) - 1);
+		if((rights & queenside) != 0 && king - 2 > rook && (rooks & (1L << rook)) != 0 && (occupied & between) == 0
+				&& !board.isSquareAttacked(king - 1, them) && !board.isSquareAttacked(king - 2, them)) {
+			moves.add(Move.of(king, king - 2, Move.CASTLE));
+		}
+	}
+
+	/**
+	 * Adds a pawn move, or one move for each possible promotion if the
+	 * pawn reaches the last rank. Shared with WideMoveGenerator.
+	 * 
+	 * @param moves The list to add the moves to.
+	 * @param from The square the pawn moves from.
+	 * @param to The square the pawn moves to.
+	 * @param flags CAPTURE if the move captures; zero otherwise.
+	 * @param promotes True if the pawn reaches the last rank.
+	 */
+	static void addPawnMove(MoveList moves, int from, int to, int flags, boolean promotes) {
+		if(promotes) {
+			for(PieceType promotion : PROMOTIONS) {
+				moves.add(Move.promotion(from, to, promotion, flags));
+			}
+		}
+		else {
+			moves.add(Move.of(from, to, flags));
+		}
+	}
+
+	/**
+	 * Private helper. Adds a move from the given square to each of the
+	 * target squares, flagging the ones that land on enemy pieces.
+	 * 
+	 * @param moves The list to add the moves to.
+	 * @param from The square the piece moves from.
+	 * @param targets The squares the piece can move to.
+	 * @param enemy The squares holding enemy pieces.
+	 */
+	private static void addMoves(MoveList moves, int from, long targets, long enemy) {
+		while(targets != 0) {
+			int to = Long.numberOfTrailingZeros(targets);
+			moves.add(Move.of(from, to, ((enemy & (1L << to)) != 0)? Move.CAPTURE : 0));
+			targets &= targets - 1;
+		}
+	}
+
+	/**
+	 * Returns whether or not a pseudo-legal move for the side to move
+	 * keeps that side's king safe. Most moves are settled straight from
+	 * the board's attack maps; the rest are not actually made, but the
+	 * position after them is worked out on copies of the bitboards.
+	 * 
+	 * @param board The board the move is played on.
+	 * @param move The packed pseudo-legal move.
+	 * @return True if the move does not leave the mover's king attacked.
+	 */
+	public static boolean isLegal(Board board, int move) {
+		Bitboards bitboards = board.getBitboards();
+		if(bitboards == null) {
+			return WideMoveGenerator.isLegal(board, move, board.isInCheck());
+		}
+		Color us = board.getSideToMove();
+		long kings = bitboards.pieces(us, PieceType.KING);
+		if(kings == 0) {
+			return true;
+		}
+		long fromBit = 1L << Move.from(move);
+		long toBit = 1L << Move.to(move);
+
+		// Out of check, only a king stepping onto an attacked square, a piece that an enemy
+		// piece can see (which might be pinned) or an en passant capture can expose the king.
+		if(!board.isInCheck()) {
+			long enemyAttacks = board.getAttackMaps().attacks(us.other());
+			if((kings & fromBit) != 0) {
+				return Move.is(move, Move.CASTLE) || (enemyAttacks & toBit) == 0;
+			}
+			if((enemyAttacks & fromBit) == 0 && !Move.is(move, Move.EN_PASSANT)) {
+				return true;
+			}
+		}
+		int kingSquare = ((kings & fromBit) != 0)? Move.to(move) : Long.numberOfTrailingZeros(kings);
+		long occupied = (bitboards.occupied() & ~fromBit) | toBit;
+		long captured = toBit;
+		if(Move.is(move, Move.EN_PASSANT)) {
+			captured = 1L << ((us == Color.WHITE)? Move.to(move) - board.getWidth() : Move.to(move) + board.getWidth());
+			occupied &= ~captured;
+		}
+		return !isAttacked(board, kingSquare, us.other(), occupied, ~captured);
+	}
+
+	/**
+	 * Returns whether or not any piece of the given color attacks the
+	 * given square, assuming the given squares are occupied and only the
+	 * enemy pieces inside the given mask are still on the board.
+	 * 
+	 * @param board The board to look at.
+	 * @param square The square that may be attacked.
+	 * @param by The color of the attacking pieces.
+	 * @param occupied The squares to treat as occupied.
+	 * @param attackers A mask of the squares whose pieces still count as attackers.
+	 * @return True if the square is attacked; false otherwise.
+	 */
+	public static boolean isAttacked(Board board, int square, Color by, long occupied, long attackers) {
+		Bitboards bitboards = board.getBitboards();
+		AttackTables tables = board.getAttackTables();
+		SlidingAttacks sliders = board.getSlidingAttacks();
+		long queens = bitboards.pieces(by, PieceType.QUEEN);
+		return (tables.pawnAttacks(by.other(), square) & bitboards.pieces(by, PieceType.PAWN) & attackers) != 0
+				|| (tables.knight(square) & bitboards.pieces(by, PieceType.KNIGHT) & attackers) != 0
+				|| (tables.king(square) & bitboards.pieces(by, PieceType.KING) & attackers) != 0
+				|| (sliders.bishop(square, occupied) & (bitboards.pieces(by, PieceType.BISHOP) | queens) & attackers) != 0
+				|| (sliders.rook(square, occupied) & (bitboards.pieces(by, PieceType.ROOK) | queens) & attackers) != 0;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,161 @@
+package Game;
+import java.util.Arrays;
+/**
+ * A reusable list of packed moves (see Move) backed by a plain int
+ * array. Move generation writes into a list that the caller already
+ * owns, and clearing it just resets the size, so that searching or
+ * counting positions does not create any garbage. Callers that recurse
+ * should keep one list per ply.
+ * 
+ * @author Priten Vora
+ *
+ */
+public class MoveList {
+
+	public static final int DEFAULT_CAPACITY = 256;	// Comfortably more than any 8x8 position has.
+
+	private int[] moves;	// The moves in the list.
+	private int size;		// How many of the slots in moves are in use.
+
+	/**
+	 * Constructor for a list with the default capacity.
+	 */
+	public MoveList() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor for a list that can hold the given number of moves
+	 * before it has to grow.
+	 * 
+	 * @param capacity The number of moves to make room for.
+	 */
+	public MoveList(int capacity) {
+		moves = new int[capacity];
+		size = 0;
+	}
+
+	/**
+	 * Adds a move to the end of the list.
+	 * 
+	 * @param move The packed move to add.
+	 */
+	public void add(int move) {
+		if(size == moves.length) {
+			moves = Arrays.copyOf(moves, moves.length * 2);
+		}
+		moves[size++] = move;
+	}
+
+	/**
+	 * Returns the move at the given position in the list.
+	 * 
+	 * @param index The position of the move.
+	 * @return The packed move.
+	 */
+	public int get(int index) {
+		return moves[index];
+	}
+
+	/**
+	 * Replaces the move at the given position in the list.
+	 * 
+	 * @param index The position of the move.
+	 * @param move The packed move to put there.
+	 */
+	public void set(int index, int move) {
+		moves[index] = move;
+	}
+
+	/**
+	 * Swaps the moves at two positions in the list.
+	 * 
+	 * @param i The position of the first move.
+	 * @param j The position of the second move.
+	 */
+	public void swap(int i, int j) {
+		int move = moves[i];
+		moves[i] = moves[j];
+		moves[j] = move;
+	}
+
+	/**
+	 * Returns how many moves are in the list.
+	 * 
+	 * @return The number of moves.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns whether or not the list has no moves in it.
+	 * 
+	 * @return True if the list is empty; false otherwise.
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns whether or not the list holds the given move.
+	 * 
+	 * @param move The packed move to look for.
+	 * @return True if the move is in the list; false otherwise.
+	 */
+	public boolean contains(int move) {
+		for(int i = 0; i < size; i++) {
+			if(moves[i] == move) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the position of a move in the list.
+	 * 
+	 * @param move The packed move to look for.
+	 * @return The position of the move; -1 if it is not in the list.
+	 */
+	public int indexOf(int move) {
+		for(int i = 0; i < size; i++) {
+			if(moves[i] == move) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Sorts the moves by their packed values, which puts the moves of a
+	 * position in the same order however they were generated.
+	 */
+	public void sort() {
+		for(int i = 1; i < size; i++) {
+			int move = moves[i];
+			int j = i - 1;
+			while(j >= 0 && moves[j] > move) {
+				moves[j + 1] = moves[j];
+				j--;
+			}
+			moves[j + 1] = move;
+		}
+	}
+
+	/**
+	 * Drops every move from the given position onwards.
+	 * 
+	 * @param newSize The number of moves to keep.
+	 */
+	public void truncate(int newSize) {
+		size = newSize;
+	}
+
+	/**
+	 * Empties the list so it can be reused.
+	 */
+	public void clear() {
+		size = 0;
+	}
+}
\ No newline at end of file
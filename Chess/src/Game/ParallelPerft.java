@@ -0,0 +1,210 @@
+package Game;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+/**
+ * Counts perft (see Perft) on several threads at once. The first few
+ * plies of the tree are split into fork/join tasks, one per move, each
+ * working on its own copy of the board; below that each task counts its
+ * subtree serially with a Perft counter belonging to its thread. The
+ * counters can optionally share one PerftHashTable, so a subtree counted
+ * by any thread is reused by all of them. Counts are the same as the
+ * serial ones.
+ * 
+ * @author Priten Vora
+ *
+ */
+public class ParallelPerft {
+
+	public static final int DEFAULT_SPLIT_PLIES = 2;	// How many plies are split into tasks by default.
+	public static final int MAX_DEPTH = 32;				// The deepest count the counter can be asked for.
+
+	private final ForkJoinPool pool;		// The threads doing the counting.
+	private final PerftHashTable table;		// Shared subtree counts (null to not use one).
+	private final int splitPlies;			// How many plies from the root are split into tasks.
+	private final ThreadLocal<Perft> counters;	// Each thread's serial counter.
+
+	/**
+	 * Constructor for a parallel counter using the given number of threads.
+	 * 
+	 * @param threads The number of threads to count with.
+	 * @param hashTable A table of subtree counts to share (null to not use one).
+	 */
+	public ParallelPerft(int threads, PerftHashTable hashTable) {
+		this(threads, hashTable, DEFAULT_SPLIT_PLIES);
+	}
+
+	/**
+	 * Constructor for a parallel counter using the given number of
+	 * threads and splitting the given number of plies into tasks.
+	 * 
+	 * @param threads The number of threads to count with.
+	 * @param hashTable A table of subtree counts to share (null to not use one).
+	 * @param plies How many plies from the root to split into tasks (at least 1).
+	 */
+	public ParallelPerft(int threads, PerftHashTable hashTable, int plies) {
+		pool = new ForkJoinPool(threads);
+		table = hashTable;
+		splitPlies = Math.max(1, plies);
+		counters = new ThreadLocal<Perft>() {
+			@Override
+			protected Perft initialValue() {
+				return new Perft(MAX_DEPTH, table);
+			}
+		};
+	}
+
+	/**
+	 * Counts the legal move sequences of the given length from the
+	 * board's position. The board itself is not changed.
+	 * 
+	 * @param board The board to count from.
+	 * @param depth The number of moves in each sequence (at most MAX_DEPTH).
+	 * @return The number of sequences (leaf positions).
+	 * @throws IllegalArgumentException If the depth is more than MAX_DEPTH.
+	 */
+	public long perft(Board board, int depth) {
+		checkDepth(depth);
+		return pool.invoke(new PerftTask(new Board(board), depth, splitPlies));
+	}
+
+	/**
+	 * Counts like perft, but also prints the count below each of the
+	 * first moves (in move generation order, like Perft.divide).
+	 * 
+	 * @param board The board to count from.
+	 * @param depth The number of moves in each sequence (at least 1, at most MAX_DEPTH).
+	 * @param out Where to print the count for each first move.
+	 * @return The total number of sequences.
+	 * @throws IllegalArgumentException If the depth is more than MAX_DEPTH.
+	 */
+	public long divide(Board board, int depth, PrintStream out) {
+		checkDepth(depth);
+		MoveList moves = new MoveList();
+		MoveGenerator.generateLegal(board, moves);
+		List<PerftTask> tasks = new ArrayList<PerftTask>();
+		for(int i = 0; i < moves.size(); i++) {
+			Board copy = new Board(board);
+			copy.makeMove(moves.get(i));
+			tasks.add(new PerftTask(copy, depth - 1, splitPlies - 1));
+		}
+		for(PerftTask task : tasks) {
+			pool.execute(task);
+		}
+		long total = 0;
+		for(int i = 0; i < moves.size(); i++) {
+			long nodes = tasks.get(i).join();
+			out.println(Move.toString(moves.get(i), board) + ": " + nodes);
+			total += nodes;
+		}
+		out.println();
+		out.println("Moves: " + moves.size());
+		out.println("Nodes: " + total);
+		return total;
+	}
+
+	/**
+	 * Private helper for perft and divide. Checks that the serial counters
+	 * have a move list for every ply of a count.
+	 * 
+	 * @param depth The depth of the count.
+	 * @throws IllegalArgumentException If the depth is more than MAX_DEPTH.
+	 */
+	private static void checkDepth(int depth) {
+		if(depth > MAX_DEPTH) {
+			throw new IllegalArgumentException("Perft can count at most " + MAX_DEPTH + " plies deep");
+		}
+	}
+
+	/**
+	 * Stops the counter's threads once it is no longer needed.
+	 */
+	public void shutdown() {
+		pool.shutdown();
+	}
+
+	/**
+	 * A fork/join task counting the subtree below one position. While
+	 * there are plies left to split it hands each move to a new task with
+	 * its own copy of the board; after that it counts serially.
+	 */
+	private class PerftTask extends RecursiveTask<Long> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Board board;		// This task's own board.
+		private final int depth;		// How many more moves to count.
+		private final int splitsLeft;	// How many more plies to split into tasks.
+
+		PerftTask(Board taskBoard, int taskDepth, int taskSplitsLeft) {
+			board = taskBoard;
+			depth = taskDepth;
+			splitsLeft = taskSplitsLeft;
+		}
+
+		@Override
+		protected Long compute() {
+			if(splitsLeft <= 0 || depth <= 2) {
+				return counters.get().perft(board, depth);
+			}
+			if(table != null) {
+				long known = table.probe(board.getZobristKey(), depth);
+				if(known != PerftHashTable.MISS) {
+					return known;
+				}
+			}
+			MoveList moves = new MoveList();
+			MoveGenerator.generateLegal(board, moves);
+			List<PerftTask> tasks = new ArrayList<PerftTask>(moves.size());
+			for(int i = 0; i < moves.size(); i++) {
+				Board copy = new Board(board);
+				copy.makeMove(moves.get(i));
+				tasks.add(new PerftTask(copy, depth - 1, splitsLeft - 1));
+			}
+			long nodes = 0;
+			for(PerftTask task : invokeAll(tasks)) {
+				nodes += task.join();
+			}
+			if(table != null) {
+				table.store(board.getZobristKey(), depth, nodes);
+			}
+			return nodes;
+		}
+	}
+
+	/**
+	 * Runs a parallel divide from the command line.
+	 * Usage: ParallelPerft depth [threads] [hashMB] [fen]
+	 * 
+	 * @param args The depth, then optionally the thread count (default:
+	 *        one per core), the hash table size in megabytes (default 0,
+	 *        no table) and the FEN of the position.
+	 */
+	public static void main(String[] args) {
+		if(args.length < 1) {
+			System.err.println("Usage: ParallelPerft depth [threads] [hashMB] [fen]");
+			System.exit(1);
+		}
+		int depth = Integer.parseInt(args[0]);
+		int threads = (args.length > 1)? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		int hashMegabytes = (args.length > 2)? Integer.parseInt(args[2]) : 0;
+		String fen = Fen.STARTING_POSITION;
+		if(args.length > 3) {
+			StringBuilder joined = new StringBuilder();
+			for(int i = 3; i < args.length; i++) {
+				joined.append(args[i]).append(' ');
+			}
+			fen = joined.toString();
+		}
+		Board board = Fen.createBoard(fen);
+		ParallelPerft perft = new ParallelPerft(threads, (hashMegabytes > 0)? new PerftHashTable(hashMegabytes) : null);
+		long start = System.nanoTime();
+		long nodes = perft.divide(board, depth, System.out);
+		long elapsed = System.nanoTime() - start;
+		perft.shutdown();
+		System.out.println("Time: " + elapsed / 1000000 + " ms (" + nodes * 1000000000L / Math.max(elapsed, 1) + " nodes/s, "
+				+ threads + " threads)");
+	}
+}
\ No newline at end of file
@@ -0,0 +1,131 @@
+package Game;
+import java.io.PrintStream;
+/**
+ * Counts the number of move sequences of a given length from a position
+ * ("perft", for performance test). Since the counts for many positions
+ * are well known, comparing against them checks the move generator and
+ * make/unmake, and timing the count measures how fast they are. Counting
+ * reuses one move list per ply, so it creates no garbage once started.
+ * 
+ * @author Priten Vora
+ *
+ */
+public class Perft {
+
+	private final MoveList[] moveLists;	// One move list for each ply of the count.
+	private final PerftHashTable table;	// Counts of subtrees already seen (null to not use one).
+
+	/**
+	 * Constructor for a perft counter that can count up to the given depth.
+	 * 
+	 * @param maxDepth The deepest count this counter will be asked for.
+	 */
+	public Perft(int maxDepth) {
+		this(maxDepth, null);
+	}
+
+	/**
+	 * Constructor for a perft counter that can count up to the given
+	 * depth, and looks up and stores subtree counts in the given table.
+	 * 
+	 * @param maxDepth The deepest count this counter will be asked for.
+	 * @param hashTable The table of subtree counts (null to not use one).
+	 */
+	public Perft(int maxDepth, PerftHashTable hashTable) {
+		table = hashTable;
+		moveLists = new MoveList[Math.max(maxDepth, 1) + 1];
+		for(int i = 0; i < moveLists.length; i++) {
+			moveLists[i] = new MoveList();
+		}
+	}
+
+	/**
+	 * Counts the legal move sequences of the given length from the
+	 * board's position. The board is left as it was.
+	 * 
+	 * @param board The board to count from.
+	 * @param depth The number of moves in each sequence.
+	 * @return The number of sequences (leaf positions).
+	 */
+	public long perft(Board board, int depth) {
+		if(depth == 0) {
+			return 1;
+		}
+		if(table != null && depth > 1) {
+			long known = table.probe(board.getZobristKey(), depth);
+			if(known != PerftHashTable.MISS) {
+				return known;
+			}
+		}
+		MoveList moves = moveLists[depth];
+		moves.clear();
+		MoveGenerator.generateLegal(board, moves);
+		if(depth == 1) {
+			return moves.size();
+		}
+		long nodes = 0;
+		for(int i = 0; i < moves.size(); i++) {
+			board.makeMove(moves.get(i));
+			nodes += perft(board, depth - 1);
+			board.unmakeMove();
+		}
+		if(table != null) {
+			table.store(board.getZobristKey(), depth, nodes);
+		}
+		return nodes;
+	}
+
+	/**
+	 * Counts like perft, but also prints the count below each of the
+	 * first moves, which helps narrow down where a wrong count comes from.
+	 * 
+	 * @param board The board to count from.
+	 * @param depth The number of moves in each sequence (at least 1).
+	 * @param out Where to print the count for each first move.
+	 * @return The total number of sequences.
+	 */
+	public long divide(Board board, int depth, PrintStream out) {
+		MoveList moves = new MoveList();
+		MoveGenerator.generateLegal(board, moves);
+		long total = 0;
+		for(int i = 0; i < moves.size(); i++) {
+			int move = moves.get(i);
+			board.makeMove(move);
+			long nodes = perft(board, depth - 1);
+			board.unmakeMove();
+			out.println(Move.toString(move, board) + ": " + nodes);
+			total += nodes;
+		}
+		out.println();
+		out.println("Moves: " + moves.size());
+		out.println("Nodes: " + total);
+		return total;
+	}
+
+	/**
+	 * Runs a divide from the command line.
+	 * Usage: Perft depth [fen]
+	 * 
+	 * @param args The depth, optionally followed by the FEN of the position.
+	 */
+	public static void main(String[] args) {
+		if(args.length < 1) {
+			System.err.println("Usage: Perft depth [fen]");
+			System.exit(1);
+		}
+		int depth = Integer.parseInt(args[0]);
+		String fen = Fen.STARTING_POSITION;
+		if(args.length > 1) {
+			StringBuilder joined = new StringBuilder();
+			for(int i = 1; i < args.length; i++) {
+				joined.append(args[i]).append(' ');
+			}
+			fen = joined.toString();
+		}
+		Board board = Fen.createBoard(fen);
+		long start = System.nanoTime();
+		long nodes = new Perft(depth).divide(board, depth, System.out);
+		long elapsed = System.nanoTime() - start;
+		System.out.println("Time: " + elapsed / 1000000 + " ms (" + nodes * 1000000000L / Math.max(elapsed, 1) + " nodes/s)");
+	}
+}
\ No newline at end of file
@@ -0,0 +1,93 @@
+package Game;
+/**
+ * Checks and times move generation on the standard perft positions. For
+ * each position and depth the node count is compared with the published
+ * value, and the speed is reported in nodes per second, after a warm-up
+ * run so the JIT compiler has had a chance to compile the hot code. Run
+ * it after any change to Piece, Board or the move generator to see both
+ * that nothing broke and how the speed moved.
+ * Usage: PerftBenchmark [maxDepth] [iterations]
+ * 
+ * @author Priten Vora
+ *
+ */
+public class PerftBenchmark {
+
+	private static final String[] POSITIONS = {	// The standard perft positions.
+		Fen.STARTING_POSITION,
+		"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+		"8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+		"r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+		"rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+		"r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+	};
+
+	private static final long[][] EXPECTED = {	// Published node counts for depths 1 and up.
+		{20, 400, 8902, 197281, 4865609, 119060324},
+		{48, 2039, 97862, 4085603, 193690690},
+		{14, 191, 2812, 43238, 674624, 11030083},
+		{6, 264, 9467, 422333, 15833292},
+		{44, 1486, 62379, 2103487, 89941194},
+		{46, 2079, 89890, 3894594, 164075551},
+	};
+
+	/**
+	 * Returns the standard perft positions, as FEN.
+	 * 
+	 * @return The positions.
+	 */
+	public static String[] positions() {
+		return POSITIONS.clone();
+	}
+
+	/**
+	 * Returns the published node count for a standard perft position.
+	 * 
+	 * @param position The index of the position (see positions).
+	 * @param depth The depth of the count.
+	 * @return The node count; -1 if it is not known for that depth.
+	 */
+	public static long expected(int position, int depth) {
+		long[] counts = EXPECTED[position];
+		return (depth >= 1 && depth <= counts.length)? counts[depth - 1] : -1;
+	}
+
+	/**
+	 * Runs the benchmark.
+	 * 
+	 * @param args The deepest depth to run (default 4) and how many timed runs to average (default 3).
+	 */
+	public static void main(String[] args) {
+		int maxDepth = (args.length > 0)? Integer.parseInt(args[0]) : 4;
+		int iterations = (args.length > 1)? Integer.parseInt(args[1]) : 3;
+		Perft perft = new Perft(maxDepth);
+		boolean allCorrect = true;
+		long totalNodes = 0;
+		long totalTime = 0;
+
+		System.out.printf("%-4s %-5s %12s %12s %10s %14s%n", "pos", "depth", "nodes", "expected", "ms", "nodes/s");
+		for(int p = 0; p < POSITIONS.length; p++) {
+			Board board = Fen.createBoard(POSITIONS[p]);
+			for(int depth = 1; depth <= maxDepth && expected(p, depth) >= 0; depth++) {
+				long nodes = perft.perft(board, depth);
+				long best = Long.MAX_VALUE;
+				for(int i = 0; i < iterations; i++) {
+					long start = System.nanoTime();
+					perft.perft(board, depth);
+					best = Math.min(best, System.nanoTime() - start);
+				}
+				boolean correct = (nodes == expected(p, depth));
+				allCorrect &= correct;
+				totalNodes += nodes;
+				totalTime += best;
+				System.out.printf("%-4d %-5d %12d %12d %10.1f %14d%s%n", p + 1, depth, nodes, expected(p, depth),
+						best / 1e6, nodes * 1000000000L / Math.max(best, 1), correct? "" : "  MISMATCH");
+			}
+		}
+		System.out.printf("Total: %d nodes, %d nodes/s, %s%n", totalNodes, totalNodes * 1000000000L / Math.max(totalTime, 1),
+				allCorrect? "all counts correct" : "COUNTS WRONG");
+		if(!allCorrect) {
+			System.exit(1);
+		}
+	}
+}
\ No newline at end of file
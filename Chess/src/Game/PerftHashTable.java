@@ -0,0 +1,65 @@
+package Game;
+import java.util.concurrent.atomic.AtomicLongArray;
+/**
+ * A fixed-size hash table of perft subtree counts, so that positions that
+ * are reached by more than one move order only have to be counted once.
+ * Entries are keyed by the position's Zobrist key together with the depth
+ * that was counted. Any number of threads can share a table without
+ * locks: each entry is stored as the key xor the count next to the count
+ * itself, and a lookup only trusts an entry if xor-ing the two gives back
+ * the key, so an entry torn by two racing writers reads as a miss.
+ * 
+ * @author Priten Vora
+ *
+ */
+public class PerftHashTable {
+
+	public static final long MISS = -1L;	// What probe returns when the count is not in the table.
+
+	private static final long DEPTH_MIX = 0x9E3779B97F4A7C15L;	// Spreads the depth across the key.
+
+	private final AtomicLongArray slots;	// Key-xor-count and count, for each entry.
+	private final int entryMask;			// Number of entries minus one (a power of two).
+
+	/**
+	 * Constructor for the table. Makes it as large as possible while
+	 * staying within the given size.
+	 * 
+	 * @param megabytes The most memory the table may use, in megabytes.
+	 */
+	public PerftHashTable(int megabytes) {
+		long entries = Long.highestOneBit((Math.max(1L, megabytes) << 20) / 16);
+		entries = Math.min(entries, 1L << 29);
+		slots = new AtomicLongArray((int)(entries * 2));
+		entryMask = (int)(entries - 1);
+	}
+
+	/**
+	 * Looks up the count for a position and depth.
+	 * 
+	 * @param key The Zobrist key of the position.
+	 * @param depth The depth of the count.
+	 * @return The number of leaf positions; MISS if it is not in the table.
+	 */
+	public long probe(long key, int depth) {
+		long lookup = key ^ (depth * DEPTH_MIX);
+		int index = ((int)(lookup ^ (lookup >>> 32)) & entryMask) * 2;
+		long nodes = slots.get(index + 1);
+		return ((slots.get(index) ^ nodes) == lookup)? nodes : MISS;
+	}
+
+	/**
+	 * Stores the count for a position and depth, replacing whatever was
+	 * in its entry before.
+	 * 
+	 * @param key The Zobrist key of the position.
+	 * @param depth The depth of the count.
+	 * @param nodes The number of leaf positions.
+	 */
+	public void store(long key, int depth, long nodes) {
+		long lookup = key ^ (depth * DEPTH_MIX);
+		int index = ((int)(lookup ^ (lookup >>> 32)) & entryMask) * 2;
+		slots.lazySet(index, lookup ^ nodes);
+		slots.lazySet(index + 1, nodes);
+	}
+}
\ No newline at end of file
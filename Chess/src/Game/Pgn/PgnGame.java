@@ -0,0 +1,192 @@
+package Game.Pgn;
+import java.util.Arrays;
+/**
+ * The raw text of one game from a PGN file: its tag pairs followed by
+ * its movetext, exactly as they appear in the file. The text is kept as
+ * bytes in a buffer that is reused from game to game, and can be read
+ * as characters in place (PGN is ASCII), so reading a game does not
+ * create any strings. Tags are only picked out when asked for.
+ * 
+ * @author Priten Vora
+ *
+ */
+public class PgnGame implements CharSequence {
+
+	private static final int DEFAULT_CAPACITY = 4096;	// Enough for most games without growing.
+
+	private byte[] text;		// The text of the game.
+	private int length;			// How many bytes of text are in use.
+	private int movesStart;		// Where the movetext starts in the text.
+	private long number;		// Which game of the file this is, counting from 1.
+	private long offset;		// Where the game starts in the file, in bytes.
+
+	/**
+	 * Constructor for an empty game.
+	 */
+	public PgnGame() {
+		text = new byte[DEFAULT_CAPACITY];
+		clear();
+	}
+
+	/**
+	 * Empties the game so that it can be filled with the next one.
+	 */
+	void clear() {
+		length = 0;
+		movesStart = 0;
+		number = 0;
+		offset = 0;
+	}
+
+	/**
+	 * Adds a byte to the end of the text.
+	 * 
+	 * @param b The byte.
+	 */
+	void append(int b) {
+		if(length == text.length) {
+			text = Arrays.copyOf(text, text.length * 2);
+		}
+		text[length++] = (byte)b;
+	}
+
+	/**
+	 * Sets where the movetext starts.
+	 * 
+	 * @param start The index of the first character of the movetext.
+	 */
+	void setMovesStart(int start) {
+		movesStart = start;
+	}
+
+	/**
+	 * Sets where the game is in the file.
+	 * 
+	 * @param gameNumber Which game of the file this is, counting from 1.
+	 * @param fileOffset Where the game starts in the file, in bytes.
+	 */
+	void setPosition(long gameNumber, long fileOffset) {
+		number = gameNumber;
+		offset = fileOffset;
+	}
+
+	/**
+	 * Returns which game of the file this is.
+	 * 
+	 * @return The game's number, counting from 1.
+	 */
+	public long getNumber() {
+		return number;
+	}
+
+	/**
+	 * Returns where the game starts in the file.
+	 * 
+	 * @return The offset of the game's first byte.
+	 */
+	public long getOffset() {
+		return offset;
+	}
+
+	/**
+	 * Returns where the movetext starts, after the tag pairs.
+	 * 
+	 * @return The index of the first character of the movetext.
+	 */
+	public int getMovesStart() {
+		return movesStart;
+	}
+
+	/**
+	 * Returns the value of one of the game's tag pairs, like the "FEN" of
+	 * [FEN "8/8/8/8/8/8/8/K6k w - - 0 1"], with any escapes undone.
+	 * 
+	 * @param name The tag's name.
+	 * @return The tag's value; null if the game does not have the tag.
+	 */
+	public String getTag(String name) {
+		int i = 0;
+		while(i < movesStart) {
+			int lineEnd = i;
+			while(lineEnd < movesStart && text[lineEnd] != '\n') {
+				lineEnd++;
+			}
+			int j = i;
+			while(j < lineEnd && isSpace(text[j])) {
+				j++;
+			}
+			if(j < lineEnd && text[j] == '[' && matches(name, j + 1, lineEnd)) {
+				j += name.length() + 1;
+				while(j < lineEnd && text[j] != '"') {
+					j++;
+				}
+				StringBuilder value = new StringBuilder();
+				for(j++; j < lineEnd && text[j] != '"'; j++) {
+					if(text[j] == '\\' && j + 1 < lineEnd) {
+						j++;
+					}
+					value.append((char)(text[j] & 0xFF));
+				}
+				return value.toString();
+			}
+			i = lineEnd + 1;
+		}
+		return null;
+	}
+
+	@Override
+	public int length() {
+		return length;
+	}
+
+	@Override
+	public char charAt(int index) {
+		return (char)(text[index] & 0xFF);
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		return toString().substring(start, end);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder game = new StringBuilder(length);
+		for(int i = 0; i < length; i++) {
+			game.append(charAt(i));
+		}
+		return game.toString();
+	}
+
+	/**
+	 * Private helper for getTag. Returns whether or not a tag's name comes
+	 * next in the text, followed by a space.
+	 * 
+	 * @param name The tag's name.
+	 * @param start Where the name would start.
+	 * @param end Where the line ends.
+	 * @return True if the name is there; false otherwise.
+	 */
+	private boolean matches(String name, int start, int end) {
+		if(start + name.length() >= end) {
+			return false;
+		}
+		for(int k = 0; k < name.length(); k++) {
+			if(text[start + k] != name.charAt(k)) {
+				return false;
+			}
+		}
+		return isSpace(text[start + name.length()]);
+	}
+
+	/**
+	 * Helper for getTag and PgnReader. Returns whether or not a byte is
+	 * white space.
+	 * 
+	 * @param b The byte.
+	 * @return True for spaces, tabs and line ends; false otherwise.
+	 */
+	static boolean isSpace(int b) {
+		return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+	}
+}
\ No newline at end of file
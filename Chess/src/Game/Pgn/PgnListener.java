@@ -0,0 +1,33 @@
+package Game.Pgn;
+import Game.Board;
+import Game.MoveList;
+/**
+ * Hears how each game of a PGN file replayed. The replayer calls it on
+ * its worker threads, so it may be called for several games at once and
+ * must be thread-safe. The game, board and moves passed in are reused
+ * for later games once the call returns, so anything worth keeping has
+ * to be copied out.
+ * 
+ * @author Priten Vora
+ *
+ */
+public interface PgnListener {
+
+	/**
+	 * Called when every move of a game was legal.
+	 * 
+	 * @param game The game.
+	 * @param board The board, left at the game's final position.
+	 * @param moves The game's moves, as packed moves (see Move).
+	 */
+	void gameReplayed(PgnGame game, Board board, MoveList moves);
+
+	/**
+	 * Called when a game could not be replayed, e.g. because one of its
+	 * moves was illegal or its starting position was not valid.
+	 * 
+	 * @param game The game.
+	 * @param error What went wrong, and at which move.
+	 */
+	void gameFailed(PgnGame game, String error);
+}
\ No newline at end of file
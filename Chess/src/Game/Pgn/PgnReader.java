@@ -0,0 +1,165 @@
+package Game.Pgn;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+/**
+ * Reads the games of a PGN file one at a time. The file is memory-mapped
+ * a window at a time rather than read into memory, so files of any size
+ * can be read with the same small footprint: only the current window is
+ * mapped, and each game is copied into a PgnGame the caller supplies and
+ * reuses. The reader only finds where each game starts and ends; it
+ * does not check the moves (see PgnReplayer).
+ * 
+ * A game runs from its first tag pair to just before the next tag pair
+ * that follows some movetext. Comments in braces, rest-of-line comments
+ * after ';' and escaped lines starting with '%' are kept in the game's
+ * text but never taken for the start of the next game.
+ * 
+ * @author Priten Vora
+ *
+ */
+public class PgnReader implements Closeable {
+
+	public static final int DEFAULT_WINDOW = 1 << 26;	// How much of the file is mapped at once (64 MB).
+
+	private final FileChannel channel;	// The file being read.
+	private final long size;			// The size of the file.
+	private final int windowSize;		// How many bytes to map at a time.
+	private MappedByteBuffer window;	// The part of the file currently mapped (null before the first).
+	private long windowStart;			// Where the window starts in the file.
+	private int index;					// The next byte to read in the window.
+	private long games;					// How many games have been read so far.
+
+	/**
+	 * Constructor for a reader of the given file, mapping the default
+	 * amount of it at a time.
+	 * 
+	 * @param file The PGN file.
+	 * @throws IOException If the file cannot be opened.
+	 */
+	public PgnReader(File file) throws IOException {
+		this(file, DEFAULT_WINDOW);
+	}
+
+	/**
+	 * Constructor for a reader of the given file, mapping the given amount
+	 * of it at a time.
+	 * 
+	 * @param file The PGN file.
+	 * @param windowBytes How many bytes of the file to map at a time.
+	 * @throws IOException If the file cannot be opened.
+	 */
+	public PgnReader(File file, int windowBytes) throws IOException {
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		size = channel.size();
+		windowSize = Math.max(1, windowBytes);
+		window = null;
+		windowStart = 0;
+		index = 0;
+		games = 0;
+	}
+
+	/**
+	 * Reads the next game of the file into the given game, replacing
+	 * whatever it held.
+	 * 
+	 * @param game The game to fill.
+	 * @return True if a game was read; false at the end of the file.
+	 * @throws IOException If the file cannot be read.
+	 */
+	public boolean next(PgnGame game) throws IOException {
+		game.clear();
+		boolean lineStart = true;		// The next byte starts a line.
+		boolean inComment = false;		// Inside a comment in braces.
+		boolean restOfLine = false;		// Inside a tag pair, an escaped line or a ';' comment.
+		boolean sawMoves = false;		// Some movetext has been read.
+		for(int c = peek(); c >= 0; c = peek()) {
+			if(lineStart && c == '[' && sawMoves && !inComment) {
+				break;
+			}
+			long position = windowStart + index;
+			index++;
+			boolean atLineStart = lineStart;
+			lineStart = (c == '\n');
+			if(game.length() == 0) {
+				if(PgnGame.isSpace(c)) {
+					continue;
+				}
+				game.setPosition(games + 1, position);
+			}
+			game.append(c);
+			if(inComment) {
+				inComment = (c != '}');
+			}
+			else if(restOfLine) {
+				restOfLine = (c != '\n');
+			}
+			else if(atLineStart && (c == '%' || (c == '[' && !sawMoves))) {
+				restOfLine = true;
+			}
+			else if(!PgnGame.isSpace(c)) {
+				if(!sawMoves) {
+					sawMoves = true;
+					game.setMovesStart(game.length() - 1);
+				}
+				if(c == '{') {
+					inComment = true;
+				}
+				else if(c == ';') {
+					restOfLine = true;
+				}
+			}
+		}
+		if(game.length() == 0) {
+			return false;
+		}
+		if(!sawMoves) {
+			game.setMovesStart(game.length());
+		}
+		games++;
+		return true;
+	}
+
+	/**
+	 * Returns how many games have been read so far.
+	 * 
+	 * @return The number of games.
+	 */
+	public long getGames() {
+		return games;
+	}
+
+	/**
+	 * Closes the file.
+	 * 
+	 * @throws IOException If the file cannot be closed.
+	 */
+	@Override
+	public void close() throws IOException {
+		window = null;
+		channel.close();
+	}
+
+	/**
+	 * Private helper for next. Returns the next byte of the file without
+	 * reading past it, mapping the next window of the file if needed.
+	 * 
+	 * @return The byte (0 to 255); -1 at the end of the file.
+	 * @throws IOException If the file cannot be mapped.
+	 */
+	private int peek() throws IOException {
+		if(window == null || index == window.limit()) {
+			long next = (window == null)? 0 : windowStart + window.limit();
+			if(next >= size) {
+				return -1;
+			}
+			window = channel.map(FileChannel.MapMode.READ_ONLY, next, Math.min(windowSize, size - next));
+			windowStart = next;
+			index = 0;
+		}
+		return window.get(index) & 0xFF;
+	}
+}
\ No newline at end of file
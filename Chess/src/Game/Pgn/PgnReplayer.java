@@ -0,0 +1,419 @@
+package Game.Pgn;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import Game.Board;
+import Game.Fen;
+import Game.MoveList;
+import Game.San;
+/**
+ * Checks every game of a PGN file against the rules by replaying it: each
+ * SAN move is matched against the legal moves of the position (see San)
+ * and made on a board. One thread reads the games (see PgnReader) and a
+ * fixed pool of worker threads replays them, each on its own board, and
+ * tells a listener how each game went.
+ * 
+ * The reader and the workers pass a fixed number of game buffers back and
+ * forth: the reader fills a free buffer and queues it, and a worker hands
+ * the buffer back once it has replayed the game. When the workers fall
+ * behind, the reader waits for a buffer to come back, so however big the
+ * file is, no more than a few games are ever held in memory at once.
+ * 
+ * @author Priten Vora
+ *
+ */
+public class PgnReplayer {
+
+	public static final int DEFAULT_QUEUE = 64;	// How many games may wait for a worker by default.
+
+	private static final PgnGame END = new PgnGame();	// Queued after the last game to stop the workers.
+
+	private final int threads;				// How many worker threads replay games.
+	private final int queueSize;			// How many games may wait for a worker.
+	private final ExecutorService workers;	// Runs the workers.
+	private final AtomicLong games;			// Games replayed in the current (or last) run.
+	private final AtomicLong failures;		// Games of those that could not be replayed.
+	private final AtomicLong plies;			// Moves made in the games that could.
+
+	/**
+	 * Constructor for a replayer with the given number of workers.
+	 * 
+	 * @param workerThreads How many threads replay games (at least 1).
+	 * @param queuedGames How many games read ahead may wait for a worker.
+	 */
+	public PgnReplayer(int workerThreads, int queuedGames) {
+		threads = Math.max(1, workerThreads);
+		queueSize = Math.max(1, queuedGames);
+		workers = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+			private int count = 0;
+
+			@Override
+			public synchronized Thread newThread(Runnable task) {
+				Thread thread = new Thread(task, "pgn-worker-" + (++count));
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		games = new AtomicLong();
+		failures = new AtomicLong();
+		plies = new AtomicLong();
+	}
+
+	/**
+	 * Replays every game of a PGN file, and returns once all of them are
+	 * done. The listener is called on the worker threads as each game
+	 * finishes, so games are not reported in order.
+	 * 
+	 * @param file The PGN file.
+	 * @param listener Told how each game went (null for nobody).
+	 * @throws IOException If the file cannot be read.
+	 */
+	public void replay(File file, final PgnListener listener) throws IOException {
+		games.set(0);
+		failures.set(0);
+		plies.set(0);
+		int buffers = threads + queueSize;
+		final BlockingQueue<PgnGame> free = new ArrayBlockingQueue<PgnGame>(buffers);
+		final BlockingQueue<PgnGame> ready = new ArrayBlockingQueue<PgnGame>(buffers + 1);
+		for(int i = 0; i < buffers; i++) {
+			free.add(new PgnGame());
+		}
+		final AtomicReference<RuntimeException> listenerError = new AtomicReference<RuntimeException>();
+		List<Future<?>> running = new ArrayList<Future<?>>();
+		for(int i = 0; i < threads; i++) {
+			running.add(workers.submit(new Runnable() {
+				@Override
+				public void run() {
+					work(ready, free, listener, listenerError);
+				}
+			}));
+		}
+
+		// Read the games on this thread, waiting for a free buffer whenever the workers fall behind.
+		try {
+			PgnReader reader = new PgnReader(file);
+			try {
+				PgnGame game = free.take();
+				while(reader.next(game)) {
+					ready.put(game);
+					game = free.take();
+				}
+			}
+			finally {
+				reader.close();
+			}
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		finally {
+			ready.add(END);
+			for(Future<?> worker : running) {
+				try {
+					worker.get();
+				}
+				catch(InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				catch(ExecutionException e) {
+					throw new IllegalStateException("A PGN worker failed", e.getCause());
+				}
+			}
+		}
+		if(listenerError.get() != null) {
+			throw new IllegalStateException("The PGN listener failed", listenerError.get());
+		}
+	}
+
+	/**
+	 * Returns how many games the current (or last) run replayed or tried to.
+	 * 
+	 * @return The number of games.
+	 */
+	public long getGames() {
+		return games.get();
+	}
+
+	/**
+	 * Returns how many games of the current (or last) run could not be
+	 * replayed.
+	 * 
+	 * @return The number of failed games.
+	 */
+	public long getFailures() {
+		return failures.get();
+	}
+
+	/**
+	 * Returns how many moves were made in the games of the current (or
+	 * last) run that replayed.
+	 * 
+	 * @return The number of moves.
+	 */
+	public long getPlies() {
+		return plies.get();
+	}
+
+	/**
+	 * Stops the worker threads once the replayer is no longer needed.
+	 */
+	public void shutdown() {
+		workers.shutdown();
+	}
+
+	/**
+	 * Replays one game on a board: sets up the game's starting position
+	 * (the standard one, or the one in its FEN tag) and makes each of its
+	 * moves in turn. Move numbers, comments, annotations and variations
+	 * are skipped, and the game ends at its result or at the end of its
+	 * text. The game is replayed on the board given if it is the size the
+	 * game is played on (8x8, or the size the FEN tag describes), and
+	 * otherwise on a new board of that size.
+	 * 
+	 * @param game The game.
+	 * @param board The board to replay the game on if it fits (may be null).
+	 * @param scratch A list to generate legal moves into.
+	 * @param played Where to put the game's moves, as packed moves.
+	 * @return The board the game was replayed on.
+	 * @throws IllegalArgumentException If the starting position is not
+	 *         valid or a move is illegal; the message says which move.
+	 */
+	public static Board play(PgnGame game, Board board, MoveList scratch, MoveList played) {
+		String fen = game.getTag("FEN");
+		if(fen != null && board != null && Fen.fits(board, fen)) {
+			Fen.load(board, fen);
+		}
+		else if(fen != null) {
+			board = Fen.createBoard(fen);
+		}
+		else if(board != null && board.getWidth() == 8 && board.getHeight() == 8) {
+			board.reset();
+		}
+		else {
+			board = new Board(8, 8);
+		}
+		played.clear();
+		int end = game.length();
+		int depth = 0;
+		int i = game.getMovesStart();
+		while(i < end) {
+			char c = game.charAt(i);
+			if(PgnGame.isSpace(c)) {
+				i++;
+			}
+			else if(c == '{') {
+				while(i < end && game.charAt(i) != '}') {
+					i++;
+				}
+				i++;
+			}
+			else if(c == ';' || (c == '%' && (i == 0 || game.charAt(i - 1) == '\n'))) {
+				while(i < end && game.charAt(i) != '\n') {
+					i++;
+				}
+			}
+			else if(c == '(') {
+				depth++;
+				i++;
+			}
+			else if(c == ')') {
+				depth--;
+				i++;
+			}
+			else if(c == '}') {
+				i++;
+			}
+			else {
+				int start = i;
+				while(i < end && !isDelimiter(game.charAt(i))) {
+					i++;
+				}
+				if(depth == 0 && !playToken(game, start, i, board, scratch, played)) {
+					return board;
+				}
+			}
+		}
+		return board;
+	}
+
+	/**
+	 * Private helper for play. Deals with one token of movetext outside
+	 * any variation: makes the move if it is one, and skips it if it is a
+	 * move number or annotation.
+	 * 
+	 * @param game The game.
+	 * @param start Where the token starts.
+	 * @param end Where the token ends (exclusive).
+	 * @param board The board the game is being replayed on.
+	 * @param scratch A list to generate legal moves into.
+	 * @param played The moves made so far.
+	 * @return False if the token is the game's result; true otherwise.
+	 */
+	private static boolean playToken(PgnGame game, int start, int end, Board board, MoveList scratch, MoveList played) {
+		char first = game.charAt(start);
+		if(first == '$' || first == '.' || first == '!' || first == '?') {
+			return true;
+		}
+		if(first == '*' || matches(game, start, end, "1-0") || matches(game, start, end, "0-1")
+				|| matches(game, start, end, "1/2-1/2")) {
+			return false;
+		}
+		if(first >= '0' && first <= '9' && !matches(game, start, Math.min(end, start + 3), "0-0")) {
+			while(start < end && game.charAt(start) >= '0' && game.charAt(start) <= '9') {
+				start++;
+			}
+			while(start < end && game.charAt(start) == '.') {
+				start++;
+			}
+			if(start == end) {
+				return true;
+			}
+		}
+		int move;
+		try {
+			move = San.parse(board, game, start, end, scratch);
+		}
+		catch(IllegalArgumentException e) {
+			throw new IllegalArgumentException("Ply " + (played.size() + 1) + ": " + e.getMessage(), e);
+		}
+		board.makeMove(move);
+		played.add(move);
+		return true;
+	}
+
+	/**
+	 * Private helper for play. Returns whether or not a character ends a
+	 * token of movetext.
+	 * 
+	 * @param c The character.
+	 * @return True for white space and the characters that open or close
+	 *         comments and variations; false otherwise.
+	 */
+	private static boolean isDelimiter(char c) {
+		return PgnGame.isSpace(c) || c == '{' || c == '}' || c == '(' || c == ')' || c == ';';
+	}
+
+	/**
+	 * Private helper for playToken. Returns whether or not a token is
+	 * exactly the given text.
+	 * 
+	 * @param game The game.
+	 * @param start Where the token starts.
+	 * @param end Where the token ends (exclusive).
+	 * @param text The text to compare with.
+	 * @return True if they are the same; false otherwise.
+	 */
+	private static boolean matches(PgnGame game, int start, int end, String text) {
+		if(end - start != text.length()) {
+			return false;
+		}
+		for(int i = 0; i < text.length(); i++) {
+			if(game.charAt(start + i) != text.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Private helper for replay. Run by each worker thread: replays the
+	 * queued games until the end marker comes up, handing each buffer
+	 * back once its game is done.
+	 * 
+	 * @param ready The games waiting to be replayed.
+	 * @param free Where to hand the buffers back.
+	 * @param listener Told how each game went (null for nobody).
+	 * @param listenerError Where to keep the first exception the listener throws.
+	 */
+	private void work(BlockingQueue<PgnGame> ready, BlockingQueue<PgnGame> free, PgnListener listener,
+			AtomicReference<RuntimeException> listenerError) {
+		Board board = new Board(8, 8);
+		MoveList scratch = new MoveList();
+		MoveList played = new MoveList();
+		while(true) {
+			PgnGame game;
+			try {
+				game = ready.take();
+			}
+			catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			if(game == END) {
+				ready.add(END);
+				return;
+			}
+			try {
+				String error = null;
+				try {
+					board = play(game, board, scratch, played);
+					plies.addAndGet(played.size());
+				}
+				catch(RuntimeException e) {
+					error = (e.getMessage() != null)? e.getMessage() : e.toString();
+					failures.incrementAndGet();
+				}
+				games.incrementAndGet();
+				if(listener != null) {
+					if(error == null) {
+						listener.gameReplayed(game, board, played);
+					}
+					else {
+						listener.gameFailed(game, error);
+					}
+				}
+			}
+			catch(RuntimeException e) {
+				listenerError.compareAndSet(null, e);
+			}
+			finally {
+				free.add(game);
+			}
+		}
+	}
+
+	/**
+	 * Replays every game of a PGN file and prints how long it took, how
+	 * many games and moves there were and the first few games that could
+	 * not be replayed.
+	 * Usage: PgnReplayer file [threads] [queue]
+	 * 
+	 * @param args The PGN file, the number of worker threads (default: one
+	 *        per core) and how many games may wait for a worker (default 64).
+	 * @throws IOException If the file cannot be read.
+	 */
+	public static void main(String[] args) throws IOException {
+		int threads = (args.length > 1)? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		int queue = (args.length > 2)? Integer.parseInt(args[2]) : DEFAULT_QUEUE;
+		final AtomicLong reported = new AtomicLong();
+		PgnReplayer replayer = new PgnReplayer(threads, queue);
+		long start = System.nanoTime();
+		replayer.replay(new File(args[0]), new PgnListener() {
+			@Override
+			public void gameReplayed(PgnGame game, Board board, MoveList moves) {
+			}
+
+			@Override
+			public void gameFailed(PgnGame game, String error) {
+				if(reported.incrementAndGet() <= 20) {
+					System.out.printf("Game %d (byte %d): %s%n", game.getNumber(), game.getOffset(), error);
+				}
+			}
+		});
+		long time = (System.nanoTime() - start) / 1000000L;
+		replayer.shutdown();
+		System.out.printf("%d games (%d failed), %d plies in %d ms, %d games/s, %d plies/s%n", replayer.getGames(),
+				replayer.getFailures(), replayer.getPlies(), time, replayer.getGames() * 1000 / Math.max(time, 1),
+				replayer.getPlies() * 1000 / Math.max(time, 1));
+	}
+}
\ No newline at end of file
@@ -14,6 +14,7 @@ public abstract class Piece {
 
 	protected final Color color;	// Color of the piece (either WHITE or BLACK).
 	protected Tile currentTile;	// Current location of the piece on the board.
+	protected Board board;		// The board the piece is on (null if it is off the board).
 
 	/**
 	 * Constructor for the piece. Gets and sets its color.
@@ -48,24 +49,28 @@ public abstract class Piece {
 	 * board will get the result from this and determine whether or not the
 	 * movement of the piece will result in the king being in check, and is
 	 * able to override this result if the piece's movement would also result
-	 * in the player's own king being endangered.
+	 * in the player's own king being endangered. The pseudo-legal moves of
+	 * the piece's side are generated into the board's scratch list, so
+	 * nothing is allocated.
 	 * 
 	 * @param board The board with all tiles present and any pieces currently in play.
 	 * @return True if the piece has legal moves available; false otherwise.
 	 */
 	public boolean canMove(Board board) {
-		// Assume that the piece cannot move.
-		boolean movable = false;
-
-		// Determine if any of the piece's natural moves are actually currently possible.
-		ArrayList<Tile> possibleMoves = this.potentialMoves(board);
-		for(int i = 0; i < possibleMoves.size(); i++) {
-			if(this.canMoveTo(possibleMoves.get(i), board)) {
-				movable = true;
+		Color toMove = board.getSideToMove();
+		MoveList moves = board.scratchMoves();
+		board.setSideToMove(color);
+		MoveGenerator.generatePseudoLegal(board, moves);
+		board.setSideToMove(toMove);
+		int square = board.squareOf(currentTile);
+		for(int i = 0; i < moves.size(); i++) {
+			int move = moves.get(i);
+			// The en passant square is only ever the side to move's to use.
+			if(Move.from(move) == square && (toMove == color || !Move.is(move, Move.EN_PASSANT))) {
+				return true;
 			}
 		}
-
-		return movable;
+		return false;
 	}
 
 	/**
@@ -78,12 +83,32 @@ public abstract class Piece {
 	public abstract boolean canMoveTo(Tile destination, Board board);
 
 	/**
-	 * Moves the piece to the destination tile.
+	 * Returns what type of piece this is.
+	 * 
+	 * @return The type of the piece.
+	 */
+	public abstract PieceType getType();
+
+	/**
+	 * Moves the piece to the destination tile, if that is a legal move
+	 * for it on the board it is on and it is this piece's turn. Any piece
+	 * on the destination is captured, and a pawn reaching the last rank
+	 * becomes a queen.
 	 * 
 	 * @param destination The tile to move to.
 	 * @return True if the move was successful; false otherwise.
 	 */
-	public abstract boolean move(Tile destination);
+	public boolean move(Tile destination) {
+		if(board == null || board.getSideToMove() != color) {
+			return false;
+		}
+		int move = board.findMove(currentTile, destination);
+		if(move == Move.NONE) {
+			return false;
+		}
+		board.makeMove(move);
+		return true;
+	}
 
 	/**
 	 * Evaluates the current position of the piece on the board and
@@ -99,4 +124,66 @@ public abstract class Piece {
 	 * @return A list of all possible (but not necessarily legal) moves for the piece.
 	 */
 	public abstract ArrayList<Tile> potentialMoves(Board board);
+
+	/**
+	 * Converts a bitmask of squares (see Bitboards) into the list of
+	 * tiles on the board that those squares correspond to.
+	 * 
+	 * @param squares The bitmask of squares.
+	 * @param board The board the squares are on.
+	 * @return A list of the tiles in the bitmask.
+	 */
+	protected static ArrayList<Tile> tilesOf(long squares, Board board) {
+		ArrayList<Tile> tiles = new ArrayList<Tile>(Long.bitCount(squares));
+		while(squares != 0) {
+			tiles.add(board.getTile(Long.numberOfTrailingZeros(squares)));
+			squares &= squares - 1;
+		}
+		return tiles;
+	}
+
+	/**
+	 * Works out the squares the piece attacks on a board with wide
+	 * bitboards (see WideAttackTables.attacks).
+	 * 
+	 * @param board The board the piece is on (must have wide bitboards).
+	 * @return The attacked squares, as a set of WideBitboards words.
+	 */
+	protected long[] wideAttacks(Board board) {
+		WideBitboards bitboards = board.getWideBitboards();
+		long[] attacks = new long[bitboards.words()];
+		board.getWideAttackTables().attacks(Bitboards.index(color, getType()), board.squareOf(currentTile),
+				bitboards.occupied(), attacks);
+		return attacks;
+	}
+
+	/**
+	 * Returns whether or not a set of squares in the layout of
+	 * WideBitboards holds a square.
+	 * 
+	 * @param squares The set of squares.
+	 * @param square The square.
+	 * @return True if the square is in the set; false otherwise.
+	 */
+	protected static boolean contains(long[] squares, int square) {
+		return (squares[square >>> 6] & (1L << square)) != 0;
+	}
+
+	/**
+	 * Converts a set of squares in the layout of WideBitboards into the
+	 * list of tiles on the board that those squares correspond to.
+	 * 
+	 * @param squares The set of squares.
+	 * @param board The board the squares are on.
+	 * @return A list of the tiles in the set.
+	 */
+	protected static ArrayList<Tile> tilesOf(long[] squares, Board board) {
+		ArrayList<Tile> tiles = new ArrayList<Tile>();
+		for(int word = 0; word < squares.length; word++) {
+			for(long bits = squares[word]; bits != 0; bits &= bits - 1) {
+				tiles.add(board.getTile((word << 6) + Long.numberOfTrailingZeros(bits)));
+			}
+		}
+		return tiles;
+	}
 }
\ No newline at end of file
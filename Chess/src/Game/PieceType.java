@@ -0,0 +1,35 @@
+package Game;
+/**
+ * An enumerator for the six kinds of pieces that can be on a chess
+ * board. The ordinal of each type is used as an index into the
+ * board's bitboards, so the order of the constants matters.
+ * 
+ * @author Priten Vora
+ *
+ */
+public enum PieceType {
+	PAWN('P'), KNIGHT('N'), BISHOP('B'), ROOK('R'), QUEEN('Q'), KING('K');	// The kinds of pieces in the game.
+
+	public static final int COUNT = 6;	// The number of different kinds of pieces.
+
+	private final char symbol;			// The letter for the piece in chess notation.
+
+	/**
+	 * Constructor for the piece type. Gets and sets its letter.
+	 * 
+	 * @param letter The upper case letter for the piece in chess notation.
+	 */
+	private PieceType(char letter) {
+		symbol = letter;
+	}
+
+	/**
+	 * Returns the upper case letter used for this type of piece in
+	 * chess notation, like 'N' for a knight.
+	 * 
+	 * @return The letter for the piece.
+	 */
+	public char getSymbol() {
+		return symbol;
+	}
+}
\ No newline at end of file
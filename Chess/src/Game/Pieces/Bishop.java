@@ -1,5 +1,4 @@
 package Game.Pieces;
-import static java.lang.Math.abs;
 import java.util.ArrayList;
 import Game.*;
 /**
@@ -41,69 +40,21 @@ public class Bishop extends Piece {
 			return false;
 		}
 
-		// Collect the necessary information and set up variables.
-		boolean movable = true;
-		Location myLocation = currentTile.getLocation();
-		Location destLocation = destination.getLocation();
-		Tile[][] currentBoard = board.getTiles();
-		int myX = myLocation.getX();
-		int myY = myLocation.getY();
-		int destX = destLocation.getX();
-		int destY = destLocation.getY();
-
-		// Destination is diagonally in line with the current location.
-		if(abs(destX - myX) == abs(destY - myY)) {
-			// Destination is up and to the right of the current location.
-			if(myX < destX && myY < destY) {
-				for(int i = (myX + 1), j = (myY + 1); i < destX && j < destY; i++, j++) {
-					Tile toTest = currentBoard[i][j];
-					movable = (toTest.getPiece() == null);
-					if(!movable) {
-						break;
-					}
-				}
-			}
-			// Destination is down and to the right of the current location.
-			else if(myX < destX && myY > destY) {
-				for(int i = (myX + 1), j = (myY - 1); i < destX && j > destY; i++, j--) {
-					Tile toTest = currentBoard[i][j];
-					movable = (toTest.getPiece() == null);
-					if(!movable) {
-						break;
-					}
-				}
-			}
-			// Destination is up and to the left of the current location.
-			else if(myX > destX && myY < destY) {
-				for(int i = (myX - 1), j = (myY + 1); i > destX && j < destY; i--, j++) {
-					Tile toTest = currentBoard[i][j];
-					movable = (toTest.getPiece() == null);
-					if(!movable) {
-						break;
-					}
-				}
-			}
-			// Destination is down and to the left of the current location.
-			else if(myX > destX && myY > destY) {
-				for(int i = (myX - 1), j = (myY - 1); i > destX && j > destY; i--, j--) {
-					Tile toTest = currentBoard[i][j];
-					movable = (toTest.getPiece() == null);
-					if(!movable) {
-						break;
-					}
-				}
-			}
-		}
-		// Destination is some other tile on the board (can't move there).
-		else {
-			movable = false;
+		// Look the destination up in the bishop's blocker-aware attacks.
+		if(board.hasBitboards()) {
+			long attacks = board.getSlidingAttacks().bishop(board.squareOf(currentTile), board.getBitboards().occupied());
+			return (attacks & (1L << board.squareOf(destination))) != 0;
 		}
-
-		return movable;
+		return contains(wideAttacks(board), board.squareOf(destination));
 	}
 
-	public boolean move(Tile destination) {
-		return false;
+	/**
+	 * Returns what type of piece this is.
+	 * 
+	 * @return PieceType.BISHOP
+	 */
+	public PieceType getType() {
+		return PieceType.BISHOP;
 	}
 
 	/**
@@ -121,35 +72,10 @@ public class Bishop extends Piece {
 	 */
 	public ArrayList<Tile> potentialMoves(Board board) {
 
-		// Set up the necessary variables.
-		Location myLocation = currentTile.getLocation();
-		Tile[][] currentBoard = board.getTiles();
-		ArrayList<Tile> moves = new ArrayList<Tile>();
-		int myX = myLocation.getX();
-		int myY = myLocation.getY();
-		int width = board.getWidth();
-		int height = board.getHeight();
-
-		// Add all squares diagonally up and to the right from where we are.
-		for(int i = (myX + 1), j = (myY + 1); i < width && j < height; i++, j++) {
-			moves.add(currentBoard[i][j]);
+		// Only list the squares the bishop can actually reach past any blockers.
+		if(board.hasBitboards()) {
+			return tilesOf(board.getSlidingAttacks().bishop(board.squareOf(currentTile), board.getBitboards().occupied()), board);
 		}
-
-		// Add all squares diagonally down and to the right from where we are.
-		for(int i = (myX + 1), j = (myY - 1); i < width && j >= 0; i++, j--) {
-			moves.add(currentBoard[i][j]);
-		}
-
-		// Add all squares diagonally up and to the left from where we are.
-		for(int i = (myX - 1), j = (myY + 1); i >= 0 && j < height; i--, j++) {
-			moves.add(currentBoard[i][j]);
-		}
-
-		// Add all squares diagonally down and to the left from where we are.
-		for(int i = (myX - 1), j = (myY - 1); i >= 0 && j >= 0; i--, j--) {
-			moves.add(currentBoard[i][j]);
-		}
-
-		return moves;
+		return tilesOf(wideAttacks(board), board);
 	}
 }
\ No newline at end of file
@@ -1,5 +1,4 @@
 package Game.Pieces;
-import static java.lang.Math.abs;
 import java.util.ArrayList;
 import Game.*;
 /**
@@ -60,29 +59,21 @@ public class King extends Piece {
 			return false;
 		}
 
-		// Collect the necessary information and set up variables.
-		boolean movable = true;
-		Location myLocation = currentTile.getLocation();
-		Location destLocation = destination.getLocation();
-		int myX = myLocation.getX();
-		int myY = myLocation.getY();
-		int destX = destLocation.getX();
-		int destY = destLocation.getY();
-
-		// Destination is in the same file but in a higher rank.
-		if(abs(destX - myX) < 2 && abs(destY - myY) < 2) {
-			return true;
-		}
-		// Destination is some other tile on the board (can't move there).
-		else {
-			movable = false;
+		// Look the destination up in the king's attack table.
+		if(board.hasBitboards()) {
+			long attacks = board.getAttackTables().king(board.squareOf(currentTile));
+			return (attacks & (1L << board.squareOf(destination))) != 0;
 		}
-
-		return movable;
+		return contains(wideAttacks(board), board.squareOf(destination));
 	}
 
-	public boolean move(Tile destination) {
-		return false;
+	/**
+	 * Returns what type of piece this is.
+	 * 
+	 * @return PieceType.KING
+	 */
+	public PieceType getType() {
+		return PieceType.KING;
 	}
 
 	/**
@@ -100,41 +91,10 @@ public class King extends Piece {
 	 */
 	public ArrayList<Tile> potentialMoves(Board board) {
 
-		// Set up the necessary variables.
-		Location myLocation = currentTile.getLocation();
-		Tile[][] currentBoard = board.getTiles();
-		ArrayList<Tile> moves = new ArrayList<Tile>();
-		int myX = myLocation.getX();
-		int myY = myLocation.getY();
-		int width = board.getWidth();
-		int height = board.getHeight();
-
-		// Add each of the king's moves individually.
-		if((myY + 1) < height) {
-			moves.add(currentBoard[myX][myY + 1]);
-			if(myX - 1 >= 0) {
-				moves.add(currentBoard[myX - 1][myY + 1]);
-			}
-			if(myX + 1 < width) {
-				moves.add(currentBoard[myX + 1][myY + 1]);
-			}
-		}
-		if((myY - 1) >= 0) {
-			moves.add(currentBoard[myX][myY - 1]);
-			if(myX - 1 >= 0) {
-				moves.add(currentBoard[myX - 1][myY - 1]);
-			}
-			if(myX + 1 < width) {
-				moves.add(currentBoard[myX + 1][myY - 1]);
-			}
-		}
-		if((myX - 1) >= 0) {
-			moves.add(currentBoard[myX - 1][myY]);
+		// Read the moves straight out of the king's attack table.
+		if(board.hasBitboards()) {
+			return tilesOf(board.getAttackTables().king(board.squareOf(currentTile)), board);
 		}
-		if((myX + 1) < width) {
-			moves.add(currentBoard[myX + 1][myY]);
-		}
-
-		return moves;
+		return tilesOf(wideAttacks(board), board);
 	}
 }
\ No newline at end of file
@@ -1,6 +1,5 @@
 package Game.Pieces;
 import java.util.ArrayList;
-
 import Game.*;
 /**
  * A specific type of Piece corresponding to the Knight piece in chess.
@@ -36,11 +35,22 @@ public class Knight extends Piece {
 		if(destPiece != null && destPiece.getColor() == this.getColor()) {
 			return false;
 		}
-		return true;
+
+		// Look the destination up in the knight's attack table.
+		if(board.hasBitboards()) {
+			long attacks = board.getAttackTables().knight(board.squareOf(currentTile));
+			return (attacks & (1L << board.squareOf(destination))) != 0;
+		}
+		return contains(wideAttacks(board), board.squareOf(destination));
 	}
 
-	public boolean move(Tile destination) {
-		return false;
+	/**
+	 * Returns what type of piece this is.
+	 * 
+	 * @return PieceType.KNIGHT
+	 */
+	public PieceType getType() {
+		return PieceType.KNIGHT;
 	}
 
 	/**
@@ -58,41 +68,10 @@ public class Knight extends Piece {
 	 */
 	public ArrayList<Tile> potentialMoves(Board board) {
 
-		// Set up the necessary variables.
-		Location myLocation = currentTile.getLocation();
-		Tile[][] currentBoard = board.getTiles();
-		ArrayList<Tile> moves = new ArrayList<Tile>();
-		int myX = myLocation.getX();
-		int myY = myLocation.getY();
-		int width = board.getWidth();
-		int height = board.getHeight();
-
-		// Add each of the knight's moves individually.
-		if((myX + 2) < width && (myY + 1) < height) {
-			moves.add(currentBoard[myX + 2][myY + 1]);
-		}
-		if((myX + 1) < width && (myY + 2) < height) {
-			moves.add(currentBoard[myX + 1][myY + 2]);
+		// Read the moves straight out of the knight's attack table.
+		if(board.hasBitboards()) {
+			return tilesOf(board.getAttackTables().knight(board.squareOf(currentTile)), board);
 		}
-		if((myX + 2) < width && (myY - 1) >= 0) {
-			moves.add(currentBoard[myX + 2][myY - 1]);
-		}
-		if((myX + 1) < width && (myY - 2) >= 0) {
-			moves.add(currentBoard[myX + 1][myY - 2]);
-		}
-		if((myX - 2) >= 0 && (myY + 1) < height) {
-			moves.add(currentBoard[myX - 2][myY + 1]);
-		}
-		if((myX - 1) >= 0 && (myY + 2) < height) {
-			moves.add(currentBoard[myX - 1][myY + 2]);
-		}
-		if((myX - 2) >= 0 && (myY - 1) >= 0) {
-			moves.add(currentBoard[myX - 2][myY - 1]);
-		}
-		if((myX - 1) >= 0 && (myY - 2) >= 0) {
-			moves.add(currentBoard[myX - 1][myY - 2]);
-		}
-
-		return moves;
+		return tilesOf(wideAttacks(board), board);
 	}
 }
\ No newline at end of file
@@ -25,17 +25,13 @@ import Game.*;
  */
 public class Pawn extends Piece {
 
-	private boolean firstAdvance;	// Whether or not this pawn is advancing for the first time.
-
 	/**
-	 * Constructor for the pawn. Gets and sets its color and whether or
-	 * not this pawn has advanced forward yet.
+	 * Constructor for the pawn. Gets and sets its color.
 	 * 
 	 * @param pieceColor The color of the pawn (either BLACK or WHITE).
 	 */
 	public Pawn(Color pieceColor) {
 		super(pieceColor);
-		firstAdvance = true;
 	}
 
 	/**
@@ -58,6 +54,31 @@ public class Pawn extends Piece {
 			return false;
 		}
 
+		// Answer with the pawn's attack and advance tables when we can.
+		if(board.hasBitboards()) {
+			AttackTables tables = board.getAttackTables();
+			Bitboards bitboards = board.getBitboards();
+			int mySquare = board.squareOf(currentTile);
+			long destBit = 1L << board.squareOf(destination);
+			long occupied = bitboards.occupied();
+
+			// Diagonal moves are only possible as captures of an enemy piece.
+			if((tables.pawnAttacks(color, mySquare) & destBit) != 0) {
+				return (bitboards.occupancy(color.other()) & destBit) != 0;
+			}
+
+			// Forward moves need every tile up to and including the destination to be empty.
+			long push = tables.pawnPush(color, mySquare);
+			if(push == 0 || (push & occupied) != 0) {
+				return false;
+			}
+			if(push == destBit) {
+				return true;
+			}
+			long doublePush = tables.pawnPush(color, Long.numberOfTrailingZeros(push));
+			return isOnStartingRank(board) && doublePush == destBit && (destBit & occupied) == 0;
+		}
+
 		// Collect the necessary information and set up variables.
 		Location myLocation = currentTile.getLocation();
 		Location destLocation = destination.getLocation();
@@ -73,7 +94,7 @@ public class Pawn extends Piece {
 					return true;
 			}
 			else if(destX == myX && destY == (myY + 2) && !destination.isOccupied()) {
-				if(!currentBoard[myX][myY + 1].isOccupied() && firstAdvance) {
+				if(!currentBoard[myX][myY + 1].isOccupied() && isOnStartingRank(board)) {
 					return true;
 				}
 			}
@@ -91,12 +112,12 @@ public class Pawn extends Piece {
 				return true;
 			}
 			else if(destX == myX && destY == (myY - 2) && !destination.isOccupied()) {
-				if(!currentBoard[myX][myY - 1].isOccupied() && firstAdvance) {
+				if(!currentBoard[myX][myY - 1].isOccupied() && isOnStartingRank(board)) {
 					return true;
 				}
 			}
 			else if((destX == (myX + 1) || destX == (myX - 1)) && destY == (myY - 1)) {
-				if(destination.isOccupied() && destination.getPiece().getColor() == Color.BLACK) {
+				if(destination.isOccupied() && destination.getPiece().getColor() == Color.WHITE) {
 					return true;
 				}
 			}
@@ -106,20 +127,12 @@ public class Pawn extends Piece {
 	}
 
 	/**
-	 * Moves the pawn to the given tile. If the pawn captured an
-	 * enemy piece by moving, the enemy piece is removed from the
-	 * game. Does not need to check the legality or validity of
-	 * the move - this method will only ever get called if it is
-	 * possible for the move to take place.
+	 * Returns what type of piece this is.
 	 * 
-	 * @param destination The tile to move the pawn to.
-	 * @return Whether the move was successful or not, for error-checking.
+	 * @return PieceType.PAWN
 	 */
-	public boolean move(Tile destination) {
-		if(firstAdvance) {
-			firstAdvance = false;
-		}
-		return firstAdvance;
+	public PieceType getType() {
+		return PieceType.PAWN;
 	}
 
 	/**
@@ -137,6 +150,18 @@ public class Pawn extends Piece {
 	 */
 	public ArrayList<Tile> potentialMoves(Board board) {
 
+		// Read the moves straight out of the pawn's attack and advance tables when we can.
+		if(board.hasBitboards()) {
+			AttackTables tables = board.getAttackTables();
+			int mySquare = board.squareOf(currentTile);
+			long push = tables.pawnPush(color, mySquare);
+			long moves = push | tables.pawnAttacks(color, mySquare);
+			if(isOnStartingRank(board) && push != 0) {
+				moves |= tables.pawnPush(color, Long.numberOfTrailingZeros(push));
+			}
+			return tilesOf(moves, board);
+		}
+
 		// Set up the necessary variables.
 		Location myLocation = currentTile.getLocation();
 		Tile[][] currentBoard = board.getTiles();
@@ -157,7 +182,7 @@ public class Pawn extends Piece {
 					moves.add(currentBoard[myX - 1][myY + 1]);
 				}
 			}
-			if((myY + 2) < height && firstAdvance) {
+			if((myY + 2) < height && isOnStartingRank(board)) {
 				moves.add(currentBoard[myX][myY + 2]);
 			}
 		}
@@ -173,11 +198,23 @@ public class Pawn extends Piece {
 					moves.add(currentBoard[myX - 1][myY - 1]);
 				}
 			}
-			if((myY - 2) >= 0 && firstAdvance) {
+			if((myY - 2) >= 0 && isOnStartingRank(board)) {
 				moves.add(currentBoard[myX][myY - 2]);
 			}
 		}
 
 		return moves;
 	}
+
+	/**
+	 * Returns whether or not the pawn is still on the rank it started
+	 * the game on, and so has not advanced yet (pawns can never move back).
+	 * 
+	 * @param board The board with all tiles present and any pieces currently in play.
+	 * @return True if the pawn has not advanced yet; false otherwise.
+	 */
+	private boolean isOnStartingRank(Board board) {
+		int startingRank = (color == Color.WHITE)? 1 : board.getHeight() - 2;
+		return currentTile.getLocation().getY() == startingRank;
+	}
 }
\ No newline at end of file
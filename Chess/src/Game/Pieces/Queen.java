@@ -1,6 +1,5 @@
 package Game.Pieces;
 import java.util.ArrayList;
-import static java.lang.Math.abs;
 import Game.*;
 /**
  * A specific type of Piece corresponding to the Queen piece in chess. It can only move
@@ -41,109 +40,21 @@ public class Queen extends Piece {
 			return false;
 		}
 
-		// Collect the necessary information and set up variables.
-		boolean movable = true;
-		Location myLocation = currentTile.getLocation();
-		Location destLocation = destination.getLocation();
-		Tile[][] currentBoard = board.getTiles();
-		int myX = myLocation.getX();
-		int myY = myLocation.getY();
-		int destX = destLocation.getX();
-		int destY = destLocation.getY();
-
-		// Destination is in the same file but in a higher rank.
-		if(myX == destX && myY < destY) {
-			for(int i = (myY + 1); i < destY; i++) {
-				Tile toTest = currentBoard[myX][i];
-				movable = (toTest.getPiece() == null);
-				if(!movable) {
-					break;
-				}
-			}
-		}
-		// Destination is in the same file but in a lower rank.
-		else if(myX == destX && myY > destY) {
-			for(int i = (myY - 1); i > destY; i--) {
-				Tile toTest = currentBoard[myX][i];
-				movable = (toTest.getPiece() == null);
-				if(!movable) {
-					break;
-				}
-			}
-		}
-		// Destination is in the same rank but in a higher file.
-		else if(myY == destY && myX < destX) {
-			for(int i = (myX + 1); i < destX; i++) {
-				Tile toTest = currentBoard[i][myY];
-				movable = (toTest.getPiece() == null);
-				if(!movable) {
-					break;
-				}
-			}
-		}
-		// Destination is in the same rank but in a lower file.
-		else if(myY == destY && myX > destX) {
-			for(int i = (myX - 1); i > destX; i--) {
-				Tile toTest = currentBoard[i][myY];
-				movable = (toTest.getPiece() == null);
-				if(!movable) {
-					break;
-				}
-			}
-		}
-		// Destination is diagonally in line with the current location.
-		else if(abs(destX - myX) == abs(destY - myY)) {
-			// Destination is up and to the right of the current location.
-			if(myX < destX && myY < destY) {
-				for(int i = (myX + 1), j = (myY + 1); i < destX && j < destY; i++, j++) {
-					Tile toTest = currentBoard[i][j];
-					movable = (toTest.getPiece() == null);
-					if(!movable) {
-						break;
-					}
-				}
-			}
-			// Destination is down and to the right of the current location.
-			else if(myX < destX && myY > destY) {
-				for(int i = (myX + 1), j = (myY - 1); i < destX && j > destY; i++, j--) {
-					Tile toTest = currentBoard[i][j];
-					movable = (toTest.getPiece() == null);
-					if(!movable) {
-						break;
-					}
-				}
-			}
-			// Destination is up and to the left of the current location.
-			else if(myX > destX && myY < destY) {
-				for(int i = (myX - 1), j = (myY + 1); i > destX && j < destY; i--, j++) {
-					Tile toTest = currentBoard[i][j];
-					movable = (toTest.getPiece() == null);
-					if(!movable) {
-						break;
-					}
-				}
-			}
-			// Destination is down and to the left of the current location.
-			else if(myX > destX && myY > destY) {
-				for(int i = (myX - 1), j = (myY - 1); i > destX && j > destY; i--, j--) {
-					Tile toTest = currentBoard[i][j];
-					movable = (toTest.getPiece() == null);
-					if(!movable) {
-						break;
-					}
-				}
-			}
-		}
-		// Destination is some other tile on the board (can't move there).
-		else {
-			movable = false;
+		// Look the destination up in the queen's blocker-aware attacks.
+		if(board.hasBitboards()) {
+			long attacks = board.getSlidingAttacks().queen(board.squareOf(currentTile), board.getBitboards().occupied());
+			return (attacks & (1L << board.squareOf(destination))) != 0;
 		}
-
-		return movable;
+		return contains(wideAttacks(board), board.squareOf(destination));
 	}
 
-	public boolean move(Tile destination) {
-		return false;
+	/**
+	 * Returns what type of piece this is.
+	 * 
+	 * @return PieceType.QUEEN
+	 */
+	public PieceType getType() {
+		return PieceType.QUEEN;
 	}
 
 	/**
@@ -161,49 +72,10 @@ public class Queen extends Piece {
 	 */
 	public ArrayList<Tile> potentialMoves(Board board) {
 
-		// Set up the necessary variables.
-		Location myLocation = currentTile.getLocation();
-		Tile[][] currentBoard = board.getTiles();
-		ArrayList<Tile> moves = new ArrayList<Tile>();
-		int myX = myLocation.getX();
-		int myY = myLocation.getY();
-		int width = board.getWidth();
-		int height = board.getHeight();
-
-		// Add all squares in the same rank besides the one we're on.
-		for(int i = 0; i < width; i++) {
-			if(i != myX) {
-				moves.add(currentBoard[i][myY]);
-			}
+		// Only list the squares the queen can actually reach past any blockers.
+		if(board.hasBitboards()) {
+			return tilesOf(board.getSlidingAttacks().queen(board.squareOf(currentTile), board.getBitboards().occupied()), board);
 		}
-
-		// Add all squares in the same file besides the one we're on.
-		for(int j = 0; j < height; j++) {
-			if(j != myY) {
-				moves.add(currentBoard[myX][j]);
-			}
-		}
-
-		// Add all squares diagonally up and to the right from where we are.
-		for(int i = (myX + 1), j = (myY + 1); i < width && j < height; i++, j++) {
-			moves.add(currentBoard[i][j]);
-		}
-
-		// Add all squares diagonally down and to the right from where we are.
-		for(int i = (myX + 1), j = (myY - 1); i < width && j >= 0; i++, j--) {
-			moves.add(currentBoard[i][j]);
-		}
-
-		// Add all squares diagonally up and to the left from where we are.
-		for(int i = (myX - 1), j = (myY + 1); i >= 0 && j < height; i--, j++) {
-			moves.add(currentBoard[i][j]);
-		}
-
-		// Add all squares diagonally down and to the left from where we are.
-		for(int i = (myX - 1), j = (myY - 1); i >= 0 && j >= 0; i--, j--) {
-			moves.add(currentBoard[i][j]);
-		}
-
-		return moves;
+		return tilesOf(wideAttacks(board), board);
 	}
 }
\ No newline at end of file
@@ -43,54 +43,21 @@ public class Rook extends Piece {
 			return false;
 		}
 
-		// Collect the necessary information and set up variables.
-		boolean movable = true;
-		Location myLocation = currentTile.getLocation();
-		Location destLocation = destination.getLocation();
-		Tile[][] currentBoard = board.getTiles();
-		int myX = myLocation.getX();
-		int myY = myLocation.getY();
-		int destX = destLocation.getX();
-		int destY = destLocation.getY();
-
-		// Destination is in the same file but in a higher rank.
-		if(myX == destX && myY < destY) {
-			for(int i = (myY + 1); i < destY; i++) {
-				Tile toTest = currentBoard[myX][i];
-				movable = (toTest.getPiece() == null);
-			}
-		}
-		// Destination is in the same file but in a lower rank.
-		else if(myX == destX && myY > destY) {
-			for(int i = (myY - 1); i > destY; i--) {
-				Tile toTest = currentBoard[myX][i];
-				movable = (toTest.getPiece() == null);
-			}
-		}
-		// Destination is in the same rank but in a higher file.
-		else if(myY == destY && myX < destX) {
-			for(int i = (myX + 1); i < destX; i++) {
-				Tile toTest = currentBoard[i][myY];
-				movable = (toTest.getPiece() == null);
-			}
-		}
-		// Destination is in the same rank but in a lower file.
-		else if(myY == destY && myX > destX) {
-			for(int i = (myX - 1); i > destX; i--) {
-				Tile toTest = currentBoard[i][myY];
-				movable = (toTest.getPiece() == null);
-			}
+		// Look the destination up in the rook's blocker-aware attacks.
+		if(board.hasBitboards()) {
+			long attacks = board.getSlidingAttacks().rook(board.squareOf(currentTile), board.getBitboards().occupied());
+			return (attacks & (1L << board.squareOf(destination))) != 0;
 		}
-		// Destination is some other tile on the board (can't move there).
-		else {
-			movable = false;
-		}
-
-		return movable;
+		return contains(wideAttacks(board), board.squareOf(destination));
 	}
 
-	public boolean move(Tile destination) {
-		return false;
+	/**
+	 * Returns what type of piece this is.
+	 * 
+	 * @return PieceType.ROOK
+	 */
+	public PieceType getType() {
+		return PieceType.ROOK;
 	}
 
 	/**
@@ -108,29 +75,10 @@ public class Rook extends Piece {
 	 */
 	public ArrayList<Tile> potentialMoves(Board board) {
 
-		// Set up the necessary variables.
-		Location myLocation = currentTile.getLocation();
-		Tile[][] currentBoard = board.getTiles();
-		ArrayList<Tile> moves = new ArrayList<Tile>();
-		int myX = myLocation.getX();
-		int myY = myLocation.getY();
-		int width = board.getWidth();
-		int height = board.getHeight();
-
-		// Add all squares in the same rank besides the one we're on.
-		for(int i = 0; i < width; i++) {
-			if(i != myX) {
-				moves.add(currentBoard[i][myY]);
-			}
+		// Only list the squares the rook can actually reach past any blockers.
+		if(board.hasBitboards()) {
+			return tilesOf(board.getSlidingAttacks().rook(board.squareOf(currentTile), board.getBitboards().occupied()), board);
 		}
-
-		// Add all squares in the same file besides the one we're on.
-		for(int j = 0; j < height; j++) {
-			if(j != myY) {
-				moves.add(currentBoard[myX][j]);
-			}
-		}
-
-		return moves;
+		return tilesOf(wideAttacks(board), board);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,79 @@
+package Game.Record;
+import Game.Board;
+import Game.MoveGenerator;
+import Game.MoveList;
+/**
+ * The binary format games are stored in by GameRecordWriter and read
+ * back by GameRecordReader. A file is an 8-byte header (MAGIC, then the
+ * format VERSION and three zero bytes) followed by the games, one after
+ * another with nothing in between. Each game is:
+ * 
+ *   - the number of moves, as a varint;
+ *   - the result, one byte (one of the RESULT_* constants);
+ *   - a flags byte, with FLAG_FEN set if the game does not start from
+ *     the standard starting position;
+ *   - if FLAG_FEN is set, the length of the starting position's FEN as a
+ *     varint, then the FEN in ASCII (which also gives the size of the
+ *     board, for games not played on 8x8);
+ *   - each move, as a varint holding its index in the legal moves of the
+ *     position it is played in, sorted by packed value (see
+ *     MoveList.sort).
+ * 
+ * A varint holds seven bits per byte, lowest first, with the top bit set
+ * on every byte but the last. A position rarely has more than 127 legal
+ * moves, so a move almost always takes one byte.
+ * 
+ * @author Priten Vora
+ *
+ */
+public final class GameRecord {
+
+	public static final int MAGIC = 0x43484752;		// "CHGR", at the start of every file.
+	public static final int VERSION = 1;			// The version of the format described here.
+	public static final int HEADER_SIZE = 8;		// The size of the file header, in bytes.
+
+	public static final int RESULT_UNKNOWN = 0;		// The game's result is not known ("*").
+	public static final int RESULT_WHITE_WINS = 1;	// White won ("1-0").
+	public static final int RESULT_BLACK_WINS = 2;	// Black won ("0-1").
+	public static final int RESULT_DRAW = 3;		// The game was drawn ("1/2-1/2").
+
+	public static final int FLAG_FEN = 1;			// The game starts from the position in its FEN.
+
+	/**
+	 * Private constructor - this class only holds static helpers.
+	 */
+	private GameRecord() {
+	}
+
+	/**
+	 * Returns the result a PGN result tag stands for.
+	 * 
+	 * @param result The tag's value, like "1-0" (may be null).
+	 * @return One of the RESULT_* constants.
+	 */
+	public static int resultOf(String result) {
+		if("1-0".equals(result)) {
+			return RESULT_WHITE_WINS;
+		}
+		if("0-1".equals(result)) {
+			return RESULT_BLACK_WINS;
+		}
+		if("1/2-1/2".equals(result)) {
+			return RESULT_DRAW;
+		}
+		return RESULT_UNKNOWN;
+	}
+
+	/**
+	 * Generates the legal moves of the position on the board in the order
+	 * their indices refer to.
+	 * 
+	 * @param board The board.
+	 * @param moves The list to generate the moves into.
+	 */
+	static void generate(Board board, MoveList moves) {
+		moves.clear();
+		MoveGenerator.generateLegal(board, moves);
+		moves.sort();
+	}
+}
\ No newline at end of file
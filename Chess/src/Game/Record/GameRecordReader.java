@@ -0,0 +1,264 @@
+package Game.Record;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import Game.Board;
+import Game.Fen;
+import Game.MoveList;
+/**
+ * Reads games written in the binary format described in GameRecord and
+ * replays them onto a board. The whole file is memory-mapped, in windows
+ * of a gigabyte since a single mapping cannot be bigger than 2 GB, and
+ * read in place, so opening even a very large file is immediate and
+ * nothing is copied onto the heap. Only a move's index is stored, so
+ * replaying a game generates the legal moves of each position it passes
+ * through.
+ * 
+ * @author Priten Vora
+ *
+ */
+public class GameRecordReader implements Closeable {
+
+	private static final int WINDOW_BITS = 30;						// Each window maps 2^30 bytes.
+	private static final long WINDOW_MASK = (1L << WINDOW_BITS) - 1;	// Offset of a byte within its window.
+
+	private final FileChannel channel;		// The file being read.
+	private final MappedByteBuffer[] windows;	// The whole file, a window at a time.
+	private final long size;				// The size of the file.
+	private final MoveList legal;			// The legal moves of the position being replayed.
+	private final StringBuilder fen;		// The starting position of the game being read.
+	private long position;					// The next byte to read.
+	private long games;						// How many games have been read.
+	private int plies;						// How many moves the last game read has.
+	private int result;						// The result of the last game read.
+
+	/**
+	 * Constructor for a reader of the given file.
+	 * 
+	 * @param file The file of games.
+	 * @throws IOException If the file cannot be read or is not a file of games.
+	 */
+	public GameRecordReader(File file) throws IOException {
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		size = channel.size();
+		windows = new MappedByteBuffer[(int)((size + WINDOW_MASK) >>> WINDOW_BITS)];
+		for(int i = 0; i < windows.length; i++) {
+			long start = (long)i << WINDOW_BITS;
+			windows[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(1L << WINDOW_BITS, size - start));
+		}
+		legal = new MoveList();
+		fen = new StringBuilder();
+		position = 0;
+		if(size < GameRecord.HEADER_SIZE || readByte() != (GameRecord.MAGIC >>> 24) || readByte() != ((GameRecord.MAGIC >>> 16) & 0xFF)
+				|| readByte() != ((GameRecord.MAGIC >>> 8) & 0xFF) || readByte() != (GameRecord.MAGIC & 0xFF)) {
+			channel.close();
+			throw new IOException("Not a file of games: " + file);
+		}
+		if(readByte() != GameRecord.VERSION) {
+			channel.close();
+			throw new IOException("Unsupported version of the game format: " + file);
+		}
+		position = GameRecord.HEADER_SIZE;
+		games = 0;
+		plies = 0;
+		result = GameRecord.RESULT_UNKNOWN;
+	}
+
+	/**
+	 * Reads the next game and replays it onto a board: sets up its
+	 * starting position and makes each of its moves, leaving the board at
+	 * the game's final position with the moves still there to unmake.
+	 * Games are replayed on the board given if it is the size the game
+	 * was played on (8x8, or the size its FEN describes), and otherwise on
+	 * a new board of that size, so the board returned should be passed in
+	 * for the next game.
+	 * 
+	 * @param board The board to replay the game on if it fits (may be null).
+	 * @param played Where to put the game's moves, as packed moves (may be null).
+	 * @return The board the game was replayed on, or null at the end of the file.
+	 * @throws IOException If the game is cut off or does not make sense.
+	 */
+	public Board next(Board board, MoveList played) throws IOException {
+		if(position >= size) {
+			return null;
+		}
+		long start = position;
+		plies = readVarint();
+		result = readByte();
+		int flags = readByte();
+		if((flags & GameRecord.FLAG_FEN) != 0) {
+			fen.setLength(0);
+			for(int length = readVarint(); length > 0; length--) {
+				fen.append((char)readByte());
+			}
+			try {
+				if(board != null && Fen.fits(board, fen)) {
+					Fen.load(board, fen);
+				}
+				else {
+					board = Fen.createBoard(fen);
+				}
+			}
+			catch(IllegalArgumentException e) {
+				throw new IOException("Bad starting position in the game at byte " + start, e);
+			}
+		}
+		else if(board != null && board.getWidth() == 8 && board.getHeight() == 8) {
+			board.reset();
+		}
+		else {
+			board = new Board(8, 8);
+		}
+		if(played != null) {
+			played.clear();
+		}
+		for(int i = 0; i < plies; i++) {
+			GameRecord.generate(board, legal);
+			int index = readVarint();
+			if(index >= legal.size()) {
+				throw new IOException("Bad move " + (i + 1) + " in the game at byte " + start);
+			}
+			int move = legal.get(index);
+			board.makeMove(move);
+			if(played != null) {
+				played.add(move);
+			}
+		}
+		games++;
+		return board;
+	}
+
+	/**
+	 * Reads past the next game without replaying it, which only has to
+	 * look at the bytes and so runs as fast as they can be read. The
+	 * game's length and result can still be read afterwards.
+	 * 
+	 * @return True if a game was skipped; false at the end of the file.
+	 * @throws IOException If the game is cut off.
+	 */
+	public boolean skip() throws IOException {
+		if(position >= size) {
+			return false;
+		}
+		plies = readVarint();
+		result = readByte();
+		if((readByte() & GameRecord.FLAG_FEN) != 0) {
+			int length = readVarint();
+			position += length;
+		}
+		for(int i = 0; i < plies; i++) {
+			while(readByte() >= 0x80) {
+				continue;
+			}
+		}
+		games++;
+		return true;
+	}
+
+	/**
+	 * Returns how many moves the last game read has.
+	 * 
+	 * @return The number of moves.
+	 */
+	public int getPlies() {
+		return plies;
+	}
+
+	/**
+	 * Returns the result of the last game read.
+	 * 
+	 * @return One of the GameRecord.RESULT_* constants.
+	 */
+	public int getResult() {
+		return result;
+	}
+
+	/**
+	 * Returns how many games have been read.
+	 * 
+	 * @return The number of games.
+	 */
+	public long getGames() {
+		return games;
+	}
+
+	/**
+	 * Returns how much of the file has been read.
+	 * 
+	 * @return The offset of the next byte to read.
+	 */
+	public long getPosition() {
+		return position;
+	}
+
+	/**
+	 * Closes the file.
+	 * 
+	 * @throws IOException If the file cannot be closed.
+	 */
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * Private helper. Reads the next byte of the file.
+	 * 
+	 * @return The byte (0 to 255).
+	 * @throws IOException If the file has ended.
+	 */
+	private int readByte() throws IOException {
+		if(position >= size) {
+			throw new IOException("Unexpected end of the file of games");
+		}
+		int b = windows[(int)(position >>> WINDOW_BITS)].get((int)(position & WINDOW_MASK)) & 0xFF;
+		position++;
+		return b;
+	}
+
+	/**
+	 * Private helper. Reads a varint.
+	 * 
+	 * @return The value.
+	 * @throws IOException If the file ends or the varint is too long.
+	 */
+	private int readVarint() throws IOException {
+		int value = 0;
+		for(int shift = 0; shift < 32; shift += 7) {
+			int b = readByte();
+			value |= (b & 0x7F) << shift;
+			if(b < 0x80) {
+				return value;
+			}
+		}
+		throw new IOException("Bad varint at byte " + position);
+	}
+
+	/**
+	 * Reads every game of a file, replaying them or only skipping over
+	 * them, and prints how fast it went.
+	 * Usage: GameRecordReader file [skip]
+	 * 
+	 * @param args The file of games, and "skip" to skip the games rather
+	 *        than replay them.
+	 * @throws IOException If the file cannot be read.
+	 */
+	public static void main(String[] args) throws IOException {
+		GameRecordReader reader = new GameRecordReader(new File(args[0]));
+		Board board = new Board(8, 8);
+		long plies = 0;
+		long start = System.nanoTime();
+		boolean skip = args.length > 1 && args[1].equals("skip");
+		while(skip? reader.skip() : (board = reader.next(board, null)) != null) {
+			plies += reader.getPlies();
+		}
+		long time = Math.max((System.nanoTime() - start) / 1000000L, 1);
+		System.out.printf("%d games, %d plies, %d bytes in %d ms: %d games/s, %d plies/s, %.1f MB/s%n",
+				reader.getGames(), plies, reader.getPosition(), time, reader.getGames() * 1000 / time,
+				plies * 1000 / time, reader.getPosition() / 1000.0 / time);
+		reader.close();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,201 @@
+package Game.Record;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import Game.Board;
+import Game.Fen;
+import Game.MoveList;
+import Game.Pgn.PgnGame;
+import Game.Pgn.PgnListener;
+import Game.Pgn.PgnReplayer;
+/**
+ * Writes games in the binary format described in GameRecord. Each move is
+ * stored as its index in the position's legal moves, so the writer plays
+ * the game through on the board it is given to work the indices out, and
+ * then takes the moves back.
+ * 
+ * @author Priten Vora
+ *
+ */
+public class GameRecordWriter implements Closeable {
+
+	private static final long START_KEY = new Board(8, 8).getZobristKey();	// Hash of the standard starting position.
+
+	private final OutputStream out;		// Where the games are written.
+	private final MoveList legal;		// The legal moves of the position being written.
+	private long games;					// How many games have been written.
+	private long bytes;					// How many bytes have been written, header included.
+
+	/**
+	 * Constructor for a writer of a new file.
+	 * 
+	 * @param file The file to write (replaced if it exists).
+	 * @throws IOException If the file cannot be written.
+	 */
+	public GameRecordWriter(File file) throws IOException {
+		this(new FileOutputStream(file));
+	}
+
+	/**
+	 * Constructor for a writer to the given stream. The header is written
+	 * straight away.
+	 * 
+	 * @param stream Where to write the games.
+	 * @throws IOException If the header cannot be written.
+	 */
+	public GameRecordWriter(OutputStream stream) throws IOException {
+		out = new BufferedOutputStream(stream, 1 << 16);
+		legal = new MoveList();
+		games = 0;
+		bytes = 0;
+		writeByte(GameRecord.MAGIC >>> 24);
+		writeByte(GameRecord.MAGIC >>> 16);
+		writeByte(GameRecord.MAGIC >>> 8);
+		writeByte(GameRecord.MAGIC);
+		writeByte(GameRecord.VERSION);
+		writeByte(0);
+		writeByte(0);
+		writeByte(0);
+	}
+
+	/**
+	 * Writes a game. The board is left as it was.
+	 * 
+	 * @param board The board, set up at the game's starting position.
+	 * @param moves The game's moves, as packed moves (see Move).
+	 * @param result One of the GameRecord.RESULT_* constants.
+	 * @throws IOException If the game cannot be written.
+	 * @throws IllegalArgumentException If one of the moves is not legal.
+	 */
+	public void write(Board board, MoveList moves, int result) throws IOException {
+		boolean standard = board.getWidth() == 8 && board.getHeight() == 8 && board.getZobristKey() == START_KEY
+				&& board.getHalfmoveClock() == 0 && board.getFullmoveNumber() == 1;
+		writeVarint(moves.size());
+		writeByte(result);
+		writeByte(standard? 0 : GameRecord.FLAG_FEN);
+		if(!standard) {
+			byte[] fen = Fen.toFen(board).getBytes(StandardCharsets.US_ASCII);
+			writeVarint(fen.length);
+			out.write(fen);
+			bytes += fen.length;
+		}
+		int made = 0;
+		try {
+			for(; made < moves.size(); made++) {
+				GameRecord.generate(board, legal);
+				int index = legal.indexOf(moves.get(made));
+				if(index < 0) {
+					throw new IllegalArgumentException("Move " + (made + 1) + " of the game is not legal");
+				}
+				writeVarint(index);
+				board.makeMove(moves.get(made));
+			}
+		}
+		finally {
+			for(; made > 0; made--) {
+				board.unmakeMove();
+			}
+		}
+		games++;
+	}
+
+	/**
+	 * Returns how many games have been written.
+	 * 
+	 * @return The number of games.
+	 */
+	public long getGames() {
+		return games;
+	}
+
+	/**
+	 * Returns how many bytes have been written, the header included.
+	 * 
+	 * @return The number of bytes.
+	 */
+	public long getBytes() {
+		return bytes;
+	}
+
+	/**
+	 * Writes out anything still buffered and closes the file.
+	 * 
+	 * @throws IOException If the file cannot be written.
+	 */
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+
+	/**
+	 * Private helper. Writes the low eight bits of a value.
+	 * 
+	 * @param value The value.
+	 * @throws IOException If the byte cannot be written.
+	 */
+	private void writeByte(int value) throws IOException {
+		out.write(value);
+		bytes++;
+	}
+
+	/**
+	 * Private helper. Writes a value that is not negative as a varint.
+	 * 
+	 * @param value The value.
+	 * @throws IOException If the bytes cannot be written.
+	 */
+	private void writeVarint(int value) throws IOException {
+		while((value & ~0x7F) != 0) {
+			writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		writeByte(value);
+	}
+
+	/**
+	 * Converts a PGN file to the binary format, checking every game on
+	 * the way (see PgnReplayer). Games that cannot be replayed are left
+	 * out, and the games are written in the order they finish in.
+	 * Usage: GameRecordWriter in.pgn out.bin [threads]
+	 * 
+	 * @param args The PGN file, the file to write and the number of threads
+	 *        to replay the games with (default: one per core).
+	 * @throws IOException If a file cannot be read or written.
+	 */
+	public static void main(String[] args) throws IOException {
+		int threads = (args.length > 2)? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+		final GameRecordWriter writer = new GameRecordWriter(new File(args[1]));
+		PgnReplayer replayer = new PgnReplayer(threads, PgnReplayer.DEFAULT_QUEUE);
+		long start = System.nanoTime();
+		replayer.replay(new File(args[0]), new PgnListener() {
+			@Override
+			public void gameReplayed(PgnGame game, Board board, MoveList moves) {
+				for(int i = 0; i < moves.size(); i++) {
+					board.unmakeMove();
+				}
+				synchronized(writer) {
+					try {
+						writer.write(board, moves, GameRecord.resultOf(game.getTag("Result")));
+					}
+					catch(IOException e) {
+						throw new IllegalStateException(e);
+					}
+				}
+			}
+
+			@Override
+			public void gameFailed(PgnGame game, String error) {
+			}
+		});
+		replayer.shutdown();
+		writer.close();
+		long time = (System.nanoTime() - start) / 1000000L;
+		System.out.printf("%d of %d games, %d plies, %d bytes (%.2f bytes per move) in %d ms%n", writer.getGames(),
+				replayer.getGames(), replayer.getPlies(), writer.getBytes(),
+				writer.getBytes() / (double)Math.max(replayer.getPlies(), 1), time);
+	}
+}
\ No newline at end of file
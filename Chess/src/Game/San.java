@@ -0,0 +1,278 @@
+package Game;
+/**
+ * Reads and writes moves in Standard Algebraic Notation (SAN), like
+ * "Nf3", "exd5", "e8=Q+" or "O-O". A move is read by matching what the
+ * notation gives (the kind of piece, where it goes, which file or rank
+ * it comes from and what it promotes to) against the legal moves in the
+ * position, so a move is only accepted if it is legal and the notation
+ * picks out exactly one move.
+ * 
+ * @author Priten Vora
+ *
+ */
+public final class San {
+
+	private static final PieceType[] TYPES = PieceType.values();	// Every type of piece, to look letters up in.
+
+	/**
+	 * Private constructor - this class only holds static helpers.
+	 */
+	private San() {
+	}
+
+	/**
+	 * Finds the legal move the given SAN stands for.
+	 * 
+	 * @param board The board the move is played on.
+	 * @param san The move in SAN.
+	 * @return The packed move.
+	 */
+	public static int parse(Board board, CharSequence san) {
+		return parse(board, san, 0, san.length(), new MoveList());
+	}
+
+	/**
+	 * Finds the legal move that part of a character sequence stands for.
+	 * Check marks and annotations like "+", "#", "!" and "?" at the end
+	 * are ignored, and castling may be written with zeroes as well. Nothing
+	 * is allocated unless the move cannot be read.
+	 * 
+	 * @param board The board the move is played on.
+	 * @param text The text holding the move.
+	 * @param start Where the move starts.
+	 * @param end Where the move ends (exclusive).
+	 * @param moves A list to generate the legal moves into.
+	 * @return The packed move.
+	 * @throws IllegalArgumentException If the text is not a move or does
+	 *         not pick out exactly one legal move.
+	 */
+	public static int parse(Board board, CharSequence text, int start, int end, MoveList moves) {
+		int tokenEnd = end;
+		while(end > start && isSuffix(text.charAt(end - 1))) {
+			end--;
+		}
+		if(end == start) {
+			throw error("Empty move", text, start, tokenEnd);
+		}
+		moves.clear();
+		MoveGenerator.generateLegal(board, moves);
+
+		// Castling is matched on the king's direction alone.
+		char first = text.charAt(start);
+		if(first == 'O' || first == '0') {
+			boolean kingside;
+			if(end - start == 3) {
+				kingside = true;
+			}
+			else if(end - start == 5) {
+				kingside = false;
+			}
+			else {
+				throw error("Bad castling move", text, start, tokenEnd);
+			}
+			for(int i = 0; i < moves.size(); i++) {
+				int move = moves.get(i);
+				if(Move.is(move, Move.CASTLE) && (Move.to(move) > Move.from(move)) == kingside) {
+					return move;
+				}
+			}
+			throw error("Illegal move", text, start, tokenEnd);
+		}
+
+		// Read the piece, the promotion and the destination.
+		int i = start;
+		PieceType type = PieceType.PAWN;
+		if(first != 'P' && first >= 'A' && first <= 'Z') {
+			type = typeOf(first);
+			if(type == null) {
+				throw error("Unknown piece", text, start, tokenEnd);
+			}
+			i++;
+		}
+		else if(first == 'P') {
+			i++;
+		}
+		PieceType promotion = null;
+		char last = text.charAt(end - 1);
+		if(type == PieceType.PAWN && last >= 'A' && last <= 'Z') {
+			promotion = typeOf(last);
+			if(promotion == null || promotion == PieceType.PAWN || promotion == PieceType.KING) {
+				throw error("Bad promotion", text, start, tokenEnd);
+			}
+			end--;
+			if(end > i && text.charAt(end - 1) == '=') {
+				end--;
+			}
+		}
+		int rankEnd = end;
+		int rank = 0;
+		while(end > i && isDigit(text.charAt(end - 1))) {
+			end--;
+		}
+		for(int j = end; j < rankEnd; j++) {
+			rank = rank * 10 + (text.charAt(j) - '0');
+		}
+		if(end == rankEnd || end == i) {
+			throw error("No destination square", text, start, tokenEnd);
+		}
+		int file = text.charAt(--end) - 'a';
+		if(file < 0 || file >= board.getWidth() || rank < 1 || rank > board.getHeight()) {
+			throw error("Bad destination square", text, start, tokenEnd);
+		}
+		int to = board.squareOf(file, rank - 1);
+
+		// Anything between the piece and the destination says where it comes from.
+		int fromFile = -1;
+		int fromRank = -1;
+		for(; i < end; i++) {
+			char c = text.charAt(i);
+			if(isDigit(c)) {
+				fromRank = ((fromRank < 0)? 0 : fromRank * 10) + (c - '0');
+			}
+			else if(c >= 'a' && c <= 'z' && c != 'x') {
+				fromFile = c - 'a';
+			}
+			else if(c != 'x' && c != ':' && c != '-') {
+				throw error("Unexpected '" + c + "'", text, start, tokenEnd);
+			}
+		}
+
+		// Exactly one legal move has to match.
+		int width = board.getWidth();
+		int found = Move.NONE;
+		for(int m = 0; m < moves.size(); m++) {
+			int move = moves.get(m);
+			int from = Move.from(move);
+			if(Move.to(move) != to || Move.promotion(move) != promotion
+					|| (fromFile >= 0 && from % width != fromFile) || (fromRank >= 0 && from / width != fromRank - 1)
+					|| board.getTile(from).getPiece().getType() != type) {
+				continue;
+			}
+			if(found != Move.NONE) {
+				throw error("Ambiguous move", text, start, tokenEnd);
+			}
+			found = move;
+		}
+		if(found == Move.NONE) {
+			throw error("Illegal move", text, start, tokenEnd);
+		}
+		return found;
+	}
+
+	/**
+	 * Writes a legal move out in SAN, with as little disambiguation as
+	 * needed and a check or mate mark at the end.
+	 * 
+	 * @param board The board the move is played on.
+	 * @param move The packed move, which must be legal on the board.
+	 * @return The move in SAN.
+	 */
+	public static String toSan(Board board, int move) {
+		int from = Move.from(move);
+		int to = Move.to(move);
+		int width = board.getWidth();
+		PieceType type = board.getTile(from).getPiece().getType();
+		StringBuilder san = new StringBuilder(8);
+		MoveList moves = new MoveList();
+		if(Move.is(move, Move.CASTLE)) {
+			san.append((to > from)? "O-O" : "O-O-O");
+		}
+		else if(type == PieceType.PAWN) {
+			if(Move.isCapture(move)) {
+				san.append((char)('a' + from % width)).append('x');
+			}
+			san.append(board.getTile(to).getName());
+			if(Move.isPromotion(move)) {
+				san.append('=').append(Move.promotion(move).getSymbol());
+			}
+		}
+		else {
+			san.append(type.getSymbol());
+			MoveGenerator.generateLegal(board, moves);
+			boolean ambiguous = false;
+			boolean sameFile = false;
+			boolean sameRank = false;
+			for(int i = 0; i < moves.size(); i++) {
+				int other = moves.get(i);
+				int otherFrom = Move.from(other);
+				if(Move.to(other) == to && otherFrom != from && board.getTile(otherFrom).getPiece().getType() == type) {
+					ambiguous = true;
+					sameFile |= (otherFrom % width == from % width);
+					sameRank |= (otherFrom / width == from / width);
+				}
+			}
+			if(ambiguous && (!sameFile || sameRank)) {
+				san.append((char)('a' + from % width));
+			}
+			if(ambiguous && sameFile) {
+				san.append(from / width + 1);
+			}
+			if(Move.isCapture(move)) {
+				san.append('x');
+			}
+			san.append(board.getTile(to).getName());
+		}
+
+		// Mark check and mate.
+		board.makeMove(move);
+		if(board.isInCheck()) {
+			moves.clear();
+			MoveGenerator.generateLegal(board, moves);
+			san.append((moves.size() == 0)? '#' : '+');
+		}
+		board.unmakeMove();
+		return san.toString();
+	}
+
+	/**
+	 * Private helper for parse. Returns the type of piece an upper case
+	 * letter stands for.
+	 * 
+	 * @param c The letter.
+	 * @return The type of piece; null if the letter is not a piece.
+	 */
+	private static PieceType typeOf(char c) {
+		for(PieceType type : TYPES) {
+			if(type.getSymbol() == c) {
+				return type;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Private helper for parse. Returns whether or not a character is a
+	 * check mark or annotation that can follow a move.
+	 * 
+	 * @param c The character.
+	 * @return True for '+', '#', '!' and '?'; false otherwise.
+	 */
+	private static boolean isSuffix(char c) {
+		return c == '+' || c == '#' || c == '!' || c == '?';
+	}
+
+	/**
+	 * Private helper for parse. Returns whether or not a character is an
+	 * ASCII digit.
+	 * 
+	 * @param c The character.
+	 * @return True for '0' to '9'; false otherwise.
+	 */
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	/**
+	 * Private helper for parse. Makes the exception for a move that cannot
+	 * be read; only then is the move turned into a string.
+	 * 
+	 * @param problem What is wrong with the move.
+	 * @param text The text holding the move.
+	 * @param start Where the move starts.
+	 * @param end Where the move ends (exclusive).
+	 * @return The exception to throw.
+	 */
+	private static IllegalArgumentException error(String problem, CharSequence text, int start, int end) {
+		return new IllegalArgumentException(problem + ": " + text.subSequence(start, end));
+	}
+}
\ No newline at end of file
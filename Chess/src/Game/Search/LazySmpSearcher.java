@@ -0,0 +1,275 @@
+package Game.Search;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import Game.Board;
+import Game.Fen;
+import Game.PerftBenchmark;
+import Game.Eval.Evaluator;
+import Game.Eval.MaterialEvaluator;
+import Game.Tablebase.TablebaseProber;
+/**
+ * Searches with several threads at once using "Lazy SMP": every thread
+ * runs its own Searcher on its own copy of the board, and the threads
+ * only work together through the hash table they share. The main thread
+ * searches exactly like a single Searcher and decides when to stop; the
+ * helper threads skip some depths each (see Searcher) so that they work
+ * ahead at different depths and fill the table with results the main
+ * thread can then use. The table is lock-free, so the threads never wait
+ * on one another.
+ * 
+ * The helper threads are started once and reused for every search. Node
+ * counts in the results are for all the threads together, and the share
+ * each thread did can be read with getThreadNodes.
+ * 
+ * @author Priten Vora
+ *
+ */
+public class LazySmpSearcher {
+
+	private final TranspositionTable table;		// The table all the threads share.
+	private final Searcher[] searchers;			// One searcher per thread; the first is the main one.
+	private final ExecutorService helpers;		// Runs the helper searchers (null with only one thread).
+	private SearchListener listener;			// Told about each finished iteration (null for nobody).
+
+	/**
+	 * Constructor for a searcher using the given number of threads.
+	 * 
+	 * @param threads The number of threads to search with (at least 1).
+	 * @param hashTable The table the threads share.
+	 * @param evaluator What to score positions with (shared by all the threads).
+	 */
+	public LazySmpSearcher(int threads, TranspositionTable hashTable, Evaluator evaluator) {
+		table = hashTable;
+		searchers = new Searcher[Math.max(1, threads)];
+		for(int i = 0; i < searchers.length; i++) {
+			searchers[i] = new Searcher(table, evaluator);
+		}
+		helpers = (searchers.length > 1)? Executors.newFixedThreadPool(searchers.length - 1, new ThreadFactory() {
+			private int count = 0;
+
+			@Override
+			public synchronized Thread newThread(Runnable task) {
+				Thread thread = new Thread(task, "search-helper-" + (++count));
+				thread.setDaemon(true);
+				return thread;
+			}
+		}) : null;
+		listener = null;
+	}
+
+	/**
+	 * Sets who to tell about each iteration the main thread finishes. The
+	 * results passed on count the nodes of all the threads.
+	 * 
+	 * @param searchListener The listener (null for nobody).
+	 */
+	public void setListener(SearchListener searchListener) {
+		listener = searchListener;
+	}
+
+	/**
+	 * Sets the tablebases every thread looks positions with few pieces up in.
+	 * 
+	 * @param prober The tablebases (null for none).
+	 */
+	public void setTablebases(TablebaseProber prober) {
+		for(Searcher searcher : searchers) {
+			searcher.setTablebases(prober);
+		}
+	}
+
+	/**
+	 * Searches the position on the board with all the threads until one
+	 * of the limits is reached or stop is called. Every thread gets the
+	 * same depth and time limits, so a helper stops on its own even if
+	 * nothing else tells it to; a node limit is shared out evenly between
+	 * the threads. The board is left as it was.
+	 * 
+	 * @param board The board to search.
+	 * @param limits When to stop.
+	 * @return What the main thread's last finished iteration found, with
+	 *         the nodes of every thread counted.
+	 */
+	public SearchResult search(Board board, SearchLimits limits) {
+		SearchLimits mainLimits = new SearchLimits();
+		mainLimits.setDepth(limits.getDepth());
+		mainLimits.setMoveTime(limits.getMoveTime());
+		mainLimits.setPonder(limits.isPonder());
+		SearchLimits helperLimits = new SearchLimits();
+		helperLimits.setDepth(limits.getDepth());
+		helperLimits.setMoveTime(limits.getMoveTime());
+		helperLimits.setPonder(limits.isPonder());
+		if(limits.getNodes() > 0) {
+			long share = Math.max(1, limits.getNodes() / searchers.length);
+			mainLimits.setNodes(share);
+			helperLimits.setNodes(share);
+		}
+
+		// Start the helpers on their own copies of the board. Every searcher is readied here, before
+		// any thread starts, so that the stops below reach helpers that have not got going yet.
+		final long start = System.nanoTime();
+		table.newSearch();
+		for(Searcher searcher : searchers) {
+			searcher.prepare();
+		}
+		List<Future<SearchResult>> running = new ArrayList<Future<SearchResult>>();
+		for(int i = 1; i < searchers.length; i++) {
+			final Searcher helper = searchers[i];
+			final Board copy = new Board(board);
+			final SearchLimits copyLimits = helperLimits;
+			final int thread = i;
+			running.add(helpers.submit(new Callable<SearchResult>() {
+				@Override
+				public SearchResult call() {
+					return helper.search(copy, copyLimits, thread);
+				}
+			}));
+		}
+
+		// The main thread searches the board itself, then calls the helpers off.
+		searchers[0].setListener((listener == null)? null : new SearchListener() {
+			@Override
+			public void iterationFinished(SearchResult result) {
+				listener.iterationFinished(combine(result, start));
+			}
+		});
+		SearchResult result = searchers[0].search(board, mainLimits, 0);
+		for(int i = 1; i < searchers.length; i++) {
+			searchers[i].stop();
+		}
+		for(Future<SearchResult> helper : running) {
+			try {
+				helper.get();
+			}
+			catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			catch(ExecutionException e) {
+				throw new IllegalStateException("A helper search failed", e.getCause());
+			}
+		}
+		return combine(result, start);
+	}
+
+	/**
+	 * Makes the current search finish as soon as possible. Can be called
+	 * from any thread.
+	 */
+	public void stop() {
+		for(Searcher searcher : searchers) {
+			searcher.stop();
+		}
+	}
+
+	/**
+	 * Tells a search made while pondering that the opponent played the
+	 * expected move, so that every thread's time limit starts counting.
+	 * Can be called from any thread.
+	 */
+	public void ponderHit() {
+		for(Searcher searcher : searchers) {
+			searcher.ponderHit();
+		}
+	}
+
+	/**
+	 * Returns how many positions each thread visited in the current (or
+	 * last) search. The count for a thread that is still searching may be
+	 * slightly out of date.
+	 * 
+	 * @return The node count of each thread, the main thread first.
+	 */
+	public long[] getThreadNodes() {
+		long[] nodes = new long[searchers.length];
+		for(int i = 0; i < searchers.length; i++) {
+			nodes[i] = searchers[i].getNodes();
+		}
+		return nodes;
+	}
+
+	/**
+	 * Returns how many threads the searcher uses.
+	 * 
+	 * @return The number of threads.
+	 */
+	public int getThreads() {
+		return searchers.length;
+	}
+
+	/**
+	 * Stops the helper threads once the searcher is no longer needed.
+	 */
+	public void shutdown() {
+		stop();
+		if(helpers != null) {
+			helpers.shutdown();
+		}
+	}
+
+	/**
+	 * Private helper. Makes a copy of a result of the main thread that
+	 * counts the nodes and time of the whole search.
+	 * 
+	 * @param result The main thread's result.
+	 * @param start When the search started (System.nanoTime).
+	 * @return The result for the whole search.
+	 */
+	private SearchResult combine(SearchResult result, long start) {
+		long nodes = 0;
+		for(long threadNodes : getThreadNodes()) {
+			nodes += threadNodes;
+		}
+		return new SearchResult(result.getDepth(), result.getScore(), result.getPv(), nodes,
+				(System.nanoTime() - start) / 1000000L);
+	}
+
+	/**
+	 * Measures time-to-depth for growing numbers of threads: searches
+	 * each position of the perft suite to a fixed depth with 1, 2, 4 and
+	 * so on up to the given number of threads, from an empty hash table
+	 * each time, and prints the combined nodes per second and each
+	 * thread's share of the nodes.
+	 * Usage: LazySmpSearcher [depth] [maxThreads] [hashMB]
+	 * 
+	 * @param args The depth (default 8), the most threads to try (default:
+	 *        one per core) and the hash table size in megabytes (default 64).
+	 */
+	public static void main(String[] args) {
+		int depth = (args.length > 0)? Integer.parseInt(args[0]) : 8;
+		int maxThreads = (args.length > 1)? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		int megabytes = (args.length > 2)? Integer.parseInt(args[2]) : 64;
+		TranspositionTable table = new TranspositionTable(megabytes);
+		for(int threads = 1; ; threads = Math.min(threads * 2, maxThreads)) {
+			LazySmpSearcher searcher = new LazySmpSearcher(threads, table, new MaterialEvaluator());
+			long nodes = 0;
+			long time = 0;
+			long[] shares = new long[threads];
+			for(String fen : PerftBenchmark.positions()) {
+				table.clear();
+				SearchResult result = searcher.search(Fen.createBoard(fen), SearchLimits.depth(depth));
+				nodes += result.getNodes();
+				time += result.getElapsed();
+				long[] threadNodes = searcher.getThreadNodes();
+				for(int i = 0; i < threads; i++) {
+					shares[i] += threadNodes[i];
+				}
+			}
+			searcher.shutdown();
+			StringBuilder split = new StringBuilder();
+			for(int i = 0; i < threads; i++) {
+				split.append(String.format(" %.1f%%", shares[i] * 100.0 / Math.max(nodes, 1)));
+			}
+			System.out.printf("%2d threads: depth %d in %d ms, %d nodes, %d nodes/s, shares:%s%n",
+					threads, depth, time, nodes, nodes * 1000 / Math.max(time, 1), split);
+			if(threads == maxThreads) {
+				break;
+			}
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,64 @@
+package Game.Search;
+import Game.Board;
+import Game.Fen;
+import Game.PerftBenchmark;
+import Game.Eval.MaterialEvaluator;
+/**
+ * Measures time-to-depth: searches each position of a fixed suite to a
+ * fixed depth, starting from an empty hash table each time, and reports
+ * how long each search took, how many positions it visited and what it
+ * chose. The suite is the standard perft positions (see PerftBenchmark),
+ * or a single position given on the command line.
+ * Usage: SearchBenchmark [depth] [hashMB] [fen]
+ * 
+ * @author Priten Vora
+ *
+ */
+public class SearchBenchmark {
+
+	/**
+	 * Runs the benchmark.
+	 * 
+	 * @param args The depth to search to (default 8), the hash table size
+	 *        in megabytes (default 64) and optionally the FEN of a single
+	 *        position to search instead of the suite.
+	 */
+	public static void main(String[] args) {
+		int depth = (args.length > 0)? Integer.parseInt(args[0]) : 8;
+		int megabytes = (args.length > 1)? Integer.parseInt(args[1]) : 64;
+		String[] positions = PerftBenchmark.positions();
+		if(args.length > 2) {
+			StringBuilder fen = new StringBuilder();
+			for(int i = 2; i < args.length; i++) {
+				fen.append(args[i]).append(' ');
+			}
+			positions = new String[] {fen.toString()};
+		}
+
+		TranspositionTable table = new TranspositionTable(megabytes);
+		Searcher searcher = new Searcher(table, new MaterialEvaluator());
+		long totalNodes = 0;
+		long totalTime = 0;
+		System.out.printf("%-4s %-5s %12s %10s %12s %7s  %s%n", "pos", "depth", "nodes", "ms", "nodes/s", "score", "pv");
+		for(int p = 0; p < positions.length; p++) {
+			Board board = Fen.createBoard(positions[p]);
+			table.clear();
+			SearchResult result = searcher.search(board, SearchLimits.depth(depth));
+			totalNodes += result.getNodes();
+			totalTime += result.getElapsed();
+			System.out.printf("%-4d %-5d %12d %10d %12d %7s  %s%n", p + 1, result.getDepth(), result.getNodes(),
+					result.getElapsed(), result.getNodesPerSecond(), scoreString(result.getScore()), result.pvString(board));
+		}
+		System.out.printf("Total: %d nodes in %d ms, %d nodes/s%n", totalNodes, totalTime, totalNodes * 1000 / Math.max(totalTime, 1));
+	}
+
+	/**
+	 * Writes a score out, in centipawns or as a mate in some number of moves.
+	 * 
+	 * @param score The score.
+	 * @return The score as text, e.g. "35" or "#3".
+	 */
+	public static String scoreString(int score) {
+		return Searcher.isMate(score)? "#" + Searcher.mateIn(score) : Integer.toString(score);
+	}
+}
\ No newline at end of file
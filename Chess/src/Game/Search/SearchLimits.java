@@ -0,0 +1,126 @@
+package Game.Search;
+/**
+ * When a search should stop: after reaching a given depth, after looking
+ * at a given number of positions or after a given amount of time,
+ * whichever comes first. A limit of zero means there is no limit of that
+ * kind. With no limits at all a search runs until it is told to stop.
+ * A search made while pondering (thinking on the opponent's time) only
+ * starts to count its time once it is told the opponent has moved.
+ * 
+ * @author Priten Vora
+ *
+ */
+public class SearchLimits {
+
+	private int depth;			// The deepest iteration to search (0 for no limit).
+	private long nodes;			// The most positions to visit (0 for no limit).
+	private long moveTime;		// The most time to take, in milliseconds (0 for no limit).
+	private boolean ponder;		// Whether the time only counts from a ponder hit.
+
+	/**
+	 * Constructor for a set of limits with no limits in it.
+	 */
+	public SearchLimits() {
+		depth = 0;
+		nodes = 0;
+		moveTime = 0;
+		ponder = false;
+	}
+
+	/**
+	 * Returns a set of limits that only limits the depth.
+	 * 
+	 * @param maxDepth The deepest iteration to search.
+	 * @return The limits.
+	 */
+	public static SearchLimits depth(int maxDepth) {
+		SearchLimits limits = new SearchLimits();
+		limits.setDepth(maxDepth);
+		return limits;
+	}
+
+	/**
+	 * Returns a set of limits that only limits the time taken.
+	 * 
+	 * @param millis The most time to take, in milliseconds.
+	 * @return The limits.
+	 */
+	public static SearchLimits moveTime(long millis) {
+		SearchLimits limits = new SearchLimits();
+		limits.setMoveTime(millis);
+		return limits;
+	}
+
+	/**
+	 * Sets the deepest iteration to search.
+	 * 
+	 * @param maxDepth The depth in plies (0 for no limit).
+	 */
+	public void setDepth(int maxDepth) {
+		depth = maxDepth;
+	}
+
+	/**
+	 * Sets the most positions to visit.
+	 * 
+	 * @param maxNodes The number of positions (0 for no limit).
+	 */
+	public void setNodes(long maxNodes) {
+		nodes = maxNodes;
+	}
+
+	/**
+	 * Sets the most time to take.
+	 * 
+	 * @param millis The time in milliseconds (0 for no limit).
+	 */
+	public void setMoveTime(long millis) {
+		moveTime = millis;
+	}
+
+	/**
+	 * Sets whether the search is made while pondering, in which case the
+	 * time limit is held off until Searcher.ponderHit is called.
+	 * 
+	 * @param pondering True for a search made while pondering.
+	 */
+	public void setPonder(boolean pondering) {
+		ponder = pondering;
+	}
+
+	/**
+	 * Returns the deepest iteration to search.
+	 * 
+	 * @return The depth in plies (0 for no limit).
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * Returns the most positions to visit.
+	 * 
+	 * @return The number of positions (0 for no limit).
+	 */
+	public long getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * Returns the most time to take.
+	 * 
+	 * @return The time in milliseconds (0 for no limit).
+	 */
+	public long getMoveTime() {
+		return moveTime;
+	}
+
+	/**
+	 * Returns whether the search is made while pondering.
+	 * 
+	 * @return True if the time limit waits for a ponder hit.
+	 */
+	public boolean isPonder() {
+		return ponder;
+	}
+}
\ No newline at end of file
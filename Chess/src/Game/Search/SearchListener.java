@@ -0,0 +1,17 @@
+package Game.Search;
+/**
+ * Hears about a search's progress. The searcher calls it on the
+ * searching thread each time an iteration of iterative deepening ends.
+ * 
+ * @author Priten Vora
+ *
+ */
+public interface SearchListener {
+
+	/**
+	 * Called when an iteration of the search has finished.
+	 * 
+	 * @param result What the iteration found.
+	 */
+	void iterationFinished(SearchResult result);
+}
\ No newline at end of file
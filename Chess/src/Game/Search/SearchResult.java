@@ -0,0 +1,120 @@
+package Game.Search;
+import Game.Board;
+import Game.Move;
+/**
+ * What a search found after finishing one iteration of iterative
+ * deepening: the best move and its score, the line of play the search
+ * expects (the principal variation), and how much work it took.
+ * 
+ * @author Priten Vora
+ *
+ */
+public class SearchResult {
+
+	private final int depth;			// The depth of the iteration.
+	private final int score;			// The score of the best move, from the mover's point of view.
+	private final int[] pv;				// The principal variation, best move first.
+	private final long nodes;			// Positions visited so far in the whole search.
+	private final long elapsed;			// Milliseconds taken so far in the whole search.
+
+	/**
+	 * Constructor for a result.
+	 * 
+	 * @param searchDepth The depth of the iteration.
+	 * @param bestScore The score of the best move.
+	 * @param variation The principal variation, best move first.
+	 * @param nodeCount Positions visited so far.
+	 * @param millis Milliseconds taken so far.
+	 */
+	public SearchResult(int searchDepth, int bestScore, int[] variation, long nodeCount, long millis) {
+		depth = searchDepth;
+		score = bestScore;
+		pv = variation;
+		nodes = nodeCount;
+		elapsed = millis;
+	}
+
+	/**
+	 * Returns the best move found.
+	 * 
+	 * @return The packed move (see Game.Move); Move.NONE if there is none.
+	 */
+	public int getBestMove() {
+		return (pv.length > 0)? pv[0] : Move.NONE;
+	}
+
+	/**
+	 * Returns the depth of the iteration.
+	 * 
+	 * @return The depth in plies.
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * Returns the score of the best move.
+	 * 
+	 * @return The score in centipawns, from the mover's point of view (see Searcher.isMate).
+	 */
+	public int getScore() {
+		return score;
+	}
+
+	/**
+	 * Returns the principal variation.
+	 * 
+	 * @return The moves of the expected line of play, best move first.
+	 */
+	public int[] getPv() {
+		return pv.clone();
+	}
+
+	/**
+	 * Returns how many positions the search has visited.
+	 * 
+	 * @return The node count.
+	 */
+	public long getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * Returns how long the search has taken.
+	 * 
+	 * @return The time in milliseconds.
+	 */
+	public long getElapsed() {
+		return elapsed;
+	}
+
+	/**
+	 * Returns how fast the search has been going.
+	 * 
+	 * @return The number of positions visited per second.
+	 */
+	public long getNodesPerSecond() {
+		return nodes * 1000 / Math.max(elapsed, 1);
+	}
+
+	/**
+	 * Writes the principal variation out in coordinate notation.
+	 * 
+	 * @param board The board the search was started from (it is not changed).
+	 * @return The moves separated by spaces, e.g. "e2e4 e7e5".
+	 */
+	public String pvString(Board board) {
+		StringBuilder line = new StringBuilder();
+		for(int i = 0; i < pv.length; i++) {
+			if(i > 0) {
+				line.append(' ');
+			}
+			line.append(Move.toString(pv[i], board));
+			board.makeMove(pv[i]);
+		}
+		for(int i = 0; i < pv.length; i++) {
+			board.unmakeMove();
+		}
+		return line.toString();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,674 @@
+package Game.Search;
+import java.util.Arrays;
+import Game.Bitboards;
+import Game.Board;
+import Game.Move;
+import Game.MoveGenerator;
+import Game.MoveList;
+import Game.PieceType;
+import Game.Eval.Evaluator;
+import Game.Tablebase.TablebaseProber;
+/**
+ * Picks a move for the side to move by searching the tree of possible
+ * continuations. The search is a negamax alpha-beta search, run with
+ * iterative deepening (one ply deeper each iteration, so there is always
+ * a finished answer to fall back on) and aspiration windows (each
+ * iteration first tries a narrow window around the last score). Inside
+ * each iteration it uses principal variation search: the first move of
+ * a node is searched with the full window and the rest with a null
+ * window, re-searching only the ones that turn out better. At the leaves
+ * a quiescence search plays out captures and promotions until the
+ * position is quiet, so the evaluator never sees a half-finished trade.
+ * 
+ * Moves are tried in order of the hash table's best move, then captures
+ * (most valuable victim, least valuable attacker), then killer moves and
+ * then quiet moves by their history score. Results are shared through a
+ * TranspositionTable, which may also be shared with other searchers.
+ * The search stops at the first of its limits (see SearchLimits), or
+ * when stop is called from another thread. A searcher can be reused for
+ * any number of searches, but only runs one at a time.
+ * 
+ * @author Priten Vora
+ *
+ */
+public class Searcher {
+
+	public static final int INFINITY = 32000;		// Larger than any score.
+	public static final int MATE = 31000;			// The score for giving mate right now.
+	public static final int MAX_PLY = 128;			// The deepest the search ever goes.
+
+	private static final int MATE_BOUND = MATE - MAX_PLY;	// Scores at least this large are mates.
+	private static final int ASPIRATION_DEPTH = 4;			// The first iteration to use an aspiration window.
+	private static final int ASPIRATION_WINDOW = 25;		// Half the width of the first aspiration window.
+	private static final int CLOCK_INTERVAL = 1023;			// Check the clock once every this many nodes plus one.
+	private static final int HASH_MOVE_ORDER = 1 << 30;		// Move ordering score of the hash table's move.
+	private static final int CAPTURE_ORDER = 1 << 28;		// Base ordering score of captures and queen promotions.
+	private static final int KILLER_ORDER = 1 << 27;		// Ordering score of the first killer move.
+	private static final int HISTORY_LIMIT = 1 << 26;		// History scores are kept below this.
+	private static final int[] SKIP_SIZE =			// How many depths in a row each helper thread skips...
+		{1, 1, 2, 2, 2, 2, 3, 3, 3, 3, 3, 3, 4, 4, 4, 4, 4, 4, 4, 4};
+	private static final int[] SKIP_PHASE =			// ...and how far along its pattern it starts.
+		{0, 1, 0, 1, 2, 3, 0, 1, 2, 3, 4, 5, 0, 1, 2, 3, 4, 5, 6, 7};
+
+	private final TranspositionTable table;		// Results shared between iterations (and searchers).
+	private final Evaluator evaluator;			// Scores the positions at the leaves.
+	private final MoveList[] moveLists;			// The moves of the node at each ply.
+	private final int[][] orderScores;			// The ordering score of each of those moves.
+	private final int[][] pvTable;				// The best line found from each ply.
+	private final int[] pvLength;				// Where the line from each ply ends.
+	private final int[][] killers;				// Two quiet moves that caused a cutoff at each ply.
+	private final int[] history;				// How often each quiet move caused a cutoff, by side, from and to.
+	private volatile boolean stopped;			// Set to make the search finish as soon as possible.
+	private SearchListener listener;			// Told about each finished iteration (null for nobody).
+	private TablebaseProber tablebases;			// Exact scores for positions with few pieces (null for none).
+	private Board board;						// The board being searched.
+	private long nodes;							// Positions visited in the current search.
+	private long maxNodes;						// Stop after visiting this many positions (0 for no limit).
+	private long startTime;						// When the current search started (System.nanoTime).
+	private long clockStart;					// When its time limit started counting (System.nanoTime).
+	private long deadline;						// When the current search must stop (0 for no limit).
+	private long timeLimit;						// The time limit in nanoseconds (0 for no limit).
+	private volatile boolean pondering;			// Whether the time limit waits for ponderHit.
+
+	/**
+	 * Constructor for a searcher.
+	 * 
+	 * @param hashTable The table to keep search results in.
+	 * @param positionEvaluator What to score positions with.
+	 */
+	public Searcher(TranspositionTable hashTable, Evaluator positionEvaluator) {
+		table = hashTable;
+		evaluator = positionEvaluator;
+		moveLists = new MoveList[MAX_PLY + 1];
+		orderScores = new int[MAX_PLY + 1][];
+		for(int i = 0; i <= MAX_PLY; i++) {
+			moveLists[i] = new MoveList();
+			orderScores[i] = new int[MoveList.DEFAULT_CAPACITY];
+		}
+		pvTable = new int[MAX_PLY + 1][MAX_PLY + 1];
+		pvLength = new int[MAX_PLY + 1];
+		killers = new int[MAX_PLY + 1][2];
+		history = new int[2 * Move.MAX_SQUARES * Move.MAX_SQUARES];
+		stopped = false;
+		listener = null;
+		tablebases = null;
+	}
+
+	/**
+	 * Sets who to tell about each finished iteration.
+	 * 
+	 * @param searchListener The listener (null for nobody).
+	 */
+	public void setListener(SearchListener searchListener) {
+		listener = searchListener;
+	}
+
+	/**
+	 * Sets the tablebases to look up positions with few enough pieces in.
+	 * Below the root, such a position is scored straight from its table
+	 * rather than searched.
+	 * 
+	 * @param prober The tablebases (null for none).
+	 */
+	public void setTablebases(TablebaseProber prober) {
+		tablebases = prober;
+	}
+
+	/**
+	 * Searches the position on the board until one of the limits is
+	 * reached or stop is called. The board is left as it was, except
+	 * that the evaluator attaches itself to it first (see
+	 * Evaluator.attach).
+	 * 
+	 * @param searchBoard The board to search.
+	 * @param limits When to stop.
+	 * @return What the last finished iteration found. If the side to
+	 *         move has no moves, the result has depth 0 and no best move.
+	 */
+	public SearchResult search(Board searchBoard, SearchLimits limits) {
+		stopped = false;
+		table.newSearch();
+		return search(searchBoard, limits, 0);
+	}
+
+	/**
+	 * Searches like the public search, but as one of several threads
+	 * sharing a hash table (see LazySmpSearcher). The table's age is left
+	 * alone, since the threads share it. Thread 0 is the main thread and
+	 * otherwise searches exactly like the public search. The others are
+	 * helpers: they skip some depths according to their index so that the
+	 * threads spread out over different depths. Unlike the public search,
+	 * this does not forget an earlier call to stop: the caller readies the
+	 * searcher with prepare before handing it to its thread, so that a
+	 * stop that comes before the thread gets going still counts.
+	 * 
+	 * @param searchBoard The board to search.
+	 * @param limits When to stop.
+	 * @param thread The index of the searching thread.
+	 * @return What the last finished iteration found.
+	 */
+	SearchResult search(Board searchBoard, SearchLimits limits, int thread) {
+		board = searchBoard;
+		evaluator.attach(board);
+		nodes = 0;
+		maxNodes = limits.getNodes();
+		startTime = System.nanoTime();
+		clockStart = startTime;
+		timeLimit = limits.getMoveTime() * 1000000L;
+		deadline = (timeLimit > 0)? startTime + timeLimit : 0;
+		pondering = limits.isPonder();
+		for(int[] plyKillers : killers) {
+			plyKillers[0] = Move.NONE;
+			plyKillers[1] = Move.NONE;
+		}
+		for(int i = 0; i < history.length; i++) {
+			history[i] >>= 1;
+		}
+
+		// With no moves there is nothing to search.
+		MoveList rootMoves = new MoveList();
+		MoveGenerator.generateLegal(board, rootMoves);
+		if(rootMoves.isEmpty()) {
+			return new SearchResult(0, board.isInCheck()? -MATE : 0, new int[0], 0, 0);
+		}
+
+		// Go one ply deeper each iteration, keeping the last finished one.
+		SearchResult result = new SearchResult(0, 0, new int[] {rootMoves.get(0)}, 0, 0);
+		int maxDepth = (limits.getDepth() > 0)? Math.min(limits.getDepth(), MAX_PLY - 1) : MAX_PLY - 1;
+		int score = 0;
+		for(int depth = 1; depth <= maxDepth; depth++) {
+			if(skipsDepth(thread, depth)) {
+				continue;
+			}
+			score = searchRoot(depth, score);
+			if(stopped) {
+				// An unfinished first iteration still beats picking the first move blindly.
+				if(depth == 1 && pvLength[0] > 0) {
+					result = new SearchResult(0, 0, new int[] {pvTable[0][0]}, nodes, elapsedMillis());
+				}
+				break;
+			}
+			result = new SearchResult(depth, score, Arrays.copyOf(pvTable[0], pvLength[0]), nodes, elapsedMillis());
+			if(listener != null) {
+				listener.iterationFinished(result);
+			}
+
+			// Don't start an iteration that has little chance of finishing in time.
+			if(deadline != 0 && !pondering && System.nanoTime() - clockStart > (deadline - clockStart) / 2) {
+				break;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Private helper for search. Returns whether or not a helper thread
+	 * should leave out an iteration. Each helper skips blocks of depths of
+	 * a size and phase that depend on its index, so at any moment the
+	 * threads are spread over several depths instead of all racing on
+	 * the same one.
+	 * 
+	 * @param thread The index of the searching thread (0 never skips).
+	 * @param depth The depth of the iteration.
+	 * @return True if the iteration should be skipped; false otherwise.
+	 */
+	private static boolean skipsDepth(int thread, int depth) {
+		if(thread == 0) {
+			return false;
+		}
+		int pattern = (thread - 1) % SKIP_SIZE.length;
+		return ((depth + SKIP_PHASE[pattern]) / SKIP_SIZE[pattern]) % 2 != 0;
+	}
+
+	/**
+	 * Readies the searcher for a search started with the package-private
+	 * search, forgetting any earlier call to stop. Call it before the
+	 * search is handed to another thread.
+	 */
+	void prepare() {
+		stopped = false;
+	}
+
+	/**
+	 * Makes the current search finish as soon as possible. Can be called
+	 * from any thread.
+	 */
+	public void stop() {
+		stopped = true;
+	}
+
+	/**
+	 * Tells a search made while pondering that the opponent played the
+	 * expected move: its time limit starts counting now, and it carries
+	 * on until that runs out. Does nothing to any other search. Can be
+	 * called from any thread.
+	 */
+	public synchronized void ponderHit() {
+		if(pondering) {
+			clockStart = System.nanoTime();
+			deadline = (timeLimit > 0)? clockStart + timeLimit : 0;
+			pondering = false;
+		}
+	}
+
+	/**
+	 * Returns how many positions the current (or last) search visited.
+	 * 
+	 * @return The node count.
+	 */
+	public long getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * Returns whether or not a score means one side can force mate.
+	 * 
+	 * @param score A score returned by a search.
+	 * @return True if the score is a mate score; false otherwise.
+	 */
+	public static boolean isMate(int score) {
+		return Math.abs(score) >= MATE_BOUND;
+	}
+
+	/**
+	 * Returns how many moves away the mate a mate score stands for is.
+	 * 
+	 * @param score A mate score (see isMate).
+	 * @return The number of moves to mate; negative if the side to move is getting mated.
+	 */
+	public static int mateIn(int score) {
+		return (score > 0)? (MATE - score + 1) / 2 : -(MATE + score) / 2;
+	}
+
+	/**
+	 * Private helper for search. Runs one iteration, first inside an
+	 * aspiration window around the last iteration's score and then in
+	 * wider and wider windows until the score lands inside one.
+	 * 
+	 * @param depth The depth to search to.
+	 * @param lastScore The score from the last iteration.
+	 * @return The score of the position.
+	 */
+	private int searchRoot(int depth, int lastScore) {
+		if(depth < ASPIRATION_DEPTH || isMate(lastScore)) {
+			return negamax(depth, -INFINITY, INFINITY, 0);
+		}
+		int delta = ASPIRATION_WINDOW;
+		int alpha = Math.max(lastScore - delta, -INFINITY);
+		int beta = Math.min(lastScore + delta, INFINITY);
+		while(true) {
+			int score = negamax(depth, alpha, beta, 0);
+			if(stopped) {
+				return score;
+			}
+			delta *= 2;
+			if(score <= alpha) {
+				alpha = Math.max(score - delta, -INFINITY);
+			}
+			else if(score >= beta) {
+				beta = Math.min(score + delta, INFINITY);
+			}
+			else {
+				return score;
+			}
+		}
+	}
+
+	/**
+	 * Private helper. Searches the position on the board to the given
+	 * depth with alpha-beta and principal variation search.
+	 * 
+	 * @param depth The depth left to search.
+	 * @param alpha The score the side to move is already sure of.
+	 * @param beta The score the opponent is already sure of.
+	 * @param ply How many moves from the root the position is.
+	 * @return The score of the position, from the side to move's point of view.
+	 */
+	private int negamax(int depth, int alpha, int beta, int ply) {
+		pvLength[ply] = ply;
+		boolean pvNode = (beta - alpha > 1);
+
+		// Draws, and mates closer than any this line could give.
+		if(ply > 0) {
+			if(board.getHalfmoveClock() >= 100 || board.isRepetition()) {
+				return 0;
+			}
+			alpha = Math.max(alpha, -MATE + ply);
+			beta = Math.min(beta, MATE - ply - 1);
+			if(alpha >= beta) {
+				return alpha;
+			}
+			if(tablebases != null && board.getPieces().size() <= tablebases.getMaxPieces()) {
+				int dtm = tablebases.probeDtm(board);
+				if(dtm != TablebaseProber.UNKNOWN) {
+					return tablebaseScore(dtm, ply);
+				}
+			}
+		}
+
+		// Look further when in check, and play out captures at the end of the line.
+		boolean inCheck = board.isInCheck();
+		if(inCheck) {
+			depth++;
+		}
+		if(depth <= 0) {
+			return quiesce(alpha, beta, ply);
+		}
+		if(countNode()) {
+			return 0;
+		}
+		if(ply >= MAX_PLY - 1) {
+			return evaluator.evaluate(board);
+		}
+
+		// Use an earlier result for this position if it is good enough.
+		long key = board.getZobristKey();
+		long entry = table.probe(key);
+		int hashMove = Move.NONE;
+		if(entry != TranspositionTable.MISS) {
+			hashMove = TranspositionTable.move(entry);
+			if(!pvNode && TranspositionTable.depth(entry) >= depth) {
+				int hashScore = fromTable(TranspositionTable.score(entry), ply);
+				int bound = TranspositionTable.bound(entry);
+				if(bound == TranspositionTable.BOUND_EXACT
+						|| (bound == TranspositionTable.BOUND_LOWER && hashScore >= beta)
+						|| (bound == TranspositionTable.BOUND_UPPER && hashScore <= alpha)) {
+					return hashScore;
+				}
+			}
+		}
+
+		MoveList moves = moveLists[ply];
+		moves.clear();
+		MoveGenerator.generateLegal(board, moves);
+		scoreMoves(moves, ply, hashMove);
+
+		int originalAlpha = alpha;
+		int bestScore = -INFINITY;
+		int bestMove = Move.NONE;
+		for(int i = 0; i < moves.size(); i++) {
+			int move = nextMove(moves, ply, i);
+
+			// Search the first move fully, and only re-search the others if they beat it.
+			board.makeMove(move);
+			int score;
+			if(i == 0) {
+				score = -negamax(depth - 1, -beta, -alpha, ply + 1);
+			}
+			else {
+				score = -negamax(depth - 1, -alpha - 1, -alpha, ply + 1);
+				if(score > alpha && score < beta) {
+					score = -negamax(depth - 1, -beta, -alpha, ply + 1);
+				}
+			}
+			board.unmakeMove();
+			if(stopped) {
+				return 0;
+			}
+
+			if(score > bestScore) {
+				bestScore = score;
+				bestMove = move;
+				if(score > alpha) {
+					alpha = score;
+					updatePv(ply, move);
+					if(score >= beta) {
+						if(!Move.isCapture(move) && !Move.isPromotion(move)) {
+							rememberCutoff(move, depth, ply);
+						}
+						break;
+					}
+				}
+			}
+		}
+
+		// With no legal moves the game is over: mate if in check, stalemate otherwise.
+		if(moves.isEmpty()) {
+			return inCheck? -MATE + ply : 0;
+		}
+
+		int bound = (bestScore >= beta)? TranspositionTable.BOUND_LOWER
+				: (bestScore > originalAlpha)? TranspositionTable.BOUND_EXACT : TranspositionTable.BOUND_UPPER;
+		table.store(key, bestMove, toTable(bestScore, ply), depth, bound);
+		return bestScore;
+	}
+
+	/**
+	 * Private helper for negamax. Plays out captures and promotions until
+	 * the position is quiet, letting the side to move stop capturing
+	 * whenever the position as it stands is good enough.
+	 * 
+	 * @param alpha The score the side to move is already sure of.
+	 * @param beta The score the opponent is already sure of.
+	 * @param ply How many moves from the root the position is.
+	 * @return The score of the position, from the side to move's point of view.
+	 */
+	private int quiesce(int alpha, int beta, int ply) {
+		pvLength[ply] = ply;
+		if(countNode()) {
+			return 0;
+		}
+		int bestScore = evaluator.evaluate(board);
+		if(bestScore >= beta || ply >= MAX_PLY - 1) {
+			return bestScore;
+		}
+		if(bestScore > alpha) {
+			alpha = bestScore;
+		}
+
+		// Only keep the captures and the promotions to a queen.
+		MoveList moves = moveLists[ply];
+		moves.clear();
+		MoveGenerator.generateLegalCaptures(board, moves);
+		int kept = 0;
+		for(int i = 0; i < moves.size(); i++) {
+			int move = moves.get(i);
+			if(!Move.isPromotion(move) || Move.promotion(move) == PieceType.QUEEN) {
+				moves.set(kept++, move);
+			}
+		}
+		moves.truncate(kept);
+		scoreMoves(moves, ply, Move.NONE);
+
+		for(int i = 0; i < moves.size(); i++) {
+			int move = nextMove(moves, ply, i);
+			board.makeMove(move);
+			int score = -quiesce(-beta, -alpha, ply + 1);
+			board.unmakeMove();
+			if(stopped) {
+				return 0;
+			}
+			if(score > bestScore) {
+				bestScore = score;
+				if(score > alpha) {
+					alpha = score;
+					if(score >= beta) {
+						break;
+					}
+				}
+			}
+		}
+		return bestScore;
+	}
+
+	/**
+	 * Private helper. Gives each move in the list a score saying how
+	 * early it should be tried.
+	 * 
+	 * @param moves The moves of the node.
+	 * @param ply How many moves from the root the node is.
+	 * @param hashMove The hash table's best move for the node (Move.NONE if there is none).
+	 */
+	private void scoreMoves(MoveList moves, int ply, int hashMove) {
+		if(orderScores[ply].length < moves.size()) {
+			orderScores[ply] = new int[moves.size()];
+		}
+		int[] scores = orderScores[ply];
+		int side = board.getSideToMove().ordinal();
+		for(int i = 0; i < moves.size(); i++) {
+			int move = moves.get(i);
+			int from = Move.from(move);
+			int to = Move.to(move);
+			int score;
+			if(move == hashMove) {
+				score = HASH_MOVE_ORDER;
+			}
+			else if(Move.isCapture(move) || Move.isPromotion(move)) {
+				score = (Move.promotion(move) == PieceType.QUEEN)? CAPTURE_ORDER : 0;
+				if(Move.isCapture(move)) {
+					int victim = Move.is(move, Move.EN_PASSANT)? PieceType.PAWN.ordinal()
+							: Bitboards.typeOf(board.pieceAt(to)).ordinal();
+					int attacker = Bitboards.typeOf(board.pieceAt(from)).ordinal();
+					score = CAPTURE_ORDER + (victim + 1) * PieceType.COUNT - attacker;
+				}
+			}
+			else if(move == killers[ply][0]) {
+				score = KILLER_ORDER;
+			}
+			else if(move == killers[ply][1]) {
+				score = KILLER_ORDER - 1;
+			}
+			else {
+				score = history[historyIndex(side, from, to)];
+			}
+			scores[i] = score;
+		}
+	}
+
+	/**
+	 * Private helper. Finds the best scored move among those not tried
+	 * yet, and swaps it (and its score) into the given place.
+	 * 
+	 * @param moves The moves of the node.
+	 * @param ply How many moves from the root the node is.
+	 * @param index How many moves have been tried already.
+	 * @return The move to try next.
+	 */
+	private int nextMove(MoveList moves, int ply, int index) {
+		int[] scores = orderScores[ply];
+		int best = index;
+		for(int i = index + 1; i < moves.size(); i++) {
+			if(scores[i] > scores[best]) {
+				best = i;
+			}
+		}
+		if(best != index) {
+			moves.swap(index, best);
+			int score = scores[index];
+			scores[index] = scores[best];
+			scores[best] = score;
+		}
+		return moves.get(index);
+	}
+
+	/**
+	 * Private helper for negamax. Records a quiet move that caused a
+	 * cutoff, so it is tried early in similar positions.
+	 * 
+	 * @param move The move.
+	 * @param depth The depth it was searched to.
+	 * @param ply How many moves from the root it was played at.
+	 */
+	private void rememberCutoff(int move, int depth, int ply) {
+		if(killers[ply][0] != move) {
+			killers[ply][1] = killers[ply][0];
+			killers[ply][0] = move;
+		}
+		int index = historyIndex(board.getSideToMove().ordinal(), Move.from(move), Move.to(move));
+		history[index] = Math.min(history[index] + depth * depth, HISTORY_LIMIT);
+	}
+
+	/**
+	 * Private helper. Returns where a move's history score is kept.
+	 * 
+	 * @param side The ordinal of the side making the move.
+	 * @param from The square the move starts on.
+	 * @param to The square the move ends on.
+	 * @return The index into the history scores.
+	 */
+	private static int historyIndex(int side, int from, int to) {
+		return (side * Move.MAX_SQUARES + from) * Move.MAX_SQUARES + to;
+	}
+
+	/**
+	 * Private helper for negamax. Makes the line from the given ply the
+	 * given move followed by the line from the next ply.
+	 * 
+	 * @param ply How many moves from the root the move is played at.
+	 * @param move The new best move at that ply.
+	 */
+	private void updatePv(int ply, int move) {
+		pvTable[ply][ply] = move;
+		int end = pvLength[ply + 1];
+		System.arraycopy(pvTable[ply + 1], ply + 1, pvTable[ply], ply + 1, end - (ply + 1));
+		pvLength[ply] = Math.max(end, ply + 1);
+	}
+
+	/**
+	 * Private helper. Counts a visited position and checks the limits,
+	 * looking at the clock only every so often.
+	 * 
+	 * @return True if the search has to stop; false otherwise.
+	 */
+	private boolean countNode() {
+		nodes++;
+		if(maxNodes > 0 && nodes >= maxNodes) {
+			stopped = true;
+		}
+		else if(deadline != 0 && (nodes & CLOCK_INTERVAL) == 0 && !pondering && System.nanoTime() >= deadline) {
+			stopped = true;
+		}
+		return stopped;
+	}
+
+	/**
+	 * Private helper. Returns how long the current search has taken.
+	 * 
+	 * @return The time in milliseconds.
+	 */
+	private long elapsedMillis() {
+		return (System.nanoTime() - startTime) / 1000000L;
+	}
+
+	/**
+	 * Private helper for negamax. Converts a distance to mate from the
+	 * tablebases into a score. Mates too far off for the search to count
+	 * get a score just short of a mate, so they still beat everything else.
+	 * 
+	 * @param dtm What TablebaseProber.probeDtm found.
+	 * @param ply How many moves from the root the position is.
+	 * @return The score, from the side to move's point of view.
+	 */
+	private static int tablebaseScore(int dtm, int ply) {
+		if(dtm == TablebaseProber.DTM_DRAW) {
+			return 0;
+		}
+		int plies = ply + Math.abs(dtm);
+		int score = (plies < MAX_PLY)? MATE - plies : MATE_BOUND - 1;
+		return (dtm > 0)? score : -score;
+	}
+
+	/**
+	 * Private helper. Turns a mate score relative to the root into one
+	 * relative to the current position, for storing in the table.
+	 * 
+	 * @param score The score.
+	 * @param ply How many moves from the root the position is.
+	 * @return The score to store.
+	 */
+	private static int toTable(int score, int ply) {
+		return (score >= MATE_BOUND)? score + ply : (score <= -MATE_BOUND)? score - ply : score;
+	}
+
+	/**
+	 * Private helper. Turns a mate score read from the table back into
+	 * one relative to the root.
+	 * 
+	 * @param score The stored score.
+	 * @param ply How many moves from the root the position is.
+	 * @return The score relative to the root.
+	 */
+	private static int fromTable(int score, int ply) {
+		return (score >= MATE_BOUND)? score - ply : (score <= -MATE_BOUND)? score + ply : score;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,234 @@
+package Game.Search;
+import java.util.concurrent.atomic.AtomicLongArray;
+/**
+ * A fixed-size hash table of search results, keyed by the Zobrist key of
+ * a position (see Board.getZobristKey). Each entry records the depth a
+ * position was searched to, whether the score is exact or only a bound,
+ * the score itself and the best move found, all packed into one long.
+ * 
+ * The table is split into buckets of two entries. The first entry of a
+ * bucket keeps the deepest result seen for it (unless that result is
+ * from an earlier search), while the second is always replaced, so new
+ * results are never thrown away outright. Any number of threads can use
+ * the table at once without locks: each entry is stored as the key xor
+ * the data next to the data itself, and a reader only trusts an entry if
+ * xor-ing the two gives back the key it was looking for. Two writers
+ * racing on the same entry can leave a mismatched pair, which readers
+ * then simply see as a miss.
+ * 
+ * @author Priten Vora
+ *
+ */
+public class TranspositionTable {
+
+	public static final int BOUND_NONE = 0;		// The entry holds no score.
+	public static final int BOUND_LOWER = 1;	// The score is at least the stored score (a fail high).
+	public static final int BOUND_UPPER = 2;	// The score is at most the stored score (a fail low).
+	public static final int BOUND_EXACT = 3;	// The stored score is exact.
+	public static final long MISS = 0L;			// What probe returns when the position is not in the table.
+
+	private static final int BUCKET_LONGS = 4;		// Two entries of key-xor-data and data per bucket.
+	private static final int BYTES_PER_BUCKET = BUCKET_LONGS * 8;
+	private static final long MAX_BUCKETS = 1L << 28;	// Keeps the slot count within an int.
+
+	private static final int MOVE_BITS = 23;		// Bits 0-22: the best move (see Game.Move).
+	private static final int SCORE_SHIFT = 23;		// Bits 23-38: the score, as a signed 16-bit value.
+	private static final int DEPTH_SHIFT = 39;		// Bits 39-46: the depth searched to.
+	private static final int BOUND_SHIFT = 47;		// Bits 47-48: the bound type.
+	private static final int AGE_SHIFT = 49;		// Bits 49-54: which search stored the entry.
+	private static final long VALID = 1L << 63;		// Set in every stored entry, so data is never MISS.
+	private static final int AGE_MASK = 0x3F;
+
+	private final AtomicLongArray slots;	// Every bucket, laid out one after another.
+	private final int bucketMask;			// Number of buckets minus one (a power of two).
+	private volatile int age;				// The current search's age, stored in new entries.
+
+	/**
+	 * Constructor for the table. Makes it as large as possible while
+	 * staying within the given size.
+	 * 
+	 * @param megabytes The most memory the table may use, in megabytes.
+	 */
+	public TranspositionTable(int megabytes) {
+		long bytes = Math.max(1L, megabytes) << 20;
+		long buckets = Long.highestOneBit(bytes / BYTES_PER_BUCKET);
+		buckets = Math.min(buckets, MAX_BUCKETS);
+		slots = new AtomicLongArray((int)(buckets * BUCKET_LONGS));
+		bucketMask = (int)(buckets - 1);
+		age = 0;
+	}
+
+	/**
+	 * Looks a position up in the table.
+	 * 
+	 * @param key The Zobrist key of the position.
+	 * @return The packed entry for the position (read it with move,
+	 *         score, depth and bound); MISS if it is not in the table.
+	 */
+	public long probe(long key) {
+		int base = bucketOf(key);
+		for(int i = base; i < base + BUCKET_LONGS; i += 2) {
+			long data = slots.get(i + 1);
+			if((slots.get(i) ^ data) == key && data != MISS) {
+				return data;
+			}
+		}
+		return MISS;
+	}
+
+	/**
+	 * Stores the result of searching a position. The deeper of the new
+	 * result and the bucket's first entry stays in the first entry; the
+	 * other one goes in the second entry.
+	 * 
+	 * @param key The Zobrist key of the position.
+	 * @param move The best move found (Move.NONE if there is none).
+	 * @param score The score found, between -32768 and 32767.
+	 * @param depth The depth the position was searched to.
+	 * @param bound One of BOUND_LOWER, BOUND_UPPER or BOUND_EXACT.
+	 */
+	public void store(long key, int move, int score, int depth, int bound) {
+		int base = bucketOf(key);
+		long data = pack(move, score, depth, bound);
+
+		// Keep the best move we already know about if this result has none.
+		long deepData = slots.get(base + 1);
+		boolean sameDeep = (slots.get(base) ^ deepData) == key && deepData != MISS;
+		if(move == 0 && sameDeep) {
+			data |= move(deepData);
+		}
+
+		// The first entry keeps the deepest result, unless it is left over from an old search.
+		if(sameDeep || deepData == MISS || depth >= depth(deepData) || age(deepData) != age) {
+			slots.lazySet(base, key ^ data);
+			slots.lazySet(base + 1, data);
+		}
+		else {
+			slots.lazySet(base + 2, key ^ data);
+			slots.lazySet(base + 3, data);
+		}
+	}
+
+	/**
+	 * Tells the table a new search is starting, so entries from earlier
+	 * searches can be replaced even if they were searched more deeply.
+	 */
+	public void newSearch() {
+		age = (age + 1) & AGE_MASK;
+	}
+
+	/**
+	 * Empties the table.
+	 */
+	public void clear() {
+		for(int i = 0; i < slots.length(); i++) {
+			slots.lazySet(i, 0L);
+		}
+		age = 0;
+	}
+
+	/**
+	 * Estimates how full the table is by sampling its first buckets.
+	 * 
+	 * @return How many of every thousand entries are in use by the current search.
+	 */
+	public int hashfull() {
+		int samples = Math.min(1000, (bucketMask + 1) * 2);
+		int used = 0;
+		for(int i = 0; i < samples; i++) {
+			long data = slots.get(i * 2 + 1);
+			if(data != MISS && age(data) == age) {
+				used++;
+			}
+		}
+		return used * 1000 / samples;
+	}
+
+	/**
+	 * Returns the number of entries the table can hold.
+	 * 
+	 * @return The capacity of the table.
+	 */
+	public long capacity() {
+		return (bucketMask + 1L) * 2;
+	}
+
+	/**
+	 * Private helper. Returns where the bucket for a key starts.
+	 * 
+	 * @param key The Zobrist key of a position.
+	 * @return The index of the first slot of the key's bucket.
+	 */
+	private int bucketOf(long key) {
+		return ((int)(key ^ (key >>> 32)) & bucketMask) * BUCKET_LONGS;
+	}
+
+	/**
+	 * Private helper for store. Packs the parts of an entry, along with
+	 * the current age, into a long.
+	 * 
+	 * @param move The best move found.
+	 * @param score The score found.
+	 * @param depth The depth searched to.
+	 * @param bound The bound type of the score.
+	 * @return The packed entry.
+	 */
+	private long pack(int move, int score, int depth, int bound) {
+		return VALID
+				| (move & ((1L << MOVE_BITS) - 1))
+				| ((long)(score & 0xFFFF) << SCORE_SHIFT)
+				| ((long)(Math.max(0, Math.min(depth, 0xFF))) << DEPTH_SHIFT)
+				| ((long)bound << BOUND_SHIFT)
+				| ((long)age << AGE_SHIFT);
+	}
+
+	/**
+	 * Returns the best move stored in an entry.
+	 * 
+	 * @param entry An entry returned by probe.
+	 * @return The packed move (see Game.Move); Move.NONE if there is none.
+	 */
+	public static int move(long entry) {
+		return (int)(entry & ((1L << MOVE_BITS) - 1));
+	}
+
+	/**
+	 * Returns the score stored in an entry.
+	 * 
+	 * @param entry An entry returned by probe.
+	 * @return The score.
+	 */
+	public static int score(long entry) {
+		return (short)(entry >>> SCORE_SHIFT);
+	}
+
+	/**
+	 * Returns the depth stored in an entry.
+	 * 
+	 * @param entry An entry returned by probe.
+	 * @return The depth the position was searched to.
+	 */
+	public static int depth(long entry) {
+		return (int)((entry >>> DEPTH_SHIFT) & 0xFF);
+	}
+
+	/**
+	 * Returns the bound type stored in an entry.
+	 * 
+	 * @param entry An entry returned by probe.
+	 * @return One of BOUND_LOWER, BOUND_UPPER or BOUND_EXACT.
+	 */
+	public static int bound(long entry) {
+		return (int)((entry >>> BOUND_SHIFT) & 0x3);
+	}
+
+	/**
+	 * Private helper. Returns which search stored an entry.
+	 * 
+	 * @param entry A packed entry.
+	 * @return The age of the search that stored it.
+	 */
+	private static int age(long entry) {
+		return (int)((entry >>> AGE_SHIFT) & AGE_MASK);
+	}
+}
\ No newline at end of file
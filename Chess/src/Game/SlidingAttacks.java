@@ -0,0 +1,310 @@
+package Game;
+import java.util.Random;
+/**
+ * Blocker-aware attack sets for the sliding pieces (rooks, bishops and
+ * queens), looked up in constant time with "magic" bitboards. For each
+ * square, the squares whose occupancy can block a slider are masked out
+ * of the board's occupancy and multiplied by a magic number, and the top
+ * bits of the product index a table holding the exact attack set for
+ * that arrangement of blockers. The magic numbers are searched for once
+ * per board size with a fixed seed, so every board of a given size shares
+ * the same tables. Queens simply combine the rook and bishop attacks.
+ * 
+ * On long, narrow boards a slider can have far more blocking squares than
+ * on a standard board, and a table for every arrangement of them would not
+ * fit in memory. Squares with more than MAX_BLOCKER_BITS blocking squares
+ * (or with no magic number small enough) go without a table; their attacks
+ * are found instead ray by ray, from the first blocker on each ray.
+ * 
+ * @author Priten Vora
+ *
+ */
+public class SlidingAttacks {
+
+	private static final int[][] ROOK_DIRECTIONS = {{0, 1}, {0, -1}, {1, 0}, {-1, 0}};		// Directions a rook slides in.
+	private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};	// Directions a bishop slides in.
+	private static final long SEED = 0x5EED_C0DE_2424L;										// Seed for the magic number search.
+	private static final int MAGIC_ATTEMPTS = 1 << 10;										// Candidates tried before growing a table.
+	private static final int MAX_BLOCKER_BITS = 12;											// The most blocking squares a table is built for.
+	private static final int MAX_INDEX_BITS = 14;											// The most index bits a table can grow to.
+
+	private static final SlidingAttacks[][] cache =			// Tables already built, by width and height.
+			new SlidingAttacks[Bitboards.MAX_SQUARES + 1][Bitboards.MAX_SQUARES + 1];
+
+	private final int width;				// The width of the boards these tables are for.
+	private final int height;				// The height of the boards these tables are for.
+	private final long[] rookMasks;			// Squares that can block a rook on each square.
+	private final long[] rookMagics;		// The magic multiplier for rooks on each square.
+	private final int[] rookShifts;			// How far to shift the rook product on each square.
+	private final long[][] rookAttacks;		// Rook attacks on each square, by magic index (null for none).
+	private final long[][] rookRays;		// Every square along each rook direction from each square.
+	private final long[] bishopMasks;		// Squares that can block a bishop on each square.
+	private final long[] bishopMagics;		// The magic multiplier for bishops on each square.
+	private final int[] bishopShifts;		// How far to shift the bishop product on each square.
+	private final long[][] bishopAttacks;	// Bishop attacks on each square, by magic index (null for none).
+	private final long[][] bishopRays;		// Every square along each bishop direction from each square.
+
+	/**
+	 * Returns the sliding attack tables for boards of the given size,
+	 * building them the first time they are asked for.
+	 * 
+	 * @param width The width of the board in number of tiles.
+	 * @param height The height of the board in number of tiles.
+	 * @return The sliding attack tables for that board size.
+	 */
+	public static synchronized SlidingAttacks forSize(int width, int height) {
+		if(width * height > Bitboards.MAX_SQUARES) {
+			throw new IllegalArgumentException("Sliding attacks need a board of at most " + Bitboards.MAX_SQUARES + " squares");
+		}
+		SlidingAttacks tables = cache[width][height];
+		if(tables == null) {
+			tables = new SlidingAttacks(width, height);
+			cache[width][height] = tables;
+		}
+		return tables;
+	}
+
+	/**
+	 * Private constructor - use forSize. Finds magic numbers for every
+	 * square and fills in the rook and bishop attack tables.
+	 * 
+	 * @param boardWidth The width of the board in number of tiles.
+	 * @param boardHeight The height of the board in number of tiles.
+	 */
+	private SlidingAttacks(int boardWidth, int boardHeight) {
+		width = boardWidth;
+		height = boardHeight;
+		int squares = width * height;
+		rookMasks = new long[squares];
+		rookMagics = new long[squares];
+		rookShifts = new int[squares];
+		rookAttacks = new long[squares][];
+		bishopMasks = new long[squares];
+		bishopMagics = new long[squares];
+		bishopShifts = new int[squares];
+		bishopAttacks = new long[squares][];
+		rookRays = rays(ROOK_DIRECTIONS);
+		bishopRays = rays(BISHOP_DIRECTIONS);
+		Random random = new Random(SEED ^ (width * 256 + height));
+		for(int square = 0; square < squares; square++) {
+			rookMasks[square] = blockerMask(square, ROOK_DIRECTIONS);
+			rookMagics[square] = findMagic(square, rookMasks[square], ROOK_DIRECTIONS, random, true);
+			bishopMasks[square] = blockerMask(square, BISHOP_DIRECTIONS);
+			bishopMagics[square] = findMagic(square, bishopMasks[square], BISHOP_DIRECTIONS, random, false);
+		}
+	}
+
+	/**
+	 * Private helper for the constructor. Collects the squares along each
+	 * direction from each square, up to the edge of the board.
+	 * 
+	 * @param directions The directions to follow.
+	 * @return The squares along each direction (first index) from each square (second index).
+	 */
+	private long[][] rays(int[][] directions) {
+		long[][] rays = new long[directions.length][width * height];
+		for(int d = 0; d < directions.length; d++) {
+			for(int square = 0; square < width * height; square++) {
+				rays[d][square] = slowAttacks(square, 0L, new int[][] {directions[d]});
+			}
+		}
+		return rays;
+	}
+
+	/**
+	 * Private helper for the constructor. Collects the squares whose
+	 * occupancy matters to a slider on the given square - every square
+	 * along its rays except the last one before the edge of the board,
+	 * which is attacked whether or not something is standing on it.
+	 * 
+	 * @param square The square the slider is on.
+	 * @param directions The directions the slider moves in.
+	 * @return A bitmask of the relevant blocking squares.
+	 */
+	private long blockerMask(int square, int[][] directions) {
+		long mask = 0L;
+		for(int[] direction : directions) {
+			int x = square % width + direction[0];
+			int y = square / width + direction[1];
+			while(onBoard(x + direction[0], y + direction[1])) {
+				mask |= 1L << (y * width + x);
+				x += direction[0];
+				y += direction[1];
+			}
+		}
+		return mask;
+	}
+
+	/**
+	 * Private helper for the constructor. Walks each ray out from the
+	 * given square until it leaves the board or hits a blocker, and
+	 * collects every square reached (including the blocker itself).
+	 * 
+	 * @param square The square the slider is on.
+	 * @param occupied The squares that are occupied.
+	 * @param directions The directions the slider moves in.
+	 * @return A bitmask of the attacked squares.
+	 */
+	private long slowAttacks(int square, long occupied, int[][] directions) {
+		long attacks = 0L;
+		for(int[] direction : directions) {
+			int x = square % width + direction[0];
+			int y = square / width + direction[1];
+			while(onBoard(x, y)) {
+				long bit = 1L << (y * width + x);
+				attacks |= bit;
+				if((occupied & bit) != 0) {
+					break;
+				}
+				x += direction[0];
+				y += direction[1];
+			}
+		}
+		return attacks;
+	}
+
+	/**
+	 * Private helper for the constructor. Tries random sparse numbers
+	 * until one maps every arrangement of blockers to a table slot without
+	 * two arrangements with different attacks sharing the same slot, and
+	 * stores the filled-in table and its shift for the square. If no
+	 * number is found for the smallest possible table after a while, the
+	 * table is doubled in size and the search continues, up to
+	 * MAX_INDEX_BITS. Squares with too many blocking squares, or for which
+	 * no number is found, are left without a table.
+	 * 
+	 * @param square The square the slider is on.
+	 * @param mask The relevant blocking squares for the slider.
+	 * @param directions The directions the slider moves in.
+	 * @param random The source of candidate magic numbers.
+	 * @param rook True to fill in the rook tables; false for the bishop tables.
+	 * @return The magic number that was found, or 0 if the square has no table.
+	 */
+	private long findMagic(int square, long mask, int[][] directions, Random random, boolean rook) {
+		int bits = Long.bitCount(mask);
+		if(bits > MAX_BLOCKER_BITS) {
+			return 0L;
+		}
+		int subsets = 1 << bits;
+		long[] occupancies = new long[subsets];
+		long[] attacks = new long[subsets];
+
+		// Enumerate every subset of the mask (Carry-Rippler) with its true attacks.
+		long subset = 0L;
+		for(int i = 0; i < subsets; i++) {
+			occupancies[i] = subset;
+			attacks[i] = slowAttacks(square, subset, directions);
+			subset = (subset - mask) & mask;
+		}
+
+		// Try for a perfect table first, allowing it to grow a little on awkward board shapes.
+		for(int indexBits = bits; indexBits <= MAX_INDEX_BITS; indexBits++) {
+			long[] table = new long[1 << indexBits];
+			int[] usedBy = new int[table.length];
+			int shift = 64 - indexBits;
+			for(int attempt = 1; attempt <= MAGIC_ATTEMPTS; attempt++) {
+				long magic = random.nextLong() & random.nextLong() & random.nextLong();
+				boolean failed = false;
+				for(int i = 0; i < subsets && !failed; i++) {
+					int index = (int)((occupancies[i] * magic) >>> shift);
+					if(usedBy[index] != attempt) {
+						usedBy[index] = attempt;
+						table[index] = attacks[i];
+					}
+					else if(table[index] != attacks[i]) {
+						failed = true;
+					}
+				}
+				if(!failed) {
+					if(rook) {
+						rookShifts[square] = shift;
+						rookAttacks[square] = table;
+					}
+					else {
+						bishopShifts[square] = shift;
+						bishopAttacks[square] = table;
+					}
+					return magic;
+				}
+			}
+		}
+		return 0L;
+	}
+
+	/**
+	 * Private helper. Finds a slider's attacks without a magic table: the
+	 * squares along each ray, cut off after the first blocker on it. Rays
+	 * running toward higher squares meet their first blocker at its
+	 * lowest bit, and the others at its highest.
+	 * 
+	 * @param square The square the slider is on.
+	 * @param occupied The squares that are occupied.
+	 * @param directions The directions the slider moves in.
+	 * @param rays The squares along each of those directions from each square.
+	 * @return A bitmask of the attacked squares, including any blockers.
+	 */
+	private long rayAttacks(int square, long occupied, int[][] directions, long[][] rays) {
+		long attacks = 0L;
+		for(int d = 0; d < directions.length; d++) {
+			long ray = rays[d][square];
+			long blockers = ray & occupied;
+			if(blockers != 0) {
+				boolean up = directions[d][1] * width + directions[d][0] > 0;
+				int first = up? Long.numberOfTrailingZeros(blockers) : 63 - Long.numberOfLeadingZeros(blockers);
+				ray ^= rays[d][first];
+			}
+			attacks |= ray;
+		}
+		return attacks;
+	}
+
+	/**
+	 * Private helper. Returns whether or not the coordinates are on the board.
+	 * 
+	 * @param x The horizontal coordinate.
+	 * @param y The vertical coordinate.
+	 * @return True if (x, y) is a square of the board; false otherwise.
+	 */
+	private boolean onBoard(int x, int y) {
+		return x >= 0 && x < width && y >= 0 && y < height;
+	}
+
+	/**
+	 * Returns the squares attacked by a rook on the given square.
+	 * 
+	 * @param square The square the rook is on.
+	 * @param occupied The squares that are occupied.
+	 * @return A bitmask of the attacked squares, including any blockers.
+	 */
+	public long rook(int square, long occupied) {
+		if(rookAttacks[square] == null) {
+			return rayAttacks(square, occupied, ROOK_DIRECTIONS, rookRays);
+		}
+		return rookAttacks[square][(int)(((occupied & rookMasks[square]) * rookMagics[square]) >>> rookShifts[square])];
+	}
+
+	/**
+	 * Returns the squares attacked by a bishop on the given square.
+	 * 
+	 * @param square The square the bishop is on.
+	 * @param occupied The squares that are occupied.
+	 * @return A bitmask of the attacked squares, including any blockers.
+	 */
+	public long bishop(int square, long occupied) {
+		if(bishopAttacks[square] == null) {
+			return rayAttacks(square, occupied, BISHOP_DIRECTIONS, bishopRays);
+		}
+		return bishopAttacks[square][(int)(((occupied & bishopMasks[square]) * bishopMagics[square]) >>> bishopShifts[square])];
+	}
+
+	/**
+	 * Returns the squares attacked by a queen on the given square.
+	 * 
+	 * @param square The square the queen is on.
+	 * @param occupied The squares that are occupied.
+	 * @return A bitmask of the attacked squares, including any blockers.
+	 */
+	public long queen(int square, long occupied) {
+		return rook(square, occupied) | bishop(square, occupied);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,241 @@
+package Game.Tablebase;
+import Game.Color;
+import Game.PieceType;
+/**
+ * The pieces in an endgame, like "KQvK" (king and queen against king) or
+ * "KRPvKR". Each side has exactly one king. The pieces are kept in a
+ * fixed order - white's, then black's, each side's king first and the
+ * rest from the queen down to the pawns - and a position's index in a
+ * tablebase is worked out from the squares of the pieces in that order.
+ * 
+ * Swapping the colors of an endgame (and turning the board upside down)
+ * gives an endgame that is won, drawn or lost in exactly the same way,
+ * so only one of each such pair is generated: the canonical one, where
+ * white has the stronger pieces.
+ * 
+ * @author Priten Vora
+ *
+ */
+public final class Material {
+
+	public static final int MAX_PIECES = 5;		// The most pieces an endgame can have.
+
+	private static final PieceType[] ORDER =	// The order of the pieces on each side.
+		{PieceType.KING, PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT, PieceType.PAWN};
+
+	private final String name;			// The endgame's name, like "KQvK".
+	private final PieceType[] types;	// The type of each piece, in order.
+	private final Color[] colors;		// The color of each piece, in order.
+
+	/**
+	 * Constructor for the endgame with the given name.
+	 * 
+	 * @param endgame The endgame's name: white's pieces, a 'v', then
+	 *        black's, each starting with the king (like "KRPvKR").
+	 * @throws IllegalArgumentException If the name does not describe an
+	 *         endgame with one king a side and at most MAX_PIECES pieces.
+	 */
+	public Material(String endgame) {
+		int split = endgame.indexOf('v');
+		if(split < 0 || endgame.length() - 1 > MAX_PIECES) {
+			throw new IllegalArgumentException("Not an endgame of up to " + MAX_PIECES + " pieces: " + endgame);
+		}
+		String white = sort(endgame.substring(0, split), endgame);
+		String black = sort(endgame.substring(split + 1), endgame);
+		name = white + "v" + black;
+		types = new PieceType[name.length() - 1];
+		colors = new Color[types.length];
+		int k = 0;
+		for(int i = 0; i < name.length(); i++) {
+			if(i == white.length()) {
+				continue;
+			}
+			types[k] = typeOf(name.charAt(i), endgame);
+			colors[k] = (i < white.length())? Color.WHITE : Color.BLACK;
+			k++;
+		}
+	}
+
+	/**
+	 * Returns the endgame's name.
+	 * 
+	 * @return The name, with the pieces in order (like "KRPvKR").
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Returns how many pieces there are.
+	 * 
+	 * @return The number of pieces, kings included.
+	 */
+	public int size() {
+		return types.length;
+	}
+
+	/**
+	 * Returns the type of one of the pieces.
+	 * 
+	 * @param piece The piece's place in the order.
+	 * @return The piece's type.
+	 */
+	public PieceType getType(int piece) {
+		return types[piece];
+	}
+
+	/**
+	 * Returns the color of one of the pieces.
+	 * 
+	 * @param piece The piece's place in the order.
+	 * @return The piece's color.
+	 */
+	public Color getColor(int piece) {
+		return colors[piece];
+	}
+
+	/**
+	 * Returns whether or not this is the endgame that gets generated out
+	 * of it and its color-swapped twin.
+	 * 
+	 * @return True if white's pieces are at least as strong as black's.
+	 */
+	public boolean isCanonical() {
+		int split = name.indexOf('v');
+		String white = name.substring(0, split);
+		String black = name.substring(split + 1);
+		if(white.length() != black.length()) {
+			return white.length() > black.length();
+		}
+		for(int i = 0; i < white.length(); i++) {
+			int difference = rank(white.charAt(i)) - rank(black.charAt(i));
+			if(difference != 0) {
+				return difference < 0;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the endgame with the colors swapped.
+	 * 
+	 * @return The endgame with black's pieces given to white and white's to black.
+	 */
+	public Material swapColors() {
+		int split = name.indexOf('v');
+		return new Material(name.substring(split + 1) + "v" + name.substring(0, split));
+	}
+
+	/**
+	 * Returns the endgame left after some pieces change: one is taken off
+	 * and another is promoted, or either.
+	 * 
+	 * @param removed The piece taken off (-1 for none).
+	 * @param promoted The piece that changes type (-1 for none).
+	 * @param promotion What the promoted piece becomes.
+	 * @return The new endgame.
+	 */
+	public Material change(int removed, int promoted, PieceType promotion) {
+		StringBuilder white = new StringBuilder();
+		StringBuilder black = new StringBuilder();
+		for(int k = 0; k < types.length; k++) {
+			if(k != removed) {
+				char symbol = ((k == promoted)? promotion : types[k]).getSymbol();
+				((colors[k] == Color.WHITE)? white : black).append(symbol);
+			}
+		}
+		return new Material(white + "v" + black);
+	}
+
+	/**
+	 * Returns the index of a position of this endgame within the table
+	 * for one side to move.
+	 * 
+	 * @param squares The square of each piece, in order.
+	 * @param boardSquares How many squares the board has.
+	 * @return The index (from 0 to boardSquares to the power size()).
+	 */
+	public long index(int[] squares, int boardSquares) {
+		long index = 0;
+		for(int k = 0; k < types.length; k++) {
+			index = index * boardSquares + squares[k];
+		}
+		return index;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		return (other instanceof Material) && ((Material)other).name.equals(name);
+	}
+
+	@Override
+	public int hashCode() {
+		return name.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+
+	/**
+	 * Private helper for the constructor. Puts one side's pieces in order,
+	 * checking there is exactly one king.
+	 * 
+	 * @param side The side's pieces.
+	 * @param endgame The whole name, for the error message.
+	 * @return The pieces in order.
+	 */
+	private static String sort(String side, String endgame) {
+		char[] pieces = side.toUpperCase().toCharArray();
+		int kings = 0;
+		for(char piece : pieces) {
+			typeOf(piece, endgame);
+			kings += (piece == 'K')? 1 : 0;
+		}
+		if(kings != 1) {
+			throw new IllegalArgumentException("Each side needs one king: " + endgame);
+		}
+		for(int i = 1; i < pieces.length; i++) {
+			char piece = pieces[i];
+			int j = i - 1;
+			while(j >= 0 && rank(pieces[j]) > rank(piece)) {
+				pieces[j + 1] = pieces[j];
+				j--;
+			}
+			pieces[j + 1] = piece;
+		}
+		return new String(pieces);
+	}
+
+	/**
+	 * Private helper. Returns where a piece comes in the order of a side's pieces.
+	 * 
+	 * @param symbol The piece's letter.
+	 * @return Its place, from 0 for the king.
+	 */
+	private static int rank(char symbol) {
+		for(int i = 0; i < ORDER.length; i++) {
+			if(ORDER[i].getSymbol() == symbol) {
+				return i;
+			}
+		}
+		return ORDER.length;
+	}
+
+	/**
+	 * Private helper. Returns the type of piece a letter stands for.
+	 * 
+	 * @param symbol The letter.
+	 * @param endgame The whole name, for the error message.
+	 * @return The type of piece.
+	 */
+	private static PieceType typeOf(char symbol, String endgame) {
+		for(PieceType type : ORDER) {
+			if(type.getSymbol() == symbol) {
+				return type;
+			}
+		}
+		throw new IllegalArgumentException("Unknown piece '" + symbol + "' in endgame: " + endgame);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,177 @@
+package Game.Tablebase;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+/**
+ * A tablebase file, memory-mapped. There are two files for each endgame
+ * and board size: a distance-to-mate file (".dtm") with a byte for each
+ * position, and a smaller win/draw/loss file (".wdl") with two bits for
+ * each. Both start with a HEADER_SIZE-byte header - MAGIC, the format
+ * VERSION, the board's width and height, the number of pieces, and the
+ * longest distance to mate in the table as two bytes - followed by the
+ * positions with white to move and then those with black to move, each
+ * in index order (see Material.index).
+ * 
+ * A distance-to-mate byte is DRAW, ILLEGAL, or one more than the number
+ * of plies to mate with best play: an odd number of plies means the side
+ * to move wins, and an even number means it loses (0 being checkmated).
+ * A win/draw/loss entry is one of the WDL_* constants.
+ * 
+ * Since a single mapping cannot be bigger than 2 GB, the file is mapped
+ * in windows of a gigabyte.
+ * 
+ * @author Priten Vora
+ *
+ */
+final class TablebaseFile implements Closeable {
+
+	static final int MAGIC = 0x43485442;		// "CHTB", at the start of every file.
+	static final int VERSION = 1;				// The version of the format described here.
+	static final int HEADER_SIZE = 16;			// The size of the header, in bytes.
+
+	static final int DRAW = 0;					// A drawn position (or one not yet solved).
+	static final int ILLEGAL = 255;				// A position that cannot come up.
+	static final int MAX_PLIES = 253;			// The longest distance to mate a byte can hold.
+
+	static final int WDL_DRAW = 0;				// A drawn position.
+	static final int WDL_WIN = 1;				// The side to move wins.
+	static final int WDL_LOSS = 2;				// The side to move loses.
+	static final int WDL_ILLEGAL = 3;			// A position that cannot come up.
+
+	private static final int WINDOW_BITS = 30;						// Each window maps 2^30 bytes.
+	private static final long WINDOW_MASK = (1L << WINDOW_BITS) - 1;	// Offset of a byte within its window.
+
+	private final RandomAccessFile file;		// The open file.
+	private final MappedByteBuffer[] windows;	// The part of the file after the header, a window at a time.
+
+	/**
+	 * Constructor for a mapping of a file.
+	 * 
+	 * @param path The file.
+	 * @param writable Whether to map it for writing.
+	 * @param length How long the file is, header included (only used when
+	 *        writing, to size the file; 0 to use its length when reading).
+	 * @throws IOException If the file cannot be opened or mapped.
+	 */
+	TablebaseFile(File path, boolean writable, long length) throws IOException {
+		file = new RandomAccessFile(path, writable? "rw" : "r");
+		if(writable) {
+			file.setLength(length);
+		}
+		FileChannel channel = file.getChannel();
+		long size = channel.size() - HEADER_SIZE;
+		if(size < 0) {
+			file.close();
+			throw new IOException("Not a tablebase file: " + path);
+		}
+		windows = new MappedByteBuffer[(int)((size + WINDOW_MASK) >>> WINDOW_BITS)];
+		for(int i = 0; i < windows.length; i++) {
+			long start = (long)i << WINDOW_BITS;
+			windows[i] = channel.map(writable? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY,
+					HEADER_SIZE + start, Math.min(1L << WINDOW_BITS, size - start));
+		}
+	}
+
+	/**
+	 * Returns one of the bytes after the header.
+	 * 
+	 * @param offset The byte's offset after the header.
+	 * @return The byte (0 to 255).
+	 */
+	int get(long offset) {
+		return windows[(int)(offset >>> WINDOW_BITS)].get((int)(offset & WINDOW_MASK)) & 0xFF;
+	}
+
+	/**
+	 * Sets one of the bytes after the header.
+	 * 
+	 * @param offset The byte's offset after the header.
+	 * @param value The byte (0 to 255).
+	 */
+	void put(long offset, int value) {
+		windows[(int)(offset >>> WINDOW_BITS)].put((int)(offset & WINDOW_MASK), (byte)value);
+	}
+
+	/**
+	 * Writes the header.
+	 * 
+	 * @param width The board's width.
+	 * @param height The board's height.
+	 * @param pieces The number of pieces.
+	 * @param maxPlies The longest distance to mate in the table.
+	 * @throws IOException If the header cannot be written.
+	 */
+	void writeHeader(int width, int height, int pieces, int maxPlies) throws IOException {
+		file.seek(0);
+		file.writeInt(MAGIC);
+		file.writeByte(VERSION);
+		file.writeByte(width);
+		file.writeByte(height);
+		file.writeByte(pieces);
+		file.writeShort(maxPlies);
+		file.writeShort(0);
+		file.writeInt(0);
+	}
+
+	/**
+	 * Reads and checks the header.
+	 * 
+	 * @param width The board's width the table must be for.
+	 * @param height The board's height the table must be for.
+	 * @param pieces The number of pieces the table must have.
+	 * @return The longest distance to mate in the table.
+	 * @throws IOException If the header does not match.
+	 */
+	int readHeader(int width, int height, int pieces) throws IOException {
+		file.seek(0);
+		if(file.readInt() != MAGIC || file.readUnsignedByte() != VERSION || file.readUnsignedByte() != width
+				|| file.readUnsignedByte() != height || file.readUnsignedByte() != pieces) {
+			throw new IOException("Tablebase file does not match its name");
+		}
+		return file.readUnsignedShort();
+	}
+
+	/**
+	 * Closes the file. Whatever was written through the mapping is
+	 * written out by the operating system.
+	 * 
+	 * @throws IOException If the file cannot be closed.
+	 */
+	@Override
+	public void close() throws IOException {
+		file.close();
+	}
+
+	/**
+	 * Returns the name of one of an endgame's files.
+	 * 
+	 * @param directory Where the tablebases are.
+	 * @param material The endgame.
+	 * @param width The board's width.
+	 * @param height The board's height.
+	 * @param extension "dtm" or "wdl".
+	 * @return The file, like "KQvK.8x8.dtm" in the directory.
+	 */
+	static File path(File directory, Material material, int width, int height, String extension) {
+		return new File(directory, material.getName() + "." + width + "x" + height + "." + extension);
+	}
+
+	/**
+	 * Returns the win/draw/loss entry for a distance-to-mate byte.
+	 * 
+	 * @param value The distance-to-mate byte.
+	 * @return One of the WDL_* constants.
+	 */
+	static int wdlOf(int value) {
+		if(value == DRAW) {
+			return WDL_DRAW;
+		}
+		if(value == ILLEGAL) {
+			return WDL_ILLEGAL;
+		}
+		return ((value - 1) % 2 == 1)? WDL_WIN : WDL_LOSS;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,1017 @@
+package Game.Tablebase;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import Game.Color;
+import Game.PieceType;
+/**
+ * Generates endgame tablebases (see TablebaseFile) for boards of any size,
+ * by retrograde analysis of every placement of an endgame's pieces. The
+ * table is the distance-to-mate file itself, mapped into memory, so even
+ * tables far bigger than the heap can be generated. Each pass runs over
+ * every position with a pool of threads, each taking chunks of positions
+ * from a shared counter:
+ * 
+ *   - the first pass marks the positions that cannot come up (two pieces
+ *     on a square, a pawn on the first or last rank, or the side that
+ *     just moved still in check);
+ *   - the second marks the checkmates, and notes for every other position
+ *     the pass at which its captures and promotions could settle it;
+ *   - pass n (from 1) marks the positions won in n plies if n is odd (a
+ *     move leads to a position lost in n - 1), and those lost in n plies
+ *     if n is even (every move leads to a position won in at most n - 1,
+ *     and one to a position won in exactly n - 1).
+ * 
+ * A position pass n marks has a move to one the pass before marked, or a
+ * capture or promotion noted for pass n, so pass n only looks at those:
+ * it takes back every move that could have led to a position marked in
+ * the pass before, and checks the positions found that way, and the ones
+ * noted for it, with all their moves. Most passes thus check only a small
+ * part of the table. Positions nothing ever marks are draws. Captures and
+ * promotions lead out of the endgame, into smaller ones, so those are
+ * generated first.
+ * Only one of each endgame and its color-swapped twin is generated (see
+ * Material.isCanonical); the other is looked up in it with the board
+ * turned upside down. Castling and en passant are left out: a position
+ * is scored as if neither were possible.
+ * 
+ * @author Priten Vora
+ *
+ */
+public class TablebaseGenerator {
+
+	private static final int CHUNK = 1 << 14;	// How many positions a thread takes at a time.
+	private static final int ILLEGAL_PASS = -1;	// The pass that marks positions that cannot come up.
+	private static final int WDL_PASS = -2;		// The pass that writes out the win/draw/loss file.
+	private static final int EXIT_PASS = -3;	// Looks only at captures and promotions (run within the mates pass).
+	private static final PieceType[] PROMOTIONS =	// What a pawn can be promoted to.
+		{PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT};
+	private static final int[][] KING_STEPS =		// The moves of a king...
+		{{1, 0}, {1, 1}, {0, 1}, {-1, 1}, {-1, 0}, {-1, -1}, {0, -1}, {1, -1}};
+	private static final int[][] KNIGHT_JUMPS =		// ...of a knight...
+		{{1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2}, {-2, -1}, {-2, 1}, {-1, 2}};
+	private static final int[][] ROOK_RAYS = {{1, 0}, {0, 1}, {-1, 0}, {0, -1}};	// ...and the lines of the sliders.
+	private static final int[][] BISHOP_RAYS = {{1, 1}, {-1, 1}, {-1, -1}, {1, -1}};
+
+	private final File directory;		// Where the tables are written.
+	private final int width;			// The board's width.
+	private final int height;			// The board's height.
+	private final int squares;			// How many squares the board has.
+	private final int threads;			// How many threads run each pass.
+	private boolean verbose;			// Whether to print how each table went.
+
+	/**
+	 * Constructor for a generator of tables for the given board size.
+	 * 
+	 * @param tableDirectory Where to write the tables (and look for ones
+	 *        already generated).
+	 * @param boardWidth The board's width.
+	 * @param boardHeight The board's height.
+	 * @param threadCount How many threads to run each pass with.
+	 */
+	public TablebaseGenerator(File tableDirectory, int boardWidth, int boardHeight, int threadCount) {
+		directory = tableDirectory;
+		width = boardWidth;
+		height = boardHeight;
+		squares = boardWidth * boardHeight;
+		threads = Math.max(threadCount, 1);
+		verbose = false;
+	}
+
+	/**
+	 * Sets whether to print a line about each table generated.
+	 * 
+	 * @param printProgress True to print.
+	 */
+	public void setVerbose(boolean printProgress) {
+		verbose = printProgress;
+	}
+
+	/**
+	 * Generates the tables of an endgame, along with those of every
+	 * endgame it can turn into. Tables already in the directory are kept.
+	 * 
+	 * @param endgame The endgame, like "KRPvKR".
+	 * @return The longest distance to mate in the endgame, in plies.
+	 * @throws IOException If a table cannot be written.
+	 * @throws IllegalArgumentException If the name is not an endgame.
+	 * @throws IllegalStateException If a mate takes too long to fit in the table.
+	 */
+	public int generate(String endgame) throws IOException {
+		return generate(new Material(endgame));
+	}
+
+	/**
+	 * Private helper for the public generate. Generates an endgame's
+	 * tables unless they are already there.
+	 * 
+	 * @param material The endgame.
+	 * @return The longest distance to mate in the endgame, in plies.
+	 * @throws IOException If a table cannot be written.
+	 */
+	private int generate(Material material) throws IOException {
+		if(!material.isCanonical()) {
+			material = material.swapColors();
+		}
+		Integer existing = readMaxPlies(material);
+		if(existing != null) {
+			return existing;
+		}
+		Table table = new Table(material);
+		try {
+			return table.generate();
+		}
+		finally {
+			table.close();
+		}
+	}
+
+	/**
+	 * Private helper for generate. Returns the longest distance to mate in
+	 * a table already in the directory.
+	 * 
+	 * @param material The (canonical) endgame.
+	 * @return The distance in plies, or null if the table is not there (or
+	 *         was not finished).
+	 */
+	private Integer readMaxPlies(Material material) {
+		File dtm = TablebaseFile.path(directory, material, width, height, "dtm");
+		File wdl = TablebaseFile.path(directory, material, width, height, "wdl");
+		if(!dtm.isFile() || !wdl.isFile()) {
+			return null;
+		}
+		try {
+			TablebaseFile file = new TablebaseFile(dtm, false, 0);
+			try {
+				return file.readHeader(width, height, material.size());
+			}
+			finally {
+				file.close();
+			}
+		}
+		catch(IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Private helper. Returns the square on the other side of the board.
+	 * 
+	 * @param square The square.
+	 * @return The square in the same file, counting ranks from the other end.
+	 */
+	private int flip(int square) {
+		return (height - 1 - square / width) * width + square % width;
+	}
+
+	/**
+	 * A table being generated, with the smaller tables its captures and
+	 * promotions lead into.
+	 */
+	private final class Table {
+
+		private final Material material;		// The endgame.
+		private final int pieces;				// How many pieces it has.
+		private final long size;				// How many positions there are for each side to move.
+		private final long[] power;				// How much each piece's square counts toward the index.
+		private final PieceType[] types;		// The type of each piece.
+		private final int[] colors;				// The color of each piece (0 for white, 1 for black).
+		private final int[] kings;				// The piece that is each side's king.
+		private final Exit[][][] exits;			// Where each capture (by removed piece + 1) and promotion leads.
+		private final ArrayList<TablebaseFile> files;	// The smaller tables, to close at the end.
+		private TablebaseFile dtm;				// The table being generated.
+		private TablebaseFile exitPasses;		// The pass that may settle each position by its exits (0 for none).
+		private int maxExit;					// The highest value of a position in the smaller tables.
+
+		/**
+		 * Constructor for the table of an endgame. Generates the smaller
+		 * tables first if they are not there yet.
+		 * 
+		 * @param endgame The (canonical) endgame.
+		 * @throws IOException If a smaller table cannot be written or read.
+		 */
+		Table(Material endgame) throws IOException {
+			material = endgame;
+			pieces = endgame.size();
+			power = new long[pieces];
+			types = new PieceType[pieces];
+			colors = new int[pieces];
+			kings = new int[2];
+			long product = 1;
+			for(int k = pieces - 1; k >= 0; k--) {
+				power[k] = product;
+				product *= squares;
+				types[k] = endgame.getType(k);
+				colors[k] = (endgame.getColor(k) == Color.WHITE)? 0 : 1;
+				if(types[k] == PieceType.KING) {
+					kings[colors[k]] = k;
+				}
+			}
+			size = product;
+			exits = new Exit[pieces + 1][pieces + 1][PROMOTIONS.length];
+			files = new ArrayList<TablebaseFile>();
+			maxExit = 0;
+			HashMap<Material, TablebaseFile> opened = new HashMap<Material, TablebaseFile>();
+			try {
+				for(int removed = -1; removed < pieces; removed++) {
+					if(removed >= 0 && types[removed] == PieceType.KING) {
+						continue;
+					}
+					for(int promoted = -1; promoted < pieces; promoted++) {
+						if((removed < 0 && promoted < 0) || promoted == removed
+								|| (promoted >= 0 && types[promoted] != PieceType.PAWN)) {
+							continue;
+						}
+						for(int p = 0; p < ((promoted < 0)? 1 : PROMOTIONS.length); p++) {
+							exits[removed + 1][promoted + 1][p] = createExit(removed, promoted, PROMOTIONS[p], opened);
+						}
+					}
+				}
+			}
+			catch(IOException e) {
+				close();
+				throw e;
+			}
+		}
+
+		/**
+		 * Private helper for the constructor. Works out where one kind of
+		 * capture or promotion leads, generating that table if need be.
+		 * 
+		 * @param removed The piece captured (-1 for none).
+		 * @param promoted The pawn promoted (-1 for none).
+		 * @param promotion What the pawn becomes.
+		 * @param opened The smaller tables already open.
+		 * @return Where the move leads.
+		 * @throws IOException If the smaller table cannot be written or read.
+		 */
+		private Exit createExit(int removed, int promoted, PieceType promotion, HashMap<Material, TablebaseFile> opened)
+				throws IOException {
+			Material after = material.change(removed, promoted, promotion);
+			boolean flipped = !after.isCanonical();
+			Material target = flipped? after.swapColors() : after;
+			TablebaseFile file = opened.get(target);
+			if(file == null) {
+				int plies = TablebaseGenerator.this.generate(target);
+				file = new TablebaseFile(TablebaseFile.path(directory, target, width, height, "dtm"), false, 0);
+				files.add(file);
+				opened.put(target, file);
+				maxExit = Math.max(maxExit, plies + 1);
+			}
+			int[] sourceOf = new int[target.size()];
+			boolean[] used = new boolean[pieces];
+			for(int slot = 0; slot < sourceOf.length; slot++) {
+				int color = (target.getColor(slot) == Color.WHITE)? 0 : 1;
+				for(int k = 0; k < pieces; k++) {
+					PieceType type = (k == promoted)? promotion : types[k];
+					if(k != removed && !used[k] && type == target.getType(slot) && (colors[k] ^ (flipped? 1 : 0)) == color) {
+						sourceOf[slot] = k;
+						used[k] = true;
+						break;
+					}
+				}
+			}
+			long targetSize = 1;
+			for(int slot = 0; slot < sourceOf.length; slot++) {
+				targetSize *= squares;
+			}
+			return new Exit(file, targetSize, sourceOf, flipped);
+		}
+
+		/**
+		 * Generates the table: runs the passes, then writes the headers and
+		 * the win/draw/loss file.
+		 * 
+		 * @return The longest distance to mate, in plies.
+		 * @throws IOException If the table cannot be written.
+		 */
+		int generate() throws IOException {
+			long start = System.nanoTime();
+			File path = TablebaseFile.path(directory, material, width, height, "dtm");
+			path.delete();
+			dtm = new TablebaseFile(path, true, TablebaseFile.HEADER_SIZE + 2 * size);
+			File exitPath = TablebaseFile.path(directory, material, width, height, "exit");
+			exitPath.delete();
+			exitPasses = new TablebaseFile(exitPath, true, TablebaseFile.HEADER_SIZE + 2 * size);
+			int longest = 0;
+			try {
+				runPass(ILLEGAL_PASS);
+				runPass(0);
+				// Once past the smaller tables, a pass that marks nothing leaves nothing for the next.
+				for(int pass = 1; ; pass++) {
+					if(pass > TablebaseFile.MAX_PLIES) {
+						throw new IllegalStateException("Mates in " + material + " are too long for the table");
+					}
+					if(runPass(pass) > 0) {
+						longest = pass;
+					}
+					else if(pass > maxExit) {
+						break;
+					}
+				}
+			}
+			finally {
+				exitPasses.close();
+				exitPasses = null;
+				if(!exitPath.delete()) {
+					exitPath.deleteOnExit();
+				}
+			}
+			File wdlPath = TablebaseFile.path(directory, material, width, height, "wdl");
+			wdlPath.delete();
+			TablebaseFile wdl = new TablebaseFile(wdlPath, true, TablebaseFile.HEADER_SIZE + (2 * size + 3) / 4);
+			try {
+				runPass(WDL_PASS, wdl);
+				wdl.writeHeader(width, height, pieces, longest);
+			}
+			finally {
+				wdl.close();
+			}
+			dtm.writeHeader(width, height, pieces, longest);
+			if(verbose) {
+				System.out.printf("%s: %d positions, longest mate %d plies, %d ms%n", material, 2 * size, longest,
+						(System.nanoTime() - start) / 1000000L);
+			}
+			return longest;
+		}
+
+		/**
+		 * Private helper for generate. Runs one pass over every position.
+		 * 
+		 * @param pass The pass (see the class comment).
+		 * @return How many positions the pass marked.
+		 * @throws IOException If a thread fails.
+		 */
+		private long runPass(int pass) throws IOException {
+			return runPass(pass, null);
+		}
+
+		/**
+		 * Private helper for generate. Runs one pass over every position, on
+		 * every thread, and waits for it to finish.
+		 * 
+		 * @param pass The pass (see the class comment).
+		 * @param wdl The win/draw/loss file, for WDL_PASS.
+		 * @return How many positions the pass marked.
+		 * @throws IOException If a thread fails.
+		 */
+		private long runPass(final int pass, final TablebaseFile wdl) throws IOException {
+			final long total = (pass == WDL_PASS)? (2 * size + 3) / 4 : 2 * size;
+			final AtomicLong next = new AtomicLong();
+			final AtomicLong marked = new AtomicLong();
+			final Throwable[] failure = new Throwable[1];
+			Thread[] workers = new Thread[threads];
+			for(int i = 0; i < threads; i++) {
+				final Worker worker = new Worker(this);
+				workers[i] = new Thread(new Runnable() {
+					@Override
+					public void run() {
+						try {
+							long count = 0;
+							for(long from = next.getAndAdd(CHUNK); from < total; from = next.getAndAdd(CHUNK)) {
+								long to = Math.min(from + CHUNK, total);
+								count += (pass == WDL_PASS)? worker.writeWdl(wdl, from, to) : worker.run(pass, from, to);
+							}
+							marked.addAndGet(count);
+						}
+						catch(Throwable t) {
+							synchronized(failure) {
+								failure[0] = t;
+							}
+						}
+					}
+				}, "Tablebase " + material + " " + i);
+				workers[i].start();
+			}
+			for(Thread worker : workers) {
+				try {
+					worker.join();
+				}
+				catch(InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IOException("Interrupted while generating " + material, e);
+				}
+			}
+			synchronized(failure) {
+				if(failure[0] != null) {
+					throw new IOException("Failed to generate " + material, failure[0]);
+				}
+			}
+			return marked.get();
+		}
+
+		/**
+		 * Closes the table and the smaller tables.
+		 * 
+		 * @throws IOException If a file cannot be closed.
+		 */
+		void close() throws IOException {
+			for(TablebaseFile file : files) {
+				file.close();
+			}
+			if(dtm != null) {
+				dtm.close();
+			}
+			if(exitPasses != null) {
+				exitPasses.close();
+			}
+		}
+	}
+
+	/**
+	 * Where a kind of capture or promotion leads: the smaller table, and
+	 * which piece of the bigger endgame goes in each of its slots.
+	 */
+	private static final class Exit {
+
+		private final TablebaseFile file;	// The smaller table.
+		private final long size;			// How many positions it has for each side to move.
+		private final int[] sourceOf;		// The piece of the bigger endgame in each slot.
+		private final boolean flipped;		// Whether colors are swapped and the board turned over.
+
+		/**
+		 * Constructor for where a move leads.
+		 * 
+		 * @param table The smaller table.
+		 * @param tableSize How many positions it has for each side to move.
+		 * @param sources The piece of the bigger endgame in each slot.
+		 * @param swapped Whether colors are swapped and the board turned over.
+		 */
+		Exit(TablebaseFile table, long tableSize, int[] sources, boolean swapped) {
+			file = table;
+			size = tableSize;
+			sourceOf = sources;
+			flipped = swapped;
+		}
+	}
+
+	/**
+	 * What each thread works with: the position being looked at, as the
+	 * square of each piece and the piece on each square.
+	 */
+	private final class Worker {
+
+		private final Table table;		// The table being generated.
+		private final int[] at;			// The square of each piece.
+		private final int[] board;		// The piece on each square, plus one (0 for none).
+		private int pass;				// The pass being run.
+		private boolean hasMove;		// Whether a legal move has been seen.
+		private boolean found;			// Whether the pass's condition has been settled.
+		private int exitWin;			// In EXIT_PASS, the lowest odd value an exit leads to (0 for none).
+		private int exitLoss;			// In EXIT_PASS, the highest even value an exit leads to (0 for none).
+		private boolean exitDraw;		// In EXIT_PASS, whether an exit leads to a draw.
+
+		/**
+		 * Constructor for a thread's working state.
+		 * 
+		 * @param generating The table being generated.
+		 */
+		Worker(Table generating) {
+			table = generating;
+			at = new int[generating.pieces];
+			board = new int[squares];
+		}
+
+		/**
+		 * Runs a pass over some positions.
+		 * 
+		 * @param passNumber The pass.
+		 * @param from The first position's offset.
+		 * @param to The offset after the last position.
+		 * @return How many positions were marked.
+		 */
+		long run(int passNumber, long from, long to) {
+			pass = passNumber;
+			TablebaseFile dtm = table.dtm;
+			long count = 0;
+			for(long offset = from; offset < to; offset++) {
+				int value = dtm.get(offset);
+				if(pass == ILLEGAL_PASS) {
+					if(!isLegal(offset)) {
+						dtm.put(offset, TablebaseFile.ILLEGAL);
+						count++;
+					}
+				}
+				else if(pass == 0) {
+					if(value == TablebaseFile.DRAW) {
+						if(check(offset)) {
+							count++;
+						}
+						else {
+							table.exitPasses.put(offset, exitPass(offset));
+						}
+					}
+				}
+				else if(value == pass) {
+					count += takeBack(offset);
+				}
+				else if(value == TablebaseFile.DRAW && table.exitPasses.get(offset) == pass && check(offset)) {
+					count++;
+				}
+			}
+			return count;
+		}
+
+		/**
+		 * Writes some bytes of the win/draw/loss file.
+		 * 
+		 * @param wdl The win/draw/loss file.
+		 * @param from The first byte.
+		 * @param to The byte after the last.
+		 * @return 0 (nothing is marked).
+		 */
+		long writeWdl(TablebaseFile wdl, long from, long to) {
+			long positions = 2 * table.size;
+			for(long b = from; b < to; b++) {
+				int packed = 0;
+				for(int i = 0; i < 4 && 4 * b + i < positions; i++) {
+					packed |= TablebaseFile.wdlOf(table.dtm.get(4 * b + i)) << (2 * i);
+				}
+				wdl.put(b, packed);
+			}
+			return 0;
+		}
+
+		/**
+		 * Private helper for run. Works out whether a position can come up.
+		 * 
+		 * @param offset The position's offset in the table.
+		 * @return True if it can.
+		 */
+		private boolean isLegal(long offset) {
+			int mover = (offset < table.size)? 0 : 1;
+			long index = offset - mover * table.size;
+			for(int k = table.pieces - 1; k >= 0; k--) {
+				at[k] = (int)(index % squares);
+				index /= squares;
+			}
+			boolean legal = true;
+			int placed = 0;
+			for(; placed < table.pieces && legal; placed++) {
+				int square = at[placed];
+				int rank = square / width;
+				if(board[square] != 0 || (table.types[placed] == PieceType.PAWN && (rank == 0 || rank == height - 1))) {
+					legal = false;
+					break;
+				}
+				board[square] = placed + 1;
+			}
+			if(legal) {
+				legal = !isAttacked(at[table.kings[1 - mover]], mover);
+			}
+			for(int k = 0; k < placed; k++) {
+				board[at[k]] = 0;
+			}
+			return legal;
+		}
+
+		/**
+		 * Private helper for run. Marks a position if the pass resolves it.
+		 * 
+		 * @param offset The position's offset in the table.
+		 * @return True if the position was marked.
+		 */
+		private boolean check(long offset) {
+			int mover = (offset < table.size)? 0 : 1;
+			long index = offset - mover * table.size;
+			place(index);
+			boolean resolves = resolves(mover, index);
+			unplace();
+			if(resolves) {
+				table.dtm.put(offset, pass + 1);
+			}
+			return resolves;
+		}
+
+		/**
+		 * Private helper for run. Works out the pass at which a position's
+		 * captures and promotions could settle it: the first one they win
+		 * in, or else, if none of them draws, the last one they lose in.
+		 * 
+		 * @param offset The position's offset in the table.
+		 * @return The pass, or 0 for none.
+		 */
+		private int exitPass(long offset) {
+			int mover = (offset < table.size)? 0 : 1;
+			long index = offset - mover * table.size;
+			exitWin = 0;
+			exitLoss = 0;
+			exitDraw = false;
+			pass = EXIT_PASS;
+			place(index);
+			resolves(mover, index);
+			unplace();
+			pass = 0;
+			if(exitWin != 0) {
+				return exitWin;
+			}
+			return exitDraw? 0 : exitLoss;
+		}
+
+		/**
+		 * Private helper for run. Takes back every move that could have led
+		 * to a position the pass before marked, and marks the positions
+		 * before those moves that the pass resolves. Captures and promotions
+		 * are not taken back, since they lead out of the table.
+		 * 
+		 * @param offset The marked position's offset in the table.
+		 * @return How many positions were marked.
+		 */
+		private long takeBack(long offset) {
+			int mover = (offset < table.size)? 0 : 1;
+			int moved = 1 - mover;
+			long index = offset - mover * table.size;
+			place(index);
+			long count = 0;
+			for(int k = 0; k < table.pieces; k++) {
+				if(table.colors[k] != moved) {
+					continue;
+				}
+				int x = at[k] % width;
+				int y = at[k] / width;
+				PieceType type = table.types[k];
+				if(type == PieceType.KING || type == PieceType.KNIGHT) {
+					int[][] steps = (type == PieceType.KING)? KING_STEPS : KNIGHT_JUMPS;
+					for(int i = 0; i < steps.length; i++) {
+						count += tryTakeBack(k, moved, index, x + steps[i][0], y + steps[i][1]);
+					}
+				}
+				else if(type == PieceType.PAWN) {
+					int forward = (moved == 0)? 1 : -1;
+					int start = (moved == 0)? 1 : height - 2;
+					count += tryTakeBack(k, moved, index, x, y - forward);
+					if(y - 2 * forward == start && board[(y - forward) * width + x] == 0) {
+						count += tryTakeBack(k, moved, index, x, start);
+					}
+				}
+				else {
+					if(type != PieceType.BISHOP) {
+						count += slideBack(k, moved, index, x, y, ROOK_RAYS);
+					}
+					if(type != PieceType.ROOK) {
+						count += slideBack(k, moved, index, x, y, BISHOP_RAYS);
+					}
+				}
+			}
+			unplace();
+			return count;
+		}
+
+		/**
+		 * Private helper for takeBack. Takes back the moves of a sliding
+		 * piece along some lines.
+		 * 
+		 * @param k The piece.
+		 * @param moved The side that moved it.
+		 * @param index The index of the position after the move.
+		 * @param x The piece's file.
+		 * @param y The piece's rank.
+		 * @param rays The directions of the lines.
+		 * @return How many positions were marked.
+		 */
+		private long slideBack(int k, int moved, long index, int x, int y, int[][] rays) {
+			long count = 0;
+			for(int i = 0; i < rays.length; i++) {
+				int fx = x + rays[i][0];
+				int fy = y + rays[i][1];
+				while(fx >= 0 && fx < width && fy >= 0 && fy < height && board[fy * width + fx] == 0) {
+					count += tryTakeBack(k, moved, index, fx, fy);
+					fx += rays[i][0];
+					fy += rays[i][1];
+				}
+			}
+			return count;
+		}
+
+		/**
+		 * Private helper for takeBack. Puts a piece back on an empty square
+		 * it could have moved from, and marks the position that gives if it
+		 * is still a draw and the pass resolves it.
+		 * 
+		 * @param k The piece.
+		 * @param moved The side that moved it.
+		 * @param index The index of the position after the move.
+		 * @param x The file it moved from.
+		 * @param y The rank it moved from.
+		 * @return 1 if the position was marked, otherwise 0.
+		 */
+		private long tryTakeBack(int k, int moved, long index, int x, int y) {
+			if(x < 0 || x >= width || y < 0 || y >= height) {
+				return 0;
+			}
+			int from = y * width + x;
+			if(board[from] != 0) {
+				return 0;
+			}
+			int to = at[k];
+			long parentIndex = index + (from - to) * table.power[k];
+			long parent = moved * table.size + parentIndex;
+			if(table.dtm.get(parent) != TablebaseFile.DRAW) {
+				return 0;
+			}
+			board[to] = 0;
+			board[from] = k + 1;
+			at[k] = from;
+			boolean resolves = resolves(moved, parentIndex);
+			at[k] = to;
+			board[from] = 0;
+			board[to] = k + 1;
+			if(resolves) {
+				table.dtm.put(parent, pass + 1);
+				return 1;
+			}
+			return 0;
+		}
+
+		/**
+		 * Private helper for run. Puts the pieces of a position on the board.
+		 * 
+		 * @param index The position's index (within its side to move's half).
+		 */
+		private void place(long index) {
+			for(int k = table.pieces - 1; k >= 0; k--) {
+				at[k] = (int)(index % squares);
+				index /= squares;
+				board[at[k]] = k + 1;
+			}
+		}
+
+		/**
+		 * Private helper for run. Takes the pieces off the board again.
+		 */
+		private void unplace() {
+			for(int k = 0; k < table.pieces; k++) {
+				board[at[k]] = 0;
+			}
+		}
+
+		/**
+		 * Private helper for run. Works out whether the pass marks a position
+		 * (see the class comment).
+		 * 
+		 * @param mover The side to move.
+		 * @param index The position's index.
+		 * @return True if the position is marked.
+		 */
+		private boolean resolves(int mover, long index) {
+			hasMove = false;
+			found = false;
+			for(int k = 0; k < table.pieces && !found; k++) {
+				if(table.colors[k] == mover) {
+					generateMoves(k, mover, index);
+				}
+			}
+			if(pass == 0) {
+				return !hasMove && isAttacked(at[table.kings[mover]], 1 - mover);
+			}
+			if(pass % 2 == 1) {
+				return found;
+			}
+			return hasMove && !found;
+		}
+
+		/**
+		 * Private helper for resolves. Looks at the value of every move of
+		 * a piece, stopping once the pass's condition is settled.
+		 * 
+		 * @param k The piece.
+		 * @param mover The side to move.
+		 * @param index The position's index.
+		 */
+		private void generateMoves(int k, int mover, long index) {
+			int x = at[k] % width;
+			int y = at[k] / width;
+			PieceType type = table.types[k];
+			if(type == PieceType.KING || type == PieceType.KNIGHT) {
+				int[][] steps = (type == PieceType.KING)? KING_STEPS : KNIGHT_JUMPS;
+				for(int i = 0; i < steps.length && !found; i++) {
+					tryMove(k, mover, index, x + steps[i][0], y + steps[i][1], false);
+				}
+			}
+			else if(type == PieceType.PAWN) {
+				int forward = (mover == 0)? 1 : -1;
+				int last = (mover == 0)? height - 1 : 0;
+				if(y + forward >= 0 && y + forward < height && board[at[k] + forward * width] == 0) {
+					tryMove(k, mover, index, x, y + forward, y + forward == last);
+					int start = (mover == 0)? 1 : height - 2;
+					int twice = y + 2 * forward;
+					if(!found && y == start && twice >= 0 && twice < height && twice != last && board[twice * width + x] == 0) {
+						tryMove(k, mover, index, x, twice, false);
+					}
+				}
+				for(int dx = -1; dx <= 1 && !found; dx += 2) {
+					int tx = x + dx;
+					int ty = y + forward;
+					if(tx >= 0 && tx < width && ty >= 0 && ty < height && board[ty * width + tx] != 0) {
+						tryMove(k, mover, index, tx, ty, ty == last);
+					}
+				}
+			}
+			else {
+				if(type != PieceType.BISHOP) {
+					slide(k, mover, index, x, y, ROOK_RAYS);
+				}
+				if(type != PieceType.ROOK) {
+					slide(k, mover, index, x, y, BISHOP_RAYS);
+				}
+			}
+		}
+
+		/**
+		 * Private helper for generateMoves. Looks at the moves of a sliding
+		 * piece along some lines.
+		 * 
+		 * @param k The piece.
+		 * @param mover The side to move.
+		 * @param index The position's index.
+		 * @param x The piece's file.
+		 * @param y The piece's rank.
+		 * @param rays The directions of the lines.
+		 */
+		private void slide(int k, int mover, long index, int x, int y, int[][] rays) {
+			for(int i = 0; i < rays.length && !found; i++) {
+				int tx = x + rays[i][0];
+				int ty = y + rays[i][1];
+				while(tx >= 0 && tx < width && ty >= 0 && ty < height && !found) {
+					tryMove(k, mover, index, tx, ty, false);
+					if(board[ty * width + tx] != 0) {
+						break;
+					}
+					tx += rays[i][0];
+					ty += rays[i][1];
+				}
+			}
+		}
+
+		/**
+		 * Private helper for generateMoves. Looks at the value of a move,
+		 * if it is on the board and not onto a piece of the mover's own.
+		 * 
+		 * @param k The piece moving.
+		 * @param mover The side to move.
+		 * @param index The position's index.
+		 * @param x The file moved to.
+		 * @param y The rank moved to.
+		 * @param promotes Whether the piece is a pawn reaching the last rank.
+		 */
+		private void tryMove(int k, int mover, long index, int x, int y, boolean promotes) {
+			if(x < 0 || x >= width || y < 0 || y >= height) {
+				return;
+			}
+			int to = y * width + x;
+			int captured = board[to] - 1;
+			if(captured >= 0 && table.colors[captured] == mover) {
+				return;
+			}
+			if(captured < 0 && !promotes) {
+				if(pass == EXIT_PASS) {
+					return;
+				}
+				long child = (1 - mover) * table.size + index + (to - at[k]) * table.power[k];
+				see(table.dtm.get(child));
+				return;
+			}
+			Exit[] exits = table.exits[captured + 1][promotes? k + 1 : 0];
+			int from = at[k];
+			at[k] = to;
+			for(int p = 0; p < (promotes? PROMOTIONS.length : 1) && !found; p++) {
+				Exit exit = exits[p];
+				long child = 0;
+				for(int slot = 0; slot < exit.sourceOf.length; slot++) {
+					int square = at[exit.sourceOf[slot]];
+					child = child * squares + (exit.flipped? flip(square) : square);
+				}
+				int side = (exit.flipped? mover : 1 - mover);
+				see(exit.file.get(side * exit.size + child));
+			}
+			at[k] = from;
+		}
+
+		/**
+		 * Private helper for tryMove. Takes in the value of the position a
+		 * move leads to.
+		 * 
+		 * @param value The position's distance-to-mate byte.
+		 */
+		private void see(int value) {
+			if(value == TablebaseFile.ILLEGAL) {
+				return;
+			}
+			hasMove = true;
+			if(pass == EXIT_PASS) {
+				if(value == TablebaseFile.DRAW) {
+					exitDraw = true;
+				}
+				else if(value % 2 == 1) {
+					exitWin = (exitWin == 0)? value : Math.min(exitWin, value);
+				}
+				else {
+					exitLoss = Math.max(exitLoss, value);
+				}
+			}
+			else if(pass == 0) {
+				found = true;
+			}
+			else if(pass % 2 == 1) {
+				found = (value == pass);
+			}
+			else {
+				// A draw, a loss or a slower win for the opponent saves the position.
+				found = (value == TablebaseFile.DRAW || value % 2 == 1 || value > pass);
+			}
+		}
+
+		/**
+		 * Private helper. Works out whether a side attacks a square.
+		 * 
+		 * @param square The square.
+		 * @param by The attacking side.
+		 * @return True if one of the side's pieces attacks it.
+		 */
+		private boolean isAttacked(int square, int by) {
+			int tx = square % width;
+			int ty = square / width;
+			for(int k = 0; k < table.pieces; k++) {
+				if(table.colors[k] != by) {
+					continue;
+				}
+				int x = at[k] % width;
+				int y = at[k] / width;
+				int dx = tx - x;
+				int dy = ty - y;
+				PieceType type = table.types[k];
+				if(type == PieceType.KING) {
+					if(Math.max(Math.abs(dx), Math.abs(dy)) == 1) {
+						return true;
+					}
+				}
+				else if(type == PieceType.KNIGHT) {
+					if(Math.abs(dx * dy) == 2) {
+						return true;
+					}
+				}
+				else if(type == PieceType.PAWN) {
+					if(Math.abs(dx) == 1 && dy == ((by == 0)? 1 : -1)) {
+						return true;
+					}
+				}
+				else {
+					boolean straight = (dx == 0) != (dy == 0);
+					boolean diagonal = dx != 0 && Math.abs(dx) == Math.abs(dy);
+					if((straight && type != PieceType.BISHOP) || (diagonal && type != PieceType.ROOK)) {
+						int sx = Integer.signum(dx);
+						int sy = Integer.signum(dy);
+						int cx = x + sx;
+						int cy = y + sy;
+						while((cx != tx || cy != ty) && board[cy * width + cx] == 0) {
+							cx += sx;
+							cy += sy;
+						}
+						if(cx == tx && cy == ty) {
+							return true;
+						}
+					}
+				}
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Generates the tables of some endgames.
+	 * Usage: TablebaseGenerator directory endgame... [-size WxH] [-threads N]
+	 * 
+	 * @param args Where to write the tables, the endgames (like "KQvK"),
+	 *        and optionally the board size (default 8x8) and the number of
+	 *        threads (default: one per core).
+	 * @throws IOException If a table cannot be written.
+	 */
+	public static void main(String[] args) throws IOException {
+		int boardWidth = 8;
+		int boardHeight = 8;
+		int threadCount = Runtime.getRuntime().availableProcessors();
+		ArrayList<String> endgames = new ArrayList<String>();
+		for(int i = 1; i < args.length; i++) {
+			if(args[i].equals("-size")) {
+				String[] size = args[++i].split("x");
+				boardWidth = Integer.parseInt(size[0]);
+				boardHeight = Integer.parseInt(size[1]);
+			}
+			else if(args[i].equals("-threads")) {
+				threadCount = Integer.parseInt(args[++i]);
+			}
+			else {
+				endgames.add(args[i]);
+			}
+		}
+		File tableDirectory = new File(args[0]);
+		tableDirectory.mkdirs();
+		TablebaseGenerator generator = new TablebaseGenerator(tableDirectory, boardWidth, boardHeight, threadCount);
+		generator.setVerbose(true);
+		for(String endgame : endgames) {
+			generator.generate(endgame);
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,401 @@
+package Game.Tablebase;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import Game.Bitboards;
+import Game.Board;
+import Game.Color;
+import Game.Piece;
+import Game.PieceType;
+/**
+ * Looks positions up in the tablebases (see TablebaseFile) in a
+ * directory, for one size of board. Each endgame's files are mapped into
+ * memory the first time a position of it is looked up, and stay mapped,
+ * so a lookup reads one byte straight out of the mapping without copying
+ * anything onto the heap. A prober can be shared by any number of
+ * threads (see Searcher.setTablebases). The endgames looked up so far are
+ * kept in a small open-addressed table keyed by their piece counts, which
+ * is read without locking or boxing the key; only loading a new endgame
+ * takes the lock.
+ * 
+ * Tables only cover positions where neither side can castle or take en
+ * passant; others are UNKNOWN, as are positions of endgames that have
+ * not been generated.
+ * 
+ * @author Priten Vora
+ *
+ */
+public class TablebaseProber {
+
+	public static final int WIN = 1;						// The side to move wins.
+	public static final int DRAW = 0;						// The position is drawn.
+	public static final int LOSS = -1;						// The side to move loses.
+	public static final int UNKNOWN = Integer.MIN_VALUE;	// The position is not in any table.
+	public static final int DTM_DRAW = Integer.MAX_VALUE;	// probeDtm's answer for a drawn position.
+
+	private static final int INITIAL_ENTRIES = 64;			// The starting size of the table of endgames.
+	private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;	// Spreads piece counts over the table.
+
+	private final File directory;		// Where the tables are.
+	private final int width;			// The board's width.
+	private final int height;			// The board's height.
+	private final int squares;			// How many squares the board has.
+	private final int maxPieces;		// The most pieces in any table in the directory.
+	private volatile Entry[] entries;	// The endgames looked up so far, open-addressed by piece counts.
+	private int loaded;					// How many endgames are in the table.
+
+	/**
+	 * Constructor for a prober of the tables in a directory.
+	 * 
+	 * @param tableDirectory Where the tables are.
+	 * @param boardWidth The width of the board the tables are for.
+	 * @param boardHeight The height of the board the tables are for.
+	 */
+	public TablebaseProber(File tableDirectory, int boardWidth, int boardHeight) {
+		directory = tableDirectory;
+		width = boardWidth;
+		height = boardHeight;
+		squares = boardWidth * boardHeight;
+		entries = new Entry[INITIAL_ENTRIES];
+		loaded = 0;
+		int most = 0;
+		String suffix = "." + boardWidth + "x" + boardHeight + ".dtm";
+		String[] names = tableDirectory.list();
+		if(names != null) {
+			for(String name : names) {
+				if(name.endsWith(suffix)) {
+					most = Math.max(most, name.length() - suffix.length() - 1);
+				}
+			}
+		}
+		maxPieces = most;
+	}
+
+	/**
+	 * Returns the most pieces a position can have and still be in one of
+	 * the tables.
+	 * 
+	 * @return The number of pieces in the biggest table (0 for no tables).
+	 */
+	public int getMaxPieces() {
+		return maxPieces;
+	}
+
+	/**
+	 * Looks up whether the side to move wins, draws or loses.
+	 * 
+	 * @param board The board.
+	 * @return WIN, DRAW, LOSS, or UNKNOWN if the position is not in a table.
+	 */
+	public int probeWdl(Board board) {
+		Entry entry = entryFor(board);
+		if(entry == null) {
+			return UNKNOWN;
+		}
+		long offset = offsetOf(board, entry);
+		int wdl;
+		if(entry.wdl != null) {
+			wdl = (entry.wdl.get(offset >>> 2) >>> (2 * (int)(offset & 3))) & 3;
+		}
+		else {
+			wdl = TablebaseFile.wdlOf(entry.dtm.get(offset));
+		}
+		switch(wdl) {
+		case TablebaseFile.WDL_WIN:
+			return WIN;
+		case TablebaseFile.WDL_LOSS:
+			return LOSS;
+		case TablebaseFile.WDL_DRAW:
+			return DRAW;
+		default:
+			return UNKNOWN;
+		}
+	}
+
+	/**
+	 * Looks up how many plies it takes to mate with best play. A win takes
+	 * an odd number of plies, and a loss an even number, so the sign alone
+	 * tells them apart.
+	 * 
+	 * @param board The board.
+	 * @return The plies to mate when the side to move wins, minus the plies
+	 *         to be mated when it loses (0 if it is checkmated), DTM_DRAW if
+	 *         the position is drawn, or UNKNOWN if it is not in a table.
+	 */
+	public int probeDtm(Board board) {
+		Entry entry = entryFor(board);
+		if(entry == null || entry.dtm == null) {
+			return UNKNOWN;
+		}
+		int value = entry.dtm.get(offsetOf(board, entry));
+		if(value == TablebaseFile.DRAW) {
+			return DTM_DRAW;
+		}
+		if(value == TablebaseFile.ILLEGAL) {
+			return UNKNOWN;
+		}
+		int plies = value - 1;
+		return (plies % 2 == 1)? plies : -plies;
+	}
+
+	/**
+	 * Unmaps every table. The prober can still be used; tables are mapped
+	 * again as they are needed.
+	 * 
+	 * @throws IOException If a file cannot be closed.
+	 */
+	public synchronized void close() throws IOException {
+		for(Entry entry : entries) {
+			if(entry != null && entry.dtm != null) {
+				entry.dtm.close();
+			}
+			if(entry != null && entry.wdl != null) {
+				entry.wdl.close();
+			}
+		}
+		entries = new Entry[INITIAL_ENTRIES];
+		loaded = 0;
+	}
+
+	/**
+	 * Private helper. Finds the table for the position on the board,
+	 * mapping it if this is the first time its endgame comes up.
+	 * 
+	 * @param board The board.
+	 * @return The table, or null if the position is not in one.
+	 */
+	private Entry entryFor(Board board) {
+		if(board.getWidth() != width || board.getHeight() != height || board.getCastlingRights() != 0
+				|| board.getEnPassantSquare() != Board.NO_SQUARE) {
+			return null;
+		}
+		ArrayList<Piece> pieces = board.getPieces();
+		if(pieces.size() > maxPieces) {
+			return null;
+		}
+		long counts = 0;
+		for(int i = 0; i < pieces.size(); i++) {
+			Piece piece = pieces.get(i);
+			counts += 1L << (4 * Bitboards.index(piece.getColor(), piece.getType()));
+		}
+		Entry entry = find(entries, counts);
+		if(entry == null) {
+			entry = load(counts);
+		}
+		return (entry.dtm == null && entry.wdl == null)? null : entry;
+	}
+
+	/**
+	 * Private helper. Looks an endgame up in a table of endgames, starting
+	 * at the slot its piece counts hash to and moving on a slot at a time
+	 * until it or an empty slot comes up.
+	 * 
+	 * @param table The table.
+	 * @param counts The endgame's piece counts.
+	 * @return The endgame's entry, or null if it is not in the table.
+	 */
+	private static Entry find(Entry[] table, long counts) {
+		int mask = table.length - 1;
+		for(int slot = slotOf(counts, mask); table[slot] != null; slot = (slot + 1) & mask) {
+			if(table[slot].counts == counts) {
+				return table[slot];
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Private helper. Works out the slot an endgame's piece counts hash to.
+	 * 
+	 * @param counts The piece counts.
+	 * @param mask The table's size minus one.
+	 * @return The slot.
+	 */
+	private static int slotOf(long counts, int mask) {
+		return (int)((counts * HASH_MULTIPLIER) >>> 32) & mask;
+	}
+
+	/**
+	 * Private helper for load. Puts an entry in a table of endgames that
+	 * has room for it.
+	 * 
+	 * @param table The table.
+	 * @param entry The entry.
+	 */
+	private static void insert(Entry[] table, Entry entry) {
+		int mask = table.length - 1;
+		int slot = slotOf(entry.counts, mask);
+		while(table[slot] != null) {
+			slot = (slot + 1) & mask;
+		}
+		table[slot] = entry;
+	}
+
+	/**
+	 * Private helper for entryFor. Maps the table of an endgame and adds
+	 * it to the table of endgames, which is copied into one twice the size
+	 * once it is half full. Threads looking endgames up at the same time
+	 * either see the new entry or come here and find it.
+	 * 
+	 * @param counts How many of each kind of piece there are, four bits for
+	 *        each (see Bitboards.index).
+	 * @return The table, or an entry with no files if there is none.
+	 */
+	private synchronized Entry load(long counts) {
+		Entry entry = find(entries, counts);
+		if(entry != null) {
+			return entry;
+		}
+		StringBuilder white = new StringBuilder();
+		StringBuilder black = new StringBuilder();
+		for(PieceType type : PieceType.values()) {
+			for(int i = (int)(counts >>> (4 * Bitboards.index(Color.WHITE, type))) & 0xF; i > 0; i--) {
+				white.append(type.getSymbol());
+			}
+			for(int i = (int)(counts >>> (4 * Bitboards.index(Color.BLACK, type))) & 0xF; i > 0; i--) {
+				black.append(type.getSymbol());
+			}
+		}
+		entry = new Entry(counts, null, null, false, 0, null, null);
+		try {
+			Material material = new Material(white + "v" + black);
+			boolean flipped = !material.isCanonical();
+			if(flipped) {
+				material = material.swapColors();
+			}
+			File dtmPath = TablebaseFile.path(directory, material, width, height, "dtm");
+			File wdlPath = TablebaseFile.path(directory, material, width, height, "wdl");
+			TablebaseFile dtm = open(dtmPath, material.size());
+			TablebaseFile wdl = open(wdlPath, material.size());
+			if(dtm != null || wdl != null) {
+				int[] firstSlot = new int[2 * PieceType.COUNT];
+				for(int slot = material.size() - 1; slot >= 0; slot--) {
+					firstSlot[Bitboards.index(material.getColor(slot), material.getType(slot))] = slot;
+				}
+				long[] weights = new long[material.size()];
+				long size = 1;
+				for(int slot = material.size() - 1; slot >= 0; slot--) {
+					weights[slot] = size;
+					size *= squares;
+				}
+				entry = new Entry(counts, dtm, wdl, flipped, size, firstSlot, weights);
+			}
+		}
+		catch(IllegalArgumentException e) {
+			entry = new Entry(counts, null, null, false, 0, null, null);
+		}
+		if(2 * (loaded + 1) > entries.length) {
+			Entry[] grown = new Entry[2 * entries.length];
+			for(Entry old : entries) {
+				if(old != null) {
+					insert(grown, old);
+				}
+			}
+			insert(grown, entry);
+			entries = grown;
+		}
+		else {
+			insert(entries, entry);
+		}
+		loaded++;
+		return entry;
+	}
+
+	/**
+	 * Private helper for load. Maps one of an endgame's files.
+	 * 
+	 * @param path The file.
+	 * @param pieces How many pieces the endgame has.
+	 * @return The mapped file, or null if it is not there or cannot be used.
+	 */
+	private TablebaseFile open(File path, int pieces) {
+		if(!path.isFile()) {
+			return null;
+		}
+		TablebaseFile file = null;
+		try {
+			file = new TablebaseFile(path, false, 0);
+			file.readHeader(width, height, pieces);
+			return file;
+		}
+		catch(IOException e) {
+			if(file != null) {
+				try {
+					file.close();
+				}
+				catch(IOException ignored) {
+				}
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Private helper. Works out where the position on the board is in its
+	 * endgame's table, in one pass over the pieces and without creating
+	 * anything, since the search probes on every move. Pieces of the same
+	 * kind take that kind's slots in turn, counted four bits per kind the
+	 * same way entryFor counts them.
+	 * 
+	 * @param board The board.
+	 * @param entry The endgame's table.
+	 * @return The position's offset in the table.
+	 */
+	private long offsetOf(Board board, Entry entry) {
+		ArrayList<Piece> pieces = board.getPieces();
+		long placed = 0;
+		long index = 0;
+		for(int i = 0; i < pieces.size(); i++) {
+			Piece piece = pieces.get(i);
+			Color color = entry.flipped? piece.getColor().other() : piece.getColor();
+			int square = board.squareOf(piece.getLocation());
+			if(entry.flipped) {
+				square = (height - 1 - square / width) * width + square % width;
+			}
+			int kind = Bitboards.index(color, piece.getType());
+			int slot = entry.firstSlot[kind] + (int)((placed >>> (4 * kind)) & 0xF);
+			placed += 1L << (4 * kind);
+			index += square * entry.weights[slot];
+		}
+		Color side = entry.flipped? board.getSideToMove().other() : board.getSideToMove();
+		return ((side == Color.WHITE)? 0 : entry.size) + index;
+	}
+
+	/**
+	 * The mapped files of an endgame. Every field is final, so an entry
+	 * can be read safely by a thread that finds it in the table of
+	 * endgames without locking.
+	 */
+	private static final class Entry {
+
+		private final long counts;			// How many of each kind of piece the endgame has.
+		private final TablebaseFile dtm;	// The distance-to-mate file (null if there is none).
+		private final TablebaseFile wdl;	// The win/draw/loss file (null if there is none).
+		private final boolean flipped;		// Whether the table is of the color-swapped endgame.
+		private final long size;			// How many positions there are for each side to move.
+		private final int[] firstSlot;		// The first slot of each kind of piece (see Bitboards.index).
+		private final long[] weights;		// How much the square in each slot counts toward the index.
+
+		/**
+		 * Constructor for an endgame's files.
+		 * 
+		 * @param pieceCounts How many of each kind of piece the endgame has.
+		 * @param dtmFile The distance-to-mate file (may be null).
+		 * @param wdlFile The win/draw/loss file (may be null).
+		 * @param swapped Whether the table is of the color-swapped endgame.
+		 * @param tableSize How many positions there are for each side to move.
+		 * @param slots The first slot of each kind of piece.
+		 * @param slotWeights How much the square in each slot counts toward the index.
+		 */
+		Entry(long pieceCounts, TablebaseFile dtmFile, TablebaseFile wdlFile, boolean swapped, long tableSize,
+				int[] slots, long[] slotWeights) {
+			counts = pieceCounts;
+			dtm = dtmFile;
+			wdl = wdlFile;
+			flipped = swapped;
+			size = tableSize;
+			firstSlot = slots;
+			weights = slotWeights;
+		}
+	}
+}
\ No newline at end of file
@@ -4,39 +4,36 @@ package Game;
  * open to become occupied, can be either black or white, and
  * has a defined position within a two-dimensional space for
  * which there is a name in defined, standard chess notation.
- * The tile also knows what piece is currently on it.
+ * The tile also knows what piece is currently on it. Its location,
+ * color and name all come from the shared Location for its square, so
+ * the piece on it is the only thing a tile holds of its own.
  * 
  * @author Priten Vora
  *
  */
 public class Tile {
 
-	private final Location location;	// Location of the tile on the board
-	private final Color color;			// Color of the tile (WHITE or BLACK)
-	private final String name;			// Name of the tile in chess notation
+	private final Location location;	// Location of the tile on the board (shared, see Location.of)
 	private Piece currentPiece;		// Which piece is currently on the tile
 
 	/**
 	 * Constructor for the tile. When created, each tile must be
 	 * given a location object signifying the location of the tile
-	 * on the board, a color (either WHITE or BLACK) signifying
-	 * the color of the tile, and a name corresponding to a tile
-	 * in proper chess notation, like "a6" or "h1".
+	 * on the board, which also gives the tile its color and its
+	 * name in proper chess notation, like "a6" or "h1".
 	 * 
 	 * @param tileLocation The location of the new tile on the board.
-	 * @param tileColor The color of the new tile (either WHITE or BLACK).
-	 * @param tileName The proper chess notation name of the new tile.
 	 */
-	public Tile(Location tileLocation, Color tileColor, String tileName) {
+	public Tile(Location tileLocation) {
 		location = tileLocation;
-		color = tileColor;
-		name = tileName;
 		currentPiece = null;
 	}
 
 	/**
 	 * Sets the tile to hold the given piece. The user must also set
-	 * the piece so that it knows that it is on this tile.
+	 * the piece so that it knows that it is on this tile. Pieces on a
+	 * board should be placed with Board.placePiece instead, so that the
+	 * board's bitboards are kept in sync with its tiles.
 	 * 
 	 * @param newPiece The piece that is now occupying the tile.
 	 */
@@ -69,7 +66,7 @@ public class Tile {
 	 * @return Either WHITE or BLACK.
 	 */
 	public Color getColor() {
-		return color;
+		return location.getColor();
 	}
 
 	/**
@@ -79,7 +76,7 @@ public class Tile {
 	 * @return The name of the tile in chess notation.
 	 */
 	public String getName() {
-		return name;
+		return location.toString();
 	}
 
 	/**
@@ -88,6 +85,6 @@ public class Tile {
 	 * @return True if the tile is occupied; false if it is not.
 	 */
 	public boolean isOccupied() {
-		return (currentPiece == null);
+		return (currentPiece != null);
 	}
 }
\ No newline at end of file
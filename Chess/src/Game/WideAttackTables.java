@@ -0,0 +1,303 @@
+package Game;
+/**
+ * Precomputed attacks for boards too big for AttackTables and
+ * SlidingAttacks, as sets of squares in the layout of WideBitboards. The
+ * knight, king and pawn get the squares they attack from each square.
+ * Sliding pieces get a ray in each of the eight directions from each
+ * square instead of magic tables, which would not fit: the first piece
+ * along a ray is found by masking the ray with the occupied squares and
+ * scanning for the nearest set bit, one word at a time, so the cost grows
+ * with the number of words (at most four) rather than with the length of
+ * the ray. Tables are built once per board size and then shared by every
+ * board of that size.
+ * 
+ * @author Priten Vora
+ *
+ */
+public class WideAttackTables {
+
+	public static final int DIRECTIONS = 8;		// How many directions pieces slide in.
+
+	private static final int[][] DIRECTION_STEPS =		// The directions a piece slides in: the first four
+			{{0, 1}, {1, 0}, {1, 1}, {-1, 1},			// go up the square numbers, the last four down.
+			 {0, -1}, {-1, 0}, {-1, -1}, {1, -1}};
+	private static final int[][] KNIGHT_STEPS =			// Offsets a knight can leap by.
+			{{2, 1}, {1, 2}, {2, -1}, {1, -2}, {-2, 1}, {-1, 2}, {-2, -1}, {-1, -2}};
+	private static final int[][] WHITE_PAWN_ATTACKS = {{1, 1}, {-1, 1}};	// Offsets a white pawn captures by.
+	private static final int[][] BLACK_PAWN_ATTACKS = {{1, -1}, {-1, -1}};	// Offsets a black pawn captures by.
+
+	private static final WideAttackTables[][] cache =	// Tables already built, by width and height.
+			new WideAttackTables[Move.MAX_SQUARES + 1][];
+
+	private final int width;			// The width of the boards these tables are for.
+	private final int height;			// The height of the boards these tables are for.
+	private final int squares;			// How many squares those boards have.
+	private final int words;			// How many longs each set of squares takes.
+	private final int[] steps;			// How far apart neighbouring squares are in each direction.
+	private final long[] knight;		// Squares attacked by a knight on each square.
+	private final long[] king;			// Squares attacked by a king on each square.
+	private final long[][] pawnAttacks;	// Squares attacked by a pawn of each color on each square.
+	private final long[] rays;			// Squares along each direction from each square, not counting it.
+	private final byte[] rayLengths;	// How many squares there are along each direction from each square.
+
+	/**
+	 * Returns the attack tables for boards of the given size, building
+	 * them the first time they are asked for.
+	 * 
+	 * @param width The width of the board in number of tiles.
+	 * @param height The height of the board in number of tiles.
+	 * @return The attack tables for that board size.
+	 */
+	public static synchronized WideAttackTables forSize(int width, int height) {
+		if(width * height > WideBitboards.MAX_SQUARES) {
+			throw new IllegalArgumentException("Attack tables need a board of at most " + WideBitboards.MAX_SQUARES + " squares");
+		}
+		if(cache[width] == null) {
+			cache[width] = new WideAttackTables[Move.MAX_SQUARES + 1];
+		}
+		WideAttackTables tables = cache[width][height];
+		if(tables == null) {
+			tables = new WideAttackTables(width, height);
+			cache[width][height] = tables;
+		}
+		return tables;
+	}
+
+	/**
+	 * Private constructor - use forSize. Fills in every table for a
+	 * board of the given size.
+	 * 
+	 * @param boardWidth The width of the board in number of tiles.
+	 * @param boardHeight The height of the board in number of tiles.
+	 */
+	private WideAttackTables(int boardWidth, int boardHeight) {
+		width = boardWidth;
+		height = boardHeight;
+		squares = width * height;
+		words = (squares + 63) >>> 6;
+		steps = new int[DIRECTIONS];
+		knight = new long[squares * words];
+		king = new long[squares * words];
+		pawnAttacks = new long[2][squares * words];
+		rays = new long[DIRECTIONS * squares * words];
+		rayLengths = new byte[DIRECTIONS * squares];
+		for(int direction = 0; direction < DIRECTIONS; direction++) {
+			steps[direction] = DIRECTION_STEPS[direction][1] * width + DIRECTION_STEPS[direction][0];
+		}
+		for(int y = 0; y < height; y++) {
+			for(int x = 0; x < width; x++) {
+				int square = y * width + x;
+				setBits(knight, square, x, y, KNIGHT_STEPS);
+				setBits(king, square, x, y, DIRECTION_STEPS);
+				setBits(pawnAttacks[Color.WHITE.ordinal()], square, x, y, WHITE_PAWN_ATTACKS);
+				setBits(pawnAttacks[Color.BLACK.ordinal()], square, x, y, BLACK_PAWN_ATTACKS);
+				for(int direction = 0; direction < DIRECTIONS; direction++) {
+					int length = 0;
+					int toX = x + DIRECTION_STEPS[direction][0];
+					int toY = y + DIRECTION_STEPS[direction][1];
+					while(toX >= 0 && toX < width && toY >= 0 && toY < height) {
+						int to = toY * width + toX;
+						rays[(direction * squares + square) * words + (to >>> 6)] |= 1L << to;
+						length++;
+						toX += DIRECTION_STEPS[direction][0];
+						toY += DIRECTION_STEPS[direction][1];
+					}
+					rayLengths[direction * squares + square] = (byte)length;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Private helper for the constructor. Adds every square that is one of
+	 * the given steps away from (x, y) and still on the board to a square's
+	 * set in a table.
+	 * 
+	 * @param table The table.
+	 * @param square The square whose set it is.
+	 * @param x The horizontal coordinate of the square.
+	 * @param y The vertical coordinate of the square.
+	 * @param offsets The horizontal and vertical offsets to try.
+	 */
+	private void setBits(long[] table, int square, int x, int y, int[][] offsets) {
+		for(int[] offset : offsets) {
+			int toX = x + offset[0];
+			int toY = y + offset[1];
+			if(toX >= 0 && toX < width && toY >= 0 && toY < height) {
+				int to = toY * width + toX;
+				table[square * words + (to >>> 6)] |= 1L << to;
+			}
+		}
+	}
+
+	/**
+	 * Returns how many longs each set of squares takes.
+	 * 
+	 * @return The number of words in a set.
+	 */
+	public int words() {
+		return words;
+	}
+
+	/**
+	 * Returns one word of the squares attacked by a knight on the given square.
+	 * 
+	 * @param square The square the knight is on.
+	 * @param word Which word of the set.
+	 * @return The attacked squares, within the word.
+	 */
+	public long knight(int square, int word) {
+		return knight[square * words + word];
+	}
+
+	/**
+	 * Returns one word of the squares attacked by a king on the given square.
+	 * 
+	 * @param square The square the king is on.
+	 * @param word Which word of the set.
+	 * @return The attacked squares, within the word.
+	 */
+	public long king(int square, int word) {
+		return king[square * words + word];
+	}
+
+	/**
+	 * Returns one word of the squares attacked (diagonally forward) by a
+	 * pawn of the given color on the given square.
+	 * 
+	 * @param color The color of the pawn.
+	 * @param square The square the pawn is on.
+	 * @param word Which word of the set.
+	 * @return The attacked squares, within the word.
+	 */
+	public long pawnAttacks(Color color, int square, int word) {
+		return pawnAttacks[color.ordinal()][square * words + word];
+	}
+
+	/**
+	 * Works out the squares a piece attacks: for a sliding piece, every
+	 * square along its directions up to and including the first occupied one.
+	 * 
+	 * @param piece The piece's index (see Bitboards.index).
+	 * @param square The square it is on.
+	 * @param occupied The occupied squares.
+	 * @param attacks Where to put the attacked squares (words() longs).
+	 */
+	public void attacks(int piece, int square, long[] occupied, long[] attacks) {
+		PieceType type = Bitboards.typeOf(piece);
+		for(int word = 0; word < words; word++) {
+			switch(type) {
+				case PAWN:
+					attacks[word] = pawnAttacks(Bitboards.colorOf(piece), square, word);
+					break;
+				case KNIGHT:
+					attacks[word] = knight(square, word);
+					break;
+				case KING:
+					attacks[word] = king(square, word);
+					break;
+				default:
+					attacks[word] = 0L;
+					break;
+			}
+		}
+		if(type == PieceType.BISHOP || type == PieceType.ROOK || type == PieceType.QUEEN) {
+			for(int direction = 0; direction < DIRECTIONS; direction++) {
+				if(type != PieceType.QUEEN && isDiagonal(direction) != (type == PieceType.BISHOP)) {
+					continue;
+				}
+				int ray = (direction * squares + square) * words;
+				int blocker = firstBlocker(direction, square, occupied);
+				int beyond = (blocker == Board.NO_SQUARE)? -1 : (direction * squares + blocker) * words;
+				for(int word = 0; word < words; word++) {
+					attacks[word] |= rays[ray + word] & ((beyond < 0)? -1L : ~rays[beyond + word]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns whether or not a direction is diagonal.
+	 * 
+	 * @param direction The direction (from 0 to DIRECTIONS - 1).
+	 * @return True for a bishop's direction; false for a rook's.
+	 */
+	public static boolean isDiagonal(int direction) {
+		return (direction & 2) != 0;
+	}
+
+	/**
+	 * Returns how far apart neighbouring squares are in a direction.
+	 * 
+	 * @param direction The direction.
+	 * @return The difference between the square numbers.
+	 */
+	public int step(int direction) {
+		return steps[direction];
+	}
+
+	/**
+	 * Returns how many squares there are in a direction from a square
+	 * before the edge of the board.
+	 * 
+	 * @param direction The direction.
+	 * @param square The square.
+	 * @return The number of squares along the ray.
+	 */
+	public int rayLength(int direction, int square) {
+		return rayLengths[direction * squares + square];
+	}
+
+	/**
+	 * Returns the direction that leads from one square to another.
+	 * 
+	 * @param from The first square.
+	 * @param to The second square.
+	 * @return The direction, or -1 if the squares are the same or not on
+	 *         one rank, file or diagonal.
+	 */
+	public int direction(int from, int to) {
+		int dx = to % width - from % width;
+		int dy = to / width - from / width;
+		if((dx == 0 && dy == 0) || (dx != 0 && dy != 0 && dx != dy && dx != -dy)) {
+			return -1;
+		}
+		int stepX = Integer.signum(dx);
+		int stepY = Integer.signum(dy);
+		for(int direction = 0; direction < DIRECTIONS; direction++) {
+			if(DIRECTION_STEPS[direction][0] == stepX && DIRECTION_STEPS[direction][1] == stepY) {
+				return direction;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Finds the first occupied square in a direction from a square.
+	 * 
+	 * @param direction The direction.
+	 * @param square The square to look from.
+	 * @param occupied The occupied squares (as in WideBitboards).
+	 * @return The nearest occupied square along the ray, or Board.NO_SQUARE if there is none.
+	 */
+	public int firstBlocker(int direction, int square, long[] occupied) {
+		int ray = (direction * squares + square) * words;
+		if(direction < DIRECTIONS / 2) {
+			for(int word = 0; word < words; word++) {
+				long blockers = rays[ray + word] & occupied[word];
+				if(blockers != 0) {
+					return (word << 6) + Long.numberOfTrailingZeros(blockers);
+				}
+			}
+		}
+		else {
+			for(int word = words - 1; word >= 0; word--) {
+				long blockers = rays[ray + word] & occupied[word];
+				if(blockers != 0) {
+					return (word << 6) + 63 - Long.numberOfLeadingZeros(blockers);
+				}
+			}
+		}
+		return Board.NO_SQUARE;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,218 @@
+package Game;
+/**
+ * The packed representation of a position (see Bitboards) for boards too
+ * big for a single long: every set of squares is a row of longs, with
+ * square i at bit i % 64 of word i / 64. A board can have at most
+ * Move.MAX_SQUARES squares, so a set is never more than four words. As
+ * with Bitboards, each combination of piece color and piece type gets a
+ * set, occupancy sets are kept for each color and the whole board, and a
+ * mailbox answers "what is on this square" directly.
+ * 
+ * @author Priten Vora
+ *
+ */
+public class WideBitboards {
+
+	public static final int MAX_SQUARES = Move.MAX_SQUARES;	// The most squares a board can have.
+
+	private final int words;		// How many longs each set of squares takes.
+	private final long[] pieces;	// One set per color and piece type (see Bitboards.index), one after another.
+	private final long[] colors;	// One occupancy set per color, one after another.
+	private final long[] occupied;	// Every occupied square on the board.
+	private final long[] scratch;	// Room for a changed copy of the occupied squares (see copyOccupied).
+	private final int[] mailbox;	// The piece index standing on each square, or Bitboards.NONE.
+
+	/**
+	 * Constructor for the bitboards. Readies an empty position for a
+	 * board with the given number of squares.
+	 * 
+	 * @param squares The number of squares on the board (at most MAX_SQUARES).
+	 */
+	public WideBitboards(int squares) {
+		if(squares > MAX_SQUARES) {
+			throw new IllegalArgumentException("Bitboards can only hold " + MAX_SQUARES + " squares, not " + squares);
+		}
+		words = (squares + 63) >>> 6;
+		pieces = new long[2 * PieceType.COUNT * words];
+		colors = new long[2 * words];
+		occupied = new long[words];
+		scratch = new long[words];
+		mailbox = new int[squares];
+		clear();
+	}
+
+	/**
+	 * Returns how many longs each set of squares takes.
+	 * 
+	 * @return The number of words in a set.
+	 */
+	public int words() {
+		return words;
+	}
+
+	/**
+	 * Removes every piece from the position.
+	 */
+	public void clear() {
+		for(int i = 0; i < pieces.length; i++) {
+			pieces[i] = 0L;
+		}
+		for(int i = 0; i < colors.length; i++) {
+			colors[i] = 0L;
+		}
+		for(int i = 0; i < words; i++) {
+			occupied[i] = 0L;
+		}
+		for(int i = 0; i < mailbox.length; i++) {
+			mailbox[i] = Bitboards.NONE;
+		}
+	}
+
+	/**
+	 * Puts a piece on an empty square.
+	 * 
+	 * @param piece The index of the piece being placed.
+	 * @param square The square the piece is placed on.
+	 */
+	public void add(int piece, int square) {
+		int word = square >>> 6;
+		long bit = 1L << square;
+		pieces[piece * words + word] |= bit;
+		colors[(piece / PieceType.COUNT) * words + word] |= bit;
+		occupied[word] |= bit;
+		mailbox[square] = piece;
+	}
+
+	/**
+	 * Takes a piece off of the square it is standing on.
+	 * 
+	 * @param piece The index of the piece being removed.
+	 * @param square The square the piece is standing on.
+	 */
+	public void remove(int piece, int square) {
+		int word = square >>> 6;
+		long bit = ~(1L << square);
+		pieces[piece * words + word] &= bit;
+		colors[(piece / PieceType.COUNT) * words + word] &= bit;
+		occupied[word] &= bit;
+		mailbox[square] = Bitboards.NONE;
+	}
+
+	/**
+	 * Moves a piece from one square to another, empty square.
+	 * 
+	 * @param piece The index of the piece being moved.
+	 * @param from The square the piece is standing on.
+	 * @param to The empty square the piece moves to.
+	 */
+	public void move(int piece, int from, int to) {
+		remove(piece, from);
+		add(piece, to);
+	}
+
+	/**
+	 * Returns one word of the set of every piece with the given index.
+	 * 
+	 * @param piece The index of the piece.
+	 * @param word Which word of the set.
+	 * @return The squares holding that kind of piece, within the word.
+	 */
+	public long pieces(int piece, int word) {
+		return pieces[piece * words + word];
+	}
+
+	/**
+	 * Returns one word of the set of every piece of the given color.
+	 * 
+	 * @param color The color of the pieces.
+	 * @param word Which word of the set.
+	 * @return The squares holding pieces of that color, within the word.
+	 */
+	public long occupancy(Color color, int word) {
+		return colors[color.ordinal() * words + word];
+	}
+
+	/**
+	 * Returns one word of the set of every occupied square.
+	 * 
+	 * @param word Which word of the set.
+	 * @return The squares holding any piece, within the word.
+	 */
+	public long occupied(int word) {
+		return occupied[word];
+	}
+
+	/**
+	 * Returns the set of every occupied square. Callers must not modify
+	 * it; use copyOccupied for a set to change.
+	 * 
+	 * @return The squares holding any piece.
+	 */
+	public long[] occupied() {
+		return occupied;
+	}
+
+	/**
+	 * Copies the set of occupied squares into scratch space, for working
+	 * out what a move would do without making it. The same array is
+	 * handed out every time, so only one copy can be in use at once.
+	 * 
+	 * @return The copy.
+	 */
+	public long[] copyOccupied() {
+		for(int i = 0; i < words; i++) {
+			scratch[i] = occupied[i];
+		}
+		return scratch;
+	}
+
+	/**
+	 * Returns how many pieces with the given index there are.
+	 * 
+	 * @param piece The index of the piece.
+	 * @return The number of such pieces on the board.
+	 */
+	public int count(int piece) {
+		int count = 0;
+		for(int i = piece * words; i < (piece + 1) * words; i++) {
+			count += Long.bitCount(pieces[i]);
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the square of the first piece with the given index.
+	 * 
+	 * @param piece The index of the piece.
+	 * @return The lowest square holding such a piece, or Board.NO_SQUARE if there is none.
+	 */
+	public int first(int piece) {
+		for(int word = 0; word < words; word++) {
+			long bits = pieces[piece * words + word];
+			if(bits != 0) {
+				return (word << 6) + Long.numberOfTrailingZeros(bits);
+			}
+		}
+		return Board.NO_SQUARE;
+	}
+
+	/**
+	 * Returns the index of the piece on the given square.
+	 * 
+	 * @param square The square to look at.
+	 * @return The index of the piece on the square, or Bitboards.NONE if it is empty.
+	 */
+	public int pieceAt(int square) {
+		return mailbox[square];
+	}
+
+	/**
+	 * Returns whether or not the given square has a piece on it.
+	 * 
+	 * @param square The square to look at.
+	 * @return True if the square is occupied; false otherwise.
+	 */
+	public boolean isOccupied(int square) {
+		return (occupied[square >>> 6] & (1L << square)) != 0;
+	}
+}
\ No newline at end of file
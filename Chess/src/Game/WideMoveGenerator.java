@@ -0,0 +1,358 @@
+package Game;
+/**
+ * The move generator (see MoveGenerator) for boards too big for a single
+ * long, working from the board's WideBitboards and WideAttackTables.
+ * Moves are generated pseudo-legally and then filtered: a move can only
+ * expose its own king if the king is in check, the king itself moves,
+ * the piece leaves a line through the king or it is an en passant
+ * capture, and only those are tried out, on a copy of the occupied
+ * squares rather than on the board. Like MoveGenerator, a full pass
+ * creates no objects.
+ * 
+ * @author Priten Vora
+ *
+ */
+final class WideMoveGenerator {
+
+	/**
+	 * Private constructor - this class only holds static helpers.
+	 */
+	private WideMoveGenerator() {
+	}
+
+	/**
+	 * Adds every legal move for the side to move to the list.
+	 * 
+	 * @param board The board to generate moves for (must have wide bitboards).
+	 * @param moves The list to add the moves to.
+	 * @param capturesOnly True to only add captures and promotions.
+	 */
+	static void generateLegal(Board board, MoveList moves, boolean capturesOnly) {
+		int start = moves.size();
+		generatePseudoLegal(board, moves, capturesOnly);
+		boolean inCheck = board.isInCheck();
+		int kept = start;
+		for(int i = start; i < moves.size(); i++) {
+			int move = moves.get(i);
+			if(isLegal(board, move, inCheck)) {
+				moves.set(kept++, move);
+			}
+		}
+		moves.truncate(kept);
+	}
+
+	/**
+	 * Adds every pseudo-legal move for the side to move to the list.
+	 * 
+	 * @param board The board to generate moves for (must have wide bitboards).
+	 * @param moves The list to add the moves to.
+	 * @param capturesOnly True to only add captures and promotions.
+	 */
+	static void generatePseudoLegal(Board board, MoveList moves, boolean capturesOnly) {
+		WideBitboards bitboards = board.getWideBitboards();
+		WideAttackTables tables = board.getWideAttackTables();
+		Color us = board.getSideToMove();
+		for(int word = 0; word < bitboards.words(); word++) {
+			for(long own = bitboards.occupancy(us, word); own != 0; own &= own - 1) {
+				int from = (word << 6) + Long.numberOfTrailingZeros(own);
+				switch(Bitboards.typeOf(bitboards.pieceAt(from))) {
+					case PAWN:
+						generatePawnMoves(board, moves, from, capturesOnly);
+						break;
+					case KNIGHT:
+						generateLeaps(board, moves, from, false, capturesOnly);
+						break;
+					case BISHOP:
+						generateSlides(board, moves, from, true, false, capturesOnly);
+						break;
+					case ROOK:
+						generateSlides(board, moves, from, false, true, capturesOnly);
+						break;
+					case QUEEN:
+						generateSlides(board, moves, from, true, true, capturesOnly);
+						break;
+					default:
+						generateLeaps(board, moves, from, true, capturesOnly);
+						break;
+				}
+			}
+		}
+
+		// Take en passant onto the square a pawn just skipped over.
+		int enPassant = board.getEnPassantSquare();
+		if(enPassant != Board.NO_SQUARE) {
+			int pawn = Bitboards.index(us, PieceType.PAWN);
+			for(int word = 0; word < tables.words(); word++) {
+				long attackers = tables.pawnAttacks(us.other(), enPassant, word) & bitboards.pieces(pawn, word);
+				for(; attackers != 0; attackers &= attackers - 1) {
+					moves.add(Move.of((word << 6) + Long.numberOfTrailingZeros(attackers), enPassant, Move.EN_PASSANT));
+				}
+			}
+		}
+		if(!capturesOnly) {
+			generateCastling(board, moves, us);
+		}
+	}
+
+	/**
+	 * Private helper for generatePseudoLegal. Adds the advances, double
+	 * advances, captures and promotions of a pawn.
+	 * 
+	 * @param board The board to generate moves for.
+	 * @param moves The list to add the moves to.
+	 * @param from The square of the pawn.
+	 * @param capturesOnly True to only add captures and promotions.
+	 */
+	private static void generatePawnMoves(Board board, MoveList moves, int from, boolean capturesOnly) {
+		WideBitboards bitboards = board.getWideBitboards();
+		WideAttackTables tables = board.getWideAttackTables();
+		Color us = board.getSideToMove();
+		int width = board.getWidth();
+		int squares = width * board.getHeight();
+		int forward = (us == Color.WHITE)? width : -width;
+		int startRank = (us == Color.WHITE)? 1 : board.getHeight() - 2;
+		int lastRank = (us == Color.WHITE)? board.getHeight() - 1 : 0;
+
+		// Advance one square, and two squares from the starting rank.
+		int to = from + forward;
+		if(to >= 0 && to < squares && bitboards.pieceAt(to) == Bitboards.NONE) {
+			boolean promotes = (to / width == lastRank);
+			if(promotes || !capturesOnly) {
+				MoveGenerator.addPawnMove(moves, from, to, 0, promotes);
+			}
+			int twoAhead = to + forward;
+			if(from / width == startRank && !capturesOnly && twoAhead >= 0 && twoAhead < squares
+					&& bitboards.pieceAt(twoAhead) == Bitboards.NONE) {
+				moves.add(Move.of(from, twoAhead, Move.DOUBLE_PUSH));
+			}
+		}
+
+		// Capture diagonally forward.
+		for(int word = 0; word < bitboards.words(); word++) {
+			long captures = tables.pawnAttacks(us, from, word) & bitboards.occupancy(us.other(), word);
+			for(; captures != 0; captures &= captures - 1) {
+				to = (word << 6) + Long.numberOfTrailingZeros(captures);
+				MoveGenerator.addPawnMove(moves, from, to, Move.CAPTURE, to / width == lastRank);
+			}
+		}
+	}
+
+	/**
+	 * Private helper for generatePseudoLegal. Adds the moves of a knight
+	 * or a king (but not castling).
+	 * 
+	 * @param board The board to generate moves for.
+	 * @param moves The list to add the moves to.
+	 * @param from The square of the piece.
+	 * @param king True for a king; false for a knight.
+	 * @param capturesOnly True to only add captures.
+	 */
+	private static void generateLeaps(Board board, MoveList moves, int from, boolean king, boolean capturesOnly) {
+		WideBitboards bitboards = board.getWideBitboards();
+		WideAttackTables tables = board.getWideAttackTables();
+		Color us = board.getSideToMove();
+		for(int word = 0; word < bitboards.words(); word++) {
+			long enemy = bitboards.occupancy(us.other(), word);
+			long targets = (king? tables.king(from, word) : tables.knight(from, word))
+					& (capturesOnly? enemy : ~bitboards.occupancy(us, word));
+			for(; targets != 0; targets &= targets - 1) {
+				long bit = targets & -targets;
+				moves.add(Move.of(from, (word << 6) + Long.numberOfTrailingZeros(bit), ((enemy & bit) != 0)? Move.CAPTURE : 0));
+			}
+		}
+	}
+
+	/**
+	 * Private helper for generatePseudoLegal. Adds the moves of a sliding
+	 * piece, walking out along each of its directions up to the first
+	 * piece in the way.
+	 * 
+	 * @param board The board to generate moves for.
+	 * @param moves The list to add the moves to.
+	 * @param from The square of the piece.
+	 * @param diagonal True if the piece slides diagonally.
+	 * @param straight True if the piece slides along ranks and files.
+	 * @param capturesOnly True to only add captures.
+	 */
+	private static void generateSlides(Board board, MoveList moves, int from, boolean diagonal, boolean straight,
+			boolean capturesOnly) {
+		WideBitboards bitboards = board.getWideBitboards();
+		WideAttackTables tables = board.getWideAttackTables();
+		Color us = board.getSideToMove();
+		for(int direction = 0; direction < WideAttackTables.DIRECTIONS; direction++) {
+			if(!(WideAttackTables.isDiagonal(direction)? diagonal : straight)) {
+				continue;
+			}
+			int step = tables.step(direction);
+			int to = from;
+			for(int i = tables.rayLength(direction, from); i > 0; i--) {
+				to += step;
+				int piece = bitboards.pieceAt(to);
+				if(piece == Bitboards.NONE) {
+					if(!capturesOnly) {
+						moves.add(Move.of(from, to, 0));
+					}
+					continue;
+				}
+				if(Bitboards.colorOf(piece) != us) {
+					moves.add(Move.of(from, to, Move.CAPTURE));
+				}
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Private helper for generatePseudoLegal. Adds the castling moves of
+	 * the given color, under the same rules as MoveGenerator (the moves
+	 * added are already legal).
+	 * 
+	 * @param board The board to generate moves for.
+	 * @param moves The list to add the moves to.
+	 * @param us The color that is castling.
+	 */
+	private static void generateCastling(Board board, MoveList moves, Color us) {
+		int rights = board.getCastlingRights();
+		int kingside = (us == Color.WHITE)? Board.CASTLE_WHITE_KINGSIDE : Board.CASTLE_BLACK_KINGSIDE;
+		int queenside = (us == Color.WHITE)? Board.CASTLE_WHITE_QUEENSIDE : Board.CASTLE_BLACK_QUEENSIDE;
+		if((rights & (kingside | queenside)) == 0) {
+			return;
+		}
+		WideBitboards bitboards = board.getWideBitboards();
+		int width = board.getWidth();
+		int rank = (us == Color.WHITE)? 0 : (board.getHeight() - 1) * width;
+		int king = rank + width / 2;
+		int rook = Bitboards.index(us, PieceType.ROOK);
+		Color them = us.other();
+		if(bitboards.pieceAt(king) != Bitboards.index(us, PieceType.KING) || isAttacked(board, king, them)) {
+			return;
+		}
+
+		// Castle toward the right-hand rook.
+		int corner = rank + width - 1;
+		if((rights & kingside) != 0 && king + 2 < corner && bitboards.pieceAt(corner) == rook
+				&& isEmpty(bitboards, king + 1, corner) && !isAttacked(board, king + 1, them)
+				&& !isAttacked(board, king + 2, them)) {
+			moves.add(Move.of(king, king + 2, Move.CASTLE));
+		}
+
+		// Castle toward the left-hand rook.
+		corner = rank;
+		if((rights & queenside) != 0 && king - 2 > corner && bitboards.pieceAt(corner) == rook
+				&& isEmpty(bitboards, corner + 1, king) && !isAttacked(board, king - 1, them)
+				&& !isAttacked(board, king - 2, them)) {
+			moves.add(Move.of(king, king - 2, Move.CASTLE));
+		}
+	}
+
+	/**
+	 * Private helper for generateCastling. Returns whether or not a run
+	 * of squares is empty.
+	 * 
+	 * @param bitboards The position.
+	 * @param first The first square of the run.
+	 * @param end The square just past the run.
+	 * @return True if no square from first up to end holds a piece.
+	 */
+	private static boolean isEmpty(WideBitboards bitboards, int first, int end) {
+		for(int square = first; square < end; square++) {
+			if(bitboards.pieceAt(square) != Bitboards.NONE) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns whether or not a pseudo-legal move for the side to move
+	 * keeps that side's king safe.
+	 * 
+	 * @param board The board the move is played on (must have wide bitboards).
+	 * @param move The packed pseudo-legal move.
+	 * @param inCheck Whether the side to move is in check.
+	 * @return True if the move does not leave the mover's king attacked.
+	 */
+	static boolean isLegal(Board board, int move, boolean inCheck) {
+		WideBitboards bitboards = board.getWideBitboards();
+		Color us = board.getSideToMove();
+		int king = bitboards.first(Bitboards.index(us, PieceType.KING));
+		if(king == Board.NO_SQUARE || Move.is(move, Move.CASTLE)) {
+			return true;
+		}
+		int from = Move.from(move);
+		int to = Move.to(move);
+
+		// Out of check, a piece that is not on a line through the king, or stays on it, can't uncover anything.
+		if(!inCheck && from != king && !Move.is(move, Move.EN_PASSANT)) {
+			WideAttackTables tables = board.getWideAttackTables();
+			int line = tables.direction(king, from);
+			if(line < 0 || tables.direction(king, to) == line) {
+				return true;
+			}
+		}
+		long[] occupied = bitboards.copyOccupied();
+		occupied[from >>> 6] &= ~(1L << from);
+		occupied[to >>> 6] |= 1L << to;
+		int captured = to;
+		if(Move.is(move, Move.EN_PASSANT)) {
+			captured = (us == Color.WHITE)? to - board.getWidth() : to + board.getWidth();
+			occupied[captured >>> 6] &= ~(1L << captured);
+		}
+		return !isAttacked(board, (from == king)? to : king, us.other(), occupied, captured);
+	}
+
+	/**
+	 * Returns whether or not any piece of the given color attacks the
+	 * given square.
+	 * 
+	 * @param board The board to look at (must have wide bitboards).
+	 * @param square The square that may be attacked.
+	 * @param by The color of the attacking pieces.
+	 * @return True if the square is attacked; false otherwise.
+	 */
+	static boolean isAttacked(Board board, int square, Color by) {
+		return isAttacked(board, square, by, board.getWideBitboards().occupied(), Board.NO_SQUARE);
+	}
+
+	/**
+	 * Private helper. Returns whether or not any piece of the given color
+	 * attacks the given square, assuming the given squares are occupied
+	 * and the piece on one square no longer counts.
+	 * 
+	 * @param board The board to look at.
+	 * @param square The square that may be attacked.
+	 * @param by The color of the attacking pieces.
+	 * @param occupied The squares to treat as occupied.
+	 * @param ignored A square whose piece is not an attacker (Board.NO_SQUARE for none).
+	 * @return True if the square is attacked; false otherwise.
+	 */
+	private static boolean isAttacked(Board board, int square, Color by, long[] occupied, int ignored) {
+		WideBitboards bitboards = board.getWideBitboards();
+		WideAttackTables tables = board.getWideAttackTables();
+		int pawn = Bitboards.index(by, PieceType.PAWN);
+		int knight = Bitboards.index(by, PieceType.KNIGHT);
+		int king = Bitboards.index(by, PieceType.KING);
+		for(int word = 0; word < bitboards.words(); word++) {
+			long mask = (ignored != Board.NO_SQUARE && word == ignored >>> 6)? ~(1L << ignored) : -1L;
+			long attackers = (tables.pawnAttacks(by.other(), square, word) & bitboards.pieces(pawn, word))
+					| (tables.knight(square, word) & bitboards.pieces(knight, word))
+					| (tables.king(square, word) & bitboards.pieces(king, word));
+			if((attackers & mask) != 0) {
+				return true;
+			}
+		}
+		int queen = Bitboards.index(by, PieceType.QUEEN);
+		int rook = Bitboards.index(by, PieceType.ROOK);
+		int bishop = Bitboards.index(by, PieceType.BISHOP);
+		for(int direction = 0; direction < WideAttackTables.DIRECTIONS; direction++) {
+			int blocker = tables.firstBlocker(direction, square, occupied);
+			if(blocker != Board.NO_SQUARE && blocker != ignored) {
+				int piece = bitboards.pieceAt(blocker);
+				if(piece == queen || piece == (WideAttackTables.isDiagonal(direction)? bishop : rook)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,145 @@
+package Game;
+/**
+ * The random numbers used to give each position a 64-bit hash key. A
+ * position's key is the exclusive or of one number for each piece on
+ * each square, one for the castling rights, one for the en passant file
+ * (if any), one if black is to move, and one for the size of the board.
+ * Because exclusive or undoes itself, the board can keep its key up to
+ * date by xor-ing in only what each move changes. The numbers come from
+ * a fixed seed, so keys are the same on every run and every JVM.
+ * 
+ * @author Priten Vora
+ *
+ */
+public final class Zobrist {
+
+	private static final long SEED = 0x2D358DCCAA6C78A5L;	// Where the random sequence starts.
+
+	private static final long[][] pieces = new long[2 * PieceType.COUNT][Move.MAX_SQUARES];	// By piece index and square.
+	private static final long[] castling = new long[16];				// By castling rights.
+	private static final long[] enPassant = new long[Move.MAX_SQUARES];	// By file of the en passant square.
+	private static final long[] widths = new long[Move.MAX_SQUARES + 1];	// By board width.
+	private static final long[] heights = new long[Move.MAX_SQUARES + 1];	// By board height.
+	private static final long blackToMove;								// Present when it is black's turn.
+
+	static {
+		long state = SEED;
+		for(int piece = 0; piece < pieces.length; piece++) {
+			for(int square = 0; square < Move.MAX_SQUARES; square++) {
+				state += 0x9E3779B97F4A7C15L;
+				pieces[piece][square] = mix(state);
+			}
+		}
+		for(int i = 0; i < castling.length; i++) {
+			state += 0x9E3779B97F4A7C15L;
+			castling[i] = mix(state);
+		}
+		for(int i = 0; i < enPassant.length; i++) {
+			state += 0x9E3779B97F4A7C15L;
+			enPassant[i] = mix(state);
+		}
+		for(int i = 0; i < widths.length; i++) {
+			state += 0x9E3779B97F4A7C15L;
+			widths[i] = mix(state);
+			state += 0x9E3779B97F4A7C15L;
+			heights[i] = mix(state);
+		}
+		state += 0x9E3779B97F4A7C15L;
+		blackToMove = mix(state);
+		castling[0] = 0L;
+	}
+
+	/**
+	 * Private constructor - this class only holds static helpers.
+	 */
+	private Zobrist() {
+	}
+
+	/**
+	 * Private helper for the static initializer. The SplitMix64 output
+	 * function, which turns a counter into well-spread random bits.
+	 * 
+	 * @param z The counter value.
+	 * @return The random number for that counter value.
+	 */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Returns the key for a piece standing on a square.
+	 * 
+	 * @param piece The index of the piece (see Bitboards.index).
+	 * @param square The index of the square.
+	 * @return The key for that piece on that square.
+	 */
+	public static long piece(int piece, int square) {
+		return pieces[piece][square];
+	}
+
+	/**
+	 * Returns the key for a set of castling rights.
+	 * 
+	 * @param rights The castling rights (see Board.CASTLE_*).
+	 * @return The key for those rights (zero when no castling is allowed).
+	 */
+	public static long castling(int rights) {
+		return castling[rights];
+	}
+
+	/**
+	 * Returns the key for an en passant square.
+	 * 
+	 * @param file The file (horizontal coordinate) of the en passant square.
+	 * @return The key for an en passant capture on that file.
+	 */
+	public static long enPassant(int file) {
+		return enPassant[file];
+	}
+
+	/**
+	 * Returns the key xor-ed in when it is black's turn to move.
+	 * 
+	 * @return The key for black to move.
+	 */
+	public static long blackToMove() {
+		return blackToMove;
+	}
+
+	/**
+	 * Returns the key that every position on a board of the given size
+	 * starts from, so boards of different sizes never share keys.
+	 * 
+	 * @param width The width of the board in number of tiles.
+	 * @param height The height of the board in number of tiles.
+	 * @return The key for the board size.
+	 */
+	public static long dimensions(int width, int height) {
+		return widths[width] ^ heights[height];
+	}
+
+	/**
+	 * Works out the key of the position on the board from scratch. The
+	 * board keeps its own key up to date as moves are made; this is for
+	 * checking that key.
+	 * 
+	 * @param board The board to compute the key for.
+	 * @return The key of the board's current position.
+	 */
+	public static long compute(Board board) {
+		int width = board.getWidth();
+		long key = dimensions(width, board.getHeight()) ^ castling(board.getCastlingRights());
+		for(Piece piece : board.getPieces()) {
+			key ^= piece(Bitboards.index(piece.getColor(), piece.getType()), board.squareOf(piece.getLocation()));
+		}
+		if(board.getEnPassantSquare() != Board.NO_SQUARE) {
+			key ^= enPassant(board.getEnPassantSquare() % width);
+		}
+		if(board.getSideToMove() == Color.BLACK) {
+			key ^= blackToMove;
+		}
+		return key;
+	}
+}
\ No newline at end of file
@@ -1,6 +1,7 @@
 package Tests;
 import static org.junit.Assert.*;
 import org.junit.Test;
+import Game.*;
 /**
  * 
  * @author Priten Vora
@@ -10,22 +11,40 @@ public class BishopTest {
 
 	@Test
 	public void testCanMoveTo() {
-		fail("Not yet implemented");
+		Board board = Fen.createBoard(Fen.STARTING_POSITION);
+		Piece bishop = board.getTile("c1").getPiece();
+		assertFalse(bishop.canMoveTo(board.getTile("d2"), board));
+		assertFalse(bishop.canMoveTo(board.getTile("e3"), board));
+
+		board = Fen.createBoard("4k3/8/8/8/8/8/3p4/2B1K3 w - - 0 1");
+		bishop = board.getTile("c1").getPiece();
+		assertTrue(bishop.canMoveTo(board.getTile("d2"), board));
+		assertFalse(bishop.canMoveTo(board.getTile("e3"), board));
+		assertTrue(bishop.canMoveTo(board.getTile("a3"), board));
+		assertFalse(bishop.canMoveTo(board.getTile("c2"), board));
 	}
 
 	@Test
 	public void testMove() {
-		fail("Not yet implemented");
+		Board board = Fen.createBoard("4k3/8/8/8/8/8/8/2B1K3 w - - 0 1");
+		Piece bishop = board.getTile("c1").getPiece();
+		assertFalse(bishop.move(board.getTile("c5")));
+		assertTrue(bishop.move(board.getTile("h6")));
+		assertSame(bishop, board.getTile("h6").getPiece());
 	}
 
 	@Test
 	public void testPotentialMoves() {
-		fail("Not yet implemented");
+		Board board = Fen.createBoard("4k3/8/8/8/3B4/8/8/4K3 w - - 0 1");
+		assertEquals(13, board.getTile("d4").getPiece().potentialMoves(board).size());
 	}
 
 	@Test
 	public void testCanMove() {
-		fail("Not yet implemented");
+		Board board = Fen.createBoard(Fen.STARTING_POSITION);
+		assertFalse(board.getTile("c1").getPiece().canMove(board));
+		board = Fen.createBoard("4k3/8/8/8/3B4/8/8/4K3 w - - 0 1");
+		assertTrue(board.getTile("d4").getPiece().canMove(board));
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,181 @@
+package Tests;
+import static org.junit.Assert.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import org.junit.Test;
+import Game.*;
+/**
+ * 
+ * @author Priten Vora
+ *
+ */
+public class BoardTest {
+
+	@Test
+	public void testSquaresAreShared() {
+		Board first = new Board(8, 8);
+		Board second = new Board(10, 8);
+		assertSame(first.getTile("e4").getLocation(), second.getTile("e4").getLocation());
+		assertSame(Location.of(4, 3), first.getTile("e4").getLocation());
+		assertSame(first.getTile("e4").getName(), first.getTile("e4").getName());
+		assertEquals("e4", first.getTile("e4").getName());
+	}
+
+	@Test
+	public void testTileColors() {
+		Board board = new Board(8, 8);
+		assertEquals(Color.BLACK, board.getTile("a1").getColor());
+		assertEquals(Color.WHITE, board.getTile("h1").getColor());
+		assertEquals(Color.WHITE, board.getTile("a8").getColor());
+		assertEquals(Color.BLACK, board.getTile("h8").getColor());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testBadTileName() {
+		new Board(8, 8).getTile("e9");
+	}
+
+	@Test
+	public void testResetReusesPieces() {
+		Board board = new Board(8, 8);
+		Piece king = board.getTile("e1").getPiece();
+		board.makeMove(board.findMove(board.getTile("e2"), board.getTile("e4")));
+		board.reset();
+		assertEquals(new Board(8, 8).getZobristKey(), board.getZobristKey());
+		assertSame(king, board.getTile("e1").getPiece());
+		assertEquals(32, board.getPieces().size());
+		assertEquals(0, board.getPly());
+	}
+
+	@Test
+	public void testFenRoundTrip() {
+		String[] fens = {
+			Fen.STARTING_POSITION,
+			"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+			"rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3",
+			"8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 b - - 12 40",
+			"rnbqkbnrbn/pppppppppp/10/10/10/10/PPPPPPPPPP/RNBQKBNRBN w - - 0 1"
+		};
+		for(String fen : fens) {
+			Board board = Fen.createBoard(fen);
+			assertEquals(fen, Fen.toFen(board));
+			Board copy = new Board(board);
+			assertEquals(board.getZobristKey(), copy.getZobristKey());
+			assertEquals(fen, Fen.toFen(copy));
+		}
+	}
+
+	@Test
+	public void testCopySpotsRepetitions() {
+		Board board = new Board(8, 8);
+		for(String san : new String[] {"Nf3", "Nf6", "Ng1", "Ng8", "Nf3"}) {
+			board.makeMove(San.parse(board, san));
+		}
+		Board copy = new Board(board);
+		assertEquals(0, copy.getPly());
+		copy.makeMove(San.parse(copy, "Nf6"));
+		assertTrue(copy.isRepetition());
+		assertEquals(1, copy.countRepetitions());
+		copy.makeMove(San.parse(copy, "Ng1"));
+		copy.makeMove(San.parse(copy, "Ng8"));
+		assertEquals(2, copy.countRepetitions());
+		assertEquals(2, new Board(copy).countRepetitions());
+
+		// Nothing from before the last pawn move counts.
+		copy.makeMove(San.parse(copy, "d3"));
+		assertFalse(new Board(copy).isRepetition());
+	}
+
+	@Test
+	public void testFenLoadsOntoExistingBoard() {
+		Board board = new Board(8, 8);
+		Piece king = board.getTile("e1").getPiece();
+		String fen = "4k3/8/8/8/8/8/8/4K3 w - - 5 60";
+		Fen.load(board, new StringBuilder(fen));
+		assertEquals(fen, Fen.toFen(board));
+		assertSame(king, board.getTile("e1").getPiece());
+		assertEquals(Fen.createBoard(fen).getZobristKey(), board.getZobristKey());
+		assertEquals(2, board.getPieces().size());
+	}
+
+	@Test
+	public void testFenLoadsFromBuffer() {
+		String text = Fen.STARTING_POSITION + "\r\n\n8/8/8/8/8/8/8/K6k b - - 0 70\n";
+		ByteBuffer buffer = ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII));
+		Board board = new Board(8, 8);
+		assertTrue(Fen.load(board, buffer));
+		assertEquals(Fen.STARTING_POSITION, Fen.toFen(board));
+		assertTrue(Fen.load(board, buffer));
+		assertEquals("8/8/8/8/8/8/8/K6k b - - 0 70", Fen.toFen(board));
+		assertFalse(Fen.load(board, buffer));
+	}
+
+	@Test
+	public void testBadFenLeavesBoardEmpty() {
+		Board board = new Board(8, 8);
+		try {
+			Fen.load(board, "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq - 0 1");
+			fail("Expected an exception");
+		}
+		catch(IllegalArgumentException e) {
+			assertEquals(0, board.getPieces().size());
+		}
+	}
+
+	@Test
+	public void testBoardsNeedTwoRanks() {
+		try {
+			new Board(8, 1);
+			fail("Made a board with one rank");
+		}
+		catch(IllegalArgumentException e) {
+			assertTrue(e.getMessage().contains("2 ranks"));
+		}
+		Board board = new Board(8, 2);
+		assertEquals(16, board.getPieces().size());
+		assertEquals(0xFFFFL, board.getBitboards().occupied());
+		assertEquals(Fen.createBoard(Fen.toFen(board)).getZobristKey(), board.getZobristKey());
+	}
+
+	/**
+	 * Works out a slider's attacks by walking each line from its square.
+	 */
+	private long walk(Board board, int square, long occupied, int[][] directions) {
+		long attacks = 0L;
+		for(int[] direction : directions) {
+			int x = square % board.getWidth() + direction[0];
+			int y = square / board.getWidth() + direction[1];
+			while(x >= 0 && x < board.getWidth() && y >= 0 && y < board.getHeight()) {
+				long bit = 1L << (y * board.getWidth() + x);
+				attacks |= bit;
+				if((occupied & bit) != 0) {
+					break;
+				}
+				x += direction[0];
+				y += direction[1];
+			}
+		}
+		return attacks;
+	}
+
+	@Test(timeout = 10000)
+	public void testNarrowBoards() {
+		int[][] rook = {{0, 1}, {0, -1}, {1, 0}, {-1, 0}};
+		int[][] bishop = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+		int[][] shapes = {{3, 21}, {2, 32}, {1, 64}, {4, 16}, {16, 4}, {32, 2}, {8, 8}};
+		Random random = new Random(7);
+		for(int[] shape : shapes) {
+			Board board = new Board(shape[0], shape[1]);
+			SlidingAttacks sliders = board.getSlidingAttacks();
+			int squares = shape[0] * shape[1];
+			for(int square = 0; square < squares; square++) {
+				for(int i = 0; i < 50; i++) {
+					long occupied = (i == 0)? board.getBitboards().occupied() : random.nextLong() & random.nextLong();
+					assertEquals(walk(board, square, occupied, rook), sliders.rook(square, occupied));
+					assertEquals(walk(board, square, occupied, bishop), sliders.bishop(square, occupied));
+				}
+			}
+		}
+	}
+}
\ No newline at end of file
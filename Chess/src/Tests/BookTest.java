@@ -0,0 +1,100 @@
+package Tests;
+import static org.junit.Assert.*;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import org.junit.Test;
+import Game.*;
+import Game.Book.*;
+import Game.Record.GameRecord;
+/**
+ * 
+ * @author Priten Vora
+ *
+ */
+public class BookTest {
+
+	/**
+	 * Plays a game given in SAN on the board and adds it to the builder.
+	 */
+	private void addGame(BookBuilder builder, int result, String... sans) {
+		Board board = new Board(8, 8);
+		MoveList played = new MoveList();
+		for(String san : sans) {
+			int move = San.parse(board, san);
+			board.makeMove(move);
+			played.add(move);
+		}
+		builder.addGame(board, played, result);
+	}
+
+	/**
+	 * Builds a small book and writes it to a temporary file.
+	 */
+	private File buildBook() throws IOException {
+		BookBuilder builder = new BookBuilder(4);
+		addGame(builder, GameRecord.RESULT_WHITE_WINS, "e4", "e5", "Nf3", "Nc6", "Bb5");
+		addGame(builder, GameRecord.RESULT_WHITE_WINS, "e4", "c5", "Nf3");
+		addGame(builder, GameRecord.RESULT_DRAW, "d4", "d5", "c4");
+		addGame(builder, GameRecord.RESULT_BLACK_WINS, "f3", "e5", "g4", "Qh4#");
+		File file = File.createTempFile("opening", ".book");
+		file.deleteOnExit();
+		builder.write(file);
+		return file;
+	}
+
+	@Test
+	public void testLookup() throws IOException {
+		OpeningBook book = new OpeningBook(buildBook());
+		Board board = new Board(8, 8);
+		MoveList moves = new MoveList();
+		int first = book.probe(board, moves);
+		assertEquals(2, moves.size());
+		assertEquals("e4", San.toSan(board, moves.get(0)));
+		assertEquals(4, book.getWeight(first));
+		assertEquals("d4", San.toSan(board, moves.get(1)));
+		assertEquals(moves.get(0), book.bestMove(board));
+
+		// Black lost both games after 1. e4, so neither reply is in the book.
+		board.makeMove(San.parse(board, "e4"));
+		assertEquals(-1, book.probe(board, moves));
+		assertTrue(moves.isEmpty());
+
+		board.makeMove(San.parse(board, "e5"));
+		assertEquals("Nf3", San.toSan(board, book.bestMove(board)));
+		board.makeMove(San.parse(board, "Nf3"));
+		board.makeMove(San.parse(board, "Nc6"));
+		assertEquals(Move.NONE, book.bestMove(board));
+		assertEquals(-1, book.probe(board, moves));
+		book.close();
+	}
+
+	@Test
+	public void testPickMove() throws IOException {
+		OpeningBook book = new OpeningBook(buildBook());
+		Board board = new Board(8, 8);
+		Random random = new Random(3);
+		int e4 = San.parse(board, "e4");
+		int d4 = San.parse(board, "d4");
+		int picked = 0;
+		for(int i = 0; i < 100; i++) {
+			int move = book.pickMove(board, random);
+			assertTrue(move == e4 || move == d4);
+			picked += (move == e4)? 1 : 0;
+		}
+		assertTrue(picked > 50);
+		book.close();
+	}
+
+	@Test
+	public void testLearn() throws IOException {
+		File file = buildBook();
+		OpeningBook book = new OpeningBook(file, true);
+		int first = book.find(new Board(8, 8).getZobristKey());
+		book.setLearn(first, -7);
+		book.close();
+		book = new OpeningBook(file);
+		assertEquals(-7, book.getLearn(first));
+		book.close();
+	}
+}
\ No newline at end of file
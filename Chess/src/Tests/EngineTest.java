@@ -0,0 +1,168 @@
+package Tests;
+import static org.junit.Assert.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+import Game.*;
+import Game.Engine.*;
+import Game.Search.*;
+/**
+ * 
+ * @author Priten Vora
+ *
+ */
+public class EngineTest {
+
+	@Test
+	public void testMovesInEitherNotation() {
+		Engine engine = new Engine();
+		int move = engine.makeMove("e2e4");
+		assertEquals("e2e4", Move.toString(move, engine.getBoard()));
+		engine.makeMove("e5");
+		engine.makeMove("g1f3");
+		engine.makeMove("Nc6");
+		assertEquals(4, engine.getPlayedMoves().size());
+		assertEquals("r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3", engine.getFen());
+		assertTrue(engine.undoMove());
+		assertEquals("rnbqkbnr/pppp1ppp/8/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R b KQkq - 1 2", engine.getFen());
+		try {
+			engine.makeMove("e2e4");
+			fail("An illegal move was made");
+		}
+		catch(IllegalArgumentException e) {
+			assertEquals(3, engine.getPlayedMoves().size());
+		}
+		engine.newGame();
+		assertEquals(Fen.STARTING_POSITION, engine.getFen());
+		assertFalse(engine.undoMove());
+		engine.shutdown();
+	}
+
+	@Test
+	public void testPromotion() {
+		Engine engine = new Engine();
+		engine.setPosition("8/4P3/8/8/8/8/k7/4K3 w - - 0 1");
+		engine.makeMove("e7e8n");
+		assertEquals("4N3/8/8/8/8/8/k7/4K3 b - - 0 1", engine.getFen());
+		engine.shutdown();
+	}
+
+	@Test
+	public void testBadPositionKeepsTheOldOne() {
+		Engine engine = new Engine();
+		engine.makeMove("d4");
+		String fen = engine.getFen();
+		try {
+			engine.setPosition("not a position");
+			fail("A bad FEN was accepted");
+		}
+		catch(IllegalArgumentException e) {
+			assertEquals(fen, engine.getFen());
+		}
+		engine.shutdown();
+	}
+
+	@Test
+	public void testStatus() {
+		Engine engine = new Engine();
+		assertEquals(GameStatus.ONGOING, engine.getStatus());
+		for(String move : new String[] {"f3", "e5", "g4", "Qh4"}) {
+			engine.makeMove(move);
+		}
+		assertEquals(GameStatus.CHECKMATE, engine.getStatus());
+		engine.setPosition("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1");
+		assertEquals(GameStatus.STALEMATE, engine.getStatus());
+		engine.setPosition("7k/8/6K1/8/8/8/8/2B5 b - - 0 1");
+		assertEquals(GameStatus.INSUFFICIENT_MATERIAL, engine.getStatus());
+		engine.newGame();
+		for(int i = 0; i < 2; i++) {
+			for(String move : new String[] {"Nf3", "Nf6", "Ng1", "Ng8"}) {
+				assertEquals(GameStatus.ONGOING, engine.getStatus());
+				engine.makeMove(move);
+			}
+		}
+		assertEquals(GameStatus.REPETITION, engine.getStatus());
+		engine.shutdown();
+	}
+
+	@Test
+	public void testSnapshot() {
+		Engine engine = new Engine();
+		int e4 = engine.makeMove("e4");
+		BoardSnapshot snapshot = engine.snapshot();
+		engine.makeMove("e5");
+		assertEquals(8, snapshot.getWidth());
+		assertEquals(Color.BLACK, snapshot.getSideToMove());
+		assertEquals(e4, snapshot.getLastMove());
+		assertEquals(20, snapshot.getMoveCount());
+		assertEquals(GameStatus.ONGOING, snapshot.getStatus());
+		assertEquals(PieceType.PAWN, snapshot.getType(28));
+		assertEquals(Color.WHITE, snapshot.getColor(28));
+		assertNull(snapshot.getType(12));
+		assertEquals(Bitboards.NONE, snapshot.getPiece(36));
+		assertEquals(Bitboards.index(Color.BLACK, PieceType.KING), snapshot.getPiece(60));
+		engine.shutdown();
+	}
+
+	@Test
+	public void testSearch() {
+		Engine engine = new Engine(2, 4);
+		engine.setPosition("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+		SearchResult result = engine.search(SearchLimits.depth(4), null);
+		assertEquals("a1a8", Move.toString(result.getBestMove(), engine.getBoard()));
+		assertFalse(engine.isSearching());
+		assertEquals("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1", engine.getFen());
+		engine.setThreads(1);
+		engine.setHashSize(2);
+		assertEquals(1, engine.getThreads());
+		result = engine.search(SearchLimits.depth(4), null);
+		assertEquals("a1a8", Move.toString(result.getBestMove(), engine.getBoard()));
+		engine.shutdown();
+	}
+
+	@Test
+	public void testNoChangesWhileSearching() throws InterruptedException {
+		final Engine engine = new Engine();
+		Thread search = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				engine.search(new SearchLimits(), null);
+			}
+		});
+		search.start();
+		while(!engine.isSearching()) {
+			Thread.sleep(1);
+		}
+		try {
+			engine.makeMove("e4");
+			fail("The position changed during a search");
+		}
+		catch(IllegalStateException e) {
+			assertEquals(0, engine.getPlayedMoves().size());
+		}
+		engine.stop();
+		search.join();
+		engine.makeMove("e4");
+		engine.shutdown();
+	}
+
+	@Test
+	public void testConsole() throws IOException {
+		String commands = "position 6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1\ngo depth 3\nmove Ra8\nstatus\nundo\nfen\nfoo\nquit\nfen\n";
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		Engine engine = new Engine();
+		new EngineConsole(engine, new ByteArrayInputStream(commands.getBytes(StandardCharsets.UTF_8)),
+				new PrintStream(output, true, "UTF-8")).run();
+		engine.shutdown();
+		String[] lines = new String(output.toByteArray(), StandardCharsets.UTF_8).split("\n");
+		assertEquals(7, lines.length);
+		assertTrue(lines[0].startsWith("depth 1 "));
+		assertEquals("bestmove a1a8 (mate in 1)", lines[3]);
+		assertEquals("CHECKMATE", lines[4]);
+		assertEquals("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1", lines[5]);
+		assertTrue(lines[6].startsWith("Unknown command"));
+	}
+}
\ No newline at end of file
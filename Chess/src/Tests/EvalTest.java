@@ -0,0 +1,260 @@
+package Tests;
+import static org.junit.Assert.*;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+import Game.*;
+import Game.Eval.*;
+/**
+ * 
+ * @author Priten Vora
+ *
+ */
+public class EvalTest {
+
+	/**
+	 * Checks the board's running scores against scores worked out from
+	 * scratch on a copy, in every position down to the given depth.
+	 */
+	private void checkScores(Board board, int depth) {
+		Board copy = new Board(board);
+		copy.setPieceSquareTables(board.getPieceSquareTables());
+		assertEquals(copy.getMiddlegameScore(), board.getMiddlegameScore());
+		assertEquals(copy.getEndgameScore(), board.getEndgameScore());
+		assertEquals(copy.getPhase(), board.getPhase());
+		if(depth == 0) {
+			return;
+		}
+		MoveList moves = new MoveList();
+		MoveGenerator.generateLegal(board, moves);
+		for(int i = 0; i < moves.size(); i++) {
+			board.makeMove(moves.get(i));
+			checkScores(board, depth - 1);
+			board.unmakeMove();
+		}
+	}
+
+	@Test
+	public void testScoresStayInSync() {
+		for(String fen : PerftBenchmark.positions()) {
+			Board board = Fen.createBoard(fen);
+			board.setPieceSquareTables(PieceSquareTables.defaults());
+			checkScores(board, 2);
+		}
+		Board wide = new Board(10, 8);
+		wide.setPieceSquareTables(PieceSquareTables.defaults());
+		checkScores(wide, 2);
+	}
+
+	/**
+	 * Attaches the evaluator to the board and scores it.
+	 */
+	private int score(Evaluator evaluator, Board board) {
+		evaluator.attach(board);
+		return evaluator.evaluate(board);
+	}
+
+	@Test
+	public void testSymmetricPositionsAreEven() {
+		TaperedEvaluator evaluator = new TaperedEvaluator();
+		assertEquals(0, score(evaluator, new Board(8, 8)));
+		assertEquals(0, score(evaluator, new Board(10, 8)));
+		Board board = new Board(8, 8);
+		board.makeMove(San.parse(board, "e4"));
+		int score = score(evaluator, board);
+		assertTrue(score < 0);
+		board.makeMove(San.parse(board, "e5"));
+		assertEquals(0, evaluator.evaluate(board));
+	}
+
+	@Test
+	public void testTapering() {
+		TaperedEvaluator evaluator = new TaperedEvaluator();
+		Board pawns = Fen.createBoard("4k3/8/8/8/8/8/4P3/4K3 w - - 0 1");
+		evaluator.attach(pawns);
+		assertEquals(0, pawns.getPhase());
+		assertEquals(pawns.getEndgameScore(), evaluator.evaluate(pawns));
+		Board start = new Board(8, 8);
+		evaluator.attach(start);
+		assertEquals(PieceSquareTables.defaults().fullPhase(), start.getPhase());
+	}
+
+	@Test
+	public void testEvaluateLeavesBoardAlone() {
+		Board board = new Board(8, 8);
+		try {
+			new TaperedEvaluator().evaluate(board);
+			fail("Scored a board that was not attached");
+		}
+		catch(IllegalStateException e) {
+			assertNull(board.getPieceSquareTables());
+		}
+		assertEquals(0, new MaterialEvaluator().evaluate(board));
+	}
+
+	@Test
+	public void testTablesFromFile() throws IOException {
+		File file = File.createTempFile("tables", ".pst");
+		file.deleteOnExit();
+		PieceSquareTables.defaults().write(file);
+		PieceSquareTables tables = new PieceSquareTables(file);
+		assertArrayEquals(PieceSquareTables.defaults().forSize(8, 8)[0], tables.forSize(8, 8)[0]);
+		assertArrayEquals(PieceSquareTables.defaults().forSize(8, 8)[1], tables.forSize(8, 8)[1]);
+		PrintWriter writer = new PrintWriter(file);
+		writer.println("value knight 1320 1290   # A knight is worth 1000 more in both stages.");
+		writer.close();
+		Board board = Fen.createBoard("4k3/8/8/8/8/8/8/1N2K3 w - - 0 1");
+		int before = score(new TaperedEvaluator(), board);
+		int after = score(new TaperedEvaluator(new PieceSquareTables(file)), board);
+		assertEquals(before + 1000, after);
+		writer = new PrintWriter(file);
+		writer.println("value dragon 1 1");
+		writer.close();
+		try {
+			new PieceSquareTables(file);
+			fail("Read a table for a dragon");
+		}
+		catch(IOException e) {
+			assertTrue(e.getMessage().contains("type of piece"));
+		}
+	}
+
+	/**
+	 * Writes a network with random weights for boards of the given size
+	 * to a temporary file.
+	 */
+	private File randomNetwork(int width, int height, int hidden) throws IOException {
+		Random random = new Random(width * 31 + height);
+		short[] featureWeights = new short[2 * PieceType.COUNT * width * height * hidden];
+		short[] featureBiases = new short[hidden];
+		short[] outputWeights = new short[2 * hidden];
+		for(int i = 0; i < featureWeights.length; i++) {
+			featureWeights[i] = (short)(random.nextInt(129) - 64);
+		}
+		for(int i = 0; i < hidden; i++) {
+			featureBiases[i] = (short)random.nextInt(64);
+			outputWeights[i] = (short)(random.nextInt(129) - 64);
+			outputWeights[hidden + i] = (short)(random.nextInt(129) - 64);
+		}
+		File file = File.createTempFile("network", ".nnue");
+		file.deleteOnExit();
+		NnueNetwork.write(file, width, height, 400, featureWeights, featureBiases, outputWeights, 1234);
+		return file;
+	}
+
+	/**
+	 * Checks the board's accumulators against ones worked out from
+	 * scratch on a copy, in every position down to the given depth.
+	 */
+	private void checkAccumulators(Board board, int depth) {
+		Board copy = new Board(board);
+		copy.setNetwork(board.getNetwork());
+		for(Color color : Color.values()) {
+			assertTrue(Arrays.equals(copy.getAccumulator().get(color), board.getAccumulator().get(color)));
+		}
+		if(depth == 0) {
+			return;
+		}
+		MoveList moves = new MoveList();
+		MoveGenerator.generateLegal(board, moves);
+		for(int i = 0; i < moves.size(); i++) {
+			board.makeMove(moves.get(i));
+			checkAccumulators(board, depth - 1);
+			board.unmakeMove();
+		}
+	}
+
+	@Test
+	public void testAccumulatorsStayInSync() throws IOException {
+		NnueNetwork network = new NnueNetwork(randomNetwork(8, 8, 32));
+		for(String fen : PerftBenchmark.positions()) {
+			Board board = Fen.createBoard(fen);
+			board.setNetwork(network);
+			checkAccumulators(board, 2);
+		}
+
+		// A network given to a board partway through a game still lets every move be taken back.
+		Board board = new Board(8, 8);
+		String[] game = {"e4", "d5", "exd5", "Qxd5", "Nc3"};
+		for(String san : game) {
+			board.makeMove(San.parse(board, san));
+		}
+		board.setNetwork(network);
+		checkAccumulators(board, 2);
+		for(int i = 0; i < game.length; i++) {
+			board.unmakeMove();
+		}
+		checkAccumulators(board, 2);
+		network.close();
+	}
+
+	@Test
+	public void testNetworkEvaluation() throws IOException {
+		File file = randomNetwork(8, 8, 16);
+		NnueNetwork network = new NnueNetwork(file);
+		NnueEvaluator evaluator = new NnueEvaluator(network);
+		Board board = Fen.createBoard(PerftBenchmark.positions()[1]);
+		int score = score(evaluator, board);
+
+		// Work the score out the slow way, straight from the weights.
+		java.nio.ShortBuffer weights = network.weights();
+		int hidden = network.getHiddenSize();
+		int features = network.features();
+		long sum = 0;
+		for(int perspective = 0; perspective < 2; perspective++) {
+			for(int i = 0; i < hidden; i++) {
+				int value = weights.get(features * hidden + i);
+				for(Piece piece : board.getPieces()) {
+					int index = Bitboards.index(piece.getColor(), piece.getType());
+					int square = board.squareOf(piece.getLocation());
+					if(perspective == 1) {
+						index = (index + PieceType.COUNT) % (2 * PieceType.COUNT);
+						square = (7 - square / 8) * 8 + square % 8;
+					}
+					value += weights.get((index * 64 + square) * hidden + i);
+				}
+				value = Math.min(Math.max(value, 0), NnueNetwork.ACTIVATION_SCALE);
+				sum += value * weights.get(features * hidden + hidden + perspective * hidden + i);
+			}
+		}
+		assertEquals((sum + 1234) * 400 / (NnueNetwork.ACTIVATION_SCALE * NnueNetwork.WEIGHT_SCALE), score);
+
+		// The start position looks the same from both sides.
+		Board start = new Board(8, 8);
+		int whiteToMove = score(evaluator, start);
+		start.setSideToMove(Color.BLACK);
+		assertEquals(whiteToMove, evaluator.evaluate(start));
+
+		// Other sizes of board fall back on the tapered evaluation.
+		assertEquals(score(new TaperedEvaluator(), new Board(10, 8)), score(evaluator, new Board(10, 8)));
+		assertNull(new Board(10, 8).getNetwork());
+		network.close();
+	}
+
+	@Test
+	public void testLargeNetworksDoNotOverflow() throws IOException {
+		// Every accumulator number clips to 255 and every output weight is the largest there is, so the
+		// output layer sums to far more than an int holds.
+		int hidden = 400;
+		short[] featureBiases = new short[hidden];
+		short[] outputWeights = new short[2 * hidden];
+		Arrays.fill(featureBiases, (short)1000);
+		Arrays.fill(outputWeights, Short.MAX_VALUE);
+		File file = File.createTempFile("network", ".nnue");
+		file.deleteOnExit();
+		NnueNetwork.write(file, 8, 8, 400, new short[2 * PieceType.COUNT * 64 * hidden], featureBiases, outputWeights, 0);
+		NnueNetwork network = new NnueNetwork(file);
+		assertEquals(NnueNetwork.MAX_SCORE, score(new NnueEvaluator(network), new Board(8, 8)));
+		network.close();
+		try {
+			NnueNetwork.write(file, 8, 8, 0, new short[2 * PieceType.COUNT * 64 * hidden], featureBiases, outputWeights, 0);
+			fail("Wrote a network with no output scale");
+		}
+		catch(IllegalArgumentException e) {
+			assertTrue(e.getMessage().contains("out of range"));
+		}
+	}
+}
\ No newline at end of file
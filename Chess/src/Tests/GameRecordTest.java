@@ -0,0 +1,129 @@
+package Tests;
+import static org.junit.Assert.*;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import org.junit.Test;
+import Game.*;
+import Game.Record.*;
+/**
+ * 
+ * @author Priten Vora
+ *
+ */
+public class GameRecordTest {
+
+	/**
+	 * Plays random legal moves from the position on the board, then takes
+	 * them back, and returns the moves played.
+	 */
+	private MoveList randomGame(Board board, Random random, int length) {
+		MoveList played = new MoveList();
+		MoveList legal = new MoveList();
+		for(int i = 0; i < length; i++) {
+			legal.clear();
+			MoveGenerator.generateLegal(board, legal);
+			if(legal.isEmpty()) {
+				break;
+			}
+			int move = legal.get(random.nextInt(legal.size()));
+			board.makeMove(move);
+			played.add(move);
+		}
+		for(int i = 0; i < played.size(); i++) {
+			board.unmakeMove();
+		}
+		return played;
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		File file = File.createTempFile("games", ".bin");
+		file.deleteOnExit();
+		Random random = new Random(17);
+		String[] starts = PerftBenchmark.positions();
+		MoveList[] games = new MoveList[starts.length];
+		String[] finals = new String[starts.length];
+		GameRecordWriter writer = new GameRecordWriter(file);
+		for(int i = 0; i < starts.length; i++) {
+			Board board = Fen.createBoard(starts[i]);
+			games[i] = randomGame(board, random, 60);
+			writer.write(board, games[i], GameRecord.RESULT_DRAW);
+			assertEquals(starts[i], Fen.toFen(board));
+			for(int j = 0; j < games[i].size(); j++) {
+				board.makeMove(games[i].get(j));
+			}
+			finals[i] = Fen.toFen(board);
+		}
+		writer.close();
+		assertTrue(writer.getBytes() < GameRecord.HEADER_SIZE + 2 * 60 * starts.length + 100 * starts.length);
+
+		GameRecordReader reader = new GameRecordReader(file);
+		Board board = new Board(8, 8);
+		MoveList played = new MoveList();
+		for(int i = 0; i < starts.length; i++) {
+			board = reader.next(board, played);
+			assertNotNull(board);
+			assertEquals(GameRecord.RESULT_DRAW, reader.getResult());
+			assertEquals(games[i].size(), played.size());
+			for(int j = 0; j < played.size(); j++) {
+				assertEquals(games[i].get(j), played.get(j));
+			}
+			assertEquals(finals[i], Fen.toFen(board));
+		}
+		assertNull(reader.next(board, played));
+		reader.close();
+
+		reader = new GameRecordReader(file);
+		while(reader.skip()) {
+			continue;
+		}
+		assertEquals(starts.length, reader.getGames());
+		reader.close();
+	}
+
+	@Test
+	public void testOtherBoardSizes() throws IOException {
+		File file = File.createTempFile("games", ".bin");
+		file.deleteOnExit();
+		Random random = new Random(23);
+		Board[] boards = {new Board(10, 8), new Board(8, 8), Fen.createBoard("k5/6/6/6/6/QK4 w - - 0 1"), new Board(8, 8)};
+		MoveList[] games = new MoveList[boards.length];
+		String[] finals = new String[boards.length];
+		GameRecordWriter writer = new GameRecordWriter(file);
+		for(int i = 0; i < boards.length; i++) {
+			games[i] = randomGame(boards[i], random, 20);
+			writer.write(boards[i], games[i], GameRecord.RESULT_UNKNOWN);
+			for(int j = 0; j < games[i].size(); j++) {
+				boards[i].makeMove(games[i].get(j));
+			}
+			finals[i] = Fen.toFen(boards[i]);
+		}
+		writer.close();
+
+		// Each game comes back on a board of its own size, and the standard games on 8x8 ones.
+		GameRecordReader reader = new GameRecordReader(file);
+		Board board = new Board(8, 8);
+		MoveList played = new MoveList();
+		for(int i = 0; i < boards.length; i++) {
+			board = reader.next(board, played);
+			assertEquals(boards[i].getWidth(), board.getWidth());
+			assertEquals(boards[i].getHeight(), board.getHeight());
+			assertEquals(games[i].size(), played.size());
+			assertEquals(finals[i], Fen.toFen(board));
+		}
+		assertNull(reader.next(board, played));
+		reader.close();
+	}
+
+	@Test(expected = IOException.class)
+	public void testNotAFileOfGames() throws IOException {
+		File file = File.createTempFile("games", ".bin");
+		file.deleteOnExit();
+		FileOutputStream out = new FileOutputStream(file);
+		out.write("[Event \"x\"]\n".getBytes("US-ASCII"));
+		out.close();
+		new GameRecordReader(file);
+	}
+}
\ No newline at end of file
@@ -1,6 +1,7 @@
 package Tests;
 import static org.junit.Assert.*;
 import org.junit.Test;
+import Game.*;
 /**
  * 
  * @author Priten Vora
@@ -10,22 +11,51 @@ public class KingTest {
 
 	@Test
 	public void testCanMoveTo() {
-		fail("Not yet implemented");
+		Board board = Fen.createBoard(Fen.STARTING_POSITION);
+		Piece king = board.getTile("e1").getPiece();
+		assertFalse(king.canMoveTo(board.getTile("e2"), board));
+		assertFalse(king.canMoveTo(board.getTile("f1"), board));
+
+		board = Fen.createBoard("4k3/8/8/8/8/8/8/4K3 w - - 0 1");
+		king = board.getTile("e1").getPiece();
+		assertTrue(king.canMoveTo(board.getTile("e2"), board));
+		assertTrue(king.canMoveTo(board.getTile("d1"), board));
+		assertFalse(king.canMoveTo(board.getTile("e3"), board));
 	}
 
 	@Test
 	public void testMove() {
-		fail("Not yet implemented");
+		Board board = Fen.createBoard("4k3/8/8/8/8/8/8/R3K2R w KQ - 0 1");
+		Piece king = board.getTile("e1").getPiece();
+		assertTrue(king.move(board.getTile("g1")));
+		assertSame(king, board.getTile("g1").getPiece());
+		assertEquals(PieceType.ROOK, board.getTile("f1").getPiece().getType());
+		assertNull(board.getTile("h1").getPiece());
+		assertEquals(0, board.getCastlingRights());
+
+		board = Fen.createBoard("4k3/8/8/8/8/8/5r2/4K3 w - - 0 1");
+		king = board.getTile("e1").getPiece();
+		assertFalse(king.move(board.getTile("e2")));
+		assertTrue(king.move(board.getTile("f2")));
 	}
 
 	@Test
 	public void testPotentialMoves() {
-		fail("Not yet implemented");
+		Board board = Fen.createBoard("4k3/8/8/8/8/8/8/K7 w - - 0 1");
+		assertEquals(3, board.getTile("a1").getPiece().potentialMoves(board).size());
+		assertEquals(5, board.getTile("e8").getPiece().potentialMoves(board).size());
 	}
 
 	@Test
 	public void testCanMove() {
-		fail("Not yet implemented");
+		Board board = Fen.createBoard(Fen.STARTING_POSITION);
+		assertFalse(board.getTile("e1").getPiece().canMove(board));
+		board = Fen.createBoard("4k3/8/8/8/8/8/8/4K3 w - - 0 1");
+		assertTrue(board.getTile("e1").getPiece().canMove(board));
+		long key = board.getZobristKey();
+		assertTrue(board.getTile("e8").getPiece().canMove(board));
+		assertEquals(Color.WHITE, board.getSideToMove());
+		assertEquals(key, board.getZobristKey());
 	}
 
 }
\ No newline at end of file
@@ -1,6 +1,8 @@
 package Tests;
 import static org.junit.Assert.*;
+import java.util.ArrayList;
 import org.junit.Test;
+import Game.*;
 /**
  * 
  * @author Priten Vora
@@ -10,22 +12,42 @@ public class KnightTest {
 
 	@Test
 	public void testCanMoveTo() {
-		fail("Not yet implemented");
+		Board board = Fen.createBoard(Fen.STARTING_POSITION);
+		Piece knight = board.getTile("g1").getPiece();
+		assertTrue(knight.canMoveTo(board.getTile("f3"), board));
+		assertTrue(knight.canMoveTo(board.getTile("h3"), board));
+		assertFalse(knight.canMoveTo(board.getTile("e2"), board));
+		assertFalse(knight.canMoveTo(board.getTile("g3"), board));
 	}
 
 	@Test
 	public void testMove() {
-		fail("Not yet implemented");
+		Board board = Fen.createBoard(Fen.STARTING_POSITION);
+		Piece knight = board.getTile("g1").getPiece();
+		assertFalse(knight.move(board.getTile("g3")));
+		assertTrue(knight.move(board.getTile("f3")));
+		assertSame(knight, board.getTile("f3").getPiece());
+		board.unmakeMove();
+		assertSame(knight, board.getTile("g1").getPiece());
+		assertNull(board.getTile("f3").getPiece());
 	}
 
 	@Test
 	public void testPotentialMoves() {
-		fail("Not yet implemented");
+		Board board = Fen.createBoard("4k3/8/8/8/3N4/8/8/N3K3 w - - 0 1");
+		ArrayList<Tile> moves = board.getTile("a1").getPiece().potentialMoves(board);
+		assertEquals(2, moves.size());
+		assertTrue(moves.contains(board.getTile("b3")));
+		assertTrue(moves.contains(board.getTile("c2")));
+		assertEquals(8, board.getTile("d4").getPiece().potentialMoves(board).size());
 	}
 
 	@Test
 	public void testCanMove() {
-		fail("Not yet implemented");
+		Board board = Fen.createBoard(Fen.STARTING_POSITION);
+		assertTrue(board.getTile("b1").getPiece().canMove(board));
+		board = Fen.createBoard("4k3/8/8/8/8/1P6/2P5/N3K3 w - - 0 1");
+		assertFalse(board.getTile("a1").getPiece().canMove(board));
 	}
 
 }
\ No newline at end of file
@@ -1,6 +1,8 @@
 package Tests;
 import static org.junit.Assert.*;
+import java.util.ArrayList;
 import org.junit.Test;
+import Game.*;
 /**
  * 
  * @author Priten Vora
@@ -10,22 +12,56 @@ public class PawnTest {
 
 	@Test
 	public void testCanMoveTo() {
-		fail("Not yet implemented");
+		Board board = Fen.createBoard(Fen.STARTING_POSITION);
+		Piece pawn = board.getTile("e2").getPiece();
+		assertTrue(pawn.canMoveTo(board.getTile("e3"), board));
+		assertTrue(pawn.canMoveTo(board.getTile("e4"), board));
+		assertFalse(pawn.canMoveTo(board.getTile("e5"), board));
+		assertFalse(pawn.canMoveTo(board.getTile("d3"), board));
+
+		board = Fen.createBoard("4k3/8/8/8/8/3p4/4P3/4K3 w - - 0 1");
+		pawn = board.getTile("e2").getPiece();
+		assertTrue(pawn.canMoveTo(board.getTile("d3"), board));
+		assertFalse(pawn.canMoveTo(board.getTile("f3"), board));
+		Piece blackPawn = board.getTile("d3").getPiece();
+		assertTrue(blackPawn.canMoveTo(board.getTile("e2"), board));
+		assertTrue(blackPawn.canMoveTo(board.getTile("d2"), board));
+		assertFalse(blackPawn.canMoveTo(board.getTile("d4"), board));
 	}
 
 	@Test
 	public void testMove() {
-		fail("Not yet implemented");
+		Board board = Fen.createBoard(Fen.STARTING_POSITION);
+		Piece pawn = board.getTile("e2").getPiece();
+		assertTrue(pawn.move(board.getTile("e4")));
+		assertSame(pawn, board.getTile("e4").getPiece());
+		assertNull(board.getTile("e2").getPiece());
+		assertEquals(Color.BLACK, board.getSideToMove());
+		assertFalse(pawn.move(board.getTile("e5")));
+
+		board = Fen.createBoard("8/4P3/8/8/8/8/8/k6K w - - 0 1");
+		assertTrue(board.getTile("e7").getPiece().move(board.getTile("e8")));
+		assertEquals(PieceType.QUEEN, board.getTile("e8").getPiece().getType());
+		board.unmakeMove();
+		assertEquals(PieceType.PAWN, board.getTile("e7").getPiece().getType());
 	}
 
 	@Test
 	public void testPotentialMoves() {
-		fail("Not yet implemented");
+		Board board = Fen.createBoard(Fen.STARTING_POSITION);
+		ArrayList<Tile> moves = board.getTile("e2").getPiece().potentialMoves(board);
+		assertEquals(4, moves.size());
+		assertTrue(moves.contains(board.getTile("e4")));
+		assertTrue(moves.contains(board.getTile("d3")));
+		assertEquals(3, board.getTile("a2").getPiece().potentialMoves(board).size());
 	}
 
 	@Test
 	public void testCanMove() {
-		fail("Not yet implemented");
+		Board board = Fen.createBoard(Fen.STARTING_POSITION);
+		assertTrue(board.getTile("e2").getPiece().canMove(board));
+		board = Fen.createBoard("4k3/8/8/8/8/4p3/4P3/4K3 w - - 0 1");
+		assertFalse(board.getTile("e2").getPiece().canMove(board));
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,206 @@
+package Tests;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import Game.*;
+/**
+ * 
+ * @author Priten Vora
+ *
+ */
+public class PerftTest {
+
+	/**
+	 * Checks the counts for one of the standard positions up to the given depth.
+	 */
+	private void checkPosition(int position, int maxDepth) {
+		Board board = Fen.createBoard(PerftBenchmark.positions()[position]);
+		Perft perft = new Perft(maxDepth);
+		for(int depth = 1; depth <= maxDepth; depth++) {
+			assertEquals("depth " + depth, PerftBenchmark.expected(position, depth), perft.perft(board, depth));
+		}
+	}
+
+	@Test
+	public void testStartingPosition() {
+		checkPosition(0, 4);
+	}
+
+	@Test
+	public void testKiwipete() {
+		checkPosition(1, 3);
+	}
+
+	@Test
+	public void testEndgame() {
+		checkPosition(2, 5);
+	}
+
+	@Test
+	public void testPromotions() {
+		checkPosition(3, 4);
+	}
+
+	@Test
+	public void testMiddlegame() {
+		checkPosition(4, 3);
+		checkPosition(5, 3);
+	}
+
+	/**
+	 * Works out from scratch how many pieces of a color attack a square.
+	 */
+	private int countAttackers(Board board, Color color, int square) {
+		Bitboards bitboards = board.getBitboards();
+		AttackTables tables = board.getAttackTables();
+		SlidingAttacks sliders = board.getSlidingAttacks();
+		long occupied = bitboards.occupied();
+		long queens = bitboards.pieces(color, PieceType.QUEEN);
+		return Long.bitCount(tables.pawnAttacks(color.other(), square) & bitboards.pieces(color, PieceType.PAWN))
+				+ Long.bitCount(tables.knight(square) & bitboards.pieces(color, PieceType.KNIGHT))
+				+ Long.bitCount(tables.king(square) & bitboards.pieces(color, PieceType.KING))
+				+ Long.bitCount(sliders.bishop(square, occupied) & (bitboards.pieces(color, PieceType.BISHOP) | queens))
+				+ Long.bitCount(sliders.rook(square, occupied) & (bitboards.pieces(color, PieceType.ROOK) | queens));
+	}
+
+	/**
+	 * Checks the board's attack maps against counts worked out from
+	 * scratch in every position down to the given depth.
+	 */
+	private void checkAttackMaps(Board board, int depth) {
+		AttackMaps maps = board.getAttackMaps();
+		for(Color color : Color.values()) {
+			long attacked = 0;
+			for(int square = 0; square < board.getWidth() * board.getHeight(); square++) {
+				int count = countAttackers(board, color, square);
+				assertEquals(count, maps.count(color, square));
+				if(count > 0) {
+					attacked |= 1L << square;
+				}
+			}
+			assertEquals(attacked, maps.attacks(color));
+		}
+		if(depth == 0) {
+			return;
+		}
+		MoveList moves = new MoveList();
+		MoveGenerator.generateLegal(board, moves);
+		for(int i = 0; i < moves.size(); i++) {
+			board.makeMove(moves.get(i));
+			checkAttackMaps(board, depth - 1);
+			board.unmakeMove();
+		}
+	}
+
+	@Test
+	public void testAttackMapsStayInSync() {
+		for(String fen : PerftBenchmark.positions()) {
+			checkAttackMaps(Fen.createBoard(fen), 2);
+		}
+	}
+
+	/**
+	 * Checks that the legal captures are exactly the captures and
+	 * promotions among the legal moves, down to the given depth.
+	 */
+	private void checkCaptures(Board board, int depth) {
+		MoveList moves = new MoveList();
+		MoveList captures = new MoveList();
+		MoveGenerator.generateLegal(board, moves);
+		MoveGenerator.generateLegalCaptures(board, captures);
+		int expected = 0;
+		for(int i = 0; i < moves.size(); i++) {
+			int move = moves.get(i);
+			if(Move.isCapture(move) || Move.isPromotion(move)) {
+				expected++;
+				assertTrue(captures.contains(move));
+			}
+		}
+		assertEquals(expected, captures.size());
+		if(depth > 0) {
+			for(int i = 0; i < moves.size(); i++) {
+				board.makeMove(moves.get(i));
+				checkCaptures(board, depth - 1);
+				board.unmakeMove();
+			}
+		}
+	}
+
+	@Test
+	public void testLegalCaptures() {
+		for(String fen : PerftBenchmark.positions()) {
+			checkCaptures(Fen.createBoard(fen), 2);
+		}
+	}
+
+	@Test
+	public void testUnmakeRestoresPosition() {
+		Board board = Fen.createBoard(PerftBenchmark.positions()[1]);
+		long key = board.getZobristKey();
+		long occupied = board.getBitboards().occupied();
+		int pieces = board.getPieces().size();
+		new Perft(3).perft(board, 3);
+		assertEquals(key, board.getZobristKey());
+		assertEquals(key, Zobrist.compute(board));
+		assertEquals(occupied, board.getBitboards().occupied());
+		assertEquals(pieces, board.getPieces().size());
+		assertEquals(Board.CASTLE_WHITE_KINGSIDE | Board.CASTLE_WHITE_QUEENSIDE
+				| Board.CASTLE_BLACK_KINGSIDE | Board.CASTLE_BLACK_QUEENSIDE, board.getCastlingRights());
+	}
+
+	@Test
+	public void testParallelMatchesSerial() {
+		ParallelPerft perft = new ParallelPerft(4, new PerftHashTable(1));
+		for(int position = 0; position < PerftBenchmark.positions().length; position++) {
+			Board board = Fen.createBoard(PerftBenchmark.positions()[position]);
+			assertEquals("position " + position, PerftBenchmark.expected(position, 3), perft.perft(board, 3));
+		}
+		perft.shutdown();
+	}
+
+	/**
+	 * Checks that the legal moves are exactly the pseudo-legal moves that
+	 * do not leave the mover's king attacked, down to the given depth.
+	 */
+	private void checkLegalMoves(Board board, int depth) {
+		MoveList moves = new MoveList();
+		MoveList pseudoLegal = new MoveList();
+		MoveGenerator.generateLegal(board, moves);
+		MoveGenerator.generatePseudoLegal(board, pseudoLegal);
+		int expected = 0;
+		for(int i = 0; i < pseudoLegal.size(); i++) {
+			int move = pseudoLegal.get(i);
+			Color us = board.getSideToMove();
+			board.makeMove(move);
+			boolean legal = !board.isSquareAttacked(board.getWideBitboards().first(Bitboards.index(us, PieceType.KING)), us.other());
+			board.unmakeMove();
+			assertEquals(legal, moves.contains(move));
+			if(legal) {
+				expected++;
+			}
+		}
+		assertEquals(expected, moves.size());
+		if(depth > 0) {
+			for(int i = 0; i < moves.size(); i++) {
+				board.makeMove(moves.get(i));
+				checkLegalMoves(board, depth - 1);
+				board.unmakeMove();
+			}
+		}
+	}
+
+	@Test
+	public void testWideBoards() {
+		Board board = new Board(10, 8);
+		assertNull(board.getBitboards());
+		long key = board.getZobristKey();
+		Perft perft = new Perft(4);
+		assertEquals(23542, perft.perft(board, 3));
+		assertEquals(705128, perft.perft(board, 4));
+		assertEquals(key, board.getZobristKey());
+		assertEquals(key, Zobrist.compute(board));
+		checkLegalMoves(board, 2);
+		board = new Board(12, 12);
+		assertEquals(36252, perft.perft(board, 3));
+		checkLegalMoves(board, 2);
+	}
+}
\ No newline at end of file
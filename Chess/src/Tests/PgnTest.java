@@ -0,0 +1,113 @@
+package Tests;
+import static org.junit.Assert.*;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+import Game.*;
+import Game.Pgn.*;
+/**
+ * 
+ * @author Priten Vora
+ *
+ */
+public class PgnTest {
+
+	private static final String GAMES =
+		"[Event \"First\"]\n[White \"A\"]\n[Black \"B\"]\n\n"
+		+ "1. e4 e5 2. Nf3 {a comment with [brackets]} Nc6 3. Bb5 a6 (3... Nf6 4. O-O) 4. Ba4 Nf6 5. O-O Be7 $1 1/2-1/2\n\n"
+		+ "[Event \"Mate\"]\n\n1.f3 e5 2.g4?? Qh4# 0-1\n\n"
+		+ "[Event \"Illegal\"]\n\n1. e4 e5 2. Ke3 *\n\n"
+		+ "[Event \"Setup\"]\n[FEN \"4k3/P7/8/8/8/8/8/4K3 w - - 0 1\"]\n\n"
+		+ "1. a8=Q+ Kd7 2. Qb7+ ; rest of line\nKd6 *\n\n"
+		+ "[Event \"Small\"]\n[FEN \"k5/6/6/6/6/QK4 w - - 0 1\"]\n\n1. Qa2 Kb6 *\n";
+
+	/**
+	 * Writes the test games to a temporary file.
+	 */
+	private File writeGames() throws IOException {
+		File file = File.createTempFile("games", ".pgn");
+		file.deleteOnExit();
+		FileOutputStream out = new FileOutputStream(file);
+		out.write(GAMES.getBytes(StandardCharsets.US_ASCII));
+		out.close();
+		return file;
+	}
+
+	@Test
+	public void testSanRoundTrip() {
+		for(String fen : PerftBenchmark.positions()) {
+			Board board = Fen.createBoard(fen);
+			MoveList moves = new MoveList();
+			MoveGenerator.generateLegal(board, moves);
+			for(int i = 0; i < moves.size(); i++) {
+				String san = San.toSan(board, moves.get(i));
+				assertEquals(san, moves.get(i), San.parse(board, san));
+			}
+		}
+	}
+
+	@Test
+	public void testSanDisambiguation() {
+		Board board = Fen.createBoard("4k3/8/8/8/8/R7/4K3/R6R w - - 0 1");
+		assertEquals("Rad1", San.toSan(board, San.parse(board, "Rad1")));
+		assertEquals("R1a2", San.toSan(board, San.parse(board, "R1a2")));
+		assertEquals(San.parse(board, "Rab1"), San.parse(board, "Ra1b1"));
+		board = Fen.createBoard("4k3/8/8/8/8/8/8/R3K2R w KQ - 0 1");
+		assertEquals("O-O", San.toSan(board, San.parse(board, "0-0")));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testAmbiguousSan() {
+		San.parse(Fen.createBoard("4k3/8/8/8/8/8/4K3/R6R w - - 0 1"), "Rd1");
+	}
+
+	@Test
+	public void testReaderSplitsGames() throws IOException {
+		PgnReader reader = new PgnReader(writeGames(), 16);
+		PgnGame game = new PgnGame();
+		assertTrue(reader.next(game));
+		assertEquals("First", game.getTag("Event"));
+		assertEquals("B", game.getTag("Black"));
+		assertNull(game.getTag("FEN"));
+		assertTrue(reader.next(game));
+		assertEquals("Mate", game.getTag("Event"));
+		assertTrue(reader.next(game));
+		assertTrue(reader.next(game));
+		assertEquals(4, game.getNumber());
+		assertEquals("4k3/P7/8/8/8/8/8/4K3 w - - 0 1", game.getTag("FEN"));
+		assertTrue(reader.next(game));
+		assertFalse(reader.next(game));
+		reader.close();
+	}
+
+	@Test
+	public void testReplay() throws IOException {
+		final Map<Long, String> results = Collections.synchronizedMap(new HashMap<Long, String>());
+		PgnReplayer replayer = new PgnReplayer(2, 1);
+		replayer.replay(writeGames(), new PgnListener() {
+			@Override
+			public void gameReplayed(PgnGame game, Board board, MoveList moves) {
+				results.put(game.getNumber(), moves.size() + " " + Fen.toFen(board));
+			}
+
+			@Override
+			public void gameFailed(PgnGame game, String error) {
+				results.put(game.getNumber(), error);
+			}
+		});
+		replayer.shutdown();
+		assertEquals(5, replayer.getGames());
+		assertEquals(1, replayer.getFailures());
+		assertEquals(10 + 4 + 4 + 2, replayer.getPlies());
+		assertTrue(results.get(1L).startsWith("10 r1bqk2r/1pppbppp/p1n2n2/4p3/B3P3/5N2/PPPP1PPP/RNBQ1RK1 w kq"));
+		assertEquals("4 rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3", results.get(2L));
+		assertEquals("Ply 3: Illegal move: Ke3", results.get(3L));
+		assertTrue(results.get(4L).startsWith("4 8/1Q6/3k4/8/8/8/8/4K3 w"));
+		assertTrue(results.get(5L), results.get(5L).startsWith("2 1k4/6/6/6/Q5/1K4 w"));
+	}
+}
\ No newline at end of file
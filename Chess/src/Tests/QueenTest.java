@@ -1,6 +1,7 @@
 package Tests;
 import static org.junit.Assert.*;
 import org.junit.Test;
+import Game.*;
 /**
  * 
  * @author Priten Vora
@@ -10,22 +11,36 @@ public class QueenTest {
 
 	@Test
 	public void testCanMoveTo() {
-		fail("Not yet implemented");
+		Board board = Fen.createBoard("4k3/8/8/8/3Q4/8/8/3K4 w - - 0 1");
+		Piece queen = board.getTile("d4").getPiece();
+		assertTrue(queen.canMoveTo(board.getTile("d8"), board));
+		assertTrue(queen.canMoveTo(board.getTile("h8"), board));
+		assertTrue(queen.canMoveTo(board.getTile("a1"), board));
+		assertFalse(queen.canMoveTo(board.getTile("d1"), board));
+		assertFalse(queen.canMoveTo(board.getTile("e6"), board));
 	}
 
 	@Test
 	public void testMove() {
-		fail("Not yet implemented");
+		Board board = Fen.createBoard("4k3/8/8/8/3Q4/8/8/4K3 w - - 0 1");
+		Piece queen = board.getTile("d4").getPiece();
+		assertFalse(queen.move(board.getTile("e6")));
+		assertTrue(queen.move(board.getTile("a7")));
+		assertSame(queen, board.getTile("a7").getPiece());
 	}
 
 	@Test
 	public void testPotentialMoves() {
-		fail("Not yet implemented");
+		Board board = Fen.createBoard("4k3/8/8/8/3Q4/8/8/4K3 w - - 0 1");
+		assertEquals(27, board.getTile("d4").getPiece().potentialMoves(board).size());
 	}
 
 	@Test
 	public void testCanMove() {
-		fail("Not yet implemented");
+		Board board = Fen.createBoard(Fen.STARTING_POSITION);
+		assertFalse(board.getTile("d1").getPiece().canMove(board));
+		board = Fen.createBoard("4k3/8/8/8/3Q4/8/8/4K3 w - - 0 1");
+		assertTrue(board.getTile("d4").getPiece().canMove(board));
 	}
 
 }
\ No newline at end of file
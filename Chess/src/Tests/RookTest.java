@@ -1,6 +1,7 @@
 package Tests;
 import static org.junit.Assert.*;
 import org.junit.Test;
+import Game.*;
 /**
  * 
  * @author Priten Vora
@@ -10,21 +11,37 @@ public class RookTest {
 
 	@Test
 	public void testCanMoveTo() {
-		fail("Not yet implemented");
+		Board board = Fen.createBoard("4k3/8/8/8/8/8/8/R3K3 w - - 0 1");
+		Piece rook = board.getTile("a1").getPiece();
+		assertTrue(rook.canMoveTo(board.getTile("a8"), board));
+		assertTrue(rook.canMoveTo(board.getTile("d1"), board));
+		assertFalse(rook.canMoveTo(board.getTile("e1"), board));
+		assertFalse(rook.canMoveTo(board.getTile("f1"), board));
+		assertFalse(rook.canMoveTo(board.getTile("b2"), board));
 	}
 
 	@Test
 	public void testMove() {
-		fail("Not yet implemented");
+		Board board = Fen.createBoard("4k3/8/8/8/8/8/8/R3K3 w Q - 0 1");
+		Piece rook = board.getTile("a1").getPiece();
+		assertFalse(rook.move(board.getTile("b2")));
+		assertTrue(rook.move(board.getTile("a7")));
+		assertSame(rook, board.getTile("a7").getPiece());
+		assertEquals(0, board.getCastlingRights() & Board.CASTLE_WHITE_QUEENSIDE);
 	}
 
 	@Test
 	public void testPotentialMoves() {
-		fail("Not yet implemented");
+		Board board = Fen.createBoard("4k3/8/8/8/8/8/8/R3K3 w - - 0 1");
+		assertEquals(11, board.getTile("a1").getPiece().potentialMoves(board).size());
 	}
 
 	@Test
 	public void testCanMove() {
-		fail("Not yet implemented");
+		Board board = Fen.createBoard(Fen.STARTING_POSITION);
+		assertFalse(board.getTile("a1").getPiece().canMove(board));
+		board = Fen.createBoard("4k3/8/8/8/8/8/8/R3K3 w - - 0 1");
+		assertTrue(board.getTile("a1").getPiece().canMove(board));
 	}
+
 }
\ No newline at end of file
@@ -0,0 +1,86 @@
+package Tests;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import Game.*;
+import Game.Eval.MaterialEvaluator;
+import Game.Search.*;
+/**
+ * 
+ * @author Priten Vora
+ *
+ */
+public class SearchTest {
+
+	/**
+	 * Searches the position given as FEN with a fresh searcher.
+	 */
+	private SearchResult search(String fen, SearchLimits limits) {
+		Searcher searcher = new Searcher(new TranspositionTable(4), new MaterialEvaluator());
+		return searcher.search(Fen.createBoard(fen), limits);
+	}
+
+	@Test
+	public void testFindsMateInOne() {
+		String fen = "6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1";
+		SearchResult result = search(fen, SearchLimits.depth(4));
+		assertEquals("a1a8", Move.toString(result.getBestMove(), Fen.createBoard(fen)));
+		assertTrue(Searcher.isMate(result.getScore()));
+		assertEquals(1, Searcher.mateIn(result.getScore()));
+	}
+
+	@Test
+	public void testWinsHangingQueen() {
+		String fen = "4k3/8/8/3q4/8/8/8/3RK3 w - - 0 1";
+		SearchResult result = search(fen, SearchLimits.depth(3));
+		assertEquals("d1d5", Move.toString(result.getBestMove(), Fen.createBoard(fen)));
+		assertTrue(result.getScore() > 0);
+	}
+
+	@Test
+	public void testStalemateHasNoMove() {
+		SearchResult result = search("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1", SearchLimits.depth(3));
+		assertEquals(Move.NONE, result.getBestMove());
+		assertEquals(0, result.getScore());
+	}
+
+	@Test
+	public void testNodeLimit() {
+		SearchLimits limits = new SearchLimits();
+		limits.setNodes(5000);
+		SearchResult result = search(Fen.STARTING_POSITION, limits);
+		assertTrue(result.getNodes() <= 5000);
+		assertTrue(result.getBestMove() != Move.NONE);
+	}
+
+	@Test
+	public void testLeavesBoardUnchanged() {
+		Board board = Fen.createBoard(PerftBenchmark.positions()[1]);
+		long key = board.getZobristKey();
+		new Searcher(new TranspositionTable(4), new MaterialEvaluator()).search(board, SearchLimits.depth(4));
+		assertEquals(key, board.getZobristKey());
+		assertEquals(0, board.getPly());
+	}
+
+	@Test
+	public void testLazySmpFindsMate() {
+		String fen = "6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1";
+		LazySmpSearcher searcher = new LazySmpSearcher(3, new TranspositionTable(4), new MaterialEvaluator());
+		SearchResult result = searcher.search(Fen.createBoard(fen), SearchLimits.depth(5));
+		searcher.shutdown();
+		assertEquals("a1a8", Move.toString(result.getBestMove(), Fen.createBoard(fen)));
+		assertEquals(3, searcher.getThreadNodes().length);
+		assertTrue(result.getNodes() >= searcher.getThreadNodes()[0]);
+	}
+
+	@Test(timeout = 60000)
+	public void testShortLazySmpSearchesFinish() {
+		for(int threads = 2; threads <= 4; threads++) {
+			LazySmpSearcher searcher = new LazySmpSearcher(threads, new TranspositionTable(4), new MaterialEvaluator());
+			for(int i = 0; i < 200; i++) {
+				SearchResult result = searcher.search(new Board(8, 8), SearchLimits.depth(1));
+				assertEquals(1, result.getDepth());
+			}
+			searcher.shutdown();
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,145 @@
+package Tests;
+import static org.junit.Assert.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import org.junit.Test;
+import Game.*;
+import Game.Search.*;
+import Game.Tablebase.*;
+/**
+ * 
+ * @author Priten Vora
+ *
+ */
+public class TablebaseTest {
+
+	private static File tables;		// The 8x8 tables, generated by the first test that needs them.
+
+	/**
+	 * Generates the king and queen, king and rook, and king and pawn
+	 * against king tables into a temporary directory, once.
+	 */
+	private static synchronized File tables() throws IOException {
+		if(tables == null) {
+			File directory = createDirectory();
+			TablebaseGenerator generator = new TablebaseGenerator(directory, 8, 8, 2);
+			assertEquals(20, generator.generate("KQvK"));
+			assertEquals(32, generator.generate("KRvK"));
+			assertEquals(56, generator.generate("KPvK"));
+			deleteOnExit(directory);
+			tables = directory;
+		}
+		return tables;
+	}
+
+	/**
+	 * Creates an empty temporary directory.
+	 */
+	private static File createDirectory() throws IOException {
+		File directory = Files.createTempDirectory("tablebases").toFile();
+		directory.deleteOnExit();
+		return directory;
+	}
+
+	/**
+	 * Deletes the files in a temporary directory when the tests finish.
+	 */
+	private static void deleteOnExit(File directory) {
+		for(File file : directory.listFiles()) {
+			file.deleteOnExit();
+		}
+	}
+
+	@Test
+	public void testMates() throws IOException {
+		TablebaseProber prober = new TablebaseProber(tables(), 8, 8);
+		assertEquals(3, prober.getMaxPieces());
+		Board board = Fen.createBoard("k7/7Q/1K6/8/8/8/8/8 w - - 0 1");
+		assertEquals(1, prober.probeDtm(board));
+		assertEquals(TablebaseProber.WIN, prober.probeWdl(board));
+		board = Fen.createBoard("k7/1Q6/1K6/8/8/8/8/8 b - - 0 1");
+		assertEquals(0, prober.probeDtm(board));
+		assertEquals(TablebaseProber.LOSS, prober.probeWdl(board));
+		board = Fen.createBoard("k7/8/1QK5/8/8/8/8/8 b - - 0 1");
+		assertEquals(TablebaseProber.DTM_DRAW, prober.probeDtm(board));
+		assertEquals(TablebaseProber.DRAW, prober.probeWdl(board));
+	}
+
+	@Test
+	public void testColorsSwapped() throws IOException {
+		TablebaseProber prober = new TablebaseProber(tables(), 8, 8);
+		Board board = Fen.createBoard("K7/7q/1k6/8/8/8/8/8 b - - 0 1");
+		assertEquals(1, prober.probeDtm(board));
+		board = Fen.createBoard("8/8/8/8/8/8/3k1p2/7K w - - 0 1");
+		assertEquals(TablebaseProber.LOSS, prober.probeWdl(board));
+		assertEquals(prober.probeDtm(Fen.createBoard("7k/3K1P2/8/8/8/8/8/8 b - - 0 1")), prober.probeDtm(board));
+	}
+
+	@Test
+	public void testKnownDraws() throws IOException {
+		TablebaseProber prober = new TablebaseProber(tables(), 8, 8);
+
+		// With the king on the sixth rank in front of its pawn, it wins whoever is to move.
+		assertEquals(TablebaseProber.WIN, prober.probeWdl(Fen.createBoard("4k3/8/4K3/4P3/8/8/8/8 w - - 0 1")));
+		assertEquals(TablebaseProber.LOSS, prober.probeWdl(Fen.createBoard("4k3/8/4K3/4P3/8/8/8/8 b - - 0 1")));
+		assertEquals(TablebaseProber.DTM_DRAW, prober.probeDtm(Fen.createBoard("4k3/4P3/4K3/8/8/8/8/8 b - - 0 1")));
+
+		// A rook pawn cannot be won once the king is in the corner.
+		assertEquals(TablebaseProber.DRAW, prober.probeWdl(Fen.createBoard("7k/8/8/8/7P/8/8/6K1 w - - 0 1")));
+	}
+
+	@Test
+	public void testNotInTables() throws IOException {
+		TablebaseProber prober = new TablebaseProber(tables(), 8, 8);
+		assertEquals(TablebaseProber.UNKNOWN, prober.probeDtm(new Board(8, 8)));
+		assertEquals(TablebaseProber.UNKNOWN, prober.probeWdl(Fen.createBoard("4k3/8/8/8/8/8/8/R3K3 w Q - 0 1")));
+		assertEquals(TablebaseProber.UNKNOWN, prober.probeWdl(Fen.createBoard("4k3/8/8/8/8/8/8/1NN1K3 w - - 0 1")));
+	}
+
+	@Test
+	public void testManyEndgames() throws IOException {
+		// Every pair of pieces, most of them with no table, is far more endgames than the prober starts with room for.
+		TablebaseProber prober = new TablebaseProber(tables(), 8, 8);
+		String symbols = "KQRBNPkqrbnp";
+		int[] first = new int[symbols.length() * symbols.length()];
+		for(int i = 0; i < first.length; i++) {
+			String fen = "8/8/8/8/" + symbols.charAt(i / symbols.length()) + "1" + symbols.charAt(i % symbols.length())
+					+ "5/8/8/8 w - - 0 1";
+			first[i] = prober.probeWdl(Fen.createBoard(fen));
+		}
+		assertEquals(TablebaseProber.DRAW, first[symbols.indexOf('k')]);
+		assertEquals(TablebaseProber.UNKNOWN, first[symbols.indexOf('K')]);
+		for(int i = 0; i < first.length; i++) {
+			String fen = "8/8/8/8/" + symbols.charAt(i / symbols.length()) + "1" + symbols.charAt(i % symbols.length())
+					+ "5/8/8/8 w - - 0 1";
+			assertEquals(first[i], prober.probeWdl(Fen.createBoard(fen)));
+		}
+		assertEquals(1, prober.probeDtm(Fen.createBoard("k7/7Q/1K6/8/8/8/8/8 w - - 0 1")));
+		prober.close();
+		assertEquals(1, prober.probeDtm(Fen.createBoard("k7/7Q/1K6/8/8/8/8/8 w - - 0 1")));
+	}
+
+	@Test
+	public void testOtherBoardSize() throws IOException {
+		File directory = createDirectory();
+		TablebaseGenerator generator = new TablebaseGenerator(directory, 6, 5, 2);
+		generator.generate("KPvK");
+		deleteOnExit(directory);
+		TablebaseProber prober = new TablebaseProber(directory, 6, 5);
+		assertEquals(TablebaseProber.UNKNOWN, prober.probeWdl(Fen.createBoard("4k3/8/4K3/4P3/8/8/8/8 w - - 0 1")));
+		assertEquals(1, prober.probeDtm(Fen.createBoard("k5/2P3/1K4/6/6 w - - 0 1")));
+		assertEquals(TablebaseProber.DTM_DRAW, prober.probeDtm(Fen.createBoard("k5/2P3/1K4/6/6 b - - 0 1")));
+	}
+
+	@Test
+	public void testSearchUsesTables() throws IOException {
+		Searcher searcher = new Searcher(new TranspositionTable(4), new Game.Eval.MaterialEvaluator());
+		searcher.setTablebases(new TablebaseProber(tables(), 8, 8));
+		Board board = Fen.createBoard("8/8/8/4k3/8/8/8/R3K3 w - - 0 1");
+		int dtm = new TablebaseProber(tables(), 8, 8).probeDtm(board);
+		SearchResult result = searcher.search(board, SearchLimits.depth(2));
+		assertTrue(Searcher.isMate(result.getScore()));
+		assertEquals((dtm + 1) / 2, Searcher.mateIn(result.getScore()));
+	}
+}
\ No newline at end of file
@@ -0,0 +1,101 @@
+package Tests;
+import static org.junit.Assert.*;
+import java.lang.reflect.Field;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.junit.Test;
+import Game.Move;
+import Game.Search.TranspositionTable;
+/**
+ * 
+ * @author Priten Vora
+ *
+ */
+public class TranspositionTableTest {
+
+	private static final long KEY = 0x0ABCDEF00ABCDEF0L;	// A key whose bucket is the first one.
+
+	/**
+	 * Returns a key that differs from KEY but falls in the same bucket.
+	 */
+	private static long sameBucket(int i) {
+		return KEY ^ ((long)i << 40) ^ ((long)i << 8);
+	}
+
+	@Test
+	public void testStoreAndProbe() {
+		TranspositionTable table = new TranspositionTable(1);
+		assertEquals(TranspositionTable.MISS, table.probe(KEY));
+		table.store(KEY, 12345, -1234, 7, TranspositionTable.BOUND_EXACT);
+		long entry = table.probe(KEY);
+		assertNotEquals(TranspositionTable.MISS, entry);
+		assertEquals(12345, TranspositionTable.move(entry));
+		assertEquals(-1234, TranspositionTable.score(entry));
+		assertEquals(7, TranspositionTable.depth(entry));
+		assertEquals(TranspositionTable.BOUND_EXACT, TranspositionTable.bound(entry));
+
+		// A result with no move keeps the one already known.
+		table.store(KEY, Move.NONE, 50, 8, TranspositionTable.BOUND_LOWER);
+		entry = table.probe(KEY);
+		assertEquals(12345, TranspositionTable.move(entry));
+		assertEquals(50, TranspositionTable.score(entry));
+		assertEquals(TranspositionTable.BOUND_LOWER, TranspositionTable.bound(entry));
+
+		table.clear();
+		assertEquals(TranspositionTable.MISS, table.probe(KEY));
+	}
+
+	@Test
+	public void testDeepestEntryIsKept() {
+		TranspositionTable table = new TranspositionTable(1);
+		long deep = sameBucket(1);
+		long shallow = sameBucket(2);
+		long shallower = sameBucket(3);
+		long deeper = sameBucket(4);
+
+		// Shallower results go in the always-replaced entry and push each other out.
+		table.store(deep, 1, 0, 10, TranspositionTable.BOUND_EXACT);
+		table.store(shallow, 2, 0, 3, TranspositionTable.BOUND_EXACT);
+		assertEquals(10, TranspositionTable.depth(table.probe(deep)));
+		assertEquals(3, TranspositionTable.depth(table.probe(shallow)));
+		table.store(shallower, 3, 0, 2, TranspositionTable.BOUND_EXACT);
+		assertEquals(10, TranspositionTable.depth(table.probe(deep)));
+		assertEquals(TranspositionTable.MISS, table.probe(shallow));
+		assertEquals(2, TranspositionTable.depth(table.probe(shallower)));
+
+		// A deeper result takes over the depth-preferred entry.
+		table.store(deeper, 4, 0, 12, TranspositionTable.BOUND_EXACT);
+		assertEquals(TranspositionTable.MISS, table.probe(deep));
+		assertEquals(12, TranspositionTable.depth(table.probe(deeper)));
+		assertEquals(2, TranspositionTable.depth(table.probe(shallower)));
+	}
+
+	@Test
+	public void testOldEntriesAreReplaced() {
+		TranspositionTable table = new TranspositionTable(1);
+		long old = sameBucket(1);
+		long fresh = sameBucket(2);
+		table.store(old, 1, 0, 20, TranspositionTable.BOUND_EXACT);
+		assertEquals(1, table.hashfull());
+		table.newSearch();
+		assertEquals(0, table.hashfull());
+		assertEquals(20, TranspositionTable.depth(table.probe(old)));
+		table.store(fresh, 2, 0, 1, TranspositionTable.BOUND_UPPER);
+		assertEquals(TranspositionTable.MISS, table.probe(old));
+		assertEquals(1, TranspositionTable.depth(table.probe(fresh)));
+	}
+
+	@Test
+	public void testMismatchesAreMisses() throws Exception {
+		TranspositionTable table = new TranspositionTable(1);
+		table.store(KEY, 12345, 100, 5, TranspositionTable.BOUND_EXACT);
+		assertEquals(TranspositionTable.MISS, table.probe(sameBucket(1)));
+
+		// Tear the entry the way two racing writers can: one's data next to the other's key xor data.
+		Field field = TranspositionTable.class.getDeclaredField("slots");
+		field.setAccessible(true);
+		AtomicLongArray slots = (AtomicLongArray)field.get(table);
+		assertEquals(KEY, slots.get(0) ^ slots.get(1));
+		slots.set(1, slots.get(1) + 1);
+		assertEquals(TranspositionTable.MISS, table.probe(KEY));
+	}
+}
\ No newline at end of file
@@ -0,0 +1,181 @@
+package Tests;
+import static org.junit.Assert.*;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import Game.Engine.*;
+/**
+ * 
+ * @author Priten Vora
+ *
+ */
+public class UciTest {
+
+	private final LinkedBlockingQueue<String> lines = new LinkedBlockingQueue<String>();
+	private PipedOutputStream commands;
+	private Thread frontEnd;
+
+	/**
+	 * Starts a front end reading commands from a pipe and putting each
+	 * line it writes into the queue.
+	 */
+	private void start() throws IOException {
+		commands = new PipedOutputStream();
+		final PipedInputStream input = new PipedInputStream(commands);
+		OutputStream output = new OutputStream() {
+			private final StringBuilder line = new StringBuilder();
+
+			@Override
+			public void write(int b) {
+				if(b == '\n') {
+					lines.add(line.toString());
+					line.setLength(0);
+				}
+				else {
+					line.append((char)b);
+				}
+			}
+		};
+		final Engine engine = new Engine();
+		final UciFrontEnd uci = new UciFrontEnd(engine, input, new PrintStream(output, true, "US-ASCII"));
+		frontEnd = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					uci.run();
+				}
+				catch(IOException e) {
+					lines.add("failed: " + e);
+				}
+				engine.shutdown();
+			}
+		});
+		frontEnd.start();
+	}
+
+	/**
+	 * Sends a command to the front end.
+	 */
+	private void send(String command) throws IOException {
+		commands.write((command + "\n").getBytes(StandardCharsets.US_ASCII));
+		commands.flush();
+	}
+
+	/**
+	 * Waits for the next line starting with the given text, skipping others.
+	 */
+	private String expect(String start) throws InterruptedException {
+		while(true) {
+			String line = lines.poll(10, TimeUnit.SECONDS);
+			assertNotNull(line);
+			if(line.startsWith(start)) {
+				return line;
+			}
+		}
+	}
+
+	@Test
+	public void testHandshake() throws Exception {
+		start();
+		send("uci");
+		assertEquals("id name Chess", expect("id name"));
+		expect("uciok");
+		send("isready");
+		expect("readyok");
+		send("quit");
+		frontEnd.join();
+	}
+
+	@Test
+	public void testMateSearch() throws Exception {
+		start();
+		send("position fen 6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+		send("go depth 3");
+		assertTrue(expect("info depth 1").contains("score mate 1"));
+		assertEquals("bestmove a1a8", expect("bestmove"));
+		send("position startpos moves e2e4 e7e5 g1f3");
+		send("go depth 1");
+		String best = expect("bestmove");
+		assertFalse(best.equals("bestmove 0000"));
+		send("quit");
+		frontEnd.join();
+	}
+
+	@Test
+	public void testAnswersDuringSearch() throws Exception {
+		start();
+		send("position startpos");
+		send("go infinite");
+		expect("info depth 2");
+		long start = System.nanoTime();
+		send("isready");
+		expect("readyok");
+		assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(100));
+		assertTrue(lines.isEmpty() || !lines.peek().startsWith("bestmove"));
+		send("stop");
+		assertFalse(expect("bestmove").equals("bestmove 0000"));
+		send("quit");
+		frontEnd.join();
+	}
+
+	@Test
+	public void testStopBeforeSearchStarts() throws Exception {
+		start();
+		send("go infinite");
+		send("stop");
+		expect("bestmove");
+		send("isready");
+		expect("readyok");
+		send("quit");
+		frontEnd.join();
+	}
+
+	@Test
+	public void testPonderHit() throws Exception {
+		start();
+		send("position startpos moves e2e4");
+		send("go ponder movetime 1000");
+		expect("info depth 1");
+
+		// The time only counts once the opponent has moved.
+		Thread.sleep(1500);
+		for(String line : lines) {
+			assertFalse(line.startsWith("bestmove"));
+		}
+		long start = System.nanoTime();
+		send("ponderhit");
+		assertFalse(expect("bestmove").equals("bestmove 0000"));
+		long elapsed = System.nanoTime() - start;
+		assertTrue(elapsed > TimeUnit.MILLISECONDS.toNanos(400));
+		assertTrue(elapsed < TimeUnit.MILLISECONDS.toNanos(3000));
+		send("quit");
+		frontEnd.join();
+	}
+
+	@Test(timeout = 60000)
+	public void testShortSearchesWithThreads() throws Exception {
+		start();
+		send("setoption name Threads value 4");
+		for(int i = 0; i < 200; i++) {
+			send("position startpos");
+			send("go depth 1");
+			send("isready");
+			send("go depth 1");
+			send("stop");
+			send("isready");
+		}
+		for(int i = 0; i < 400; i++) {
+			expect("bestmove");
+		}
+		send("isready");
+		expect("readyok");
+		send("quit");
+		frontEnd.join();
+	}
+}
\ No newline at end of file